@@ -0,0 +1,97 @@
+package net.rushhourgame.core.pathfinding;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 双方向ダイクストラ法と縮約階層の経路探索性能の比較
+ * 格子状の線路網（上下左右に双方向の線路）でランダムな接続点間の経路を探索する。
+ * size=160 の場合、接続点 25,600・線路 101,760 本となる。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathSearchBenchmark {
+
+    private static final int QUERY_COUNT = 1024;
+
+    @Param({"160"})
+    private int size;
+
+    private BidirectionalDijkstra dijkstra;
+    private ContractionHierarchySearcher hierarchy;
+    private int[] sources;
+    private int[] targets;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        TrackGraph graph = gridGraph(size, new Random(1));
+        dijkstra = new BidirectionalDijkstra(graph);
+        hierarchy = new ContractionHierarchySearcher(ContractionHierarchy.build(graph));
+        Random random = new Random(2);
+        sources = new int[QUERY_COUNT];
+        targets = new int[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            sources[i] = random.nextInt(graph.nodeCount());
+            targets[i] = random.nextInt(graph.nodeCount());
+        }
+    }
+
+    @Benchmark
+    public PathResult bidirectionalDijkstra() {
+        int i = nextQuery();
+        return dijkstra.search(sources[i], targets[i]);
+    }
+
+    @Benchmark
+    public PathResult contractionHierarchy() {
+        int i = nextQuery();
+        return hierarchy.search(sources[i], targets[i]);
+    }
+
+    private int nextQuery() {
+        cursor = (cursor + 1) & (QUERY_COUNT - 1);
+        return cursor;
+    }
+
+    static TrackGraph gridGraph(int size, Random random) {
+        TrackGraph.Builder builder = TrackGraph.builder();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if (x + 1 < size) {
+                    addBothWays(builder, junction(x, y), junction(x + 1, y), random);
+                }
+                if (y + 1 < size) {
+                    addBothWays(builder, junction(x, y), junction(x, y + 1), random);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static void addBothWays(TrackGraph.Builder builder, String a, String b, Random random) {
+        double travelTime = 1.0 + random.nextDouble() * 9.0;
+        builder.addTrack(a + ">" + b, a, b, travelTime);
+        builder.addTrack(b + ">" + a, b, a, travelTime);
+    }
+
+    private static String junction(int x, int y) {
+        return x + "," + y;
+    }
+}
@@ -0,0 +1,178 @@
+package net.rushhourgame.core.resident;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.rushhourgame.models.resident.EconomicStatus;
+import net.rushhourgame.models.resident.PersonalInfo;
+import net.rushhourgame.models.resident.TravelPlan;
+
+/**
+ * 住民のコンポーネント走査（1システム分）の性能
+ * 出発時刻を過ぎた住民の満足度を時間価値に応じて下げる処理を、列の直接走査・{@link ResidentStore#forEach}・
+ * 住民ごとのレコードを並べた配列で比較する。フィールド単位のアクセスはヒープ格納とヒープ外格納
+ * （{@link ResidentStorage#OFF_HEAP}）の両方で測る。住民の約1%は削除済み、約10%は移動計画を持たない。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ResidentIterationBenchmark {
+
+    private static final int REQUIRED = ResidentStore.PERSONAL_INFO | ResidentStore.TRAVEL_PLAN
+        | ResidentStore.ECONOMIC_STATUS;
+    private static final float NOW = 30_000f;
+    private static final float PENALTY = 1e-6f;
+
+    @Param({"1000000"})
+    private int residents;
+
+    private ResidentStore store;
+    private ResidentStore offHeapStore;
+    private Resident[] objects;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        store = new ResidentStore(residents, ResidentStorage.HEAP);
+        offHeapStore = new ResidentStore(residents, ResidentStorage.OFF_HEAP);
+        objects = new Resident[residents];
+        for (int i = 0; i < residents; i++) {
+            PersonalInfo personalInfo = new PersonalInfo((short) random.nextInt(90), (short) random.nextInt(20),
+                random.nextFloat());
+            TravelPlan travelPlan = new TravelPlan(random.nextInt(1000), random.nextInt(1000),
+                random.nextFloat() * 86_400f, random.nextInt(100));
+            EconomicStatus economicStatus = new EconomicStatus(random.nextInt(1_000_000), random.nextFloat() * 5_000f,
+                random.nextFloat() * 50f);
+            int index = store.create();
+            store.setPersonalInfo(index, personalInfo);
+            store.setEconomicStatus(index, economicStatus);
+            offHeapStore.create();
+            offHeapStore.setPersonalInfo(index, personalInfo);
+            offHeapStore.setEconomicStatus(index, economicStatus);
+            if (random.nextInt(10) != 0) {
+                store.setTravelPlan(index, travelPlan);
+                offHeapStore.setTravelPlan(index, travelPlan);
+                objects[i] = new Resident(personalInfo, travelPlan, economicStatus);
+            } else {
+                objects[i] = new Resident(personalInfo, null, economicStatus);
+            }
+        }
+        for (int i = 0; i < residents; i += 100) {
+            store.remove(i);
+            offHeapStore.remove(i);
+            objects[i] = null;
+        }
+    }
+
+    /**
+     * 列を直接走査
+     */
+    @Benchmark
+    public float columns() {
+        byte[] components = store.components();
+        float[] departureTimes = store.departureTimes();
+        float[] timeValues = store.timeValues();
+        float[] satisfactions = store.satisfactions();
+        float total = 0f;
+        for (int i = 0, n = store.highWaterMark(); i < n; i++) {
+            byte c = components[i];
+            if (c != ResidentStore.FREE && (c & REQUIRED) == REQUIRED && departureTimes[i] < NOW) {
+                float satisfaction = Math.max(0f, satisfactions[i] - (NOW - departureTimes[i]) * timeValues[i] * PENALTY);
+                satisfactions[i] = satisfaction;
+                total += satisfaction;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * {@link ResidentStore#forEach} で走査
+     */
+    @Benchmark
+    public float forEach() {
+        float[] departureTimes = store.departureTimes();
+        float[] timeValues = store.timeValues();
+        float[] satisfactions = store.satisfactions();
+        float[] total = new float[1];
+        store.forEach(REQUIRED, i -> {
+            if (departureTimes[i] < NOW) {
+                float satisfaction = Math.max(0f, satisfactions[i] - (NOW - departureTimes[i]) * timeValues[i] * PENALTY);
+                satisfactions[i] = satisfaction;
+                total[0] += satisfaction;
+            }
+        });
+        return total[0];
+    }
+
+    /**
+     * {@link ResidentStore#forEach} とフィールド単位のアクセスで走査（ヒープ格納）
+     */
+    @Benchmark
+    public float accessors() {
+        return updateThroughAccessors(store);
+    }
+
+    /**
+     * {@link ResidentStore#forEach} とフィールド単位のアクセスで走査（ヒープ外格納）
+     */
+    @Benchmark
+    public float offHeapAccessors() {
+        return updateThroughAccessors(offHeapStore);
+    }
+
+    private static float updateThroughAccessors(ResidentStore target) {
+        float[] total = new float[1];
+        target.forEach(REQUIRED, i -> {
+            float departureTime = target.departureTime(i);
+            if (departureTime < NOW) {
+                float satisfaction = Math.max(0f,
+                    target.satisfaction(i) - (NOW - departureTime) * target.timeValue(i) * PENALTY);
+                target.setSatisfaction(i, satisfaction);
+                total[0] += satisfaction;
+            }
+        });
+        return total[0];
+    }
+
+    /**
+     * 比較用：住民ごとのレコードを走査（レコードは不変のため満足度の更新で作り直す）
+     */
+    @Benchmark
+    public float objects() {
+        float total = 0f;
+        for (int i = 0; i < objects.length; i++) {
+            Resident resident = objects[i];
+            if (resident == null || resident.travelPlan() == null) {
+                continue;
+            }
+            float departureTime = resident.travelPlan().departureTime();
+            if (departureTime < NOW) {
+                PersonalInfo personalInfo = resident.personalInfo();
+                float satisfaction = Math.max(0f, personalInfo.satisfaction()
+                    - (NOW - departureTime) * resident.economicStatus().timeValue() * PENALTY);
+                objects[i] = new Resident(new PersonalInfo(personalInfo.age(), personalInfo.occupation(), satisfaction),
+                    resident.travelPlan(), resident.economicStatus());
+                total += satisfaction;
+            }
+        }
+        return total;
+    }
+
+    private record Resident(PersonalInfo personalInfo, TravelPlan travelPlan, EconomicStatus economicStatus) {
+    }
+}
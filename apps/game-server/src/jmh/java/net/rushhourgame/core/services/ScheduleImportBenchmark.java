@@ -0,0 +1,161 @@
+package net.rushhourgame.core.services;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import net.rushhourgame.core.CoreApplication;
+import net.rushhourgame.core.database.entities.ScheduleEntity;
+import net.rushhourgame.core.database.entities.StopTimeEntity;
+import net.rushhourgame.core.database.entities.TrainEntity;
+import net.rushhourgame.core.database.repositories.ScheduleRepository;
+import net.rushhourgame.core.database.repositories.StopTimeRepository;
+import net.rushhourgame.core.database.repositories.TrainRepository;
+import net.rushhourgame.models.common.TrainType;
+import net.rushhourgame.models.timetable.Schedule;
+import net.rushhourgame.models.timetable.StopTime;
+
+/**
+ * 時刻表の一括取り込み性能（ScheduleRepository#saveAll と ScheduleService#importSchedules の比較）
+ * 1回の操作で schedules 件のスケジュールと、それぞれ stops 件の停車時間を1トランザクションで保存する。
+ * 既定はインメモリのH2。PostgreSQLで測る場合は -Dbench.datasource.url 等で接続先を指定する。
+ * 1回の操作は数百ミリ秒で揺れが大きいため、反復回数を多めに取る。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 30)
+@Fork(1)
+public class ScheduleImportBenchmark {
+
+    @Param({"500"})
+    private int schedules;
+
+    @Param({"40"})
+    private int stops;
+
+    private ConfigurableApplicationContext context;
+    private ScheduleService scheduleService;
+    private ScheduleRepository scheduleRepository;
+    private StopTimeRepository stopTimeRepository;
+    private TrainRepository trainRepository;
+    private TransactionTemplate transactionTemplate;
+    private List<Schedule> timetable;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(CoreApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "rushhour.simulation.enabled=false",
+                "rushhour.grpc.enabled=false",
+                "spring.datasource.url=" + System.getProperty("bench.datasource.url", "jdbc:h2:mem:schedule-import;MODE=PostgreSQL"),
+                "spring.datasource.username=" + System.getProperty("bench.datasource.username", "sa"),
+                "spring.datasource.password=" + System.getProperty("bench.datasource.password", ""),
+                "spring.jpa.hibernate.ddl-auto=create-drop")
+            .run();
+        scheduleService = context.getBean(ScheduleService.class);
+        scheduleRepository = context.getBean(ScheduleRepository.class);
+        stopTimeRepository = context.getBean(StopTimeRepository.class);
+        trainRepository = context.getBean(TrainRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        List<TrainEntity> trains = new ArrayList<>(schedules);
+        for (int i = 0; i < schedules; i++) {
+            TrainEntity train = new TrainEntity();
+            train.setOwnerId("owner-1");
+            train.setTrainType(TrainType.LOCAL);
+            train.setTotalCapacity(500);
+            train.setDoorCount(4);
+            train.setIsPlayerControlled(false);
+            trains.add(train);
+        }
+        trains = trainRepository.saveAll(trains);
+        timetable = new ArrayList<>(schedules);
+        for (int i = 0; i < schedules; i++) {
+            Schedule schedule = new Schedule();
+            schedule.setRouteId("route-" + (i % 20));
+            schedule.setTrainId(trains.get(i).getId());
+            List<StopTime> stopTimes = new ArrayList<>(stops);
+            for (int s = 0; s < stops; s++) {
+                StopTime stopTime = new StopTime();
+                stopTime.setStationId("station-" + s);
+                stopTime.setArrivalTime(LocalTime.of(5, 0).plusMinutes(i + s * 2L));
+                stopTime.setDepartureTime(LocalTime.of(5, 1).plusMinutes(i + s * 2L));
+                stopTimes.add(stopTime);
+            }
+            schedule.setStopTimes(stopTimes);
+            timetable.add(schedule);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTimetable() {
+        transactionTemplate.executeWithoutResult(status -> {
+            stopTimeRepository.deleteAllInBatch();
+            scheduleRepository.deleteAllInBatch();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    /**
+     * 従来の方法（エンティティを組み立てて saveAll）
+     */
+    @Benchmark
+    public int saveAll() {
+        return transactionTemplate.execute(status -> {
+            List<ScheduleEntity> entities = new ArrayList<>(timetable.size());
+            for (Schedule schedule : timetable) {
+                ScheduleEntity entity = new ScheduleEntity();
+                entity.setRouteId(schedule.getRouteId());
+                entity.setTrain(trainRepository.getReferenceById(schedule.getTrainId()));
+                List<StopTimeEntity> stopTimes = new ArrayList<>();
+                for (int s = 0; s < schedule.getStopTimes().size(); s++) {
+                    StopTime source = schedule.getStopTimes().get(s);
+                    StopTimeEntity stopTime = new StopTimeEntity();
+                    stopTime.setStationId(source.getStationId());
+                    stopTime.setArrivalTime(source.getArrivalTime());
+                    stopTime.setDepartureTime(source.getDepartureTime());
+                    stopTime.setSequenceOrder(s);
+                    stopTime.setSchedule(entity);
+                    stopTimes.add(stopTime);
+                }
+                entity.setStopTimes(stopTimes);
+                entities.add(entity);
+            }
+            return scheduleRepository.saveAllAndFlush(entities).size();
+        });
+    }
+
+    /**
+     * 一括取り込み
+     */
+    @Benchmark
+    public int importSchedules() {
+        return scheduleService.importSchedules(timetable).size();
+    }
+}
@@ -0,0 +1,141 @@
+package net.rushhourgame.core.simulation;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.rushhourgame.core.database.entities.Point3DEmbeddable;
+
+/**
+ * 線路の曲線の読み込み性能（1点1行と curve_data 列の比較）
+ * インメモリのH2に同じ線路網を両方の形式で保存し、全線路の曲線を読み込んで TrackCurve を構築する。
+ * JPAを介さずJDBCで読むため、1点1行の側はエンティティ管理の費用を含まない（実際の差はこれより大きい）。
+ * ヒープの使用量は {@code -prof gc} の gc.alloc.rate.norm（1回の読み込みで確保するバイト数）で比較する。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CurveStorageBenchmark {
+
+    @Param({"1000", "10000"})
+    private int tracks;
+
+    @Param({"50"})
+    private int pointsPerTrack;
+
+    private Connection connection;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:curve-storage-" + tracks);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE tracks (id VARCHAR(64) PRIMARY KEY, curve_data VARBINARY(1048576))");
+            statement.execute("CREATE TABLE track_curve_points (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "track_id VARCHAR(64) NOT NULL, x DOUBLE NOT NULL, y DOUBLE NOT NULL, z DOUBLE NOT NULL, "
+                + "sequence_order INT NOT NULL)");
+            statement.execute("CREATE INDEX idx_curve_point_track ON track_curve_points (track_id)");
+        }
+        Random random = new Random(1);
+        try (PreparedStatement insertTrack = connection.prepareStatement(
+                 "INSERT INTO tracks (id, curve_data) VALUES (?, ?)");
+             PreparedStatement insertPoint = connection.prepareStatement(
+                 "INSERT INTO track_curve_points (track_id, x, y, z, sequence_order) VALUES (?, ?, ?, ?, ?)")) {
+            for (int t = 0; t < tracks; t++) {
+                String id = "track-" + t;
+                double[] xs = new double[pointsPerTrack];
+                double[] ys = new double[pointsPerTrack];
+                double[] zs = new double[pointsPerTrack];
+                for (int i = 0; i < pointsPerTrack; i++) {
+                    xs[i] = t * 100.0 + i * 10.0;
+                    ys[i] = random.nextDouble() * 5.0;
+                    zs[i] = 0.0;
+                    insertPoint.setString(1, id);
+                    insertPoint.setDouble(2, xs[i]);
+                    insertPoint.setDouble(3, ys[i]);
+                    insertPoint.setDouble(4, zs[i]);
+                    insertPoint.setInt(5, i);
+                    insertPoint.addBatch();
+                }
+                insertPoint.executeBatch();
+                insertTrack.setString(1, id);
+                insertTrack.setBytes(2, TrackCurveCodec.encode(xs, ys, zs));
+                insertTrack.executeUpdate();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * 1点1行から読み込む（点ごとにエンティティを作り、線路ごとにまとめて曲線を構築する）
+     */
+    @Benchmark
+    public List<TrackCurve> pointRows() throws SQLException {
+        List<TrackCurve> curves = new ArrayList<>(tracks);
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(
+                 "SELECT track_id, x, y, z, sequence_order FROM track_curve_points ORDER BY track_id, sequence_order")) {
+            String current = null;
+            List<Point3DEmbeddable> points = new ArrayList<>();
+            while (rows.next()) {
+                String trackId = rows.getString(1);
+                if (current != null && !current.equals(trackId)) {
+                    curves.add(TrackCurve.fromPoints(points));
+                    points = new ArrayList<>();
+                }
+                current = trackId;
+                Point3DEmbeddable point = new Point3DEmbeddable();
+                point.setX(rows.getDouble(2));
+                point.setY(rows.getDouble(3));
+                point.setZ(rows.getDouble(4));
+                point.setSequenceOrder(rows.getInt(5));
+                points.add(point);
+            }
+            if (current != null) {
+                curves.add(TrackCurve.fromPoints(points));
+            }
+        }
+        return curves;
+    }
+
+    /**
+     * curve_data 列から読み込む
+     */
+    @Benchmark
+    public List<TrackCurve> packedColumn() throws SQLException {
+        List<TrackCurve> curves = new ArrayList<>(tracks);
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT id, curve_data FROM tracks")) {
+            while (rows.next()) {
+                curves.add(TrackCurveCodec.decode(rows.getBytes(2)));
+            }
+        }
+        return curves;
+    }
+}
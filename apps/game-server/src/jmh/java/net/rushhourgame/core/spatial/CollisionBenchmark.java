@@ -0,0 +1,111 @@
+package net.rushhourgame.core.spatial;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.rushhourgame.core.simulation.TrackNetwork;
+import net.rushhourgame.core.simulation.TrainStateStore;
+
+/**
+ * 電車の衝突判定（1ティック分）の性能
+ * 格子状に並べた直線の線路に電車を一様に配置する。線路網の大きさは電車数に合わせて広げ、
+ * 電車の密度（線路長あたり約1両/100）を一定に保つ。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CollisionBenchmark {
+
+    private static final double TRACK_LENGTH = 1000.0;
+    private static final double TRACK_SPACING = 50.0;
+    private static final int TRAINS_PER_TRACK = 10;
+
+    @Param({"5000", "50000"})
+    private int trains;
+
+    private TrackNetwork network;
+    private TrainStateStore store;
+    private SpatialGrid grid;
+    private CollisionDetector detector;
+    private int[] counter;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        int trackCount = Math.max(1, trains / TRAINS_PER_TRACK);
+        network = parallelTracks(trackCount);
+        store = new TrainStateStore(trains);
+        grid = new SpatialGrid(200.0, trains);
+        for (int i = 0; i < trains; i++) {
+            int track = random.nextInt(trackCount);
+            double position = random.nextDouble() * TRACK_LENGTH;
+            int index = store.add("train-" + i, track, position);
+            grid.put(index, network.x(track, position), network.y(track, position));
+        }
+        detector = new CollisionDetector(20.0, 3.0);
+        counter = new int[1];
+    }
+
+    /**
+     * 索引の更新と衝突判定（{@link TrainSpatialIndex} と {@link TrainCollisionSystem} の1ティック分）
+     */
+    @Benchmark
+    public int updateAndDetect() {
+        int[] trackIndices = store.trackIndices();
+        double[] positions = store.positions();
+        for (int i = 0, n = store.highWaterMark(); i < n; i++) {
+            grid.put(i, network.x(trackIndices[i], positions[i]), network.y(trackIndices[i], positions[i]));
+        }
+        return detect();
+    }
+
+    /**
+     * 衝突判定のみ
+     */
+    @Benchmark
+    public int detect() {
+        counter[0] = 0;
+        detector.detect(network, store, grid, (a, b) -> counter[0]++);
+        return counter[0] + detector.lastCandidateCount();
+    }
+
+    /**
+     * 線路を正方形の範囲に横向きで並べる（列ごとに TRACK_LENGTH、行ごとに TRACK_SPACING ずらす）
+     */
+    private static TrackNetwork parallelTracks(int count) {
+        int columns = Math.max(1, (int) Math.round(Math.sqrt(count * TRACK_SPACING / TRACK_LENGTH)));
+        String[] ids = new String[count];
+        double[] lengths = new double[count];
+        double[] speeds = new double[count];
+        int[] next = new int[count];
+        double[] endpoints = new double[count * 4];
+        for (int i = 0; i < count; i++) {
+            double x = (i % columns) * TRACK_LENGTH;
+            double y = (i / columns) * TRACK_SPACING;
+            ids[i] = "track-" + i;
+            lengths[i] = TRACK_LENGTH;
+            speeds[i] = 20.0;
+            next[i] = TrackNetwork.NO_TRACK;
+            endpoints[i * 4] = x;
+            endpoints[i * 4 + 1] = y;
+            endpoints[i * 4 + 2] = x + TRACK_LENGTH;
+            endpoints[i * 4 + 3] = y;
+        }
+        return TrackNetwork.of(ids, lengths, speeds, next, endpoints);
+    }
+}
@@ -0,0 +1,24 @@
+package net.rushhourgame.core.analytics;
+
+import net.rushhourgame.proto.GameEvent;
+
+import java.util.List;
+
+/**
+ * 分析イベントの保存先
+ * {@link AnalyticsIngestor} の書き出しスレッドから、まとめたイベントを渡される。
+ */
+public interface AnalyticsEventSink {
+
+    /**
+     * イベントをまとめて保存する（失敗した場合は例外を投げ、そのイベントは破棄される）
+     */
+    void write(List<GameEvent> events);
+
+    /**
+     * 書き出しスレッドが一定間隔の書き出しを終えるたびに呼ばれる（イベントがなくても呼ばれる）
+     * 時間の経過で行う処理に使う。
+     */
+    default void flushed() {
+    }
+}
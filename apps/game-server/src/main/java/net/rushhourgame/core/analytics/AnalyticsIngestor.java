@@ -0,0 +1,190 @@
+package net.rushhourgame.core.analytics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import net.rushhourgame.proto.GameEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分析イベントの受け付けと非同期の書き出し
+ * 受け付けたイベントはリングバッファ（{@link EventRing}）に入れるだけで呼び出し元を待たせず、
+ * 専用スレッドが一定間隔でまとめて {@link AnalyticsEventSink} に保存する。
+ * バッファが満杯の間に届いたイベントは破棄して数える。ストリームはバッファの使用率が閾値を超えると受信を止め、
+ * 書き出しで下回ったときに再開する（{@link #resumeWhenDrained}）。
+ */
+@Component
+public class AnalyticsIngestor implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsIngestor.class);
+
+    private final AnalyticsEventSink sink;
+    private final int batchSize;
+    private final int pauseThreshold;
+    private final EventRing<GameEvent> ring;
+    private final Queue<Runnable> pausedStreams = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService flusher;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong pauses = new AtomicLong();
+
+    public AnalyticsIngestor(AnalyticsEventSink sink, AnalyticsProperties properties) {
+        this.sink = sink;
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.ring = new EventRing<>(Math.max(1, properties.getBufferCapacity()));
+        this.pauseThreshold = Math.max(1, (int) (ring.capacity() * properties.getBackpressureThreshold()));
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "analytics-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(1, properties.getFlushInterval().toMillis());
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 書き出しスレッドを止め、バッファに残ったイベントを書き出す
+     */
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * イベントを受け付ける（待たずに返る）
+     * @return バッファが満杯で破棄した場合false
+     */
+    public boolean offer(GameEvent event) {
+        if (ring.offer(event)) {
+            accepted.incrementAndGet();
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * バッファの使用率が閾値を超えていて、ストリームの受信を止めるべきか
+     */
+    public boolean shouldPause() {
+        return ring.size() >= pauseThreshold;
+    }
+
+    /**
+     * 受信を止めたストリームを、書き出しでバッファが空いたときに再開する
+     * @param resume 次のメッセージを要求する処理
+     */
+    public void resumeWhenDrained(Runnable resume) {
+        pauses.incrementAndGet();
+        pausedStreams.add(resume);
+        // 登録までの間に書き出しが終わっていた場合
+        resumePausedStreams();
+    }
+
+    /**
+     * バッファのイベントをすべて書き出す（書き出しスレッドと終了処理から呼ばれる）
+     * @return 保存したイベント数
+     */
+    public synchronized int flush() {
+        int total = 0;
+        List<GameEvent> batch = new ArrayList<>(batchSize);
+        while (ring.drainTo(batch, batchSize) > 0) {
+            try {
+                sink.write(batch);
+                written.addAndGet(batch.size());
+                total += batch.size();
+            } catch (RuntimeException e) {
+                failed.addAndGet(batch.size());
+                logger.warn("Failed to write {} analytics events", batch.size(), e);
+            }
+            batch.clear();
+            resumePausedStreams();
+        }
+        resumePausedStreams();
+        sink.flushed();
+        return total;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Analytics flush failed", e);
+        }
+    }
+
+    private void resumePausedStreams() {
+        Runnable resume;
+        while (!shouldPause() && (resume = pausedStreams.poll()) != null) {
+            resume.run();
+        }
+    }
+
+    public long getAccepted() {
+        return accepted.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getPauses() {
+        return pauses.get();
+    }
+
+    public int getBuffered() {
+        return ring.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rushhour.analytics.events.accepted", this, AnalyticsIngestor::getAccepted)
+            .description("Analytics events accepted into the buffer")
+            .register(registry);
+        FunctionCounter.builder("rushhour.analytics.events.dropped", this, AnalyticsIngestor::getDropped)
+            .description("Analytics events dropped because the buffer was full")
+            .register(registry);
+        FunctionCounter.builder("rushhour.analytics.events.written", this, AnalyticsIngestor::getWritten)
+            .description("Analytics events written to storage")
+            .register(registry);
+        FunctionCounter.builder("rushhour.analytics.events.failed", this, AnalyticsIngestor::getFailed)
+            .description("Analytics events lost because writing to storage failed")
+            .register(registry);
+        FunctionCounter.builder("rushhour.analytics.backpressure", this, AnalyticsIngestor::getPauses)
+            .description("Times an event stream was paused until the buffer drained")
+            .register(registry);
+        Gauge.builder("rushhour.analytics.buffered", this, AnalyticsIngestor::getBuffered)
+            .description("Analytics events waiting to be written")
+            .register(registry);
+    }
+}
@@ -0,0 +1,55 @@
+package net.rushhourgame.core.analytics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 分析イベント収集の設定
+ */
+@Data
+@ConfigurationProperties(prefix = "rushhour.analytics")
+public class AnalyticsProperties {
+
+    /**
+     * 書き出し待ちのイベントを保持するリングバッファの容量（2のべき乗に切り上げる）。満杯の間に届いたイベントは破棄する
+     */
+    private int bufferCapacity = 65_536;
+
+    /**
+     * 1回で保存するイベント数の上限
+     */
+    private int batchSize = 1_000;
+
+    /**
+     * 書き出しの間隔
+     */
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    /**
+     * ストリームからの受信を一時停止するバッファの使用率（書き出しで下回ると再開する）
+     */
+    private double backpressureThreshold = 0.75;
+
+    /**
+     * 保存先
+     */
+    private AnalyticsStorage storage = AnalyticsStorage.SEGMENT;
+
+    /**
+     * セグメントファイルを置くディレクトリ
+     */
+    private Path segmentDirectory = Path.of("data/analytics");
+
+    /**
+     * 書き込み中のセグメントをファイルに確定する行数
+     */
+    private int segmentMaxRows = 100_000;
+
+    /**
+     * 書き込み中のセグメントをファイルに確定するまでの最長時間（未確定の行は異常終了で失われる）
+     */
+    private Duration segmentMaxAge = Duration.ofMinutes(1);
+}
@@ -0,0 +1,332 @@
+package net.rushhourgame.core.analytics;
+
+import jakarta.annotation.PreDestroy;
+import net.rushhourgame.proto.GameEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 分析イベントの追記専用ストア（列指向のセグメントファイル）
+ * 書き出されたイベントはメモリ上の書き込み中セグメントに溜め、行数か経過時間が上限を超えたら
+ * {@link EventSegment} の形式でファイルに確定する。経過時間は書き出しスレッドからも確認し、
+ * イベントが途絶えても書き込み中のセグメントを残し続けない。確定したファイルは変更せず、メモリマップで読む。
+ * 集計・走査は確定済みのセグメントと書き込み中のセグメントの両方を対象とし、時刻の範囲外のセグメントは読まない。
+ * 起動時にディレクトリ内のセグメントファイルを読み込む。
+ */
+@Component
+@ConditionalOnProperty(name = "rushhour.analytics.storage", havingValue = "SEGMENT", matchIfMissing = true)
+public class AnalyticsSegmentStore implements AnalyticsEventSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsSegmentStore.class);
+
+    private static final String PREFIX = "events-";
+    private static final String SUFFIX = ".seg";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final int maxRows;
+    private final long maxAgeNanos;
+
+    private volatile List<EventSegment> sealed;
+    private long nextSequence;
+    private final List<GameEvent> open = new ArrayList<>();
+    private long openedAt;
+    // 書き込み中セグメントの読み取り用（書き込みのたびに作り直す）
+    private EventSegment openView;
+
+    public AnalyticsSegmentStore(AnalyticsProperties properties) {
+        this.directory = properties.getSegmentDirectory();
+        this.maxRows = Math.max(1, properties.getSegmentMaxRows());
+        this.maxAgeNanos = properties.getSegmentMaxAge().toNanos();
+        List<EventSegment> segments = new ArrayList<>();
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing.sorted().toList();
+            }
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMPORARY_SUFFIX)) {
+                    // 確定前に終了したファイル
+                    Files.delete(file);
+                } else if (name.startsWith(PREFIX) && name.endsWith(SUFFIX)) {
+                    segments.add(EventSegment.open(file));
+                    nextSequence = Math.max(nextSequence, sequenceOf(name) + 1);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load analytics segments from " + directory, e);
+        }
+        sealed = List.copyOf(segments);
+        logger.info("Loaded {} analytics segments from {}", segments.size(), directory);
+    }
+
+    @Override
+    public synchronized void write(List<GameEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (open.isEmpty()) {
+            openedAt = System.nanoTime();
+        }
+        open.addAll(events);
+        openView = null;
+        if (open.size() >= maxRows || isExpired()) {
+            sealQuietly();
+        }
+    }
+
+    /**
+     * 書き込み中のセグメントが経過時間の上限を超えていれば確定する（書き出しスレッドから定期的に呼ばれる）
+     */
+    @Override
+    public synchronized void flushed() {
+        if (isExpired()) {
+            sealQuietly();
+        }
+    }
+
+    private boolean isExpired() {
+        return !open.isEmpty() && System.nanoTime() - openedAt >= maxAgeNanos;
+    }
+
+    private void sealQuietly() {
+        try {
+            seal();
+        } catch (UncheckedIOException e) {
+            // 書き込み中のイベントは保持し、次の書き込みか書き出しスレッドの確認で再試行する
+            logger.warn("Failed to seal analytics segment with {} events", open.size(), e);
+        }
+    }
+
+    /**
+     * 書き込み中のセグメントをファイルに確定する
+     */
+    @PreDestroy
+    public synchronized void seal() {
+        if (open.isEmpty()) {
+            return;
+        }
+        ByteBuffer encoded = EventSegmentEncoder.encode(open);
+        Path file = directory.resolve(String.format("%s%016d%s", PREFIX, nextSequence, SUFFIX));
+        Path temporary = directory.resolve(file.getFileName() + TEMPORARY_SUFFIX);
+        EventSegment segment;
+        try {
+            try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (encoded.hasRemaining()) {
+                    channel.write(encoded);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+            segment = EventSegment.open(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write analytics segment " + file, e);
+        }
+        nextSequence++;
+        List<EventSegment> segments = new ArrayList<>(sealed);
+        segments.add(segment);
+        sealed = List.copyOf(segments);
+        open.clear();
+        openView = null;
+    }
+
+    /**
+     * from 以上 to 未満に発生したイベントをセグメントごとに時刻の順で渡す
+     */
+    public void scan(long from, long to, Consumer<GameEvent> consumer) {
+        for (EventSegment segment : segments(from, to)) {
+            segment.scan(from, to, (row, timestamp) -> consumer.accept(segment.event(row, timestamp)));
+        }
+    }
+
+    /**
+     * 期間内のイベント数
+     * @param eventType 対象のイベント種別（null の場合はすべて）
+     */
+    public long count(long from, long to, String eventType) {
+        long[] count = new long[1];
+        for (EventSegment segment : segments(from, to)) {
+            int type = eventType == null ? EventSegment.NOT_FOUND : segment.eventTypeId(eventType);
+            if (eventType != null && type == EventSegment.NOT_FOUND) {
+                continue;
+            }
+            segment.scan(from, to, (row, timestamp) -> {
+                if (eventType == null || segment.eventTypeOf(row) == type) {
+                    count[0]++;
+                }
+            });
+        }
+        return count[0];
+    }
+
+    /**
+     * 期間内のイベント数を列の値ごとに数える
+     * @param eventType 対象のイベント種別（null の場合はすべて）
+     */
+    public Map<String, Long> countBy(EventDimension dimension, long from, long to, String eventType) {
+        Map<String, Long> result = new HashMap<>();
+        for (EventSegment segment : segments(from, to)) {
+            int type = eventType == null ? EventSegment.NOT_FOUND : segment.eventTypeId(eventType);
+            if (eventType != null && type == EventSegment.NOT_FOUND) {
+                continue;
+            }
+            long[] counts = new long[dictionarySize(segment, dimension)];
+            segment.scan(from, to, (row, timestamp) -> {
+                if (eventType == null || segment.eventTypeOf(row) == type) {
+                    counts[key(segment, dimension, row)]++;
+                }
+            });
+            for (int id = 0; id < counts.length; id++) {
+                if (counts[id] > 0) {
+                    result.merge(value(segment, dimension, id), counts[id], Long::sum);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 期間内のイベントの数値属性を列の値ごとに合計する（属性がない・数値でないイベントは除く）
+     * @param eventType 対象のイベント種別（null の場合はすべて）
+     */
+    public Map<String, Double> sumBy(EventDimension dimension, String attributeKey, long from, long to, String eventType) {
+        Map<String, Double> result = new HashMap<>();
+        for (EventSegment segment : segments(from, to)) {
+            int type = eventType == null ? EventSegment.NOT_FOUND : segment.eventTypeId(eventType);
+            int attribute = segment.stringId(attributeKey);
+            if (attribute == EventSegment.NOT_FOUND || eventType != null && type == EventSegment.NOT_FOUND) {
+                continue;
+            }
+            double[] sums = new double[dictionarySize(segment, dimension)];
+            boolean[] present = new boolean[sums.length];
+            // 値の文字列は番号ごとに1回だけ解釈する
+            double[] parsed = new double[segment.stringCount()];
+            boolean[] parsedYet = new boolean[parsed.length];
+            segment.scan(from, to, (row, timestamp) -> {
+                if (eventType != null && segment.eventTypeOf(row) != type) {
+                    return;
+                }
+                for (int a = segment.attributeStart(row), end = segment.attributeStart(row + 1); a < end; a++) {
+                    if (segment.attributeKey(a) != attribute) {
+                        continue;
+                    }
+                    int valueId = segment.attributeValue(a);
+                    if (!parsedYet[valueId]) {
+                        parsed[valueId] = parse(segment.string(valueId));
+                        parsedYet[valueId] = true;
+                    }
+                    if (!Double.isNaN(parsed[valueId])) {
+                        int key = key(segment, dimension, row);
+                        sums[key] += parsed[valueId];
+                        present[key] = true;
+                    }
+                }
+            });
+            for (int id = 0; id < sums.length; id++) {
+                if (present[id]) {
+                    result.merge(value(segment, dimension, id), sums[id], Double::sum);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 確定済みのセグメント数
+     */
+    public int segmentCount() {
+        return sealed.size();
+    }
+
+    /**
+     * 書き込み中のイベント数
+     */
+    public synchronized int openRowCount() {
+        return open.size();
+    }
+
+    /**
+     * 期間と重なるセグメント（書き込み中のセグメントを含む）
+     * 確定済みと書き込み中のセグメントは同じロックの中で取り、間の確定でイベントが欠けたり重複したりしないようにする。
+     */
+    private List<EventSegment> segments(long from, long to) {
+        List<EventSegment> current;
+        EventSegment view;
+        synchronized (this) {
+            current = sealed;
+            view = openView();
+        }
+        List<EventSegment> segments = new ArrayList<>();
+        for (EventSegment segment : current) {
+            if (overlaps(segment, from, to)) {
+                segments.add(segment);
+            }
+        }
+        if (view != null && overlaps(view, from, to)) {
+            segments.add(view);
+        }
+        return segments;
+    }
+
+    /**
+     * 書き込み中のセグメントの読み取り用（ロックを取って呼び出すこと）
+     */
+    private EventSegment openView() {
+        if (openView == null && !open.isEmpty()) {
+            openView = EventSegment.of(open);
+        }
+        return openView;
+    }
+
+    private static boolean overlaps(EventSegment segment, long from, long to) {
+        return segment.rowCount() > 0 && segment.maxTimestamp() >= from && segment.minTimestamp() < to;
+    }
+
+    private static int dictionarySize(EventSegment segment, EventDimension dimension) {
+        return dimension == EventDimension.EVENT_TYPE ? segment.eventTypeCount() : segment.playerCount();
+    }
+
+    private static int key(EventSegment segment, EventDimension dimension, int row) {
+        return dimension == EventDimension.EVENT_TYPE ? segment.eventTypeOf(row) : segment.playerOf(row);
+    }
+
+    private static String value(EventSegment segment, EventDimension dimension, int id) {
+        return dimension == EventDimension.EVENT_TYPE ? segment.eventType(id) : segment.player(id);
+    }
+
+    private static double parse(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static long sequenceOf(String fileName) {
+        try {
+            return Long.parseLong(fileName.substring(PREFIX.length(), fileName.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
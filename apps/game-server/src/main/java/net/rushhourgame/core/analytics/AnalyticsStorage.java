@@ -0,0 +1,17 @@
+package net.rushhourgame.core.analytics;
+
+/**
+ * 分析イベントの保存先
+ */
+public enum AnalyticsStorage {
+
+    /**
+     * ローカルの列指向セグメントファイル（{@link AnalyticsSegmentStore}。集計クエリがデータベースに掛からない）
+     */
+    SEGMENT,
+
+    /**
+     * データベースの game_events テーブル（{@link JpaAnalyticsEventSink}）
+     */
+    DATABASE
+}
@@ -0,0 +1,11 @@
+package net.rushhourgame.core.analytics;
+
+/**
+ * 分析イベントの集計で使うグループ化の列
+ */
+public enum EventDimension {
+
+    EVENT_TYPE,
+
+    PLAYER_ID
+}
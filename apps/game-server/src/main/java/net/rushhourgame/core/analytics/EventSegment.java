@@ -0,0 +1,314 @@
+package net.rushhourgame.core.analytics;
+
+import net.rushhourgame.proto.GameEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分析イベントの列指向セグメント（不変・読み取り専用）
+ * 行は発生時刻の順に並び、列ごとに連続した領域に格納される。ファイルはメモリマップで読み、
+ * 集計はイベント種別・プレイヤーIDを文字列に戻さず辞書の番号のまま行う。
+ * 読み出しは位置を変えない絶対指定のみのため、複数スレッドから同時に参照できる。
+ *
+ * <pre>
+ * ヘッダー    : magic, version, 行数, 最小時刻, 最大時刻, 種別番号の幅, プレイヤー番号の幅
+ * 辞書        : イベント種別, プレイヤーID, 属性の文字列（件数・各文字列の長さとUTF-8）
+ * 時刻        : ブロック数・ブロックごとの先頭時刻とバイト位置, 差分の可変長整数
+ * 種別・プレイヤー : 行ごとの辞書の番号（1・2・4バイト）
+ * 属性        : 行ごとの開始位置（行数 + 1）, キー・値の文字列の番号
+ * </pre>
+ */
+public final class EventSegment {
+
+    static final int MAGIC = 0x53454852;
+    static final int VERSION = 1;
+    /**
+     * 時刻の索引を持つ行数の間隔
+     */
+    static final int BLOCK_ROWS = 1024;
+
+    /**
+     * 辞書にない文字列の番号
+     */
+    public static final int NOT_FOUND = -1;
+
+    private final ByteBuffer data;
+    private final int rowCount;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    private final int typeWidth;
+    private final int playerWidth;
+    private final Strings eventTypes;
+    private final Strings players;
+    private final Strings strings;
+    private final long[] blockFirst;
+    private final int[] blockOffset;
+    private final int timestampOffset;
+    private final int typeOffset;
+    private final int playerOffset;
+    private final int attributeStartOffset;
+    private final int attributeKeyOffset;
+    private final int attributeValueOffset;
+
+    private EventSegment(ByteBuffer buffer) {
+        data = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not an event segment");
+        }
+        rowCount = data.getInt(8);
+        minTimestamp = data.getLong(12);
+        maxTimestamp = data.getLong(20);
+        typeWidth = data.getInt(28);
+        playerWidth = data.getInt(32);
+        int[] position = {36};
+        eventTypes = readStrings(position);
+        players = readStrings(position);
+        strings = readStrings(position);
+
+        int blockCount = data.getInt(position[0]);
+        position[0] += Integer.BYTES;
+        blockFirst = new long[blockCount];
+        blockOffset = new int[blockCount];
+        for (int block = 0; block < blockCount; block++) {
+            blockFirst[block] = data.getLong(position[0]);
+            blockOffset[block] = data.getInt(position[0] + Long.BYTES);
+            position[0] += Long.BYTES + Integer.BYTES;
+        }
+        int timestampBytes = data.getInt(position[0]);
+        timestampOffset = position[0] + Integer.BYTES;
+        typeOffset = timestampOffset + timestampBytes;
+        playerOffset = typeOffset + rowCount * typeWidth;
+        attributeStartOffset = playerOffset + rowCount * playerWidth;
+        attributeKeyOffset = attributeStartOffset + (rowCount + 1) * Integer.BYTES;
+        int attributeCount = data.getInt(attributeStartOffset + rowCount * Integer.BYTES);
+        attributeValueOffset = attributeKeyOffset + attributeCount * Integer.BYTES;
+    }
+
+    /**
+     * メモリ上のセグメントを参照する
+     */
+    public static EventSegment wrap(ByteBuffer buffer) {
+        return new EventSegment(buffer);
+    }
+
+    /**
+     * セグメントファイルをメモリマップで開く
+     */
+    public static EventSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new EventSegment(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * イベントの一覧からセグメントを作る
+     */
+    public static EventSegment of(List<GameEvent> events) {
+        return new EventSegment(EventSegmentEncoder.encode(events));
+    }
+
+    /**
+     * 辞書の件数に応じた番号のバイト数
+     */
+    static int idWidth(int dictionarySize) {
+        if (dictionarySize <= 1 << 8) {
+            return 1;
+        }
+        return dictionarySize <= 1 << 16 ? 2 : 4;
+    }
+
+    /**
+     * from 以上 to 未満に発生した行を時刻の順に走査する
+     */
+    public void scan(long from, long to, RowVisitor visitor) {
+        if (rowCount == 0 || maxTimestamp < from || minTimestamp >= to) {
+            return;
+        }
+        // from より前に始まる最後のブロックから読む（同じ時刻がブロックをまたぐ場合がある）
+        int low = 0;
+        int high = blockFirst.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (blockFirst[mid] < from) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        int row = low * BLOCK_ROWS;
+        int position = timestampOffset + blockOffset[low];
+        long timestamp = 0;
+        while (row < rowCount) {
+            if (row % BLOCK_ROWS == 0) {
+                // ブロックの先頭行の差分は0
+                timestamp = blockFirst[row / BLOCK_ROWS];
+            }
+            long delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data.get(position++);
+                delta |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            timestamp += delta;
+            if (timestamp >= to) {
+                return;
+            }
+            if (timestamp >= from) {
+                visitor.visit(row, timestamp);
+            }
+            row++;
+        }
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public long minTimestamp() {
+        return minTimestamp;
+    }
+
+    public long maxTimestamp() {
+        return maxTimestamp;
+    }
+
+    /**
+     * 行のイベント種別の番号
+     */
+    public int eventTypeOf(int row) {
+        return readId(typeOffset, typeWidth, row);
+    }
+
+    /**
+     * 行のプレイヤーIDの番号
+     */
+    public int playerOf(int row) {
+        return readId(playerOffset, playerWidth, row);
+    }
+
+    public int eventTypeCount() {
+        return eventTypes.values.length;
+    }
+
+    public String eventType(int id) {
+        return eventTypes.values[id];
+    }
+
+    /**
+     * @return 辞書にない場合は {@link #NOT_FOUND}
+     */
+    public int eventTypeId(String eventType) {
+        return eventTypes.ids.getOrDefault(eventType, NOT_FOUND);
+    }
+
+    public int playerCount() {
+        return players.values.length;
+    }
+
+    public String player(int id) {
+        return players.values[id];
+    }
+
+    /**
+     * @return 辞書にない場合は {@link #NOT_FOUND}
+     */
+    public int playerId(String playerId) {
+        return players.ids.getOrDefault(playerId, NOT_FOUND);
+    }
+
+    /**
+     * 行の属性は {@link #attributeKey}・{@link #attributeValue} の [attributeStart(row), attributeStart(row + 1))
+     */
+    public int attributeStart(int row) {
+        return data.getInt(attributeStartOffset + row * Integer.BYTES);
+    }
+
+    /**
+     * 属性のキーの文字列の番号
+     */
+    public int attributeKey(int attribute) {
+        return data.getInt(attributeKeyOffset + attribute * Integer.BYTES);
+    }
+
+    /**
+     * 属性の値の文字列の番号
+     */
+    public int attributeValue(int attribute) {
+        return data.getInt(attributeValueOffset + attribute * Integer.BYTES);
+    }
+
+    public int stringCount() {
+        return strings.values.length;
+    }
+
+    public String string(int id) {
+        return strings.values[id];
+    }
+
+    /**
+     * @return 辞書にない場合は {@link #NOT_FOUND}
+     */
+    public int stringId(String value) {
+        return strings.ids.getOrDefault(value, NOT_FOUND);
+    }
+
+    /**
+     * 行をイベントに戻す
+     */
+    public GameEvent event(int row, long timestamp) {
+        GameEvent.Builder builder = GameEvent.newBuilder()
+            .setEventType(eventType(eventTypeOf(row)))
+            .setPlayerId(player(playerOf(row)))
+            .setTimestamp(timestamp);
+        for (int a = attributeStart(row), end = attributeStart(row + 1); a < end; a++) {
+            builder.putAttributes(string(attributeKey(a)), string(attributeValue(a)));
+        }
+        return builder.build();
+    }
+
+    private int readId(int offset, int width, int row) {
+        return switch (width) {
+            case 1 -> data.get(offset + row) & 0xFF;
+            case 2 -> data.getShort(offset + row * 2) & 0xFFFF;
+            default -> data.getInt(offset + row * 4);
+        };
+    }
+
+    private Strings readStrings(int[] position) {
+        int count = data.getInt(position[0]);
+        position[0] += Integer.BYTES;
+        String[] values = new String[count];
+        Map<String, Integer> ids = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            int length = data.getInt(position[0]);
+            byte[] bytes = new byte[length];
+            data.get(position[0] + Integer.BYTES, bytes);
+            position[0] += Integer.BYTES + length;
+            values[i] = new String(bytes, StandardCharsets.UTF_8);
+            ids.put(values[i], i);
+        }
+        return new Strings(values, ids);
+    }
+
+    private record Strings(String[] values, Map<String, Integer> ids) {
+    }
+
+    /**
+     * 走査した行を受け取る
+     */
+    @FunctionalInterface
+    public interface RowVisitor {
+        void visit(int row, long timestamp);
+    }
+}
@@ -0,0 +1,202 @@
+package net.rushhourgame.core.analytics;
+
+import net.rushhourgame.proto.GameEvent;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分析イベントを列指向のセグメント（{@link EventSegment} の形式）に変換する
+ * 行は発生時刻の順に並べ替え、イベント種別・プレイヤーIDは辞書の番号、時刻はブロック内の差分（可変長整数）で格納する。
+ */
+final class EventSegmentEncoder {
+
+    private EventSegmentEncoder() {
+    }
+
+    static ByteBuffer encode(List<GameEvent> events) {
+        GameEvent[] rows = events.toArray(GameEvent[]::new);
+        Arrays.sort(rows, Comparator.comparingLong(GameEvent::getTimestamp));
+        int rowCount = rows.length;
+
+        Dictionary eventTypes = new Dictionary();
+        Dictionary players = new Dictionary();
+        Dictionary strings = new Dictionary();
+        int[] typeIds = new int[rowCount];
+        int[] playerIds = new int[rowCount];
+        int[] attributeStart = new int[rowCount + 1];
+        int attributeCount = 0;
+        for (int row = 0; row < rowCount; row++) {
+            typeIds[row] = eventTypes.id(rows[row].getEventType());
+            playerIds[row] = players.id(rows[row].getPlayerId());
+            attributeCount += rows[row].getAttributesCount();
+            attributeStart[row + 1] = attributeCount;
+        }
+        int[] attributeKeys = new int[attributeCount];
+        int[] attributeValues = new int[attributeCount];
+        int a = 0;
+        for (GameEvent row : rows) {
+            for (Map.Entry<String, String> attribute : row.getAttributesMap().entrySet()) {
+                attributeKeys[a] = strings.id(attribute.getKey());
+                attributeValues[a] = strings.id(attribute.getValue());
+                a++;
+            }
+        }
+
+        Output out = new Output(64 + rowCount * 16);
+        out.putInt(EventSegment.MAGIC);
+        out.putInt(EventSegment.VERSION);
+        out.putInt(rowCount);
+        out.putLong(rowCount == 0 ? 0 : rows[0].getTimestamp());
+        out.putLong(rowCount == 0 ? 0 : rows[rowCount - 1].getTimestamp());
+        int typeWidth = EventSegment.idWidth(eventTypes.size());
+        int playerWidth = EventSegment.idWidth(players.size());
+        out.putInt(typeWidth);
+        out.putInt(playerWidth);
+        eventTypes.writeTo(out);
+        players.writeTo(out);
+        strings.writeTo(out);
+
+        // 時刻：ブロックごとの先頭時刻とバイト位置、ブロック内は直前の行との差分
+        int blockCount = (rowCount + EventSegment.BLOCK_ROWS - 1) / EventSegment.BLOCK_ROWS;
+        Output timestamps = new Output(rowCount * 2);
+        long[] blockFirst = new long[blockCount];
+        int[] blockOffset = new int[blockCount];
+        long previous = 0;
+        for (int row = 0; row < rowCount; row++) {
+            long timestamp = rows[row].getTimestamp();
+            if (row % EventSegment.BLOCK_ROWS == 0) {
+                int block = row / EventSegment.BLOCK_ROWS;
+                blockFirst[block] = timestamp;
+                blockOffset[block] = timestamps.position();
+                previous = timestamp;
+            }
+            timestamps.putVarLong(timestamp - previous);
+            previous = timestamp;
+        }
+        out.putInt(blockCount);
+        for (int block = 0; block < blockCount; block++) {
+            out.putLong(blockFirst[block]);
+            out.putInt(blockOffset[block]);
+        }
+        out.putInt(timestamps.position());
+        out.putBytes(timestamps);
+
+        for (int id : typeIds) {
+            out.putId(id, typeWidth);
+        }
+        for (int id : playerIds) {
+            out.putId(id, playerWidth);
+        }
+        for (int start : attributeStart) {
+            out.putInt(start);
+        }
+        for (int key : attributeKeys) {
+            out.putInt(key);
+        }
+        for (int value : attributeValues) {
+            out.putInt(value);
+        }
+        return out.toBuffer();
+    }
+
+    /**
+     * 文字列と出現順の番号の対応
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int id(String value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+            return id;
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        void writeTo(Output out) {
+            out.putInt(values.size());
+            for (String value : values) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.putInt(bytes.length);
+                out.putBytes(bytes, bytes.length);
+            }
+        }
+    }
+
+    /**
+     * 必要に応じて拡張するリトルエンディアンの書き込み先
+     */
+    private static final class Output {
+        private ByteBuffer buffer;
+
+        Output(int initialCapacity) {
+            buffer = ByteBuffer.allocate(Math.max(64, initialCapacity)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        int position() {
+            return buffer.position();
+        }
+
+        void putInt(int value) {
+            ensure(Integer.BYTES).putInt(value);
+        }
+
+        void putLong(long value) {
+            ensure(Long.BYTES).putLong(value);
+        }
+
+        void putId(int id, int width) {
+            switch (width) {
+                case 1 -> ensure(1).put((byte) id);
+                case 2 -> ensure(2).putShort((short) id);
+                default -> ensure(4).putInt(id);
+            }
+        }
+
+        void putVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        void putBytes(byte[] bytes, int length) {
+            ensure(length).put(bytes, 0, length);
+        }
+
+        void putBytes(Output other) {
+            putBytes(other.buffer.array(), other.position());
+        }
+
+        ByteBuffer toBuffer() {
+            return buffer.flip();
+        }
+
+        private ByteBuffer ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+                ByteBuffer grown = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+                grown.put(buffer.flip());
+                buffer = grown;
+            }
+            return buffer;
+        }
+    }
+}
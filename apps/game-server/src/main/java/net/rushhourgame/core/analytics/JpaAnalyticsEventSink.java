@@ -0,0 +1,62 @@
+package net.rushhourgame.core.analytics;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import net.rushhourgame.core.database.entities.GameEventEntity;
+import net.rushhourgame.proto.GameEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 分析イベントをデータベース（game_events）に保存する
+ * まとめて渡されたイベントを1トランザクションで登録し、一定件数ごとにフラッシュ・クリアして
+ * INSERT をJDBCバッチにまとめる。rushhour.analytics.storage=DATABASE のときに使う。
+ */
+@Component
+@ConditionalOnProperty(name = "rushhour.analytics.storage", havingValue = "DATABASE")
+public class JpaAnalyticsEventSink implements AnalyticsEventSink {
+
+    /**
+     * フラッシュ・クリアする件数の目安（JDBCバッチサイズの倍数にする）
+     */
+    static final int FLUSH_ROWS = 1000;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public JpaAnalyticsEventSink(TransactionTemplate transactionTemplate) {
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void write(List<GameEvent> events) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int pendingRows = 0;
+            for (GameEvent event : events) {
+                entityManager.persist(toEntity(event));
+                pendingRows += 1 + event.getAttributesCount();
+                if (pendingRows >= FLUSH_ROWS) {
+                    entityManager.flush();
+                    entityManager.clear();
+                    pendingRows = 0;
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private static GameEventEntity toEntity(GameEvent event) {
+        GameEventEntity entity = new GameEventEntity();
+        entity.setEventType(event.getEventType());
+        entity.setPlayerId(event.getPlayerId().isEmpty() ? null : event.getPlayerId());
+        entity.setTimestamp(event.getTimestamp());
+        entity.getAttributes().putAll(event.getAttributesMap());
+        return entity;
+    }
+}
@@ -0,0 +1,75 @@
+package net.rushhourgame.core.analytics;
+
+import net.rushhourgame.core.event.DomainEventBus;
+import net.rushhourgame.core.event.EventBatch;
+import net.rushhourgame.core.event.EventSubscriber;
+import net.rushhourgame.core.simulation.SimulationWorld;
+import net.rushhourgame.core.stationflow.StationLayout;
+import net.rushhourgame.models.event.Event;
+import net.rushhourgame.models.event.EventType;
+import net.rushhourgame.proto.GameEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * シミュレーションのドメインイベントのうち、頻度の低いもの（終端到着・駅の混雑）を分析イベントとして記録する
+ * 配信はティックスレッド上で行われるため、添字をワールドのIDに引き直してから {@link AnalyticsIngestor} に渡す。
+ */
+@Component
+public class SimulationEventRecorder implements EventSubscriber {
+
+    private final SimulationWorld world;
+    private final AnalyticsIngestor ingestor;
+
+    public SimulationEventRecorder(DomainEventBus bus, SimulationWorld world, AnalyticsIngestor ingestor) {
+        this.world = world;
+        this.ingestor = ingestor;
+        bus.subscribe(this, EventType.TRAIN_ARRIVED, EventType.STATION_OVERCROWDED, EventType.STATION_RELIEVED);
+    }
+
+    @Override
+    public void onEvents(EventBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            Event event = batch.get(i);
+            GameEvent recorded = switch (event.getType()) {
+                case TRAIN_ARRIVED -> trainArrived(event);
+                case STATION_OVERCROWDED, STATION_RELIEVED -> stationCrowding(event);
+                default -> null;
+            };
+            if (recorded != null) {
+                ingestor.offer(recorded);
+            }
+        }
+    }
+
+    private GameEvent trainArrived(Event event) {
+        String trainId = world.getTrains().idAt(event.getSubject());
+        if (trainId == null) {
+            // 配信までに撤去された電車
+            return null;
+        }
+        return newEvent(event)
+            .putAttributes("trainId", trainId)
+            .putAttributes("trackId", world.getNetwork().trackId(event.getTarget()))
+            .build();
+    }
+
+    private GameEvent stationCrowding(Event event) {
+        StationLayout layout = world.getStationFlows().getLayout();
+        if (event.getSubject() >= layout.size()) {
+            return null;
+        }
+        return newEvent(event)
+            .putAttributes("stationId", layout.stationId(event.getSubject()))
+            .putAttributes("passengers", Long.toString(Math.round(event.getValue())))
+            .build();
+    }
+
+    private static GameEvent.Builder newEvent(Event event) {
+        return GameEvent.newBuilder()
+            .setEventType(event.getType().name().toLowerCase(Locale.ROOT))
+            .setTimestamp(System.currentTimeMillis())
+            .putAttributes("tick", Long.toString(event.getTick()));
+    }
+}
@@ -0,0 +1,71 @@
+package net.rushhourgame.core.database;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * トランザクションのコミット後に処理を実行する
+ * トランザクション外（同期が無効）では即座に実行し、ロールバックされた場合は実行しない。
+ */
+public final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    /**
+     * コミット後に実行する
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * コミット後に実行する（同じトランザクションで同じキーの処理は1回だけ実行する）
+     * エンティティごとのイベントから全体を作り直す場合に使う。
+     */
+    public static void afterCommitOnce(Object key, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        if (mark(key)) {
+            afterCommit(action);
+        }
+    }
+
+    /**
+     * 現在のトランザクションが終わる（コミットかロールバックする）までキーを記録する
+     * @return 新たに記録した場合true（記録済みの場合とトランザクション外ではfalse）
+     */
+    public static boolean mark(Object key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(key)) {
+            return false;
+        }
+        TransactionSynchronizationManager.bindResource(key, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(key);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * 現在のトランザクションでキーを記録したか
+     */
+    public static boolean isMarked(Object key) {
+        return TransactionSynchronizationManager.isSynchronizationActive()
+            && TransactionSynchronizationManager.hasResource(key);
+    }
+}
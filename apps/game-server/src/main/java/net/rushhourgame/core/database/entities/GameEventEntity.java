@@ -0,0 +1,43 @@
+package net.rushhourgame.core.database.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 分析イベントの永続化モデル（JPA Entity）
+ * 追記のみで更新しないため、監査フィールド・バージョンは持たない。
+ */
+@Entity
+@Table(name = "game_events", indexes = {@Index(columnList = "event_timestamp")})
+@Data
+@EqualsAndHashCode(of = "id")
+public class GameEventEntity implements Serializable {
+    private static final long serialVersionUID = 1L;
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "game_event_id")
+    @SequenceGenerator(name = "game_event_id", sequenceName = "game_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    @Column(name = "player_id")
+    private String playerId;
+
+    /**
+     * イベント発生時刻（エポックミリ秒）
+     */
+    @Column(name = "event_timestamp", nullable = false)
+    private Long timestamp;
+
+    @ElementCollection
+    @CollectionTable(name = "game_event_attributes", joinColumns = @JoinColumn(name = "game_event_id"))
+    @MapKeyColumn(name = "attribute_key")
+    @Column(name = "attribute_value")
+    private Map<String, String> attributes = new HashMap<>();
+}
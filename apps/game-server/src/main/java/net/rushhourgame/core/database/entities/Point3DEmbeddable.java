@@ -8,6 +8,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Version;
 import lombok.Data;
@@ -29,7 +30,8 @@ public class Point3DEmbeddable implements Serializable {
     private static final long serialVersionUID = 1L;
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "track_curve_point_id")
+    @SequenceGenerator(name = "track_curve_point_id", sequenceName = "track_curve_points_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "x", nullable = false)
@@ -0,0 +1,11 @@
+package net.rushhourgame.core.database.entities;
+
+/**
+ * 駅エンティティの保存・削除を知らせるアプリケーションイベント
+ * トランザクション中に発行されるため、受け取った側でコミット後に反映すること。
+ * @param x 位置のX座標（削除された場合や位置が無い場合は null）
+ * @param y 位置のY座標（削除された場合や位置が無い場合は null）
+ * @param removed 削除された場合true
+ */
+public record StationChangedEvent(String stationId, Double x, Double y, boolean removed) {
+}
@@ -21,6 +21,7 @@ import java.util.List;
     @Index(name = "idx_station_owner", columnList = "owner_id"),
     @Index(name = "idx_station_location", columnList = "location_x, location_y")
 })
+@EntityListeners(StationEntityListener.class)
 @Data
 @EqualsAndHashCode(callSuper = true)
 @ToString(exclude = {"platforms", "gates", "corridors"})
@@ -0,0 +1,33 @@
+package net.rushhourgame.core.database.entities;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * 駅エンティティの変更を {@link StationChangedEvent} として発行するエンティティリスナー
+ * サービスを通さずリポジトリで書き込んだ場合も、駅の位置を使う索引が変更を受け取れるようにする。
+ * Hibernate が Spring のコンテナから生成する。
+ */
+public class StationEntityListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    public StationEntityListener(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void saved(StationEntity station) {
+        LocationEmbeddable location = station.getLocation();
+        publisher.publishEvent(new StationChangedEvent(station.getId(),
+            location == null ? null : location.getX(), location == null ? null : location.getY(), false));
+    }
+
+    @PostRemove
+    public void removed(StationEntity station) {
+        publisher.publishEvent(new StationChangedEvent(station.getId(), null, null, true));
+    }
+}
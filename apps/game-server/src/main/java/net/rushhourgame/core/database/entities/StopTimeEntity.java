@@ -22,7 +22,8 @@ import java.time.LocalTime;
 public class StopTimeEntity implements Serializable {
     private static final long serialVersionUID = 1L;
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stop_time_id")
+    @SequenceGenerator(name = "stop_time_id", sequenceName = "stop_times_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "station_id", nullable = false)
@@ -0,0 +1,9 @@
+package net.rushhourgame.core.database.entities;
+
+/**
+ * 線路エンティティの保存・削除を知らせるアプリケーションイベント
+ * トランザクション中に発行されるため、受け取った側でコミット後に反映すること。
+ * @param removed 削除された場合true
+ */
+public record TrackChangedEvent(String trackId, boolean removed) {
+}
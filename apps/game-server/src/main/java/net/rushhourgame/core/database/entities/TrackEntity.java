@@ -21,9 +21,10 @@ import java.util.List;
     @Index(name = "idx_track_start_junction", columnList = "start_junction_id"),
     @Index(name = "idx_track_end_junction", columnList = "end_junction_id")
 })
+@EntityListeners(TrackEntityListener.class)
 @Data
 @EqualsAndHashCode(callSuper = true)
-@ToString(exclude = {"curve", "signals"})
+@ToString(exclude = {"curve", "curveData", "signals"})
 public class TrackEntity extends BaseEntity implements Serializable {
     private static final long serialVersionUID = 1L;
 
@@ -47,9 +48,20 @@ public class TrackEntity extends BaseEntity implements Serializable {
     @Column(name = "end_junction_id")
     private String endJunctionId;
 
+    /**
+     * 曲線の点（1点1行）
+     * {@link #curveData} が設定されている線路では使わない。
+     */
     @OneToMany(mappedBy = "track", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Point3DEmbeddable> curve = new ArrayList<>();
 
+    /**
+     * 曲線の点を詰めたバイト列（TrackCurveCodec 形式）
+     * 設定されている場合は {@link #curve} より優先する。曲線を編集するときはこの列を書き換えること。
+     */
+    @Column(name = "curve_data", length = 1_048_576)
+    private byte[] curveData;
+
     @OneToMany(mappedBy = "track", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<SignalEntity> signals = new ArrayList<>();
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package net.rushhourgame.core.database.entities;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * 線路エンティティの変更を {@link TrackChangedEvent} として発行するエンティティリスナー
+ * サービスを通さずリポジトリで書き込んだ場合も、線路網と経路探索のグラフが変更を受け取れるようにする。
+ * Hibernate が Spring のコンテナから生成する。
+ */
+public class TrackEntityListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    public TrackEntityListener(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void saved(TrackEntity track) {
+        publisher.publishEvent(new TrackChangedEvent(track.getId(), false));
+    }
+
+    @PostRemove
+    public void removed(TrackEntity track) {
+        publisher.publishEvent(new TrackChangedEvent(track.getId(), true));
+    }
+}
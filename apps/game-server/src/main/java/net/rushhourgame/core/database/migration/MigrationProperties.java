@@ -0,0 +1,22 @@
+package net.rushhourgame.core.database.migration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 起動時のデータ移行の設定
+ */
+@Data
+@ConfigurationProperties(prefix = "rushhour.migration")
+public class MigrationProperties {
+
+    /**
+     * 起動時に線路の曲線の点（1点1行）を curve_data 列に詰め、点の行を削除するか
+     */
+    private boolean packTrackCurves = false;
+
+    /**
+     * 1トランザクションで移行する線路の数
+     */
+    private int batchSize = 100;
+}
@@ -0,0 +1,76 @@
+package net.rushhourgame.core.database.migration;
+
+import lombok.RequiredArgsConstructor;
+import net.rushhourgame.core.database.entities.TrackEntity;
+import net.rushhourgame.core.database.repositories.TrackRepository;
+import net.rushhourgame.core.simulation.TrackCurveCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 線路の曲線の点（track_curve_points の1点1行）を tracks.curve_data に詰める移行処理
+ * 線路ごとに点を詰めて保存し、同じトランザクションで点の行を削除する。途中で止まっても未移行の線路から再開できる。
+ * 線路網の読み込みより先に実行する。
+ */
+@Component
+@RequiredArgsConstructor
+public class TrackCurveMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackCurveMigration.class);
+
+    private final TrackRepository trackRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MigrationProperties properties;
+
+    /**
+     * 起動完了時に移行する（設定で有効な場合のみ）
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (properties.isPackTrackCurves()) {
+            migrate();
+        }
+    }
+
+    /**
+     * 未移行の線路をすべて移行する
+     * @return 移行した線路の数
+     */
+    public int migrate() {
+        List<String> ids = trackRepository.findIdsWithUnpackedCurve();
+        int batchSize = Math.max(1, properties.getBatchSize());
+        int migrated = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<String> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            Integer count = transactionTemplate.execute(status -> packBatch(batch));
+            migrated += count == null ? 0 : count;
+        }
+        if (migrated > 0) {
+            logger.info("Packed curve points of {} tracks into curve_data", migrated);
+        }
+        return migrated;
+    }
+
+    private int packBatch(List<String> ids) {
+        List<TrackEntity> tracks = trackRepository.findAllWithCurveByIdIn(ids);
+        for (TrackEntity track : tracks) {
+            // 他の処理が先に詰めた線路は上書きしない
+            if (track.getCurveData() == null) {
+                track.setCurveData(TrackCurveCodec.encode(track.getCurve()));
+            }
+            track.getCurve().clear();
+        }
+        trackRepository.saveAllAndFlush(tracks);
+        trackRepository.deleteCurvePointsByTrackIdIn(ids);
+        return tracks.size();
+    }
+}
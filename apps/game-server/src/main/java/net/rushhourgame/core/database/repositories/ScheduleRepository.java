@@ -1,7 +1,9 @@
 package net.rushhourgame.core.database.repositories;
 
 import net.rushhourgame.core.database.entities.ScheduleEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -22,4 +24,11 @@ public interface ScheduleRepository extends JpaRepository<ScheduleEntity, String
      * 電車IDでスケジュールを検索
      */
     Optional<ScheduleEntity> findByTrain_Id(String trainId);
+
+    /**
+     * スケジュールと停車時間を一緒に取得
+     */
+    @EntityGraph(attributePaths = {"stopTimes"})
+    @Query("SELECT s FROM ScheduleEntity s")
+    List<ScheduleEntity> findAllWithStopTimes();
 }
@@ -42,6 +42,13 @@ public interface SignalRepository extends JpaRepository<SignalEntity, String> {
     @Override
     List<SignalEntity> findAll();
     
+    /**
+     * 全信号機を線路・保護対象線路IDと一緒に取得
+     */
+    @EntityGraph(attributePaths = {"track", "protectedTrackIds"})
+    @Query("SELECT s FROM SignalEntity s")
+    List<SignalEntity> findAllWithProtectedTracks();
+    
     /**
      * IDで信号機と線路を取得
      */
@@ -3,10 +3,12 @@ package net.rushhourgame.core.database.repositories;
 import net.rushhourgame.core.database.entities.TrackEntity;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -67,6 +69,39 @@ public interface TrackRepository extends JpaRepository<TrackEntity, String> {
     @Query("SELECT t FROM TrackEntity t")
     List<TrackEntity> findAllWithCurve();
     
+    /**
+     * 曲線の点を詰めた線路を取得（点の行は読み込まない）
+     */
+    @Query("SELECT t FROM TrackEntity t WHERE t.curveData IS NOT NULL")
+    List<TrackEntity> findAllWithPackedCurve();
+    
+    /**
+     * 曲線の点を詰めていない線路をカーブと一緒に取得
+     */
+    @EntityGraph(attributePaths = {"curve"})
+    @Query("SELECT t FROM TrackEntity t WHERE t.curveData IS NULL")
+    List<TrackEntity> findAllWithUnpackedCurve();
+    
+    /**
+     * 曲線の点を詰めていない線路のIDを取得
+     */
+    @Query("SELECT t.id FROM TrackEntity t WHERE t.curveData IS NULL ORDER BY t.id")
+    List<String> findIdsWithUnpackedCurve();
+    
+    /**
+     * IDで線路とカーブを一括取得
+     */
+    @EntityGraph(attributePaths = {"curve"})
+    @Query("SELECT t FROM TrackEntity t WHERE t.id IN :ids")
+    List<TrackEntity> findAllWithCurveByIdIn(@Param("ids") Collection<String> ids);
+    
+    /**
+     * 指定した線路の曲線の点（1点1行）を一括削除
+     */
+    @Modifying
+    @Query("DELETE FROM Point3DEmbeddable p WHERE p.track.id IN :ids")
+    int deleteCurvePointsByTrackIdIn(@Param("ids") Collection<String> ids);
+    
     /**
      * 信号機のみを一緒に取得
      */
@@ -0,0 +1,141 @@
+package net.rushhourgame.core.event;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.rushhourgame.models.event.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 区画（{@link EventPartition}）に発行されたドメインイベントを購読者へまとめて配信する
+ * 発行側は自分の区画に書き込むだけで購読者を呼び出さず、配信は {@link #dispatch()} を呼ぶ1つのスレッド
+ * （{@link EventDispatchSystem} によりティックスレッド）がバッチ単位で行う。
+ * 購読者は含まれる種別を購読しているバッチだけを受け取る。配信中に発行されたイベントは次の配信で渡す。
+ */
+@Component
+public class DomainEventBus implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DomainEventBus.class);
+
+    private final int partitionCapacity;
+    private final int batchSize;
+    private final List<EventPartition> partitions = new CopyOnWriteArrayList<>();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final EventBatch batch = new EventBatch();
+
+    private final AtomicLong dispatched = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public DomainEventBus(EventBusProperties properties) {
+        this.partitionCapacity = properties.getPartitionCapacity();
+        this.batchSize = Math.max(1, properties.getBatchSize());
+    }
+
+    /**
+     * 書き込みスレッド用の区画を作って登録する
+     */
+    public EventPartition createPartition(String name) {
+        return register(new EventPartition(name, partitionCapacity));
+    }
+
+    /**
+     * 区画を配信対象に登録する
+     */
+    public EventPartition register(EventPartition partition) {
+        partitions.add(partition);
+        return partition;
+    }
+
+    /**
+     * 指定した種別のイベントを購読する
+     */
+    public void subscribe(EventSubscriber subscriber, EventType type, EventType... types) {
+        long mask = type.mask();
+        for (EventType other : types) {
+            mask |= other.mask();
+        }
+        subscriptions.add(new Subscription(subscriber, mask));
+    }
+
+    /**
+     * 全区画の配信待ちのイベントを購読者に渡す（配信スレッドからのみ呼び出すこと）
+     * 購読者の例外は記録して続行する。
+     * @return 配信したイベント数
+     */
+    public int dispatch() {
+        int total = 0;
+        for (EventPartition partition : partitions) {
+            long start = partition.consumedSequence();
+            long end = partition.publishedSequence();
+            while (start < end) {
+                int size = (int) Math.min(batchSize, end - start);
+                long types = 0;
+                for (long sequence = start; sequence < start + size; sequence++) {
+                    types |= partition.slot(sequence).getType().mask();
+                }
+                batch.reset(partition, start, size);
+                for (Subscription subscription : subscriptions) {
+                    if ((subscription.types() & types) == 0) {
+                        continue;
+                    }
+                    try {
+                        subscription.subscriber().onEvents(batch);
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                        logger.warn("Event subscriber failed on partition {}", partition.getName(), e);
+                    }
+                }
+                start += size;
+                partition.consume(start);
+                total += size;
+            }
+        }
+        dispatched.addAndGet(total);
+        return total;
+    }
+
+    public List<EventPartition> getPartitions() {
+        return List.copyOf(partitions);
+    }
+
+    public long getPublished() {
+        return partitions.stream().mapToLong(EventPartition::publishedCount).sum();
+    }
+
+    public long getDropped() {
+        return partitions.stream().mapToLong(EventPartition::droppedCount).sum();
+    }
+
+    public long getDispatched() {
+        return dispatched.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rushhour.events.published", this, DomainEventBus::getPublished)
+            .description("Domain events published to the event bus")
+            .register(registry);
+        FunctionCounter.builder("rushhour.events.dropped", this, DomainEventBus::getDropped)
+            .description("Domain events dropped because a partition was full")
+            .register(registry);
+        FunctionCounter.builder("rushhour.events.dispatched", this, DomainEventBus::getDispatched)
+            .description("Domain events dispatched to subscribers")
+            .register(registry);
+        FunctionCounter.builder("rushhour.events.subscriber.failures", this, DomainEventBus::getFailures)
+            .description("Event batches whose subscriber threw an exception")
+            .register(registry);
+    }
+
+    private record Subscription(EventSubscriber subscriber, long types) {
+    }
+}
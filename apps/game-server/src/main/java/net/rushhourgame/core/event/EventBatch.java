@@ -0,0 +1,41 @@
+package net.rushhourgame.core.event;
+
+import net.rushhourgame.models.event.Event;
+
+/**
+ * 購読者にまとめて渡す、1つの区画の連続したイベント
+ * リングバッファの枠をそのまま参照するため、{@link EventSubscriber#onEvents} の中でのみ有効。
+ */
+public final class EventBatch {
+
+    private EventPartition partition;
+    private long start;
+    private int size;
+
+    void reset(EventPartition partition, long start, int size) {
+        this.partition = partition;
+        this.start = start;
+        this.size = size;
+    }
+
+    /**
+     * イベントを発行した区画
+     */
+    public EventPartition partition() {
+        return partition;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * i 番目（発行順）のイベント
+     */
+    public Event get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return partition.slot(start + i);
+    }
+}
@@ -0,0 +1,22 @@
+package net.rushhourgame.core.event;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * ドメインイベントバスの設定
+ */
+@Data
+@ConfigurationProperties(prefix = "rushhour.events")
+public class EventBusProperties {
+
+    /**
+     * 区画ごとのリングバッファの容量（2のべき乗に切り上げる）。配信までに溢れたイベントは破棄する
+     */
+    private int partitionCapacity = 65_536;
+
+    /**
+     * 購読者に1回で渡すイベント数の上限
+     */
+    private int batchSize = 1_024;
+}
@@ -0,0 +1,28 @@
+package net.rushhourgame.core.event;
+
+import net.rushhourgame.core.simulation.SimulationSystem;
+import net.rushhourgame.core.simulation.SimulationWorld;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * ティックの終わりにドメインイベントを配信するシステム
+ * ティックスレッドの区画（{@link SimulationWorld#getEvents()}）を登録し、購読者をティックスレッド上で呼び出す。
+ * 配信は状態を進めるシステムの後、フレームの配信の前に行う。
+ */
+@Component
+@Order(900)
+public class EventDispatchSystem implements SimulationSystem {
+
+    private final DomainEventBus bus;
+
+    public EventDispatchSystem(DomainEventBus bus, SimulationWorld world) {
+        this.bus = bus;
+        bus.register(world.getEvents());
+    }
+
+    @Override
+    public void update(long tick, double deltaSeconds) {
+        bus.dispatch();
+    }
+}
@@ -0,0 +1,129 @@
+package net.rushhourgame.core.event;
+
+import net.rushhourgame.models.event.Event;
+import net.rushhourgame.models.event.EventType;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * イベントバスの1区画（書き込みスレッド1つ・読み出しスレッド1つのリングバッファ）
+ * イベントは事前に確保した {@link Event} を上書きして発行するため、発行時にオブジェクトを割り当てない。
+ * 発行は区画を所有する1つのスレッドからのみ行うこと（ティックスレッドの区画は {@link
+ * net.rushhourgame.core.simulation.SimulationWorld#getEvents()}）。
+ * 満杯の間に発行したイベントは破棄して数える。区画内の順序は発行順に保たれる。
+ */
+public final class EventPartition {
+
+    private final String name;
+    private final Event[] slots;
+    private final int mask;
+    // 発行済み・配信済みの通し番号（書き込み側と読み出し側の受け渡し）
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // 書き込みスレッドだけが使う
+    private long tail;
+    private long consumedCache;
+    private long tick;
+
+    /**
+     * @param capacity 容量（2のべき乗に切り上げる）
+     */
+    public EventPartition(String name, int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.name = name;
+        this.slots = new Event[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Event();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * 以降に発行するイベントのティック番号
+     */
+    public void setTick(long tick) {
+        this.tick = tick;
+    }
+
+    /**
+     * イベントを発行する（区画を所有するスレッドからのみ呼び出すこと）
+     * @return 満杯で破棄した場合false
+     */
+    public boolean publish(EventType type, int subject, int target, double value) {
+        long sequence = tail;
+        if (sequence - consumedCache >= slots.length) {
+            consumedCache = consumed.get();
+            if (sequence - consumedCache >= slots.length) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        }
+        slots[(int) sequence & mask].set(type, tick, subject, target, value);
+        tail = sequence + 1;
+        published.lazySet(tail);
+        return true;
+    }
+
+    /**
+     * 相手のないイベントを発行する
+     */
+    public boolean publish(EventType type, int subject, double value) {
+        return publish(type, subject, -1, value);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * 発行したイベントの累計
+     */
+    public long publishedCount() {
+        return published.get();
+    }
+
+    /**
+     * 満杯で破棄したイベントの累計
+     */
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * 配信待ちのイベント数
+     */
+    public int pending() {
+        return (int) (published.get() - consumed.get());
+    }
+
+    long publishedSequence() {
+        return published.get();
+    }
+
+    long consumedSequence() {
+        return consumed.get();
+    }
+
+    /**
+     * sequence までの枠を書き込み側に返す
+     */
+    void consume(long sequence) {
+        consumed.lazySet(sequence);
+    }
+
+    Event slot(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+}
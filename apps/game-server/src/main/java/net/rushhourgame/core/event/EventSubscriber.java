@@ -0,0 +1,14 @@
+package net.rushhourgame.core.event;
+
+/**
+ * ドメインイベントの購読者
+ * 配信スレッド（ティックスレッド）から呼び出される。購読した種別以外のイベントもバッチに含まれるため、種別を確認すること。
+ */
+@FunctionalInterface
+public interface EventSubscriber {
+
+    /**
+     * 購読した種別を含むバッチを受け取る
+     */
+    void onEvents(EventBatch batch);
+}
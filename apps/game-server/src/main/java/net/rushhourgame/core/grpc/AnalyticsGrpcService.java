@@ -0,0 +1,74 @@
+package net.rushhourgame.core.grpc;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import net.rushhourgame.core.analytics.AnalyticsIngestor;
+import net.rushhourgame.proto.AnalyticsServiceGrpc;
+import net.rushhourgame.proto.GameEvent;
+import net.rushhourgame.proto.GameEventBatch;
+import net.rushhourgame.proto.TrackEventResponse;
+import net.rushhourgame.proto.TrackEventsResponse;
+import org.springframework.stereotype.Component;
+
+/**
+ * AnalyticsServiceのgRPC実装
+ * イベントはバッファに入れるだけで、保存は {@link AnalyticsIngestor} の書き出しスレッドが行う。
+ * ストリームは1件ずつメッセージを要求し、バッファの使用率が閾値を超えている間は要求を止める（フロー制御で送信側を待たせる）。
+ */
+@Component
+@RequiredArgsConstructor
+public class AnalyticsGrpcService extends AnalyticsServiceGrpc.AnalyticsServiceImplBase {
+
+    private final AnalyticsIngestor ingestor;
+
+    @Override
+    public void trackEvent(GameEvent request, StreamObserver<TrackEventResponse> responseObserver) {
+        ingestor.offer(request);
+        responseObserver.onNext(TrackEventResponse.getDefaultInstance());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public StreamObserver<GameEventBatch> trackEvents(StreamObserver<TrackEventsResponse> responseObserver) {
+        ServerCallStreamObserver<TrackEventsResponse> serverObserver =
+            (ServerCallStreamObserver<TrackEventsResponse>) responseObserver;
+        serverObserver.disableAutoRequest();
+        serverObserver.request(1);
+
+        return new StreamObserver<>() {
+            private long accepted;
+            private long dropped;
+
+            @Override
+            public void onNext(GameEventBatch batch) {
+                for (GameEvent event : batch.getEventsList()) {
+                    if (ingestor.offer(event)) {
+                        accepted++;
+                    } else {
+                        dropped++;
+                    }
+                }
+                if (ingestor.shouldPause()) {
+                    ingestor.resumeWhenDrained(() -> serverObserver.request(1));
+                } else {
+                    serverObserver.request(1);
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // 受け付け済みのイベントはそのまま保存する
+            }
+
+            @Override
+            public void onCompleted() {
+                serverObserver.onNext(TrackEventsResponse.newBuilder()
+                    .setAccepted(accepted)
+                    .setDropped(dropped)
+                    .build());
+                serverObserver.onCompleted();
+            }
+        };
+    }
+}
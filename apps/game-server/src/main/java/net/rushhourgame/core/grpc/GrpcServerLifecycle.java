@@ -0,0 +1,75 @@
+package net.rushhourgame.core.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * gRPCサーバーの起動・停止を管理する
+ * コンテナ内の {@link BindableService} をすべて登録する。
+ */
+@Component
+public class GrpcServerLifecycle implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcServerLifecycle.class);
+
+    private final GrpcServerProperties properties;
+    private final ObjectProvider<BindableService> services;
+
+    private volatile Server server;
+
+    public GrpcServerLifecycle(GrpcServerProperties properties, ObjectProvider<BindableService> services) {
+        this.properties = properties;
+        this.services = services;
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled() || server != null) {
+            return;
+        }
+        ServerBuilder<?> builder = ServerBuilder.forPort(properties.getPort());
+        List<BindableService> bindable = services.orderedStream().toList();
+        bindable.forEach(builder::addService);
+        try {
+            server = builder.build().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start gRPC server on port " + properties.getPort(), e);
+        }
+        logger.info("gRPC server started on port {} with {} services", server.getPort(), bindable.size());
+    }
+
+    @Override
+    public void stop() {
+        Server current = server;
+        if (current == null) {
+            return;
+        }
+        server = null;
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(properties.getShutdownGraceSeconds(), TimeUnit.SECONDS)) {
+                current.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            current.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        logger.info("gRPC server stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+}
@@ -0,0 +1,27 @@
+package net.rushhourgame.core.grpc;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * gRPCサーバーの設定
+ */
+@Data
+@ConfigurationProperties(prefix = "rushhour.grpc")
+public class GrpcServerProperties {
+
+    /**
+     * gRPCサーバーを起動するか
+     */
+    private boolean enabled = true;
+
+    /**
+     * 待ち受けポート
+     */
+    private int port = 9090;
+
+    /**
+     * 停止時に処理中の呼び出しを待つ最大時間（秒）
+     */
+    private long shutdownGraceSeconds = 5;
+}
@@ -0,0 +1,38 @@
+package net.rushhourgame.core.grpc;
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import net.rushhourgame.core.exceptions.EntityNotFoundException;
+import net.rushhourgame.core.pathfinding.PathResult;
+import net.rushhourgame.core.pathfinding.TrackGraphService;
+import net.rushhourgame.proto.PathRequest;
+import net.rushhourgame.proto.PathResponse;
+import net.rushhourgame.proto.PathfindingServiceGrpc;
+import org.springframework.stereotype.Component;
+
+/**
+ * PathfindingServiceのgRPC実装
+ * 経路が存在しない場合はノードが空の応答を返す。
+ */
+@Component
+@RequiredArgsConstructor
+public class PathfindingGrpcService extends PathfindingServiceGrpc.PathfindingServiceImplBase {
+
+    private final TrackGraphService trackGraphService;
+
+    @Override
+    public void findPath(PathRequest request, StreamObserver<PathResponse> responseObserver) {
+        PathResult result;
+        try {
+            result = trackGraphService.findPath(request.getStartNode(), request.getEndNode());
+        } catch (EntityNotFoundException e) {
+            responseObserver.onError(Status.NOT_FOUND.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(PathResponse.newBuilder()
+            .addAllNodes(result.junctionIds())
+            .build());
+        responseObserver.onCompleted();
+    }
+}
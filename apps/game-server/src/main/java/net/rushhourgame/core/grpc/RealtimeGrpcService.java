@@ -0,0 +1,50 @@
+package net.rushhourgame.core.grpc;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import net.rushhourgame.core.realtime.InterestArea;
+import net.rushhourgame.core.realtime.RealtimeBroadcaster;
+import net.rushhourgame.core.realtime.RealtimeSubscription;
+import net.rushhourgame.proto.GameStateUpdate;
+import net.rushhourgame.proto.GameStateUpdateRequest;
+import net.rushhourgame.proto.RealtimeServiceGrpc;
+import org.springframework.stereotype.Component;
+
+/**
+ * RealtimeServiceのgRPC実装
+ * ストリームごとに購読を登録し、クライアントの切断・終了で解除する。
+ * クライアントから届いたリクエストの表示範囲を、その購読の関心領域とする。
+ */
+@Component
+@RequiredArgsConstructor
+public class RealtimeGrpcService extends RealtimeServiceGrpc.RealtimeServiceImplBase {
+
+    private final RealtimeBroadcaster broadcaster;
+
+    @Override
+    public StreamObserver<GameStateUpdateRequest> streamGameState(StreamObserver<GameStateUpdate> responseObserver) {
+        ServerCallStreamObserver<GameStateUpdate> serverObserver =
+            (ServerCallStreamObserver<GameStateUpdate>) responseObserver;
+        RealtimeSubscription subscription = broadcaster.subscribe(serverObserver);
+        serverObserver.setOnCancelHandler(() -> broadcaster.unsubscribe(subscription));
+
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(GameStateUpdateRequest request) {
+                subscription.updateInterest(InterestArea.of(request.getMinX(), request.getMinY(),
+                    request.getMaxX(), request.getMaxY(), request.getZoom()));
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                broadcaster.unsubscribe(subscription);
+            }
+
+            @Override
+            public void onCompleted() {
+                broadcaster.complete(subscription);
+            }
+        };
+    }
+}
@@ -0,0 +1,138 @@
+package net.rushhourgame.core.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 双方向ダイクストラ法による最短所要時間経路探索
+ * 出発側（順方向辺）と到着側（逆方向辺）から交互に探索し、両側の最小キーの和が暫定最短距離以上になった時点で終了する。
+ * 作業配列は探索ごとの世代番号で無効化し、ノード数に比例するクリアを行わない。
+ */
+public final class BidirectionalDijkstra implements PathSearcher {
+
+    private final TrackGraph graph;
+
+    private final double[] forwardDistance;
+    private final int[] forwardPredecessor;
+    private final int[] forwardTrack;
+    private final int[] forwardSeen;
+    private final IndexedMinHeap forwardHeap;
+
+    private final double[] backwardDistance;
+    private final int[] backwardSuccessor;
+    private final int[] backwardTrack;
+    private final int[] backwardSeen;
+    private final IndexedMinHeap backwardHeap;
+
+    private int stamp;
+
+    public BidirectionalDijkstra(TrackGraph graph) {
+        this.graph = graph;
+        int n = graph.nodeCount();
+        forwardDistance = new double[n];
+        forwardPredecessor = new int[n];
+        forwardTrack = new int[n];
+        forwardSeen = new int[n];
+        forwardHeap = new IndexedMinHeap(n);
+        backwardDistance = new double[n];
+        backwardSuccessor = new int[n];
+        backwardTrack = new int[n];
+        backwardSeen = new int[n];
+        backwardHeap = new IndexedMinHeap(n);
+    }
+
+    public TrackGraph getGraph() {
+        return graph;
+    }
+
+    @Override
+    public PathResult search(int source, int target) {
+        if (source == target) {
+            return new PathResult(List.of(graph.nodeId(source)), List.of(), 0.0);
+        }
+        nextStamp();
+        forwardHeap.clear();
+        backwardHeap.clear();
+        reach(forwardDistance, forwardPredecessor, forwardTrack, forwardSeen, source, 0.0, TrackGraph.NO_NODE, -1);
+        forwardHeap.insertOrDecrease(source, 0.0);
+        reach(backwardDistance, backwardSuccessor, backwardTrack, backwardSeen, target, 0.0, TrackGraph.NO_NODE, -1);
+        backwardHeap.insertOrDecrease(target, 0.0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = TrackGraph.NO_NODE;
+        while (forwardHeap.minKey() + backwardHeap.minKey() < best) {
+            if (forwardHeap.minKey() <= backwardHeap.minKey()) {
+                int u = forwardHeap.poll();
+                double du = forwardDistance[u];
+                for (int slot = graph.outStart(u), end = graph.outEnd(u); slot < end; slot++) {
+                    int v = graph.outTarget(slot);
+                    double dv = du + graph.outWeight(slot);
+                    if (forwardSeen[v] != stamp || dv < forwardDistance[v]) {
+                        reach(forwardDistance, forwardPredecessor, forwardTrack, forwardSeen, v, dv, u, graph.outTrack(slot));
+                        forwardHeap.insertOrDecrease(v, dv);
+                        if (backwardSeen[v] == stamp && dv + backwardDistance[v] < best) {
+                            best = dv + backwardDistance[v];
+                            meeting = v;
+                        }
+                    }
+                }
+            } else {
+                int u = backwardHeap.poll();
+                double du = backwardDistance[u];
+                for (int slot = graph.inStart(u), end = graph.inEnd(u); slot < end; slot++) {
+                    int v = graph.inSource(slot);
+                    double dv = du + graph.inWeight(slot);
+                    if (backwardSeen[v] != stamp || dv < backwardDistance[v]) {
+                        reach(backwardDistance, backwardSuccessor, backwardTrack, backwardSeen, v, dv, u, graph.inTrack(slot));
+                        backwardHeap.insertOrDecrease(v, dv);
+                        if (forwardSeen[v] == stamp && dv + forwardDistance[v] < best) {
+                            best = dv + forwardDistance[v];
+                            meeting = v;
+                        }
+                    }
+                }
+            }
+        }
+        if (meeting == TrackGraph.NO_NODE) {
+            return PathResult.notFound();
+        }
+        return buildResult(meeting, best);
+    }
+
+    private void reach(double[] distance, int[] link, int[] track, int[] seen,
+                       int node, double value, int linkedNode, int linkedTrack) {
+        distance[node] = value;
+        link[node] = linkedNode;
+        track[node] = linkedTrack;
+        seen[node] = stamp;
+    }
+
+    private PathResult buildResult(int meeting, double travelTime) {
+        List<String> junctions = new ArrayList<>();
+        List<String> tracks = new ArrayList<>();
+        for (int node = meeting; node != TrackGraph.NO_NODE; node = forwardPredecessor[node]) {
+            junctions.add(graph.nodeId(node));
+            if (forwardTrack[node] >= 0) {
+                tracks.add(graph.trackId(forwardTrack[node]));
+            }
+        }
+        Collections.reverse(junctions);
+        Collections.reverse(tracks);
+        for (int node = meeting; backwardSuccessor[node] != TrackGraph.NO_NODE; node = backwardSuccessor[node]) {
+            tracks.add(graph.trackId(backwardTrack[node]));
+            junctions.add(graph.nodeId(backwardSuccessor[node]));
+        }
+        return new PathResult(List.copyOf(junctions), List.copyOf(tracks), travelTime);
+    }
+
+    private void nextStamp() {
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(forwardSeen, 0);
+            Arrays.fill(backwardSeen, 0);
+            stamp = 0;
+        }
+        stamp++;
+    }
+}
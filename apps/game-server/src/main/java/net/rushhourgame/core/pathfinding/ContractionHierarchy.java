@@ -0,0 +1,438 @@
+package net.rushhourgame.core.pathfinding;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 線路グラフの縮約階層（Contraction Hierarchies）
+ * 重要度の低い接続点から順に縮約し、迂回路が無い場合のみショートカット辺を追加する。
+ * 探索は上向き辺だけを辿る双方向探索となるため、大規模な線路網でも訪問ノード数が小さい。
+ * 構築後は不変で、複数スレッドから共有できる。
+ */
+public final class ContractionHierarchy {
+
+    /**
+     * 迂回路探索（witness search）で確定させるノード数の上限
+     * 上限に達した場合は迂回路なしとみなしてショートカットを追加する（結果の正しさには影響しない）。
+     */
+    static final int WITNESS_SETTLE_LIMIT = 64;
+
+    private final TrackGraph graph;
+    private final int[] ranks;
+
+    // 辺（元の線路とショートカット）。ショートカットは2本の子辺を連結したもの
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    private final int[] edgeTrack;
+    private final int[] edgeFirst;
+    private final int[] edgeSecond;
+    private final int shortcutCount;
+
+    // 上向き辺（ランクの低いノードから高いノードへ）
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final double[] upWeights;
+    private final int[] upEdges;
+
+    // 逆向きに辿る下向き辺（到着側の探索で、ランクの低いノードから高いノードへ遡る）
+    private final int[] downOffsets;
+    private final int[] downSources;
+    private final double[] downWeights;
+    private final int[] downEdges;
+
+    private ContractionHierarchy(Contractor contractor) {
+        this.graph = contractor.graph;
+        this.ranks = contractor.ranks;
+        int m = contractor.edgeCount;
+        this.edgeFrom = Arrays.copyOf(contractor.from, m);
+        this.edgeTo = Arrays.copyOf(contractor.to, m);
+        this.edgeTrack = Arrays.copyOf(contractor.track, m);
+        this.edgeFirst = Arrays.copyOf(contractor.first, m);
+        this.edgeSecond = Arrays.copyOf(contractor.second, m);
+        this.shortcutCount = contractor.shortcutCount;
+
+        int n = graph.nodeCount();
+        upOffsets = new int[n + 1];
+        downOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            if (ranks[edgeFrom[e]] < ranks[edgeTo[e]]) {
+                upOffsets[edgeFrom[e] + 1]++;
+            } else {
+                downOffsets[edgeTo[e] + 1]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            upOffsets[i + 1] += upOffsets[i];
+            downOffsets[i + 1] += downOffsets[i];
+        }
+        upTargets = new int[upOffsets[n]];
+        upWeights = new double[upOffsets[n]];
+        upEdges = new int[upOffsets[n]];
+        downSources = new int[downOffsets[n]];
+        downWeights = new double[downOffsets[n]];
+        downEdges = new int[downOffsets[n]];
+        int[] upCursor = upOffsets.clone();
+        int[] downCursor = downOffsets.clone();
+        for (int e = 0; e < m; e++) {
+            if (ranks[edgeFrom[e]] < ranks[edgeTo[e]]) {
+                int slot = upCursor[edgeFrom[e]]++;
+                upTargets[slot] = edgeTo[e];
+                upWeights[slot] = contractor.weight[e];
+                upEdges[slot] = e;
+            } else {
+                int slot = downCursor[edgeTo[e]]++;
+                downSources[slot] = edgeFrom[e];
+                downWeights[slot] = contractor.weight[e];
+                downEdges[slot] = e;
+            }
+        }
+    }
+
+    /**
+     * 線路グラフから縮約階層を構築
+     * ノード数・辺数に対して重い処理のため、リクエスト処理スレッドでは呼び出さないこと。
+     */
+    public static ContractionHierarchy build(TrackGraph graph) {
+        Contractor contractor = new Contractor(graph);
+        contractor.contractAll();
+        return new ContractionHierarchy(contractor);
+    }
+
+    public TrackGraph getGraph() {
+        return graph;
+    }
+
+    public int rank(int node) {
+        return ranks[node];
+    }
+
+    public int shortcutCount() {
+        return shortcutCount;
+    }
+
+    // 出発側の探索：upStart(u) 以上 upEnd(u) 未満の位置にある上向き辺を走査する
+
+    int upStart(int node) {
+        return upOffsets[node];
+    }
+
+    int upEnd(int node) {
+        return upOffsets[node + 1];
+    }
+
+    int upTarget(int slot) {
+        return upTargets[slot];
+    }
+
+    double upWeight(int slot) {
+        return upWeights[slot];
+    }
+
+    int upEdge(int slot) {
+        return upEdges[slot];
+    }
+
+    // 到着側の探索：downStart(v) 以上 downEnd(v) 未満の位置にある辺を逆向きに走査する
+
+    int downStart(int node) {
+        return downOffsets[node];
+    }
+
+    int downEnd(int node) {
+        return downOffsets[node + 1];
+    }
+
+    int downSource(int slot) {
+        return downSources[slot];
+    }
+
+    double downWeight(int slot) {
+        return downWeights[slot];
+    }
+
+    int downEdge(int slot) {
+        return downEdges[slot];
+    }
+
+    int edgeFrom(int edge) {
+        return edgeFrom[edge];
+    }
+
+    int edgeTo(int edge) {
+        return edgeTo[edge];
+    }
+
+    /**
+     * 辺を元の線路の列に展開し、線路IDと到達する接続点IDを追加する
+     */
+    void unpack(int edge, List<String> junctionIds, List<String> trackIds) {
+        int[] stack = new int[16];
+        int size = 0;
+        stack[size++] = edge;
+        while (size > 0) {
+            int e = stack[--size];
+            if (edgeTrack[e] >= 0) {
+                trackIds.add(graph.trackId(edgeTrack[e]));
+                junctionIds.add(graph.nodeId(edgeTo[e]));
+                continue;
+            }
+            if (size + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            stack[size++] = edgeSecond[e];
+            stack[size++] = edgeFirst[e];
+        }
+    }
+
+    /**
+     * 縮約処理の作業状態
+     */
+    private static final class Contractor {
+
+        private final TrackGraph graph;
+        private final int[] ranks;
+
+        private int edgeCount;
+        private int shortcutCount;
+        private int[] from;
+        private int[] to;
+        private double[] weight;
+        private int[] track;
+        private int[] first;
+        private int[] second;
+
+        private final EdgeList[] outEdges;
+        private final EdgeList[] inEdges;
+        private final boolean[] contracted;
+        private final int[] deletedNeighbours;
+
+        private final double[] witnessDistance;
+        private final int[] witnessSeen;
+        private final IndexedMinHeap witnessHeap;
+        private int witnessStamp;
+
+        Contractor(TrackGraph graph) {
+            this.graph = graph;
+            int n = graph.nodeCount();
+            int capacity = Math.max(16, graph.edgeCount() * 2);
+            ranks = new int[n];
+            from = new int[capacity];
+            to = new int[capacity];
+            weight = new double[capacity];
+            track = new int[capacity];
+            first = new int[capacity];
+            second = new int[capacity];
+            outEdges = new EdgeList[n];
+            inEdges = new EdgeList[n];
+            for (int v = 0; v < n; v++) {
+                outEdges[v] = new EdgeList();
+                inEdges[v] = new EdgeList();
+            }
+            contracted = new boolean[n];
+            deletedNeighbours = new int[n];
+            witnessDistance = new double[n];
+            witnessSeen = new int[n];
+            witnessHeap = new IndexedMinHeap(n);
+
+            for (int u = 0; u < n; u++) {
+                for (int slot = graph.outStart(u), end = graph.outEnd(u); slot < end; slot++) {
+                    int w = graph.outTarget(slot);
+                    if (w != u) {
+                        addEdge(u, w, graph.outWeight(slot), graph.outTrack(slot), -1, -1);
+                    }
+                }
+            }
+        }
+
+        void contractAll() {
+            int n = graph.nodeCount();
+            IndexedMinHeap queue = new IndexedMinHeap(n);
+            for (int v = 0; v < n; v++) {
+                queue.insertOrDecrease(v, priority(v));
+            }
+            int nextRank = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                // 優先度は遅延更新：取り出した時点で再計算し、最小でなくなっていれば戻す
+                double current = priority(v);
+                if (!queue.isEmpty() && current > queue.minKey()) {
+                    queue.insertOrDecrease(v, current);
+                    continue;
+                }
+                contract(v, false);
+                contracted[v] = true;
+                ranks[v] = nextRank++;
+                detach(v);
+            }
+        }
+
+        /**
+         * 縮約の優先度（追加されるショートカット数 - 除去される辺数 + 縮約済み隣接ノード数）
+         */
+        private double priority(int v) {
+            int removed = 0;
+            EdgeList in = inEdges[v];
+            for (int i = 0; i < in.size; i++) {
+                if (!contracted[from[in.items[i]]]) {
+                    removed++;
+                }
+            }
+            EdgeList out = outEdges[v];
+            for (int i = 0; i < out.size; i++) {
+                if (!contracted[to[out.items[i]]]) {
+                    removed++;
+                }
+            }
+            return contract(v, true) - removed + deletedNeighbours[v];
+        }
+
+        /**
+         * ノードを縮約し、必要なショートカット数を返す
+         * @param simulate trueの場合はショートカットを追加せず数えるだけ
+         */
+        private int contract(int v, boolean simulate) {
+            EdgeList in = inEdges[v];
+            EdgeList out = outEdges[v];
+            double maxOut = 0.0;
+            for (int j = 0; j < out.size; j++) {
+                int f = out.items[j];
+                if (!contracted[to[f]]) {
+                    maxOut = Math.max(maxOut, weight[f]);
+                }
+            }
+            int shortcuts = 0;
+            for (int i = 0; i < in.size; i++) {
+                int e = in.items[i];
+                int u = from[e];
+                if (contracted[u]) {
+                    continue;
+                }
+                double incoming = weight[e];
+                witnessSearch(u, v, incoming + maxOut);
+                for (int j = 0; j < out.size; j++) {
+                    int f = out.items[j];
+                    int w = to[f];
+                    if (contracted[w] || w == u) {
+                        continue;
+                    }
+                    double via = incoming + weight[f];
+                    if (witnessSeen[w] == witnessStamp && witnessDistance[w] <= via) {
+                        continue;
+                    }
+                    shortcuts++;
+                    if (!simulate) {
+                        addEdge(u, w, via, -1, e, f);
+                        shortcutCount++;
+                    }
+                }
+            }
+            return shortcuts;
+        }
+
+        /**
+         * 縮約対象ノードを経由しない迂回路を、距離と確定ノード数の上限付きで探索する
+         */
+        private void witnessSearch(int source, int excluded, double limit) {
+            if (witnessStamp == Integer.MAX_VALUE) {
+                Arrays.fill(witnessSeen, 0);
+                witnessStamp = 0;
+            }
+            witnessStamp++;
+            witnessHeap.clear();
+            witnessDistance[source] = 0.0;
+            witnessSeen[source] = witnessStamp;
+            witnessHeap.insertOrDecrease(source, 0.0);
+            int settled = 0;
+            while (!witnessHeap.isEmpty() && settled < WITNESS_SETTLE_LIMIT && witnessHeap.minKey() <= limit) {
+                int u = witnessHeap.poll();
+                settled++;
+                EdgeList out = outEdges[u];
+                for (int i = 0; i < out.size; i++) {
+                    int e = out.items[i];
+                    int w = to[e];
+                    if (w == excluded || contracted[w]) {
+                        continue;
+                    }
+                    double d = witnessDistance[u] + weight[e];
+                    if (witnessSeen[w] != witnessStamp || d < witnessDistance[w]) {
+                        witnessDistance[w] = d;
+                        witnessSeen[w] = witnessStamp;
+                        witnessHeap.insertOrDecrease(w, d);
+                    }
+                }
+            }
+        }
+
+        /**
+         * 縮約したノードへの辺を隣接ノードの作業リストから取り除く
+         */
+        private void detach(int v) {
+            EdgeList in = inEdges[v];
+            for (int i = 0; i < in.size; i++) {
+                int u = from[in.items[i]];
+                if (!contracted[u]) {
+                    deletedNeighbours[u]++;
+                    outEdges[u].removeIf(to, contracted);
+                }
+            }
+            EdgeList out = outEdges[v];
+            for (int i = 0; i < out.size; i++) {
+                int w = to[out.items[i]];
+                if (!contracted[w]) {
+                    deletedNeighbours[w]++;
+                    inEdges[w].removeIf(from, contracted);
+                }
+            }
+        }
+
+        private void addEdge(int u, int w, double travelTime, int trackIndex, int firstChild, int secondChild) {
+            int e = edgeCount++;
+            if (e == from.length) {
+                int capacity = e * 2;
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                weight = Arrays.copyOf(weight, capacity);
+                track = Arrays.copyOf(track, capacity);
+                first = Arrays.copyOf(first, capacity);
+                second = Arrays.copyOf(second, capacity);
+            }
+            from[e] = u;
+            to[e] = w;
+            weight[e] = travelTime;
+            track[e] = trackIndex;
+            first[e] = firstChild;
+            second[e] = secondChild;
+            outEdges[u].add(e);
+            inEdges[w].add(e);
+        }
+    }
+
+    /**
+     * 辺番号の可変長リスト
+     */
+    private static final class EdgeList {
+
+        private int[] items = new int[4];
+        private int size;
+
+        void add(int edge) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = edge;
+        }
+
+        /**
+         * 端点が縮約済みの辺を取り除く
+         */
+        void removeIf(int[] endpoints, boolean[] contracted) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!contracted[endpoints[items[i]]]) {
+                    items[kept++] = items[i];
+                }
+            }
+            size = kept;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package net.rushhourgame.core.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 縮約階層を用いた最短所要時間経路探索
+ * 出発側は上向き辺、到着側は逆向きの下向き辺だけを辿り、各側の最小キーが暫定最短距離以上になった時点でその側を打ち切る。
+ * 見つかった経路のショートカットは元の線路に展開して返す。
+ */
+public final class ContractionHierarchySearcher implements PathSearcher {
+
+    private final ContractionHierarchy hierarchy;
+    private final TrackGraph graph;
+
+    private final double[] forwardDistance;
+    private final int[] forwardEdge;
+    private final int[] forwardSeen;
+    private final IndexedMinHeap forwardHeap;
+
+    private final double[] backwardDistance;
+    private final int[] backwardEdge;
+    private final int[] backwardSeen;
+    private final IndexedMinHeap backwardHeap;
+
+    private int stamp;
+
+    public ContractionHierarchySearcher(ContractionHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+        this.graph = hierarchy.getGraph();
+        int n = graph.nodeCount();
+        forwardDistance = new double[n];
+        forwardEdge = new int[n];
+        forwardSeen = new int[n];
+        forwardHeap = new IndexedMinHeap(n);
+        backwardDistance = new double[n];
+        backwardEdge = new int[n];
+        backwardSeen = new int[n];
+        backwardHeap = new IndexedMinHeap(n);
+    }
+
+    public ContractionHierarchy getHierarchy() {
+        return hierarchy;
+    }
+
+    @Override
+    public PathResult search(int source, int target) {
+        if (source == target) {
+            return new PathResult(List.of(graph.nodeId(source)), List.of(), 0.0);
+        }
+        nextStamp();
+        forwardHeap.clear();
+        backwardHeap.clear();
+        forwardDistance[source] = 0.0;
+        forwardEdge[source] = -1;
+        forwardSeen[source] = stamp;
+        forwardHeap.insertOrDecrease(source, 0.0);
+        backwardDistance[target] = 0.0;
+        backwardEdge[target] = -1;
+        backwardSeen[target] = stamp;
+        backwardHeap.insertOrDecrease(target, 0.0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = TrackGraph.NO_NODE;
+        while (true) {
+            boolean forwardActive = forwardHeap.minKey() < best;
+            boolean backwardActive = backwardHeap.minKey() < best;
+            if (!forwardActive && !backwardActive) {
+                break;
+            }
+            if (forwardActive && (!backwardActive || forwardHeap.minKey() <= backwardHeap.minKey())) {
+                int u = forwardHeap.poll();
+                double du = forwardDistance[u];
+                for (int slot = hierarchy.upStart(u), end = hierarchy.upEnd(u); slot < end; slot++) {
+                    int v = hierarchy.upTarget(slot);
+                    double dv = du + hierarchy.upWeight(slot);
+                    if (forwardSeen[v] != stamp || dv < forwardDistance[v]) {
+                        forwardDistance[v] = dv;
+                        forwardEdge[v] = hierarchy.upEdge(slot);
+                        forwardSeen[v] = stamp;
+                        forwardHeap.insertOrDecrease(v, dv);
+                        if (backwardSeen[v] == stamp && dv + backwardDistance[v] < best) {
+                            best = dv + backwardDistance[v];
+                            meeting = v;
+                        }
+                    }
+                }
+            } else {
+                int u = backwardHeap.poll();
+                double du = backwardDistance[u];
+                for (int slot = hierarchy.downStart(u), end = hierarchy.downEnd(u); slot < end; slot++) {
+                    int v = hierarchy.downSource(slot);
+                    double dv = du + hierarchy.downWeight(slot);
+                    if (backwardSeen[v] != stamp || dv < backwardDistance[v]) {
+                        backwardDistance[v] = dv;
+                        backwardEdge[v] = hierarchy.downEdge(slot);
+                        backwardSeen[v] = stamp;
+                        backwardHeap.insertOrDecrease(v, dv);
+                        if (forwardSeen[v] == stamp && dv + forwardDistance[v] < best) {
+                            best = dv + forwardDistance[v];
+                            meeting = v;
+                        }
+                    }
+                }
+            }
+        }
+        if (meeting == TrackGraph.NO_NODE) {
+            return PathResult.notFound();
+        }
+        return buildResult(source, meeting, best);
+    }
+
+    private PathResult buildResult(int source, int meeting, double travelTime) {
+        List<Integer> forwardPath = new ArrayList<>();
+        for (int node = meeting; forwardEdge[node] >= 0; node = hierarchy.edgeFrom(forwardEdge[node])) {
+            forwardPath.add(forwardEdge[node]);
+        }
+        List<String> junctions = new ArrayList<>();
+        List<String> tracks = new ArrayList<>();
+        junctions.add(graph.nodeId(source));
+        for (int i = forwardPath.size() - 1; i >= 0; i--) {
+            hierarchy.unpack(forwardPath.get(i), junctions, tracks);
+        }
+        for (int node = meeting; backwardEdge[node] >= 0; node = hierarchy.edgeTo(backwardEdge[node])) {
+            hierarchy.unpack(backwardEdge[node], junctions, tracks);
+        }
+        return new PathResult(List.copyOf(junctions), List.copyOf(tracks), travelTime);
+    }
+
+    private void nextStamp() {
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(forwardSeen, 0);
+            Arrays.fill(backwardSeen, 0);
+            stamp = 0;
+        }
+        stamp++;
+    }
+}
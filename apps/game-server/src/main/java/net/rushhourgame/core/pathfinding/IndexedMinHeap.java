@@ -0,0 +1,115 @@
+package net.rushhourgame.core.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * ノード添字をキーとする二分ヒープ（優先度の減少操作に対応）
+ * 探索ごとに再確保せず {@link #clear()} で使い回す。
+ */
+final class IndexedMinHeap {
+
+    private final int[] heap;
+    private final double[] keys;
+    private final int[] positions;
+    private int size;
+
+    IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        keys = new double[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 最小キー（空の場合は正の無限大）
+     */
+    double minKey() {
+        return size == 0 ? Double.POSITIVE_INFINITY : keys[heap[0]];
+    }
+
+    boolean contains(int node) {
+        return positions[node] >= 0;
+    }
+
+    /**
+     * ノードを追加、または既に含まれる場合はキーを小さい値に更新
+     */
+    void insertOrDecrease(int node, double key) {
+        int pos = positions[node];
+        if (pos < 0) {
+            pos = size++;
+            heap[pos] = node;
+            positions[node] = pos;
+        } else if (key >= keys[node]) {
+            return;
+        }
+        keys[node] = key;
+        siftUp(pos);
+    }
+
+    /**
+     * 最小キーのノードを取り出す
+     */
+    int poll() {
+        int top = heap[0];
+        positions[top] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int pos) {
+        int node = heap[pos];
+        double key = keys[node];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            int parentNode = heap[parent];
+            if (keys[parentNode] <= key) {
+                break;
+            }
+            heap[pos] = parentNode;
+            positions[parentNode] = pos;
+            pos = parent;
+        }
+        heap[pos] = node;
+        positions[node] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int node = heap[pos];
+        double key = keys[node];
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            int childNode = heap[child];
+            if (key <= keys[childNode]) {
+                break;
+            }
+            heap[pos] = childNode;
+            positions[childNode] = pos;
+            pos = child;
+        }
+        heap[pos] = node;
+        positions[node] = pos;
+    }
+}
@@ -0,0 +1,25 @@
+package net.rushhourgame.core.pathfinding;
+
+import java.util.List;
+
+/**
+ * 経路探索結果
+ * @param junctionIds 出発接続点から到着接続点までの接続点IDの列（到達不能の場合は空）
+ * @param trackIds 経路を構成する線路IDの列
+ * @param travelTime 所要時間の合計
+ */
+public record PathResult(List<String> junctionIds, List<String> trackIds, double travelTime) {
+
+    private static final PathResult NOT_FOUND = new PathResult(List.of(), List.of(), Double.POSITIVE_INFINITY);
+
+    /**
+     * 到達不能を表す結果
+     */
+    public static PathResult notFound() {
+        return NOT_FOUND;
+    }
+
+    public boolean isFound() {
+        return !junctionIds.isEmpty();
+    }
+}
@@ -0,0 +1,16 @@
+package net.rushhourgame.core.pathfinding;
+
+/**
+ * 最短経路探索アルゴリズム
+ * 実装は探索用の作業領域を内部に持つためスレッドセーフではない。スレッドごとにインスタンスを用意すること。
+ */
+public interface PathSearcher {
+
+    /**
+     * ノード間の最短所要時間経路を探索
+     * @param source 出発ノード添字
+     * @param target 到着ノード添字
+     * @return 探索結果。到達不能の場合は {@link PathResult#notFound()}
+     */
+    PathResult search(int source, int target);
+}
@@ -0,0 +1,18 @@
+package net.rushhourgame.core.pathfinding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 経路探索の設定
+ */
+@Data
+@ConfigurationProperties(prefix = "rushhour.pathfinding")
+public class PathfindingProperties {
+
+    /**
+     * 縮約階層を構築して探索に使うか
+     * 構築中や無効時は双方向ダイクストラ法で探索する。
+     */
+    private boolean contractionHierarchyEnabled = true;
+}
@@ -0,0 +1,226 @@
+package net.rushhourgame.core.pathfinding;
+
+import net.rushhourgame.core.database.entities.TrackEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 経路探索用の線路グラフ（CSR形式・不変）
+ * 接続点をノード、線路を開始接続点から終了接続点への有向辺とし、辺の重みを所要時間（線路長 / 最高速度）とする。
+ * 隣接リストは順方向・逆方向ともにCSR（offsets + 連続配列）で保持し、探索時にオブジェクトを辿らない。
+ */
+public final class TrackGraph {
+
+    /**
+     * ノードが存在しないことを表す添字
+     */
+    public static final int NO_NODE = -1;
+
+    private final String[] nodeIds;
+    private final Map<String, Integer> nodeIndexById;
+    private final String[] trackIds;
+
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final double[] outWeights;
+    private final int[] outTracks;
+
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final double[] inWeights;
+    private final int[] inTracks;
+
+    private TrackGraph(String[] nodeIds, Map<String, Integer> nodeIndexById, String[] trackIds,
+                       int[] sources, int[] targets, double[] weights) {
+        this.nodeIds = nodeIds;
+        this.nodeIndexById = nodeIndexById;
+        this.trackIds = trackIds;
+
+        int n = nodeIds.length;
+        int m = sources.length;
+        outOffsets = new int[n + 1];
+        inOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            outOffsets[sources[e] + 1]++;
+            inOffsets[targets[e] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            outOffsets[i + 1] += outOffsets[i];
+            inOffsets[i + 1] += inOffsets[i];
+        }
+        outTargets = new int[m];
+        outWeights = new double[m];
+        outTracks = new int[m];
+        inSources = new int[m];
+        inWeights = new double[m];
+        inTracks = new int[m];
+        int[] outCursor = outOffsets.clone();
+        int[] inCursor = inOffsets.clone();
+        for (int e = 0; e < m; e++) {
+            int o = outCursor[sources[e]]++;
+            outTargets[o] = targets[e];
+            outWeights[o] = weights[e];
+            outTracks[o] = e;
+            int i = inCursor[targets[e]]++;
+            inSources[i] = sources[e];
+            inWeights[i] = weights[e];
+            inTracks[i] = e;
+        }
+    }
+
+    /**
+     * 線路エンティティからグラフを構築
+     * 接続点が設定されていない線路は経路探索の対象外とする。
+     */
+    public static TrackGraph fromEntities(List<TrackEntity> tracks) {
+        Builder builder = new Builder(tracks.size());
+        for (TrackEntity track : tracks) {
+            if (track.getStartJunctionId() == null || track.getEndJunctionId() == null) {
+                continue;
+            }
+            builder.addTrack(track.getId(), track.getStartJunctionId(), track.getEndJunctionId(),
+                track.getLength() / track.getMaxSpeed());
+        }
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder(16);
+    }
+
+    public int nodeCount() {
+        return nodeIds.length;
+    }
+
+    public int edgeCount() {
+        return trackIds.length;
+    }
+
+    /**
+     * 接続点IDからノード添字を取得
+     * @return 添字。存在しない場合は {@link #NO_NODE}
+     */
+    public int indexOf(String junctionId) {
+        Integer index = nodeIndexById.get(junctionId);
+        return index == null ? NO_NODE : index;
+    }
+
+    public String nodeId(int node) {
+        return nodeIds[node];
+    }
+
+    /**
+     * 辺（線路）番号から線路IDを取得
+     */
+    public String trackId(int track) {
+        return trackIds[track];
+    }
+
+    // 順方向の隣接：outStart(u) 以上 outEnd(u) 未満の位置にある辺を走査する
+
+    public int outStart(int node) {
+        return outOffsets[node];
+    }
+
+    public int outEnd(int node) {
+        return outOffsets[node + 1];
+    }
+
+    public int outTarget(int slot) {
+        return outTargets[slot];
+    }
+
+    public double outWeight(int slot) {
+        return outWeights[slot];
+    }
+
+    public int outTrack(int slot) {
+        return outTracks[slot];
+    }
+
+    // 逆方向の隣接：inStart(v) 以上 inEnd(v) 未満の位置にある辺を走査する
+
+    public int inStart(int node) {
+        return inOffsets[node];
+    }
+
+    public int inEnd(int node) {
+        return inOffsets[node + 1];
+    }
+
+    public int inSource(int slot) {
+        return inSources[slot];
+    }
+
+    public double inWeight(int slot) {
+        return inWeights[slot];
+    }
+
+    public int inTrack(int slot) {
+        return inTracks[slot];
+    }
+
+    /**
+     * グラフのビルダー
+     */
+    public static final class Builder {
+
+        private final Map<String, Integer> nodeIndexById = new HashMap<>();
+        private final List<String> nodeIds = new ArrayList<>();
+        private final List<String> trackIds;
+        private int[] sources;
+        private int[] targets;
+        private double[] weights;
+
+        private Builder(int expectedEdges) {
+            int capacity = Math.max(16, expectedEdges);
+            trackIds = new ArrayList<>(capacity);
+            sources = new int[capacity];
+            targets = new int[capacity];
+            weights = new double[capacity];
+        }
+
+        /**
+         * 有向辺（線路）を追加
+         * @param travelTime 所要時間（0以上）
+         */
+        public Builder addTrack(String trackId, String fromJunctionId, String toJunctionId, double travelTime) {
+            if (!(travelTime >= 0.0)) {
+                throw new IllegalArgumentException("Travel time must be non-negative: " + trackId);
+            }
+            int e = trackIds.size();
+            if (e == sources.length) {
+                sources = Arrays.copyOf(sources, e * 2);
+                targets = Arrays.copyOf(targets, e * 2);
+                weights = Arrays.copyOf(weights, e * 2);
+            }
+            trackIds.add(trackId);
+            sources[e] = node(fromJunctionId);
+            targets[e] = node(toJunctionId);
+            weights[e] = travelTime;
+            return this;
+        }
+
+        private int node(String junctionId) {
+            Integer index = nodeIndexById.get(junctionId);
+            if (index == null) {
+                index = nodeIds.size();
+                nodeIds.add(junctionId);
+                nodeIndexById.put(junctionId, index);
+            }
+            return index;
+        }
+
+        public TrackGraph build() {
+            int m = trackIds.size();
+            return new TrackGraph(nodeIds.toArray(new String[0]), new HashMap<>(nodeIndexById),
+                trackIds.toArray(new String[0]),
+                Arrays.copyOf(sources, m), Arrays.copyOf(targets, m),
+                Arrays.copyOf(weights, m));
+        }
+    }
+}
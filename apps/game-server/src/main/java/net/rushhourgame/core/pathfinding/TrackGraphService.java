@@ -0,0 +1,146 @@
+package net.rushhourgame.core.pathfinding;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import net.rushhourgame.core.database.TransactionHooks;
+import net.rushhourgame.core.database.repositories.TrackRepository;
+import net.rushhourgame.core.exceptions.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 線路グラフを保持し、最短所要時間経路を検索するサービス
+ * グラフは起動時と線路の変更時（{@link #tracksChanged()}・線路網の再読み込み）に構築し、検索ごとにデータベースへアクセスしない。
+ * 縮約階層はバックグラウンドで構築し、完成するまでは双方向ダイクストラ法で探索する。
+ * 探索器はスレッドごとに保持し、グラフが差し替えられた場合は作り直す。
+ */
+@Service
+@RequiredArgsConstructor
+public class TrackGraphService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackGraphService.class);
+
+    private final TrackRepository trackRepository;
+    private final PathfindingProperties properties;
+
+    private volatile TrackGraph graph = TrackGraph.builder().build();
+    private volatile ContractionHierarchy hierarchy;
+
+    private final ThreadLocal<BidirectionalDijkstra> dijkstraSearchers = new ThreadLocal<>();
+    private final ThreadLocal<ContractionHierarchySearcher> hierarchySearchers = new ThreadLocal<>();
+
+    private final ExecutorService hierarchyBuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "track-graph-hierarchy");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 起動完了時にグラフを構築する
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 永続化された線路からグラフを再構築する
+     */
+    public void rebuild() {
+        replaceGraph(TrackGraph.fromEntities(trackRepository.findAll()));
+    }
+
+    /**
+     * 線路の追加・変更・削除をコミット後にグラフへ反映する（トランザクション外では即座に再構築する）
+     * 同じトランザクションで何度呼び出しても再構築は1回で、ロールバックされた場合は再構築しない。
+     */
+    public void tracksChanged() {
+        TransactionHooks.afterCommitOnce(this, this::rebuild);
+    }
+
+    /**
+     * グラフを差し替え、縮約階層の再構築を予約する
+     * 構築中に再度差し替えられた場合、古いグラフの縮約階層は破棄される。
+     */
+    public void replaceGraph(TrackGraph newGraph) {
+        graph = newGraph;
+        logger.info("Built track graph with {} junctions and {} tracks",
+            newGraph.nodeCount(), newGraph.edgeCount());
+        if (properties.isContractionHierarchyEnabled()) {
+            hierarchyBuilder.execute(() -> buildHierarchy(newGraph));
+        }
+    }
+
+    private void buildHierarchy(TrackGraph target) {
+        if (target != graph) {
+            return;
+        }
+        long start = System.nanoTime();
+        ContractionHierarchy built = ContractionHierarchy.build(target);
+        if (target != graph) {
+            return;
+        }
+        hierarchy = built;
+        logger.info("Built contraction hierarchy with {} shortcuts in {} ms",
+            built.shortcutCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 現在のグラフに対応する縮約階層が利用可能か
+     */
+    public boolean isHierarchyReady() {
+        ContractionHierarchy current = hierarchy;
+        return current != null && current.getGraph() == graph;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hierarchyBuilder.shutdownNow();
+    }
+
+    public TrackGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * 接続点間の最短所要時間経路を検索
+     * @return 経路。到達できない場合は {@link PathResult#notFound()}
+     * @throws EntityNotFoundException 接続点がグラフに存在しない場合
+     */
+    public PathResult findPath(String fromJunctionId, String toJunctionId) {
+        TrackGraph current = graph;
+        int source = current.indexOf(fromJunctionId);
+        if (source == TrackGraph.NO_NODE) {
+            throw new EntityNotFoundException("Junction", fromJunctionId);
+        }
+        int target = current.indexOf(toJunctionId);
+        if (target == TrackGraph.NO_NODE) {
+            throw new EntityNotFoundException("Junction", toJunctionId);
+        }
+        return searcherFor(current).search(source, target);
+    }
+
+    private PathSearcher searcherFor(TrackGraph current) {
+        ContractionHierarchy currentHierarchy = hierarchy;
+        if (currentHierarchy != null && currentHierarchy.getGraph() == current) {
+            ContractionHierarchySearcher searcher = hierarchySearchers.get();
+            if (searcher == null || searcher.getHierarchy() != currentHierarchy) {
+                searcher = new ContractionHierarchySearcher(currentHierarchy);
+                hierarchySearchers.set(searcher);
+            }
+            return searcher;
+        }
+        BidirectionalDijkstra searcher = dijkstraSearchers.get();
+        if (searcher == null || searcher.getGraph() != current) {
+            searcher = new BidirectionalDijkstra(current);
+            dijkstraSearchers.set(searcher);
+        }
+        return searcher;
+    }
+}
@@ -0,0 +1,227 @@
+package net.rushhourgame.core.realtime;
+
+import net.rushhourgame.proto.GameStateUpdate;
+import net.rushhourgame.proto.TrainDelta;
+
+import java.util.Arrays;
+
+/**
+ * 購読者ごとの差分エンコーダ
+ * 最後に送信した量子化値をベースラインとして保持し、量子化後に変化した電車だけを差分として出力する。
+ * 一定フレームごと（または要求時）に全電車を含むキーフレームを出力する。
+ * 関心領域が指定されている場合は、空間索引で領域（＋余白）内の電車だけを走査し、領域外に出た電車は削除として通知する。
+ * 表示範囲の中心から遠い電車（LOD1〜LOD3）は、設定したフレーム間隔でのみ差分を送る。
+ * スレッドセーフではない（購読者の送信処理から逐次呼び出す）。
+ */
+public final class DeltaEncoder {
+
+    private final double positionResolution;
+    private final double speedResolution;
+    private final int keyframeIntervalFrames;
+    private final double viewportMargin;
+    private final double gridCellSize;
+    private final double[] lodDistances;
+    private final int[] lodFrameIntervals;
+
+    private String[] baselineIds = new String[0];
+    private int[] baselineX = new int[0];
+    private int[] baselineY = new int[0];
+    private int[] baselineSpeed = new int[0];
+    private int[] visibleStamps = new int[0];
+
+    // クライアントが保持している電車の添字
+    private int[] knownSlots = new int[16];
+    private int knownCount;
+
+    private int framesSinceKeyframe;
+    private boolean keyframeRequested = true;
+    private int frameCount;
+
+    // encode 1回分の作業状態
+    private GameStateUpdate.Builder update;
+    private TrainFrame frame;
+    private InterestArea area;
+    private boolean keyframe;
+
+    public DeltaEncoder(RealtimeProperties properties) {
+        this.positionResolution = properties.getPositionResolution();
+        this.speedResolution = properties.getSpeedResolution();
+        this.keyframeIntervalFrames = properties.getKeyframeIntervalFrames();
+        this.viewportMargin = properties.getViewportMargin();
+        this.gridCellSize = properties.getGridCellSize();
+        this.lodDistances = properties.getLodDistances().clone();
+        this.lodFrameIntervals = properties.getLodFrameIntervals().clone();
+    }
+
+    /**
+     * 次のフレームをキーフレームにする
+     */
+    public void requestKeyframe() {
+        keyframeRequested = true;
+    }
+
+    /**
+     * 全体を対象としてフレームをエンコードする
+     */
+    public GameStateUpdate encode(TrainFrame frame) {
+        return encode(frame, InterestArea.UNBOUNDED);
+    }
+
+    /**
+     * 関心領域内の電車についてフレームをエンコードし、ベースラインを更新する
+     */
+    public GameStateUpdate encode(TrainFrame frame, InterestArea interest) {
+        this.frame = frame;
+        this.area = interest;
+        this.keyframe = keyframeRequested || framesSinceKeyframe >= keyframeIntervalFrames;
+        this.update = GameStateUpdate.newBuilder()
+            .setTick(frame.getTick())
+            .setKeyframe(keyframe)
+            .setPositionResolution(positionResolution)
+            .setSpeedResolution(speedResolution);
+        frameCount++;
+        ensureCapacity(frame.size());
+
+        if (interest.isBounded()) {
+            visitArea(frame.grid(gridCellSize), interest.expand(viewportMargin));
+        } else {
+            for (int i = 0, n = frame.size(); i < n; i++) {
+                if (frame.idAt(i) != null) {
+                    visit(i);
+                }
+            }
+        }
+        removeInvisible();
+
+        if (keyframe) {
+            keyframeRequested = false;
+            framesSinceKeyframe = 0;
+        } else {
+            framesSinceKeyframe++;
+        }
+        GameStateUpdate result = update.build();
+        this.update = null;
+        this.frame = null;
+        this.area = null;
+        return result;
+    }
+
+    private void visitArea(FrameGrid grid, InterestArea expanded) {
+        int minColumn = grid.column(expanded.minX());
+        int maxColumn = grid.column(expanded.maxX());
+        int minRow = grid.row(expanded.minY());
+        int maxRow = grid.row(expanded.maxY());
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                int cell = row * grid.columns() + column;
+                for (int p = grid.cellStart(cell), end = grid.cellEnd(cell); p < end; p++) {
+                    int slot = grid.slot(p);
+                    if (expanded.contains(frame.x(slot), frame.y(slot))) {
+                        visit(slot);
+                    }
+                }
+            }
+        }
+    }
+
+    private void visit(int i) {
+        visibleStamps[i] = frameCount;
+        String id = frame.idAt(i);
+        String known = baselineIds[i];
+        int x = quantize(frame.x(i), positionResolution);
+        int y = quantize(frame.y(i), positionResolution);
+        int speed = quantize(frame.speed(i), speedResolution);
+        if (keyframe || !id.equals(known)) {
+            if (known == null) {
+                addKnown(i);
+            } else if (!keyframe) {
+                // 添字が別の電車に再利用された
+                update.addRemovedHandles(i);
+            }
+            update.addTrainDeltas(TrainDelta.newBuilder()
+                .setHandle(i).setId(id).setX(x).setY(y).setSpeed(speed));
+        } else if (x != baselineX[i] || y != baselineY[i] || speed != baselineSpeed[i]) {
+            if (!isUpdateFrame(i)) {
+                // ベースラインを据え置き、次の更新フレームでまとめて差分を送る
+                return;
+            }
+            update.addTrainDeltas(TrainDelta.newBuilder()
+                .setHandle(i)
+                .setX(x - baselineX[i])
+                .setY(y - baselineY[i])
+                .setSpeed(speed - baselineSpeed[i]));
+        }
+        baselineIds[i] = id;
+        baselineX[i] = x;
+        baselineY[i] = y;
+        baselineSpeed[i] = speed;
+    }
+
+    /**
+     * LODに応じてこのフレームで差分を送るか判定する
+     * 同じLODの電車は添字で更新フレームをずらし、送信量を平準化する。
+     */
+    private boolean isUpdateFrame(int i) {
+        if (!area.isBounded()) {
+            return true;
+        }
+        int interval = lodFrameIntervals[lodLevel(i)];
+        return interval <= 1 || (frameCount + i) % interval == 0;
+    }
+
+    /**
+     * 表示範囲の中心からの距離（拡大率で割った値）によるLOD（0〜3）
+     */
+    int lodLevel(int i) {
+        double dx = frame.x(i) - area.centerX();
+        double dy = frame.y(i) - area.centerY();
+        double distance = Math.sqrt(dx * dx + dy * dy) / area.zoom();
+        int level = 0;
+        while (level < lodDistances.length && distance >= lodDistances[level]) {
+            level++;
+        }
+        return Math.min(level, lodFrameIntervals.length - 1);
+    }
+
+    /**
+     * 今回のフレームで関心領域に含まれなかった既知の電車を削除する
+     */
+    private void removeInvisible() {
+        int kept = 0;
+        for (int k = 0; k < knownCount; k++) {
+            int i = knownSlots[k];
+            if (visibleStamps[i] == frameCount) {
+                knownSlots[kept++] = i;
+                continue;
+            }
+            if (!keyframe) {
+                update.addRemovedHandles(i);
+            }
+            baselineIds[i] = null;
+        }
+        knownCount = kept;
+    }
+
+    private void addKnown(int i) {
+        if (knownCount == knownSlots.length) {
+            knownSlots = Arrays.copyOf(knownSlots, knownCount * 2);
+        }
+        knownSlots[knownCount++] = i;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= baselineIds.length) {
+            return;
+        }
+        int capacity = Math.max(size, baselineIds.length * 2);
+        baselineIds = Arrays.copyOf(baselineIds, capacity);
+        baselineX = Arrays.copyOf(baselineX, capacity);
+        baselineY = Arrays.copyOf(baselineY, capacity);
+        baselineSpeed = Arrays.copyOf(baselineSpeed, capacity);
+        visibleStamps = Arrays.copyOf(visibleStamps, capacity);
+    }
+
+    static int quantize(double value, double resolution) {
+        return (int) Math.round(value / resolution);
+    }
+}
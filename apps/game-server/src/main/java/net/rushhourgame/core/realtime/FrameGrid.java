@@ -0,0 +1,129 @@
+package net.rushhourgame.core.realtime;
+
+/**
+ * フレーム内の電車を一様グリッドに振り分けた索引（不変）
+ * セルごとの添字をCSR形式（セル開始位置 + 連続配列）で保持し、関心領域に重なるセルだけを走査できるようにする。
+ */
+final class FrameGrid {
+
+    /**
+     * セル数の上限。電車が広範囲に散らばっている場合はセルを大きくして抑える
+     */
+    private static final int MAX_CELLS = 1 << 20;
+
+    private final double requestedCellSize;
+    private final double cellSize;
+    private final double originX;
+    private final double originY;
+    private final int columns;
+    private final int rows;
+    private final int[] cellStarts;
+    private final int[] slots;
+
+    private FrameGrid(double requestedCellSize, double cellSize, double originX, double originY,
+                      int columns, int rows, int[] cellStarts, int[] slots) {
+        this.requestedCellSize = requestedCellSize;
+        this.cellSize = cellSize;
+        this.originX = originX;
+        this.originY = originY;
+        this.columns = columns;
+        this.rows = rows;
+        this.cellStarts = cellStarts;
+        this.slots = slots;
+    }
+
+    static FrameGrid build(TrainFrame frame, double requestedCellSize) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        int count = 0;
+        for (int i = 0, n = frame.size(); i < n; i++) {
+            if (frame.idAt(i) == null) {
+                continue;
+            }
+            minX = Math.min(minX, frame.x(i));
+            minY = Math.min(minY, frame.y(i));
+            maxX = Math.max(maxX, frame.x(i));
+            maxY = Math.max(maxY, frame.y(i));
+            count++;
+        }
+        if (count == 0) {
+            return new FrameGrid(requestedCellSize, requestedCellSize, 0.0, 0.0, 1, 1, new int[2], new int[0]);
+        }
+        double cellSize = requestedCellSize;
+        double area = (maxX - minX) * (maxY - minY);
+        if (area / (cellSize * cellSize) > MAX_CELLS) {
+            cellSize = Math.sqrt(area / MAX_CELLS);
+        }
+        int columns = (int) ((maxX - minX) / cellSize) + 1;
+        int rows = (int) ((maxY - minY) / cellSize) + 1;
+
+        int[] cellOfSlot = new int[frame.size()];
+        int[] cellStarts = new int[columns * rows + 1];
+        for (int i = 0, n = frame.size(); i < n; i++) {
+            if (frame.idAt(i) == null) {
+                cellOfSlot[i] = -1;
+                continue;
+            }
+            int cell = (int) ((frame.y(i) - minY) / cellSize) * columns + (int) ((frame.x(i) - minX) / cellSize);
+            cellOfSlot[i] = cell;
+            cellStarts[cell + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStarts[c + 1] += cellStarts[c];
+        }
+        int[] cursor = cellStarts.clone();
+        int[] slots = new int[count];
+        for (int i = 0; i < cellOfSlot.length; i++) {
+            if (cellOfSlot[i] >= 0) {
+                slots[cursor[cellOfSlot[i]]++] = i;
+            }
+        }
+        return new FrameGrid(requestedCellSize, cellSize, minX, minY, columns, rows, cellStarts, slots);
+    }
+
+    /**
+     * 構築時に指定されたセルの大きさ（実際のセルはセル数の上限により大きい場合がある）
+     */
+    double requestedCellSize() {
+        return requestedCellSize;
+    }
+
+    int columns() {
+        return columns;
+    }
+
+    /**
+     * X座標の列番号（範囲外は端の列に丸める）
+     */
+    int column(double x) {
+        return clamp((x - originX) / cellSize, columns);
+    }
+
+    /**
+     * Y座標の行番号（範囲外は端の行に丸める）
+     */
+    int row(double y) {
+        return clamp((y - originY) / cellSize, rows);
+    }
+
+    int cellStart(int cell) {
+        return cellStarts[cell];
+    }
+
+    int cellEnd(int cell) {
+        return cellStarts[cell + 1];
+    }
+
+    int slot(int position) {
+        return slots[position];
+    }
+
+    private static int clamp(double value, int limit) {
+        if (value <= 0.0) {
+            return 0;
+        }
+        return value >= limit ? limit - 1 : (int) value;
+    }
+}
@@ -0,0 +1,55 @@
+package net.rushhourgame.core.realtime;
+
+/**
+ * 購読者の関心領域（表示範囲と拡大率）
+ * @param minX 表示範囲の最小X座標
+ * @param minY 表示範囲の最小Y座標
+ * @param maxX 表示範囲の最大X座標
+ * @param maxY 表示範囲の最大Y座標
+ * @param zoom 拡大率（1.0 = 等倍）
+ */
+public record InterestArea(double minX, double minY, double maxX, double maxY, double zoom) {
+
+    /**
+     * 範囲を限定しない（全体を対象とする）関心領域
+     */
+    public static final InterestArea UNBOUNDED = new InterestArea(
+        Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, 1.0);
+
+    /**
+     * 表示範囲から関心領域を作成
+     * 範囲が空の場合は {@link #UNBOUNDED}、拡大率が0以下の場合は等倍とする。
+     */
+    public static InterestArea of(double minX, double minY, double maxX, double maxY, double zoom) {
+        if (!(maxX > minX) || !(maxY > minY)) {
+            return UNBOUNDED;
+        }
+        return new InterestArea(minX, minY, maxX, maxY, zoom > 0.0 ? zoom : 1.0);
+    }
+
+    public boolean isBounded() {
+        return this != UNBOUNDED;
+    }
+
+    /**
+     * 上下左右に余白を加えた関心領域
+     */
+    public InterestArea expand(double margin) {
+        if (!isBounded()) {
+            return this;
+        }
+        return new InterestArea(minX - margin, minY - margin, maxX + margin, maxY + margin, zoom);
+    }
+
+    public boolean contains(double x, double y) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+    public double centerX() {
+        return (minX + maxX) * 0.5;
+    }
+
+    public double centerY() {
+        return (minY + maxY) * 0.5;
+    }
+}
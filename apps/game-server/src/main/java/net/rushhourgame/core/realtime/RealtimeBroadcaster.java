@@ -0,0 +1,90 @@
+package net.rushhourgame.core.realtime;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import jakarta.annotation.PreDestroy;
+import net.rushhourgame.proto.GameStateUpdate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 配信フレームを全購読者に振り分ける
+ * ティックスレッドはフレームを渡すだけで、エンコードと送信は専用スレッドで行う。
+ */
+@Component
+public class RealtimeBroadcaster {
+
+    private final RealtimeProperties properties;
+    private final RealtimeMetrics metrics;
+    private final List<RealtimeSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor;
+
+    public RealtimeBroadcaster(RealtimeProperties properties, RealtimeMetrics metrics) {
+        this.properties = properties;
+        this.metrics = metrics;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, properties.getEncoderThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "realtime-encoder-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * ストリームを購読者として登録する（最初のフレームはキーフレームになる）
+     */
+    public RealtimeSubscription subscribe(ServerCallStreamObserver<GameStateUpdate> observer) {
+        RealtimeSubscription subscription = new RealtimeSubscription(observer, new DeltaEncoder(properties),
+            executor, metrics);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * 購読を解除し、以降の送信を止める
+     */
+    public void unsubscribe(RealtimeSubscription subscription) {
+        subscriptions.remove(subscription);
+        subscription.close();
+    }
+
+    /**
+     * 購読を解除し、送信待ちのフレームを送った後にストリームを終了する
+     */
+    public void complete(RealtimeSubscription subscription) {
+        subscriptions.remove(subscription);
+        subscription.complete();
+    }
+
+    /**
+     * フレームを全購読者に渡す
+     */
+    public void publish(TrainFrame frame) {
+        for (RealtimeSubscription subscription : subscriptions) {
+            if (subscription.isClosed()) {
+                subscriptions.remove(subscription);
+            } else {
+                subscription.offer(frame);
+            }
+        }
+    }
+
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.forEach(RealtimeSubscription::close);
+        subscriptions.clear();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,71 @@
+package net.rushhourgame.core.realtime;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * リアルタイム配信の計測値
+ * 複数の送信スレッドから書き込まれるため LongAdder で集計する。
+ */
+@Component
+public class RealtimeMetrics implements MeterBinder {
+
+    private final LongAdder framesSent = new LongAdder();
+    private final LongAdder keyframesSent = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder framesConflated = new LongAdder();
+
+    /**
+     * 送信したフレームを記録
+     */
+    public void recordSent(boolean keyframe, int serializedBytes) {
+        framesSent.increment();
+        if (keyframe) {
+            keyframesSent.increment();
+        }
+        bytesSent.add(serializedBytes);
+    }
+
+    /**
+     * 送信待ちのまま新しいフレームで置き換えられたフレームを記録
+     */
+    public void recordConflated() {
+        framesConflated.increment();
+    }
+
+    public long getFramesSent() {
+        return framesSent.sum();
+    }
+
+    public long getKeyframesSent() {
+        return keyframesSent.sum();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    public long getFramesConflated() {
+        return framesConflated.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rushhour.realtime.frames.sent", this, RealtimeMetrics::getFramesSent)
+            .description("Game state frames written to subscribers")
+            .register(registry);
+        FunctionCounter.builder("rushhour.realtime.keyframes.sent", this, RealtimeMetrics::getKeyframesSent)
+            .description("Full keyframes written to subscribers")
+            .register(registry);
+        FunctionCounter.builder("rushhour.realtime.bytes.sent", this, RealtimeMetrics::getBytesSent)
+            .baseUnit("bytes")
+            .register(registry);
+        FunctionCounter.builder("rushhour.realtime.frames.conflated", this, RealtimeMetrics::getFramesConflated)
+            .description("Frames replaced by a newer frame because the subscriber was not ready")
+            .register(registry);
+    }
+}
@@ -0,0 +1,57 @@
+package net.rushhourgame.core.realtime;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * リアルタイム配信の設定
+ */
+@Data
+@ConfigurationProperties(prefix = "rushhour.realtime")
+public class RealtimeProperties {
+
+    /**
+     * 配信フレームを生成する間隔（ティック数）。30fpsのティックで3なら10fps
+     */
+    private int frameIntervalTicks = 3;
+
+    /**
+     * キーフレームを送る間隔（フレーム数）。途中から受信したクライアントや欠落の回復に使う
+     */
+    private int keyframeIntervalFrames = 30;
+
+    /**
+     * 座標の量子化単位
+     */
+    private double positionResolution = 0.1;
+
+    /**
+     * 速度の量子化単位
+     */
+    private double speedResolution = 0.1;
+
+    /**
+     * フレームのエンコード・送信を行うスレッド数
+     */
+    private int encoderThreads = 2;
+
+    /**
+     * 関心領域の外側に加える余白（表示範囲の端で電車が消えないようにする）
+     */
+    private double viewportMargin = 100.0;
+
+    /**
+     * 関心領域の判定に使う空間索引のセルの大きさ
+     */
+    private double gridCellSize = 200.0;
+
+    /**
+     * LOD1〜LOD3の境界となる表示範囲中心からの距離（拡大率で割った値で判定）
+     */
+    private double[] lodDistances = {50.0, 200.0, 500.0};
+
+    /**
+     * LOD0〜LOD3それぞれの更新間隔（フレーム数）。1なら毎フレーム更新する
+     */
+    private int[] lodFrameIntervals = {1, 2, 4, 8};
+}
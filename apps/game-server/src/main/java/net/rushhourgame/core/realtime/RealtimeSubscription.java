@@ -0,0 +1,120 @@
+package net.rushhourgame.core.realtime;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import net.rushhourgame.proto.GameStateUpdate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 1本のストリームへの配信
+ * gRPCのフロー制御（isReady / onReadyHandler）に従い、送信できない間に届いたフレームは最新の1件だけを保持する。
+ * 差分はベースライン（最後に送信した状態）に対して計算するため、途中のフレームを捨てても整合する。
+ * 送信処理は wip カウンタで直列化し、StreamObserver を同時に呼び出さない。
+ */
+public final class RealtimeSubscription {
+
+    private static final Logger logger = LoggerFactory.getLogger(RealtimeSubscription.class);
+
+    private final ServerCallStreamObserver<GameStateUpdate> observer;
+    private final DeltaEncoder encoder;
+    private final Executor executor;
+    private final RealtimeMetrics metrics;
+
+    private final AtomicReference<TrainFrame> pending = new AtomicReference<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile InterestArea interest = InterestArea.UNBOUNDED;
+    private volatile boolean completeRequested;
+    private volatile boolean closed;
+
+    RealtimeSubscription(ServerCallStreamObserver<GameStateUpdate> observer, DeltaEncoder encoder,
+                         Executor executor, RealtimeMetrics metrics) {
+        this.observer = observer;
+        this.encoder = encoder;
+        this.executor = executor;
+        this.metrics = metrics;
+        observer.setOnReadyHandler(this::schedule);
+    }
+
+    /**
+     * 送信するフレームを渡す（ティックスレッドから呼ばれるため、エンコードは行わない）
+     */
+    void offer(TrainFrame frame) {
+        if (closed) {
+            return;
+        }
+        if (pending.getAndSet(frame) != null) {
+            metrics.recordConflated();
+        }
+        schedule();
+    }
+
+    /**
+     * 関心領域を変更する（次に送信するフレームから反映される）
+     */
+    public void updateInterest(InterestArea area) {
+        this.interest = area;
+    }
+
+    public InterestArea getInterest() {
+        return interest;
+    }
+
+    /**
+     * 送信待ちのフレームを送った後にストリームを正常終了する
+     */
+    void complete() {
+        completeRequested = true;
+        schedule();
+    }
+
+    /**
+     * 以降の送信を止める（クライアント側の切断・エラー時）
+     */
+    void close() {
+        closed = true;
+        pending.set(null);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private void schedule() {
+        if (wip.getAndIncrement() == 0) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+        do {
+            try {
+                drainOnce();
+            } catch (RuntimeException e) {
+                logger.debug("Closing realtime stream after send failure", e);
+                close();
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void drainOnce() {
+        while (!closed && observer.isReady()) {
+            TrainFrame frame = pending.getAndSet(null);
+            if (frame == null) {
+                break;
+            }
+            GameStateUpdate update = encoder.encode(frame, interest);
+            observer.onNext(update);
+            metrics.recordSent(update.getKeyframe(), update.getSerializedSize());
+        }
+        if (completeRequested && !closed && pending.get() == null) {
+            closed = true;
+            observer.onCompleted();
+        }
+    }
+}
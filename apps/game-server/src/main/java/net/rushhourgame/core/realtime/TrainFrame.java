@@ -0,0 +1,104 @@
+package net.rushhourgame.core.realtime;
+
+import net.rushhourgame.core.simulation.TrackNetwork;
+import net.rushhourgame.core.simulation.TrainStateStore;
+
+/**
+ * 配信用の電車状態のスナップショット（不変）
+ * ティックスレッドで {@link TrainStateStore} の添字をそのまま保ってコピーし、エンコードは別スレッドで行う。
+ * 空き添字の電車IDは null となる。
+ */
+public final class TrainFrame {
+
+    private final long tick;
+    private final String[] ids;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] speeds;
+
+    // 空間索引は最初の参照時に構築する（同じ結果になるため構築の競合は許容する）
+    private volatile FrameGrid grid;
+
+    private TrainFrame(long tick, String[] ids, double[] xs, double[] ys, double[] speeds) {
+        this.tick = tick;
+        this.ids = ids;
+        this.xs = xs;
+        this.ys = ys;
+        this.speeds = speeds;
+    }
+
+    /**
+     * 電車ストアから座標を計算してスナップショットを作成
+     */
+    public static TrainFrame capture(long tick, TrainStateStore trains, TrackNetwork network) {
+        int n = trains.highWaterMark();
+        String[] ids = new String[n];
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        double[] speeds = new double[n];
+        int[] trackIndices = trains.trackIndices();
+        double[] positions = trains.positions();
+        double[] liveSpeeds = trains.speeds();
+        for (int i = 0; i < n; i++) {
+            if (!trains.isAlive(i)) {
+                continue;
+            }
+            ids[i] = trains.idAt(i);
+            xs[i] = network.x(trackIndices[i], positions[i]);
+            ys[i] = network.y(trackIndices[i], positions[i]);
+            speeds[i] = liveSpeeds[i];
+        }
+        return new TrainFrame(tick, ids, xs, ys, speeds);
+    }
+
+    /**
+     * 配列から直接スナップショットを作成（テスト用）
+     */
+    public static TrainFrame of(long tick, String[] ids, double[] xs, double[] ys, double[] speeds) {
+        return new TrainFrame(tick, ids.clone(), xs.clone(), ys.clone(), speeds.clone());
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * 添字の上限（この値未満の添字を走査する）
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * 添字の電車ID
+     * @return 電車ID。空き添字の場合は null
+     */
+    public String idAt(int index) {
+        return ids[index];
+    }
+
+    public double x(int index) {
+        return xs[index];
+    }
+
+    public double y(int index) {
+        return ys[index];
+    }
+
+    public double speed(int index) {
+        return speeds[index];
+    }
+
+    /**
+     * フレームの空間索引
+     * @param cellSize セルの大きさ
+     */
+    FrameGrid grid(double cellSize) {
+        FrameGrid current = grid;
+        if (current == null || current.requestedCellSize() != cellSize) {
+            current = FrameGrid.build(this, cellSize);
+            grid = current;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,29 @@
+package net.rushhourgame.core.realtime;
+
+import lombok.RequiredArgsConstructor;
+import net.rushhourgame.core.simulation.SimulationSystem;
+import net.rushhourgame.core.simulation.SimulationWorld;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 一定ティックごとに電車状態のスナップショットを作成し、配信に渡す
+ * 電車の移動後に実行されるよう最後に並べる。購読者がいない間はスナップショットを作成しない。
+ */
+@Component
+@Order(1000)
+@RequiredArgsConstructor
+public class TrainFramePublisher implements SimulationSystem {
+
+    private final SimulationWorld world;
+    private final RealtimeProperties properties;
+    private final RealtimeBroadcaster broadcaster;
+
+    @Override
+    public void update(long tick, double deltaSeconds) {
+        if (tick % properties.getFrameIntervalTicks() != 0 || !broadcaster.hasSubscribers()) {
+            return;
+        }
+        broadcaster.publish(TrainFrame.capture(tick, world.getTrains(), world.getNetwork()));
+    }
+}
@@ -0,0 +1,157 @@
+package net.rushhourgame.core.replay;
+
+import net.rushhourgame.core.simulation.JournaledCommand;
+import net.rushhourgame.core.simulation.SignalLayout;
+import net.rushhourgame.core.simulation.TrackNetwork;
+import net.rushhourgame.core.snapshot.LayoutCodec;
+import net.rushhourgame.core.snapshot.SnapshotInput;
+import net.rushhourgame.core.snapshot.SnapshotOutput;
+import net.rushhourgame.core.timetable.TimetableTrip;
+import net.rushhourgame.models.common.TrainOperationState;
+import net.rushhourgame.models.common.TrainType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * {@link JournaledCommand} とジャーナルのバイト列の変換
+ * 先頭の1バイトがコマンドの種類。列挙型は順序の変更に影響されないよう名前で格納する。
+ * 再読み込み・時刻表のコマンドは、読み込んだ線路網・駅の配置・時刻表をスナップショットと同じ形式
+ * （{@link LayoutCodec}）で長さを付けて格納する。
+ */
+final class CommandCodec {
+
+    private static final byte PLACE_TRAIN = 1;
+    private static final byte REMOVE_TRAIN = 2;
+    private static final byte CHANGE_TRAIN_STATE = 3;
+    private static final byte RELOAD_TRACKS = 4;
+    private static final byte RELOAD_STATIONS = 5;
+    private static final byte RELOAD_TIMETABLE = 6;
+    private static final byte UPDATE_TIMETABLE = 7;
+
+    private static final int LAYOUT_CAPACITY = 4096;
+
+    private CommandCodec() {
+    }
+
+    /**
+     * 書き込み先の位置から書き込む（容量の不足時は BufferOverflowException）
+     */
+    static void encode(JournaledCommand command, ByteBuffer out) {
+        switch (command) {
+            case JournaledCommand.PlaceTrain place -> {
+                out.put(PLACE_TRAIN);
+                putString(out, place.trainId());
+                putString(out, place.trackId());
+                out.putDouble(place.position());
+                putString(out, place.type().name());
+            }
+            case JournaledCommand.RemoveTrain remove -> {
+                out.put(REMOVE_TRAIN);
+                putString(out, remove.trainId());
+            }
+            case JournaledCommand.ChangeTrainState change -> {
+                out.put(CHANGE_TRAIN_STATE);
+                putString(out, change.trainId());
+                putString(out, change.state().name());
+            }
+            case JournaledCommand.ReloadTracks reload -> {
+                out.put(RELOAD_TRACKS);
+                putLayout(out, layout -> {
+                    LayoutCodec.writeNetwork(layout, reload.network());
+                    LayoutCodec.writeSignals(layout, reload.layout(), reload.network().size());
+                });
+            }
+            case JournaledCommand.ReloadStations reload -> {
+                out.put(RELOAD_STATIONS);
+                putLayout(out, layout -> LayoutCodec.writeStations(layout, reload.layout()));
+            }
+            case JournaledCommand.ReloadTimetable reload -> {
+                out.put(RELOAD_TIMETABLE);
+                putLayout(out, layout -> LayoutCodec.writeTimetable(layout, reload.timetable()));
+            }
+            case JournaledCommand.UpdateTimetable update -> {
+                out.put(UPDATE_TIMETABLE);
+                putLayout(out, layout -> {
+                    layout.putInt(update.changed().size());
+                    for (TimetableTrip trip : update.changed()) {
+                        LayoutCodec.writeTrip(layout, trip);
+                    }
+                    layout.putInt(update.removedScheduleIds().size());
+                    for (String scheduleId : update.removedScheduleIds()) {
+                        layout.putString(scheduleId);
+                    }
+                });
+            }
+        }
+    }
+
+    static JournaledCommand decode(ByteBuffer in) {
+        byte kind = in.get();
+        return switch (kind) {
+            case PLACE_TRAIN -> new JournaledCommand.PlaceTrain(getString(in), getString(in), in.getDouble(),
+                TrainType.valueOf(getString(in)));
+            case REMOVE_TRAIN -> new JournaledCommand.RemoveTrain(getString(in));
+            case CHANGE_TRAIN_STATE -> new JournaledCommand.ChangeTrainState(getString(in),
+                TrainOperationState.valueOf(getString(in)));
+            case RELOAD_TRACKS -> {
+                SnapshotInput layout = getLayout(in);
+                TrackNetwork network = LayoutCodec.readNetwork(layout);
+                try {
+                    yield new JournaledCommand.ReloadTracks(network, LayoutCodec.readSignals(layout, network.size()));
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Journaled signal layout is invalid", e);
+                }
+            }
+            case RELOAD_STATIONS -> new JournaledCommand.ReloadStations(LayoutCodec.readStations(getLayout(in)));
+            case RELOAD_TIMETABLE -> new JournaledCommand.ReloadTimetable(LayoutCodec.readTimetable(getLayout(in)));
+            case UPDATE_TIMETABLE -> {
+                SnapshotInput layout = getLayout(in);
+                List<TimetableTrip> changed = new ArrayList<>();
+                for (int i = 0, n = layout.getInt(); i < n; i++) {
+                    changed.add(LayoutCodec.readTrip(layout));
+                }
+                List<String> removed = new ArrayList<>();
+                for (int i = 0, n = layout.getInt(); i < n; i++) {
+                    removed.add(layout.getString());
+                }
+                yield new JournaledCommand.UpdateTimetable(changed, removed);
+            }
+            default -> throw new IllegalArgumentException("Unknown journaled command: " + kind);
+        };
+    }
+
+    /**
+     * 配置を書き出して長さと一緒に格納する
+     */
+    private static void putLayout(ByteBuffer out, Consumer<SnapshotOutput> writer) {
+        SnapshotOutput layout = new SnapshotOutput(LAYOUT_CAPACITY);
+        writer.accept(layout);
+        ByteBuffer bytes = layout.toBuffer();
+        out.putInt(bytes.remaining());
+        out.put(bytes);
+    }
+
+    private static SnapshotInput getLayout(ByteBuffer in) {
+        int length = in.getInt();
+        SnapshotInput layout = new SnapshotInput(in.slice(in.position(), length));
+        in.position(in.position() + length);
+        return layout;
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,168 @@
+package net.rushhourgame.core.replay;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import net.rushhourgame.core.resident.ResidentProperties;
+import net.rushhourgame.core.simulation.JournaledCommand;
+import net.rushhourgame.core.simulation.SimulationCommand;
+import net.rushhourgame.core.simulation.SimulationProperties;
+import net.rushhourgame.core.simulation.SimulationRecorder;
+import net.rushhourgame.core.simulation.SimulationWorld;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * シミュレーションに適用したコマンドとワールドのチェックサムをジャーナルに記録する
+ * 起動ごとに記録用のディレクトリを作り、乱数の種とティックの速さをヘッダーに残す。
+ * ティックスレッドはメモリマップした領域に書くだけで、専用スレッドが一定間隔でまとめてディスクに書き出す。
+ * 書き込みに失敗した場合は記録をやめ、シミュレーションは止めない。
+ */
+@Component
+@ConditionalOnProperty(name = "rushhour.replay.mode", havingValue = "RECORD")
+public class CommandJournal implements SimulationRecorder, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommandJournal.class);
+
+    private static final DateTimeFormatter RUN_NAME = DateTimeFormatter.ofPattern("uuuuMMdd-HHmmss-SSS");
+
+    private final JournalWriter writer;
+    private final int checksumIntervalTicks;
+    private final ScheduledExecutorService committer;
+
+    private volatile boolean failed;
+    private SimulationWorld lastWorld;
+    private long lastTick = -1;
+    private long lastChecksumTick = -1;
+
+    public CommandJournal(ReplayProperties properties, SimulationProperties simulationProperties,
+                          ResidentProperties residentProperties) {
+        this.checksumIntervalTicks = Math.max(1, properties.getChecksumIntervalTicks());
+        Path directory = properties.getDirectory().resolve(LocalDateTime.now().format(RUN_NAME));
+        this.writer = new JournalWriter(directory, properties.getSegmentBytes(), residentProperties.getSeed(),
+            simulationProperties.getTickRate(), checksumIntervalTicks);
+        this.committer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-commit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(1, properties.getCommitInterval().toMillis());
+        committer.scheduleWithFixedDelay(this::commitQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("Recording simulation journal to {}", directory);
+    }
+
+    @Override
+    public void onCommand(long tick, SimulationCommand command) {
+        if (failed) {
+            return;
+        }
+        try {
+            if (command instanceof JournaledCommand journaled) {
+                writer.writeCommand(tick, journaled);
+            } else {
+                writer.writeUnrecorded(tick);
+            }
+        } catch (RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public void onTickCompleted(long tick, SimulationWorld world) {
+        lastWorld = world;
+        lastTick = tick;
+        if (failed) {
+            return;
+        }
+        try {
+            if (tick % checksumIntervalTicks == 0) {
+                writer.writeChecksum(tick, WorldChecksum.of(world));
+                lastChecksumTick = tick;
+            }
+            writer.tickCompleted(tick);
+        } catch (RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * 指定したティックまでの記録がディスクに書き出されるまで待つ
+     * @return 時間内に書き出された場合true
+     */
+    public boolean awaitCommitted(long tick, long timeoutMillis) throws InterruptedException {
+        return writer.awaitCommitted(tick, timeoutMillis);
+    }
+
+    /**
+     * 書き出しスレッドを止め、最後のティックのチェックサムを記録して書き出す
+     * ティックループの停止後に呼ばれる。
+     */
+    @PreDestroy
+    public void shutdown() {
+        committer.shutdown();
+        try {
+            committer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!failed && lastTick > lastChecksumTick) {
+            try {
+                writer.writeChecksum(lastTick, WorldChecksum.of(lastWorld));
+                writer.tickCompleted(lastTick);
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+        }
+        writer.close();
+    }
+
+    public long getWrittenBytes() {
+        return writer.writtenBytes();
+    }
+
+    public long getCommits() {
+        return writer.commits();
+    }
+
+    public long getCommittedTick() {
+        return writer.committedTick();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rushhour.replay.journal.written", this, CommandJournal::getWrittenBytes)
+            .description("Bytes appended to the simulation journal")
+            .baseUnit("bytes")
+            .register(registry);
+        FunctionCounter.builder("rushhour.replay.journal.commits", this, CommandJournal::getCommits)
+            .description("Group commits of the simulation journal")
+            .register(registry);
+        Gauge.builder("rushhour.replay.journal.committed.tick", this, CommandJournal::getCommittedTick)
+            .description("Last tick whose journal records are on disk")
+            .register(registry);
+    }
+
+    private void commitQuietly() {
+        try {
+            writer.commit();
+        } catch (RuntimeException e) {
+            logger.error("Simulation journal commit failed", e);
+        }
+    }
+
+    private void fail(RuntimeException e) {
+        failed = true;
+        logger.error("Simulation journal write failed, recording stopped", e);
+    }
+}
@@ -0,0 +1,135 @@
+package net.rushhourgame.core.replay;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * {@link JournalWriter} が書いたジャーナルを記録の順に読む
+ * ファイルはメモリマップで読む。長さやCRCが合わない記録（書き込み途中で終了した末尾）以降は読まない。
+ */
+final class JournalReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalReader.class);
+
+    private final List<Path> files;
+    private final CRC32C crc = new CRC32C();
+    private final Header header;
+
+    private int fileIndex;
+    private ByteBuffer data;
+    private boolean torn;
+
+    private JournalReader(List<Path> files) throws IOException {
+        this.files = files;
+        if (files.isEmpty()) {
+            throw new IOException("No journal files");
+        }
+        data = map(files.get(0));
+        header = new Header(data.getLong(JournalWriter.START_TICK_OFFSET), data.getLong(16), data.getInt(24),
+            data.getInt(28));
+    }
+
+    /**
+     * 記録のディレクトリのジャーナルを開く
+     */
+    static JournalReader open(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing
+                .filter(file -> {
+                    String name = file.getFileName().toString();
+                    return name.startsWith(JournalWriter.PREFIX) && name.endsWith(JournalWriter.SUFFIX);
+                })
+                .sorted()
+                .toList();
+        }
+        return new JournalReader(files);
+    }
+
+    Header header() {
+        return header;
+    }
+
+    /**
+     * 末尾の壊れた記録を読み飛ばしたか
+     */
+    boolean isTorn() {
+        return torn;
+    }
+
+    /**
+     * 次の記録（内容はジャーナルの領域を参照し、次の呼び出しまで有効）
+     * @return 終端の場合 null
+     */
+    Record next() throws IOException {
+        while (data != null) {
+            int position = data.position();
+            int length = data.remaining() >= Integer.BYTES ? data.getInt(position) : 0;
+            if (length == 0) {
+                nextFile();
+                continue;
+            }
+            int minimum = 1 + Long.BYTES;
+            if (length < minimum || length > data.remaining() - 2 * Integer.BYTES) {
+                return tornAt(position);
+            }
+            int body = position + Integer.BYTES;
+            crc.reset();
+            crc.update(data.slice(body, length));
+            if ((int) crc.getValue() != data.getInt(body + length)) {
+                return tornAt(position);
+            }
+            data.position(body + length + Integer.BYTES);
+            byte type = data.get(body);
+            long tick = data.getLong(body + 1);
+            ByteBuffer payload = data.slice(body + minimum, length - minimum).order(ByteOrder.LITTLE_ENDIAN);
+            return new Record(type, tick, payload);
+        }
+        return null;
+    }
+
+    private Record tornAt(int position) {
+        torn = true;
+        logger.warn("Journal {} is torn at byte {}, ignoring the rest", files.get(fileIndex), position);
+        data = null;
+        return null;
+    }
+
+    private void nextFile() throws IOException {
+        fileIndex++;
+        data = fileIndex < files.size() ? map(files.get(fileIndex)) : null;
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                .order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < JournalWriter.HEADER_BYTES || buffer.getInt(0) != JournalWriter.MAGIC
+                || buffer.getInt(4) != JournalWriter.VERSION) {
+                throw new IOException("Not a journal file: " + file);
+            }
+            return buffer.position(JournalWriter.HEADER_BYTES);
+        }
+    }
+
+    /**
+     * 記録時の設定
+     * @param startTick 最初に記録したティック（何も記録していない場合は-1）
+     */
+    record Header(long startTick, long seed, int tickRate, int checksumIntervalTicks) {
+    }
+
+    record Record(byte type, long tick, ByteBuffer payload) {
+    }
+}
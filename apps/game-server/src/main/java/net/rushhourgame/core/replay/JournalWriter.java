@@ -0,0 +1,257 @@
+package net.rushhourgame.core.replay;
+
+import net.rushhourgame.core.simulation.JournaledCommand;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.CRC32C;
+
+/**
+ * 追記専用のジャーナル（メモリマップしたファイル）への書き込み
+ * 記録の追加は1つのスレッド（ティックスレッド）から行い、メモリへの書き込みだけで返る。
+ * ディスクへの書き出しは {@link #commit} でまとめて行う（グループコミット）。
+ * ファイルが満杯になると次の番号のファイルに切り替える。
+ *
+ * <pre>
+ * ヘッダー : magic, version, 開始ティック, 乱数の種, 1秒あたりのティック数, チェックサムの間隔
+ * 記録     : 長さ（種類から内容まで）, 種類, ティック, 内容, CRC32C（種類から内容まで）
+ * </pre>
+ * 長さが0の位置がファイルの終端（書き込んでいない領域は0で埋まっている）。
+ */
+final class JournalWriter implements Closeable {
+
+    static final int MAGIC = 0x4C4E524A;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int START_TICK_OFFSET = 8;
+    static final String PREFIX = "journal-";
+    static final String SUFFIX = ".log";
+
+    /**
+     * 記録したコマンド
+     */
+    static final byte COMMAND = 1;
+    /**
+     * 内容を記録できないコマンド（ラムダなど）を適用した
+     */
+    static final byte UNRECORDED = 2;
+    /**
+     * ティックの実行後のワールドのチェックサム
+     */
+    static final byte CHECKSUM = 3;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long seed;
+    private final int tickRate;
+    private final int checksumIntervalTicks;
+    // ディスクへの書き出しが終わっていないファイル（古い順）
+    private final Queue<Segment> uncommitted = new ConcurrentLinkedQueue<>();
+    private final CRC32C crc = new CRC32C();
+
+    private ByteBuffer scratch = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+    private Segment current;
+    private int nextSequence;
+    private long startTick = -1;
+    private volatile long writtenBytes;
+    private volatile long committedTick = -1;
+    private volatile long commits;
+
+    JournalWriter(Path directory, int segmentBytes, long seed, int tickRate, int checksumIntervalTicks) {
+        this.directory = directory;
+        this.segmentBytes = Math.max(HEADER_BYTES + 1024, segmentBytes);
+        this.seed = seed;
+        this.tickRate = tickRate;
+        this.checksumIntervalTicks = checksumIntervalTicks;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create journal directory " + directory, e);
+        }
+        current = openSegment();
+    }
+
+    void writeCommand(long tick, JournaledCommand command) {
+        while (true) {
+            begin(COMMAND, tick);
+            try {
+                CommandCodec.encode(command, scratch);
+                break;
+            } catch (BufferOverflowException e) {
+                scratch = ByteBuffer.allocate(scratch.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        finish();
+    }
+
+    void writeUnrecorded(long tick) {
+        begin(UNRECORDED, tick);
+        finish();
+    }
+
+    void writeChecksum(long tick, long checksum) {
+        begin(CHECKSUM, tick);
+        scratch.putLong(checksum);
+        finish();
+    }
+
+    /**
+     * ティックの記録がすべて書き込まれた（{@link #committedTick} の更新に使う）
+     */
+    void tickCompleted(long tick) {
+        started(tick);
+        current.lastTick = tick;
+    }
+
+    /**
+     * 書き込んだ記録をディスクに書き出す（書き出し用のスレッドと終了処理から呼ばれる）
+     */
+    synchronized void commit() {
+        for (Iterator<Segment> it = uncommitted.iterator(); it.hasNext(); ) {
+            Segment segment = it.next();
+            // 書き込み側の更新と逆の順に読む（満杯なら書き込み済みの長さは確定している）
+            boolean full = segment.full;
+            long lastTick = segment.lastTick;
+            int written = segment.written;
+            if (written > segment.committed) {
+                segment.buffer.force(segment.committed, written - segment.committed);
+                segment.committed = written;
+            }
+            if (lastTick > committedTick) {
+                committedTick = lastTick;
+            }
+            if (full) {
+                it.remove();
+                closeQuietly(segment);
+            }
+        }
+        commits++;
+        notifyAll();
+    }
+
+    /**
+     * 指定したティックまでの記録がディスクに書き出されるまで待つ
+     * @return 時間内に書き出された場合true
+     */
+    synchronized boolean awaitCommitted(long tick, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (committedTick < tick) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    long committedTick() {
+        return committedTick;
+    }
+
+    long writtenBytes() {
+        return writtenBytes;
+    }
+
+    long commits() {
+        return commits;
+    }
+
+    @Override
+    public synchronized void close() {
+        current.full = true;
+        commit();
+    }
+
+    private void begin(byte type, long tick) {
+        started(tick);
+        scratch.clear();
+        scratch.position(Integer.BYTES);
+        scratch.put(type);
+        scratch.putLong(tick);
+    }
+
+    private void finish() {
+        int length = scratch.position() - Integer.BYTES;
+        crc.reset();
+        crc.update(scratch.array(), Integer.BYTES, length);
+        scratch.putInt(0, length);
+        scratch.putInt((int) crc.getValue());
+        int recordBytes = scratch.position();
+        // 終端の長さ0を書く余地を残す
+        if (current.written + recordBytes + Integer.BYTES > segmentBytes) {
+            if (HEADER_BYTES + recordBytes + Integer.BYTES > segmentBytes) {
+                throw new IllegalArgumentException("Journal record of " + recordBytes + " bytes exceeds the segment size");
+            }
+            Segment next = openSegment();
+            current.full = true;
+            current = next;
+        }
+        current.buffer.put(current.written, scratch, 0, recordBytes);
+        current.written += recordBytes;
+        writtenBytes += recordBytes;
+    }
+
+    private void started(long tick) {
+        if (startTick < 0) {
+            startTick = tick;
+            current.buffer.putLong(START_TICK_OFFSET, tick);
+        }
+    }
+
+    private Segment openSegment() {
+        Path file = directory.resolve(String.format("%s%08d%s", PREFIX, nextSequence, SUFFIX));
+        try {
+            FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(START_TICK_OFFSET, startTick);
+            buffer.putLong(16, seed);
+            buffer.putInt(24, tickRate);
+            buffer.putInt(28, checksumIntervalTicks);
+            Segment segment = new Segment(channel, buffer);
+            uncommitted.add(segment);
+            nextSequence++;
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create journal file " + file, e);
+        }
+    }
+
+    private static void closeQuietly(Segment segment) {
+        try {
+            segment.channel.close();
+        } catch (IOException e) {
+            // マップした領域は参照がなくなると解放される
+        }
+    }
+
+    private static final class Segment {
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private volatile int written = HEADER_BYTES;
+        private volatile long lastTick = -1;
+        private volatile boolean full;
+        private int committed;
+
+        private Segment(FileChannel channel, MappedByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+}
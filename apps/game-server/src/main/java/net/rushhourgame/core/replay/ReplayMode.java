@@ -0,0 +1,19 @@
+package net.rushhourgame.core.replay;
+
+/**
+ * 入力の記録・リプレイの動作
+ */
+public enum ReplayMode {
+    /**
+     * 記録しない
+     */
+    OFF,
+    /**
+     * コマンドとチェックサムをジャーナルに記録する
+     */
+    RECORD,
+    /**
+     * 起動時にジャーナルからシミュレーションを再実行し、チェックサムを照合する
+     */
+    REPLAY
+}
@@ -0,0 +1,45 @@
+package net.rushhourgame.core.replay;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 入力の記録とリプレイの設定
+ */
+@Data
+@ConfigurationProperties(prefix = "rushhour.replay")
+public class ReplayProperties {
+
+    /**
+     * 動作（REPLAYの場合は rushhour.simulation.enabled=false とすること）
+     */
+    private ReplayMode mode = ReplayMode.OFF;
+
+    /**
+     * ジャーナルを置くディレクトリ（記録ごとにサブディレクトリを作る）
+     */
+    private Path directory = Path.of("data/replay");
+
+    /**
+     * リプレイする記録のサブディレクトリ名（空の場合は最新の記録）
+     */
+    private String run = "";
+
+    /**
+     * ジャーナルファイル1つの大きさ（バイト）。満杯になると次のファイルに切り替える
+     */
+    private int segmentBytes = 64 * 1024 * 1024;
+
+    /**
+     * まとめてディスクに書き出す間隔（異常終了ではこの間隔分の記録が失われうる）
+     */
+    private Duration commitInterval = Duration.ofMillis(50);
+
+    /**
+     * ワールドのチェックサムを記録する間隔（ティック数）
+     */
+    private int checksumIntervalTicks = 300;
+}
@@ -0,0 +1,30 @@
+package net.rushhourgame.core.replay;
+
+/**
+ * リプレイの結果
+ * @param startTick     再実行を始めたティック
+ * @param endTick       再実行を終えた時点の次のティック
+ * @param commands      登録したコマンド数
+ * @param unrecorded    内容が記録されておらず再現できなかったコマンド数
+ * @param verified      一致したチェックサムの数
+ * @param mismatchTick  チェックサムが一致しなかったティック（一致した場合は {@link #NO_MISMATCH}）
+ * @param torn          ジャーナルの末尾が壊れていたか
+ * @param elapsedNanos  再実行にかかった時間
+ */
+public record ReplayResult(long startTick, long endTick, int commands, int unrecorded, int verified,
+                           long mismatchTick, boolean torn, long elapsedNanos) {
+
+    public static final long NO_MISMATCH = -1;
+
+    public boolean matched() {
+        return mismatchTick == NO_MISMATCH;
+    }
+
+    /**
+     * 実時間に対する再実行の速さ（倍）
+     */
+    public double speedup(int tickRate) {
+        double simulatedNanos = (endTick - startTick) * 1_000_000_000.0 / tickRate;
+        return elapsedNanos == 0 ? 0 : simulatedNanos / elapsedNanos;
+    }
+}
@@ -0,0 +1,116 @@
+package net.rushhourgame.core.replay;
+
+import lombok.RequiredArgsConstructor;
+import net.rushhourgame.core.resident.ResidentProperties;
+import net.rushhourgame.core.simulation.SimulationEngine;
+import net.rushhourgame.core.simulation.SimulationProperties;
+import net.rushhourgame.core.simulation.SimulationWorld;
+import net.rushhourgame.core.snapshot.SnapshotRestorer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * 起動完了時に記録したジャーナルからシミュレーションを再実行する
+ * 乱数の種とティックの速さは記録時の値に合わせる。線路網・駅・時刻表は記録したコマンドから読み込むため、
+ * リプレイ中はデータベースを読まない。
+ * スナップショットから復元したワールドで記録を始めた場合は、そのティックのスナップショットを復元してから再実行する。
+ * 開始ティックが記録と合わない場合や、照合したチェックサムが1つもない場合は失敗とする。
+ */
+@Component
+@ConditionalOnProperty(name = "rushhour.replay.mode", havingValue = "REPLAY")
+@RequiredArgsConstructor
+public class ReplayRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayRunner.class);
+
+    private final ReplayProperties properties;
+    private final SimulationProperties simulationProperties;
+    private final ResidentProperties residentProperties;
+    private final SimulationEngine engine;
+    private final SimulationWorld world;
+    private final SnapshotRestorer snapshotRestorer;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (simulationProperties.isEnabled()) {
+            logger.error("Replay requires rushhour.simulation.enabled=false, skipping replay");
+            return;
+        }
+        Thread thread = new Thread(this::runQuietly, "replay");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 設定した記録をリプレイする
+     */
+    public ReplayResult run() throws IOException {
+        Path directory = runDirectory();
+        JournalReader reader = JournalReader.open(directory);
+        JournalReader.Header header = reader.header();
+        residentProperties.setSeed(header.seed());
+        simulationProperties.setTickRate(header.tickRate());
+        if (header.startTick() < 0) {
+            throw new IOException("Journal " + directory + " has no recorded ticks");
+        }
+        if (header.startTick() > 0) {
+            // 記録の開始前のティックで書き出したスナップショットから始める
+            snapshotRestorer.restore(header.startTick() - 1);
+        }
+        if (engine.getCurrentTick() != header.startTick()) {
+            throw new IllegalStateException("Journal starts at tick " + header.startTick()
+                + " but the world is at tick " + engine.getCurrentTick());
+        }
+        logger.info("Replaying {} from tick {}", directory, header.startTick());
+        Replayer replayer = new Replayer(engine, world);
+        ReplayResult result = replayer.replay(reader);
+        if (result.verified() == 0 && result.matched()) {
+            throw new IllegalStateException("Replay of " + directory + " verified no checksums between ticks "
+                + result.startTick() + " and " + result.endTick());
+        }
+        return result;
+    }
+
+    private void runQuietly() {
+        try {
+            ReplayResult result = run();
+            if (result.matched()) {
+                logger.info("Replayed ticks {} to {} in {} ms ({}x real time), {} checksums matched",
+                    result.startTick(), result.endTick(), result.elapsedNanos() / 1_000_000,
+                    String.format("%.1f", result.speedup(simulationProperties.getTickRate())), result.verified());
+            } else {
+                logger.error("Replay diverged at tick {} after {} matching checksums",
+                    result.mismatchTick(), result.verified());
+            }
+            if (result.unrecorded() > 0) {
+                logger.warn("{} commands were not recorded and could not be replayed", result.unrecorded());
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Replay failed", e);
+        }
+    }
+
+    private Path runDirectory() throws IOException {
+        Path root = properties.getDirectory();
+        if (!properties.getRun().isEmpty()) {
+            return root.resolve(properties.getRun());
+        }
+        Optional<Path> latest;
+        try (Stream<Path> runs = Files.list(root)) {
+            latest = runs.filter(Files::isDirectory)
+                .max(Comparator.comparing(run -> run.getFileName().toString()));
+        }
+        return latest.orElseThrow(() -> new IOException("No recorded runs in " + root));
+    }
+}
@@ -0,0 +1,77 @@
+package net.rushhourgame.core.replay;
+
+import net.rushhourgame.core.simulation.SimulationEngine;
+import net.rushhourgame.core.simulation.SimulationWorld;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * ジャーナルの記録に従ってシミュレーションを再実行する
+ * 記録したティックで同じ順にコマンドを登録し、待たずに {@link SimulationEngine#tick} を進める。
+ * チェックサムの記録ごとにワールドのチェックサムを照合し、最初に一致しなかったティックで止める。
+ * 再読み込みのコマンドも読み込んだ内容を記録しているため、他のコマンドと同じく登録する。
+ */
+class Replayer {
+
+    private static final Logger logger = LoggerFactory.getLogger(Replayer.class);
+
+    private final SimulationEngine engine;
+    private final SimulationWorld world;
+
+    Replayer(SimulationEngine engine, SimulationWorld world) {
+        this.engine = engine;
+        this.world = world;
+    }
+
+    ReplayResult replay(JournalReader reader) throws IOException {
+        long started = System.nanoTime();
+        long startTick = engine.getCurrentTick();
+        int commands = 0;
+        int unrecorded = 0;
+        int verified = 0;
+        long mismatchTick = ReplayResult.NO_MISMATCH;
+        JournalReader.Record record;
+        while ((record = reader.next()) != null) {
+            if (record.tick() < engine.getCurrentTick()) {
+                // ワールドの開始ティックより前の記録
+                continue;
+            }
+            switch (record.type()) {
+                case JournalWriter.COMMAND -> {
+                    advanceTo(record.tick());
+                    engine.submit(CommandCodec.decode(record.payload()));
+                    commands++;
+                }
+                case JournalWriter.UNRECORDED -> unrecorded++;
+                case JournalWriter.CHECKSUM -> {
+                    advanceTo(record.tick() + 1);
+                    long expected = record.payload().getLong(0);
+                    long actual = WorldChecksum.of(world);
+                    if (actual != expected) {
+                        mismatchTick = record.tick();
+                        logger.error("World checksum mismatch at tick {}: recorded {}, replayed {}",
+                            record.tick(), Long.toHexString(expected), Long.toHexString(actual));
+                        return result(startTick, commands, unrecorded, verified, mismatchTick, reader, started);
+                    }
+                    verified++;
+                }
+                default -> logger.warn("Unknown journal record type {} at tick {}", record.type(), record.tick());
+            }
+        }
+        return result(startTick, commands, unrecorded, verified, mismatchTick, reader, started);
+    }
+
+    private void advanceTo(long tick) {
+        while (engine.getCurrentTick() < tick) {
+            engine.tick();
+        }
+    }
+
+    private ReplayResult result(long startTick, int commands, int unrecorded, int verified, long mismatchTick,
+                                JournalReader reader, long started) {
+        return new ReplayResult(startTick, engine.getCurrentTick(), commands, unrecorded, verified, mismatchTick,
+            reader.isTorn(), System.nanoTime() - started);
+    }
+}
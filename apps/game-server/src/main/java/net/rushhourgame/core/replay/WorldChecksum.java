@@ -0,0 +1,95 @@
+package net.rushhourgame.core.replay;
+
+import net.rushhourgame.core.resident.ResidentStore;
+import net.rushhourgame.core.simulation.BlockOccupancy;
+import net.rushhourgame.core.simulation.BlockReservations;
+import net.rushhourgame.core.simulation.SimulationWorld;
+import net.rushhourgame.core.simulation.TrainStateStore;
+import net.rushhourgame.core.stationflow.StationFlowStore;
+
+/**
+ * リプレイの照合に使うワールドの状態の64ビットのチェックサム
+ * 電車・閉塞予約・住民・駅構内の人数を添字の順にビット単位で混ぜる（浮動小数点の値もビット列で比較する）。
+ * 閉塞予約は線路ごとの予約した電車と電車ごとの待ち相手を、駅は満員として発行済みかどうかも混ぜる。
+ * 住民の格納先によらず同じ値になるよう、フィールド単位のアクセスで読む。
+ */
+public final class WorldChecksum {
+
+    private static final long SEED = 0x52484752_45504C59L;
+
+    private WorldChecksum() {
+    }
+
+    public static long of(SimulationWorld world) {
+        long hash = SEED;
+        TrainStateStore trains = world.getTrains();
+        hash = mix(hash, trains.size());
+        for (int i = 0, n = trains.highWaterMark(); i < n; i++) {
+            if (!trains.isAlive(i)) {
+                continue;
+            }
+            hash = mix(hash, i);
+            hash = mix(hash, trains.idAt(i).hashCode());
+            hash = mix(hash, trains.trackIndex(i));
+            hash = mix(hash, Double.doubleToLongBits(trains.position(i)));
+            hash = mix(hash, Double.doubleToLongBits(trains.speed(i)));
+            hash = mix(hash, trains.state(i).ordinal());
+        }
+
+        BlockReservations reservations = world.getReservations();
+        BlockOccupancy occupancy = reservations.getOccupancy();
+        for (int track = 0, n = occupancy.size(); track < n; track++) {
+            hash = mix(hash, occupancy.holder(track));
+        }
+        for (int i = 0, n = trains.highWaterMark(); i < n; i++) {
+            if (trains.isAlive(i)) {
+                hash = mix(hash, reservations.blockerOf(i));
+            }
+        }
+
+        ResidentStore residents = world.getResidents();
+        hash = mix(hash, residents.size());
+        for (int i = 0, n = residents.highWaterMark(); i < n; i++) {
+            if (!residents.isAlive(i)) {
+                continue;
+            }
+            hash = mix(hash, i);
+            hash = mix(hash, Float.floatToIntBits(residents.satisfaction(i)));
+            hash = mix(hash, residents.has(i, ResidentStore.TRIP_DECIDED) ? 1 : 0);
+            if (residents.has(i, ResidentStore.PERSONAL_INFO)) {
+                hash = mix(hash, residents.age(i));
+                hash = mix(hash, residents.occupation(i));
+            }
+            if (residents.has(i, ResidentStore.TRAVEL_PLAN)) {
+                hash = mix(hash, residents.origin(i));
+                hash = mix(hash, residents.destination(i));
+                hash = mix(hash, Float.floatToIntBits(residents.departureTime(i)));
+                hash = mix(hash, residents.preferredRoute(i));
+            }
+            if (residents.has(i, ResidentStore.ECONOMIC_STATUS)) {
+                hash = mix(hash, residents.income(i));
+                hash = mix(hash, Float.floatToIntBits(residents.travelBudget(i)));
+                hash = mix(hash, Float.floatToIntBits(residents.timeValue(i)));
+            }
+        }
+
+        StationFlowStore flows = world.getStationFlows();
+        int stations = flows.getLayout().size();
+        hash = mix(hash, stations);
+        for (int i = 0; i < stations; i++) {
+            hash = mix(hash, Double.doubleToLongBits(flows.entryQueue(i)));
+            hash = mix(hash, Double.doubleToLongBits(flows.entryCorridor(i)));
+            hash = mix(hash, Double.doubleToLongBits(flows.waiting(i)));
+            hash = mix(hash, Double.doubleToLongBits(flows.exitQueue(i)));
+            hash = mix(hash, Double.doubleToLongBits(flows.exitCorridor(i)));
+            hash = mix(hash, Double.doubleToLongBits(flows.exitGateQueue(i)));
+            hash = mix(hash, flows.isOvercrowded(i) ? 1 : 0);
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        long h = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+}
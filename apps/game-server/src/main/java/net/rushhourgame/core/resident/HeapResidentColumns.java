@@ -0,0 +1,202 @@
+package net.rushhourgame.core.resident;
+
+import java.util.Arrays;
+
+/**
+ * Javaヒープ上のプリミティブ配列による住民コンポーネントの列
+ */
+final class HeapResidentColumns implements ResidentColumns {
+
+    byte[] components;
+    short[] ages;
+    short[] occupations;
+    float[] satisfactions;
+    int[] origins;
+    int[] destinations;
+    float[] departureTimes;
+    int[] preferredRoutes;
+    int[] incomes;
+    float[] travelBudgets;
+    float[] timeValues;
+
+    HeapResidentColumns(int capacity) {
+        components = new byte[capacity];
+        ages = new short[capacity];
+        occupations = new short[capacity];
+        satisfactions = new float[capacity];
+        origins = new int[capacity];
+        destinations = new int[capacity];
+        departureTimes = new float[capacity];
+        preferredRoutes = new int[capacity];
+        incomes = new int[capacity];
+        travelBudgets = new float[capacity];
+        timeValues = new float[capacity];
+        Arrays.fill(components, ResidentStore.FREE);
+    }
+
+    @Override
+    public int capacity() {
+        return components.length;
+    }
+
+    @Override
+    public void grow(int capacity) {
+        int oldCapacity = components.length;
+        components = Arrays.copyOf(components, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        occupations = Arrays.copyOf(occupations, capacity);
+        satisfactions = Arrays.copyOf(satisfactions, capacity);
+        origins = Arrays.copyOf(origins, capacity);
+        destinations = Arrays.copyOf(destinations, capacity);
+        departureTimes = Arrays.copyOf(departureTimes, capacity);
+        preferredRoutes = Arrays.copyOf(preferredRoutes, capacity);
+        incomes = Arrays.copyOf(incomes, capacity);
+        travelBudgets = Arrays.copyOf(travelBudgets, capacity);
+        timeValues = Arrays.copyOf(timeValues, capacity);
+        Arrays.fill(components, oldCapacity, capacity, ResidentStore.FREE);
+    }
+
+    @Override
+    public ResidentColumns copy() {
+        HeapResidentColumns copy = new HeapResidentColumns(0);
+        copy.components = components.clone();
+        copy.ages = ages.clone();
+        copy.occupations = occupations.clone();
+        copy.satisfactions = satisfactions.clone();
+        copy.origins = origins.clone();
+        copy.destinations = destinations.clone();
+        copy.departureTimes = departureTimes.clone();
+        copy.preferredRoutes = preferredRoutes.clone();
+        copy.incomes = incomes.clone();
+        copy.travelBudgets = travelBudgets.clone();
+        copy.timeValues = timeValues.clone();
+        return copy;
+    }
+
+    @Override
+    public void copyRange(ResidentColumns target, int from, int to) {
+        HeapResidentColumns copy = (HeapResidentColumns) target;
+        int length = to - from;
+        System.arraycopy(components, from, copy.components, from, length);
+        System.arraycopy(ages, from, copy.ages, from, length);
+        System.arraycopy(occupations, from, copy.occupations, from, length);
+        System.arraycopy(satisfactions, from, copy.satisfactions, from, length);
+        System.arraycopy(origins, from, copy.origins, from, length);
+        System.arraycopy(destinations, from, copy.destinations, from, length);
+        System.arraycopy(departureTimes, from, copy.departureTimes, from, length);
+        System.arraycopy(preferredRoutes, from, copy.preferredRoutes, from, length);
+        System.arraycopy(incomes, from, copy.incomes, from, length);
+        System.arraycopy(travelBudgets, from, copy.travelBudgets, from, length);
+        System.arraycopy(timeValues, from, copy.timeValues, from, length);
+    }
+
+    @Override
+    public byte components(int index) {
+        return components[index];
+    }
+
+    @Override
+    public void setComponents(int index, byte value) {
+        components[index] = value;
+    }
+
+    @Override
+    public short age(int index) {
+        return ages[index];
+    }
+
+    @Override
+    public void setAge(int index, short value) {
+        ages[index] = value;
+    }
+
+    @Override
+    public short occupation(int index) {
+        return occupations[index];
+    }
+
+    @Override
+    public void setOccupation(int index, short value) {
+        occupations[index] = value;
+    }
+
+    @Override
+    public float satisfaction(int index) {
+        return satisfactions[index];
+    }
+
+    @Override
+    public void setSatisfaction(int index, float value) {
+        satisfactions[index] = value;
+    }
+
+    @Override
+    public int origin(int index) {
+        return origins[index];
+    }
+
+    @Override
+    public void setOrigin(int index, int value) {
+        origins[index] = value;
+    }
+
+    @Override
+    public int destination(int index) {
+        return destinations[index];
+    }
+
+    @Override
+    public void setDestination(int index, int value) {
+        destinations[index] = value;
+    }
+
+    @Override
+    public float departureTime(int index) {
+        return departureTimes[index];
+    }
+
+    @Override
+    public void setDepartureTime(int index, float value) {
+        departureTimes[index] = value;
+    }
+
+    @Override
+    public int preferredRoute(int index) {
+        return preferredRoutes[index];
+    }
+
+    @Override
+    public void setPreferredRoute(int index, int value) {
+        preferredRoutes[index] = value;
+    }
+
+    @Override
+    public int income(int index) {
+        return incomes[index];
+    }
+
+    @Override
+    public void setIncome(int index, int value) {
+        incomes[index] = value;
+    }
+
+    @Override
+    public float travelBudget(int index) {
+        return travelBudgets[index];
+    }
+
+    @Override
+    public void setTravelBudget(int index, float value) {
+        travelBudgets[index] = value;
+    }
+
+    @Override
+    public float timeValue(int index) {
+        return timeValues[index];
+    }
+
+    @Override
+    public void setTimeValue(int index, float value) {
+        timeValues[index] = value;
+    }
+}
@@ -0,0 +1,215 @@
+package net.rushhourgame.core.resident;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * ヒープ外のダイレクトバッファによる住民コンポーネントの列
+ * 列ごとに1つのバッファを確保し、値はネイティブのバイト順で添字 × 値の大きさの位置に置く。
+ * ヒープ上に残るのはバッファのオブジェクトだけのため、住民数が増えてもGCの走査量は変わらない。
+ * 拡張時に古いバッファはGCでバッファのオブジェクトが回収されたときに解放される。
+ */
+final class OffHeapResidentColumns implements ResidentColumns {
+
+    private int capacity;
+    private ByteBuffer components;
+    private ByteBuffer ages;
+    private ByteBuffer occupations;
+    private ByteBuffer satisfactions;
+    private ByteBuffer origins;
+    private ByteBuffer destinations;
+    private ByteBuffer departureTimes;
+    private ByteBuffer preferredRoutes;
+    private ByteBuffer incomes;
+    private ByteBuffer travelBudgets;
+    private ByteBuffer timeValues;
+
+    OffHeapResidentColumns(int capacity) {
+        this.capacity = 0;
+        grow(capacity);
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public void grow(int newCapacity) {
+        if ((long) newCapacity * Integer.BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Resident capacity is too large: " + newCapacity);
+        }
+        int oldCapacity = capacity;
+        components = copy(components, newCapacity, Byte.BYTES);
+        ages = copy(ages, newCapacity, Short.BYTES);
+        occupations = copy(occupations, newCapacity, Short.BYTES);
+        satisfactions = copy(satisfactions, newCapacity, Float.BYTES);
+        origins = copy(origins, newCapacity, Integer.BYTES);
+        destinations = copy(destinations, newCapacity, Integer.BYTES);
+        departureTimes = copy(departureTimes, newCapacity, Float.BYTES);
+        preferredRoutes = copy(preferredRoutes, newCapacity, Integer.BYTES);
+        incomes = copy(incomes, newCapacity, Integer.BYTES);
+        travelBudgets = copy(travelBudgets, newCapacity, Float.BYTES);
+        timeValues = copy(timeValues, newCapacity, Float.BYTES);
+        for (int i = oldCapacity; i < newCapacity; i++) {
+            components.put(i, ResidentStore.FREE);
+        }
+        capacity = newCapacity;
+    }
+
+    @Override
+    public ResidentColumns copy() {
+        OffHeapResidentColumns copy = new OffHeapResidentColumns(0);
+        copy.components = copy(components, capacity, Byte.BYTES);
+        copy.ages = copy(ages, capacity, Short.BYTES);
+        copy.occupations = copy(occupations, capacity, Short.BYTES);
+        copy.satisfactions = copy(satisfactions, capacity, Float.BYTES);
+        copy.origins = copy(origins, capacity, Integer.BYTES);
+        copy.destinations = copy(destinations, capacity, Integer.BYTES);
+        copy.departureTimes = copy(departureTimes, capacity, Float.BYTES);
+        copy.preferredRoutes = copy(preferredRoutes, capacity, Integer.BYTES);
+        copy.incomes = copy(incomes, capacity, Integer.BYTES);
+        copy.travelBudgets = copy(travelBudgets, capacity, Float.BYTES);
+        copy.timeValues = copy(timeValues, capacity, Float.BYTES);
+        copy.capacity = capacity;
+        return copy;
+    }
+
+    @Override
+    public void copyRange(ResidentColumns target, int from, int to) {
+        OffHeapResidentColumns copy = (OffHeapResidentColumns) target;
+        copyRange(components, copy.components, from, to, Byte.BYTES);
+        copyRange(ages, copy.ages, from, to, Short.BYTES);
+        copyRange(occupations, copy.occupations, from, to, Short.BYTES);
+        copyRange(satisfactions, copy.satisfactions, from, to, Float.BYTES);
+        copyRange(origins, copy.origins, from, to, Integer.BYTES);
+        copyRange(destinations, copy.destinations, from, to, Integer.BYTES);
+        copyRange(departureTimes, copy.departureTimes, from, to, Float.BYTES);
+        copyRange(preferredRoutes, copy.preferredRoutes, from, to, Integer.BYTES);
+        copyRange(incomes, copy.incomes, from, to, Integer.BYTES);
+        copyRange(travelBudgets, copy.travelBudgets, from, to, Float.BYTES);
+        copyRange(timeValues, copy.timeValues, from, to, Float.BYTES);
+    }
+
+    private static void copyRange(ByteBuffer source, ByteBuffer target, int from, int to, int bytes) {
+        target.put(from * bytes, source, from * bytes, (to - from) * bytes);
+    }
+
+    private ByteBuffer copy(ByteBuffer old, int newCapacity, int bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(newCapacity * bytes).order(ByteOrder.nativeOrder());
+        if (old != null) {
+            buffer.put(0, old, 0, capacity * bytes);
+        }
+        return buffer;
+    }
+
+    @Override
+    public byte components(int index) {
+        return components.get(index);
+    }
+
+    @Override
+    public void setComponents(int index, byte value) {
+        components.put(index, value);
+    }
+
+    @Override
+    public short age(int index) {
+        return ages.getShort(index << 1);
+    }
+
+    @Override
+    public void setAge(int index, short value) {
+        ages.putShort(index << 1, value);
+    }
+
+    @Override
+    public short occupation(int index) {
+        return occupations.getShort(index << 1);
+    }
+
+    @Override
+    public void setOccupation(int index, short value) {
+        occupations.putShort(index << 1, value);
+    }
+
+    @Override
+    public float satisfaction(int index) {
+        return satisfactions.getFloat(index << 2);
+    }
+
+    @Override
+    public void setSatisfaction(int index, float value) {
+        satisfactions.putFloat(index << 2, value);
+    }
+
+    @Override
+    public int origin(int index) {
+        return origins.getInt(index << 2);
+    }
+
+    @Override
+    public void setOrigin(int index, int value) {
+        origins.putInt(index << 2, value);
+    }
+
+    @Override
+    public int destination(int index) {
+        return destinations.getInt(index << 2);
+    }
+
+    @Override
+    public void setDestination(int index, int value) {
+        destinations.putInt(index << 2, value);
+    }
+
+    @Override
+    public float departureTime(int index) {
+        return departureTimes.getFloat(index << 2);
+    }
+
+    @Override
+    public void setDepartureTime(int index, float value) {
+        departureTimes.putFloat(index << 2, value);
+    }
+
+    @Override
+    public int preferredRoute(int index) {
+        return preferredRoutes.getInt(index << 2);
+    }
+
+    @Override
+    public void setPreferredRoute(int index, int value) {
+        preferredRoutes.putInt(index << 2, value);
+    }
+
+    @Override
+    public int income(int index) {
+        return incomes.getInt(index << 2);
+    }
+
+    @Override
+    public void setIncome(int index, int value) {
+        incomes.putInt(index << 2, value);
+    }
+
+    @Override
+    public float travelBudget(int index) {
+        return travelBudgets.getFloat(index << 2);
+    }
+
+    @Override
+    public void setTravelBudget(int index, float value) {
+        travelBudgets.putFloat(index << 2, value);
+    }
+
+    @Override
+    public float timeValue(int index) {
+        return timeValues.getFloat(index << 2);
+    }
+
+    @Override
+    public void setTimeValue(int index, float value) {
+        timeValues.putFloat(index << 2, value);
+    }
+}
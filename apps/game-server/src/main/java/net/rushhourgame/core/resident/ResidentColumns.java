@@ -0,0 +1,69 @@
+package net.rushhourgame.core.resident;
+
+/**
+ * 住民コンポーネントの列（フィールドごとの値を住民の添字で参照する）
+ * 容量を超える添字は扱わないため、呼び出し側で {@link #grow} すること。
+ */
+interface ResidentColumns {
+
+    int capacity();
+
+    /**
+     * 既存の値を保ったまま容量を広げる（追加した添字のマスクは {@link ResidentStore#FREE}）
+     */
+    void grow(int capacity);
+
+    /**
+     * 同じ容量・内容の独立した列
+     */
+    ResidentColumns copy();
+
+    /**
+     * 添字 from 以上 to 未満の値を target の同じ添字へ写す（target は同じ実装で、to 以上の容量を持つこと）
+     */
+    void copyRange(ResidentColumns target, int from, int to);
+
+    byte components(int index);
+
+    void setComponents(int index, byte value);
+
+    short age(int index);
+
+    void setAge(int index, short value);
+
+    short occupation(int index);
+
+    void setOccupation(int index, short value);
+
+    float satisfaction(int index);
+
+    void setSatisfaction(int index, float value);
+
+    int origin(int index);
+
+    void setOrigin(int index, int value);
+
+    int destination(int index);
+
+    void setDestination(int index, int value);
+
+    float departureTime(int index);
+
+    void setDepartureTime(int index, float value);
+
+    int preferredRoute(int index);
+
+    void setPreferredRoute(int index, int value);
+
+    int income(int index);
+
+    void setIncome(int index, int value);
+
+    float travelBudget(int index);
+
+    void setTravelBudget(int index, float value);
+
+    float timeValue(int index);
+
+    void setTimeValue(int index, float value);
+}
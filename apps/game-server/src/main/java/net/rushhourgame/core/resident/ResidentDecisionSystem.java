@@ -0,0 +1,159 @@
+package net.rushhourgame.core.resident;
+
+import jakarta.annotation.PreDestroy;
+import net.rushhourgame.core.simulation.SimulationSystem;
+import net.rushhourgame.core.simulation.SimulationWorld;
+import net.rushhourgame.core.timetable.Journey;
+import net.rushhourgame.core.timetable.JourneyPlanner;
+import net.rushhourgame.core.timetable.JourneyResult;
+import net.rushhourgame.core.timetable.TimetableIndex;
+import net.rushhourgame.core.timetable.TransitNetwork;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.stream.IntStream;
+
+/**
+ * 住民の行動決定
+ * 移動計画の出発時刻を過ぎた住民について、乗換経路探索のパレート最適解から一般化費用
+ * （時間価値 × 所要時間 + 運賃）に誤差を加えた値が最小の経路を予算内で選び、満足度を更新する。
+ * 住民の添字を固定の大きさの作業単位に分けて専用のスレッドプールで並列に処理する。
+ * 作業単位ごとの乱数はティック番号と作業単位の番号から作るため、結果はスレッド数によらず再現できる。
+ * 各住民の値は担当する作業単位からのみ書き込む。
+ */
+@Component
+@Order(400)
+public class ResidentDecisionSystem implements SimulationSystem {
+
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int REQUIRED = ResidentStore.PERSONAL_INFO | ResidentStore.TRAVEL_PLAN
+        | ResidentStore.ECONOMIC_STATUS;
+
+    private final SimulationWorld world;
+    private final JourneyPlanner planner;
+    private final ResidentProperties properties;
+    private final ForkJoinPool pool;
+
+    public ResidentDecisionSystem(SimulationWorld world, JourneyPlanner planner, ResidentProperties properties) {
+        this.world = world;
+        this.planner = planner;
+        this.properties = properties;
+        int threads = properties.getParallelism() > 0
+            ? properties.getParallelism()
+            : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("resident-decision-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Override
+    public void update(long tick, double deltaSeconds) {
+        int interval = Math.max(1, properties.getDecisionIntervalTicks());
+        if (tick % interval != 0) {
+            return;
+        }
+        ResidentStore residents = world.getResidents();
+        int now = secondOfDay(tick, deltaSeconds);
+        // 前回の決定から日付が変わったら決定済みのタグを外す（ティックから求めるため、スナップショットから再開しても変わらない）
+        boolean newDay = tick >= interval && day(tick, deltaSeconds) != day(tick - interval, deltaSeconds);
+        int count = residents.highWaterMark();
+        if (count == 0) {
+            return;
+        }
+        TransitNetwork network = planner.getNetwork();
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        int chunks = (count + chunkSize - 1) / chunkSize;
+        pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> decideChunk(
+            residents, network, tick, chunk, chunk * chunkSize, Math.min(count, (chunk + 1) * chunkSize), now, newDay)))
+            .join();
+    }
+
+    /**
+     * ティック番号のゲーム内時刻（0時からの秒）
+     */
+    public int secondOfDay(long tick, double deltaSeconds) {
+        return (int) Math.floorMod(gameSeconds(tick, deltaSeconds), SECONDS_PER_DAY);
+    }
+
+    private long day(long tick, double deltaSeconds) {
+        return Math.floorDiv(gameSeconds(tick, deltaSeconds), SECONDS_PER_DAY);
+    }
+
+    private long gameSeconds(long tick, double deltaSeconds) {
+        return (long) Math.floor(tick * deltaSeconds * properties.getTimeScale()) + properties.getStartSecondOfDay();
+    }
+
+    private void decideChunk(ResidentStore residents, TransitNetwork network, long tick, int chunk,
+                             int from, int to, int now, boolean newDay) {
+        SplittableRandom random = new SplittableRandom(chunkSeed(tick, chunk));
+        for (int i = from; i < to; i++) {
+            if (!residents.isAlive(i)) {
+                continue;
+            }
+            if (newDay) {
+                residents.removeComponent(i, ResidentStore.TRIP_DECIDED);
+            }
+            if (!residents.has(i, REQUIRED) || residents.has(i, ResidentStore.TRIP_DECIDED)
+                || residents.departureTime(i) > now) {
+                continue;
+            }
+            decide(residents, network, i, now, random);
+        }
+    }
+
+    private void decide(ResidentStore residents, TransitNetwork network, int resident, int now,
+                        SplittableRandom random) {
+        JourneyResult result = planner.plan(network, residents.origin(resident), residents.destination(resident), now);
+        double timeValue = residents.timeValue(resident);
+        double travelBudget = residents.travelBudget(resident);
+        Journey chosen = null;
+        double chosenUtility = Double.NEGATIVE_INFINITY;
+        double chosenCost = 0.0;
+        for (Journey journey : result.journeys()) {
+            double fare = properties.getFarePerLeg() * journey.legs().size();
+            if (fare > travelBudget) {
+                continue;
+            }
+            double cost = timeValue * (journey.arrivalTime() - now) / 3600.0 + fare;
+            double utility = -cost + properties.getChoiceDispersion() * gumbel(random);
+            if (chosen == null || utility > chosenUtility) {
+                chosen = journey;
+                chosenUtility = utility;
+                chosenCost = cost;
+            }
+        }
+
+        double satisfaction = residents.satisfaction(resident);
+        if (chosen == null) {
+            residents.setSatisfaction(resident, (float) Math.max(0.0, satisfaction - properties.getFailurePenalty()));
+            residents.setPreferredRoute(resident, TimetableIndex.NO_TRIP);
+        } else {
+            // 予算に対して費用が小さいほど目標値は1に近い
+            double target = 1.0 / (1.0 + chosenCost / Math.max(1.0, travelBudget));
+            residents.setSatisfaction(resident,
+                (float) (satisfaction + properties.getSatisfactionAdjustmentRate() * (target - satisfaction)));
+            residents.setPreferredRoute(resident,
+                chosen.legs().isEmpty() ? TimetableIndex.NO_TRIP : chosen.legs().get(0).tripSlot());
+        }
+        residents.addComponent(resident, ResidentStore.TRIP_DECIDED);
+    }
+
+    private long chunkSeed(long tick, int chunk) {
+        return properties.getSeed() ^ (tick * 0x9E3779B97F4A7C15L) ^ (chunk * 0xC2B2AE3D27D4EB4FL);
+    }
+
+    private static double gumbel(SplittableRandom random) {
+        return -Math.log(-Math.log(random.nextDouble(Double.MIN_VALUE, 1.0)));
+    }
+}
@@ -0,0 +1,62 @@
+package net.rushhourgame.core.resident;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 住民の行動決定の設定
+ */
+@Data
+@ConfigurationProperties(prefix = "rushhour.resident")
+public class ResidentProperties {
+
+    /**
+     * 行動を決定する間隔（ティック数）
+     */
+    private int decisionIntervalTicks = 30;
+
+    /**
+     * ゲーム内時間の進む速さ（シミュレーション1秒あたりのゲーム内の秒）
+     */
+    private double timeScale = 60.0;
+
+    /**
+     * ティック0のゲーム内時刻（0時からの秒）
+     */
+    private int startSecondOfDay = 0;
+
+    /**
+     * 1つの作業単位で処理する住民の添字の数（結果の再現性のため、スレッド数によらず固定の区切りで分割する）
+     */
+    private int chunkSize = 4096;
+
+    /**
+     * 行動決定に使うスレッド数（0の場合はCPUコア数）
+     */
+    private int parallelism = 0;
+
+    /**
+     * 乱数の種（ティック番号と作業単位の番号を混ぜて作業単位ごとの乱数を作る）
+     */
+    private long seed = 0L;
+
+    /**
+     * 1回の乗車あたりの運賃
+     */
+    private double farePerLeg = 200.0;
+
+    /**
+     * 経路選択のばらつき（一般化費用に加える誤差の尺度。0の場合は常に費用が最小の経路を選ぶ）
+     */
+    private double choiceDispersion = 100.0;
+
+    /**
+     * 移動1回で満足度を目標値に近づける割合
+     */
+    private double satisfactionAdjustmentRate = 0.2;
+
+    /**
+     * 経路が見つからない、または予算内の経路がない場合の満足度の減少量
+     */
+    private double failurePenalty = 0.1;
+}
@@ -0,0 +1,17 @@
+package net.rushhourgame.core.resident;
+
+/**
+ * 住民コンポーネントの列の格納先
+ */
+public enum ResidentStorage {
+
+    /**
+     * Javaヒープ上のプリミティブ配列（列の配列を直接走査できる）
+     */
+    HEAP,
+
+    /**
+     * ヒープ外のダイレクトバッファ（住民数が増えてもヒープとGC停止時間が増えない）
+     */
+    OFF_HEAP
+}
@@ -0,0 +1,596 @@
+package net.rushhourgame.core.resident;
+
+import net.rushhourgame.core.snapshot.SnapshotInput;
+import net.rushhourgame.core.snapshot.SnapshotOutput;
+import net.rushhourgame.models.resident.EconomicStatus;
+import net.rushhourgame.models.resident.PersonalInfo;
+import net.rushhourgame.models.resident.TravelPlan;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/**
+ * 住民のコンポーネントを保持するEntity-Component-System形式のストア
+ * 住民はint添字（エンティティ）で表し、コンポーネント（{@link PersonalInfo}・{@link TravelPlan}・{@link EconomicStatus}）は
+ * フィールドごとのプリミティブ配列に格納する。住民ごとのオブジェクトは作らない。
+ * 各住民が持つコンポーネントはビットマスクで管理し、システムは {@link #forEach} または配列の直接走査で処理する。
+ * 列はJavaヒープの配列か、ヒープ外のダイレクトバッファ（{@link ResidentStorage#OFF_HEAP}）に置く。
+ * ヒープ外の場合は配列アクセスを使えないため、フィールド単位のアクセスで読み書きする。
+ * 添字は住民が削除されるまで変わらず、削除で空いた添字は次の追加で再利用する。
+ * スナップショット用に変更した添字の範囲を記録しておき、{@link #syncTo} で前回から変わった範囲だけを複製先へ写す。
+ * 住民の追加・削除・同期はティックスレッドからのみ行うこと。値の書き込みは、ティックスレッドが待っている間であれば
+ * 住民ごとに1つのスレッドから並列に行ってよい（{@link ResidentDecisionSystem}）。変更の記録はそのためアトミックに更新する。
+ */
+public class ResidentStore {
+
+    /**
+     * 住民が存在しないことを表す添字
+     */
+    public static final int NO_RESIDENT = -1;
+
+    /**
+     * 空き添字を表すマスク値
+     */
+    public static final byte FREE = -1;
+
+    public static final byte PERSONAL_INFO = 1;
+    public static final byte TRAVEL_PLAN = 1 << 1;
+    public static final byte ECONOMIC_STATUS = 1 << 2;
+
+    /**
+     * 移動計画の経路を決定済みであることを表すタグ（値を持たないコンポーネント）
+     */
+    public static final byte TRIP_DECIDED = 1 << 3;
+
+    /**
+     * 変更を記録する添字の範囲の大きさ（2の累乗）
+     */
+    private static final int RANGE_SHIFT = 6;
+    private static final int RANGE_SIZE = 1 << RANGE_SHIFT;
+
+    private final ResidentStorage storage;
+    private final ResidentColumns columns;
+
+    /**
+     * 前回の {@link #syncTo} 以降に変更した範囲（範囲ごとに1ビット。拡張はティックスレッドの追加時だけ）
+     */
+    private AtomicLongArray changedRanges;
+
+    private int[] freeIndices = new int[16];
+    private int freeCount;
+    private int highWaterMark;
+    private int size;
+
+    public ResidentStore() {
+        this(1024);
+    }
+
+    public ResidentStore(int initialCapacity) {
+        this(initialCapacity, ResidentStorage.HEAP);
+    }
+
+    public ResidentStore(int initialCapacity, ResidentStorage storage) {
+        int capacity = Math.max(1, initialCapacity);
+        this.storage = storage;
+        this.columns = storage == ResidentStorage.OFF_HEAP
+            ? new OffHeapResidentColumns(capacity)
+            : new HeapResidentColumns(capacity);
+        this.changedRanges = new AtomicLongArray(wordsFor(capacity));
+    }
+
+    private ResidentStore(ResidentStorage storage, ResidentColumns columns) {
+        this.storage = storage;
+        this.columns = columns;
+        this.changedRanges = new AtomicLongArray(wordsFor(columns.capacity()));
+    }
+
+    public ResidentStorage getStorage() {
+        return storage;
+    }
+
+    /**
+     * コンポーネントを持たない住民を追加
+     * @return 割り当てた添字
+     */
+    public int create() {
+        int index;
+        if (freeCount > 0) {
+            index = freeIndices[--freeCount];
+        } else {
+            index = highWaterMark++;
+            ensureCapacity(highWaterMark);
+        }
+        columns.setComponents(index, (byte) 0);
+        changed(index);
+        size++;
+        return index;
+    }
+
+    /**
+     * 住民を追加
+     * @return 割り当てた添字
+     */
+    public int create(PersonalInfo personalInfo, TravelPlan travelPlan, EconomicStatus economicStatus) {
+        int index = create();
+        setPersonalInfo(index, personalInfo);
+        setTravelPlan(index, travelPlan);
+        setEconomicStatus(index, economicStatus);
+        return index;
+    }
+
+    /**
+     * 住民を削除
+     * @return 削除した場合true
+     */
+    public boolean remove(int index) {
+        if (index < 0 || index >= highWaterMark || columns.components(index) == FREE) {
+            return false;
+        }
+        columns.setComponents(index, FREE);
+        changed(index);
+        size--;
+        if (freeCount == freeIndices.length) {
+            freeIndices = Arrays.copyOf(freeIndices, freeCount * 2);
+        }
+        freeIndices[freeCount++] = index;
+        return true;
+    }
+
+    /**
+     * 添字が使用中かを判定
+     */
+    public boolean isAlive(int index) {
+        return columns.components(index) != FREE;
+    }
+
+    /**
+     * 住民が指定したコンポーネントをすべて持つかを判定
+     * @param mask コンポーネントのビットの論理和
+     */
+    public boolean has(int index, int mask) {
+        byte current = columns.components(index);
+        return current != FREE && (current & mask) == mask;
+    }
+
+    /**
+     * 登録されている住民数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 走査対象となる添字の上限（この値未満の添字を isAlive で判定しながら走査する）
+     */
+    public int highWaterMark() {
+        return highWaterMark;
+    }
+
+    /**
+     * 指定したコンポーネントをすべて持つ住民の添字を昇順に処理する（格納先によらず使える）
+     * @param mask コンポーネントのビットの論理和
+     */
+    public void forEach(int mask, IntConsumer action) {
+        ResidentColumns current = columns;
+        for (int i = 0, n = highWaterMark; i < n; i++) {
+            byte c = current.components(i);
+            if (c != FREE && (c & mask) == mask) {
+                action.accept(i);
+            }
+        }
+    }
+
+    public void setPersonalInfo(int index, PersonalInfo personalInfo) {
+        checkAlive(index);
+        columns.setAge(index, personalInfo.age());
+        columns.setOccupation(index, personalInfo.occupation());
+        columns.setSatisfaction(index, personalInfo.satisfaction());
+        attach(index, PERSONAL_INFO);
+    }
+
+    /**
+     * @return コンポーネントを持たない場合はnull
+     */
+    public PersonalInfo personalInfo(int index) {
+        if (!has(index, PERSONAL_INFO)) {
+            return null;
+        }
+        return new PersonalInfo(columns.age(index), columns.occupation(index), columns.satisfaction(index));
+    }
+
+    public void setTravelPlan(int index, TravelPlan travelPlan) {
+        checkAlive(index);
+        columns.setOrigin(index, travelPlan.origin());
+        columns.setDestination(index, travelPlan.destination());
+        columns.setDepartureTime(index, travelPlan.departureTime());
+        columns.setPreferredRoute(index, travelPlan.preferredRoute());
+        attach(index, TRAVEL_PLAN);
+    }
+
+    /**
+     * @return コンポーネントを持たない場合はnull
+     */
+    public TravelPlan travelPlan(int index) {
+        if (!has(index, TRAVEL_PLAN)) {
+            return null;
+        }
+        return new TravelPlan(columns.origin(index), columns.destination(index), columns.departureTime(index),
+            columns.preferredRoute(index));
+    }
+
+    public void setEconomicStatus(int index, EconomicStatus economicStatus) {
+        checkAlive(index);
+        columns.setIncome(index, economicStatus.income());
+        columns.setTravelBudget(index, economicStatus.travelBudget());
+        columns.setTimeValue(index, economicStatus.timeValue());
+        attach(index, ECONOMIC_STATUS);
+    }
+
+    /**
+     * @return コンポーネントを持たない場合はnull
+     */
+    public EconomicStatus economicStatus(int index) {
+        if (!has(index, ECONOMIC_STATUS)) {
+            return null;
+        }
+        return new EconomicStatus(columns.income(index), columns.travelBudget(index), columns.timeValue(index));
+    }
+
+    /**
+     * 値を持たないコンポーネント（タグ）を付ける
+     */
+    public void addComponent(int index, byte component) {
+        checkAlive(index);
+        attach(index, component);
+    }
+
+    /**
+     * コンポーネントを外す（値は残るが走査の対象外になる）
+     */
+    public void removeComponent(int index, byte component) {
+        checkAlive(index);
+        columns.setComponents(index, (byte) (columns.components(index) & ~component));
+        changed(index);
+    }
+
+    // システム用のフィールド単位のアクセス（格納先によらず使える）。コンポーネントの有無は検査しない。
+
+    public short age(int index) {
+        return columns.age(index);
+    }
+
+    public short occupation(int index) {
+        return columns.occupation(index);
+    }
+
+    public float satisfaction(int index) {
+        return columns.satisfaction(index);
+    }
+
+    public void setSatisfaction(int index, float satisfaction) {
+        columns.setSatisfaction(index, satisfaction);
+        changed(index);
+    }
+
+    public int origin(int index) {
+        return columns.origin(index);
+    }
+
+    public int destination(int index) {
+        return columns.destination(index);
+    }
+
+    public float departureTime(int index) {
+        return columns.departureTime(index);
+    }
+
+    public void setDepartureTime(int index, float departureTime) {
+        columns.setDepartureTime(index, departureTime);
+        changed(index);
+    }
+
+    public int preferredRoute(int index) {
+        return columns.preferredRoute(index);
+    }
+
+    public void setPreferredRoute(int index, int preferredRoute) {
+        columns.setPreferredRoute(index, preferredRoute);
+        changed(index);
+    }
+
+    public int income(int index) {
+        return columns.income(index);
+    }
+
+    public float travelBudget(int index) {
+        return columns.travelBudget(index);
+    }
+
+    public void setTravelBudget(int index, float travelBudget) {
+        columns.setTravelBudget(index, travelBudget);
+        changed(index);
+    }
+
+    public float timeValue(int index) {
+        return columns.timeValue(index);
+    }
+
+    // システム用の配列アクセス（ヒープ格納時のみ）。配列は追加時に再確保されるため、ティックをまたいで保持しないこと。
+    // 配列経由の変更は添字を追えないため、取得した時点ですべての範囲を変更したものとして扱う。
+
+    public byte[] components() {
+        return heap().components;
+    }
+
+    public short[] ages() {
+        return heap().ages;
+    }
+
+    public short[] occupations() {
+        return heap().occupations;
+    }
+
+    public float[] satisfactions() {
+        return heap().satisfactions;
+    }
+
+    public int[] origins() {
+        return heap().origins;
+    }
+
+    public int[] destinations() {
+        return heap().destinations;
+    }
+
+    public float[] departureTimes() {
+        return heap().departureTimes;
+    }
+
+    public int[] preferredRoutes() {
+        return heap().preferredRoutes;
+    }
+
+    public int[] incomes() {
+        return heap().incomes;
+    }
+
+    public float[] travelBudgets() {
+        return heap().travelBudgets;
+    }
+
+    public float[] timeValues() {
+        return heap().timeValues;
+    }
+
+    /**
+     * 同じ内容の独立したストア（スナップショットの取得用。格納先は同じ）
+     */
+    public ResidentStore copy() {
+        ResidentStore copy = new ResidentStore(storage, columns.copy());
+        copy.freeIndices = freeIndices.clone();
+        copy.freeCount = freeCount;
+        copy.highWaterMark = highWaterMark;
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * 差分の複製先にする空のストアを作り、すべての範囲を変更済みにする（格納先は同じ）
+     */
+    public ResidentStore createSyncTarget() {
+        changedAll();
+        return new ResidentStore(columns.capacity(), storage);
+    }
+
+    /**
+     * 前回の同期以降に変更した範囲を target に写す（スナップショットの取得用）
+     * 変更の記録は1つの複製先に対してだけ持つため、target には {@link #createSyncTarget} で作ったストアを使い続けること。
+     * 写す量を制限した場合、すべて写し終えるまで target の内容は一貫しない。
+     * @param maxResidents 1回で写す住民数の上限（範囲の単位に切り上げる）
+     * @return 変更をすべて写し終えた場合true
+     */
+    public boolean syncTo(ResidentStore target, int maxResidents) {
+        if (!hasChanges()) {
+            return true;
+        }
+        int capacity = columns.capacity();
+        target.growTo(capacity);
+        long budget = ((long) maxResidents + RANGE_SIZE - 1) >>> RANGE_SHIFT;
+        for (int word = 0, n = changedRanges.length(); word < n && budget > 0; word++) {
+            long bits = changedRanges.getAndSet(word, 0L);
+            while (bits != 0 && budget > 0) {
+                int from = ((word << 6) + Long.numberOfTrailingZeros(bits)) << RANGE_SHIFT;
+                columns.copyRange(target.columns, from, Math.min(from + RANGE_SIZE, capacity));
+                bits &= bits - 1;
+                budget--;
+            }
+            if (bits != 0) {
+                // 写し切れなかった範囲を戻す
+                changedRanges.getAndAccumulate(word, bits, (current, add) -> current | add);
+            }
+        }
+        if (hasChanges()) {
+            return false;
+        }
+        if (target.freeIndices.length < freeCount) {
+            target.freeIndices = new int[freeIndices.length];
+        }
+        System.arraycopy(freeIndices, 0, target.freeIndices, 0, freeCount);
+        target.freeCount = freeCount;
+        target.highWaterMark = highWaterMark;
+        target.size = size;
+        return true;
+    }
+
+    /**
+     * 添字 highWaterMark 未満の列を列ごとに書き出す（空き添字の順序を含む）
+     */
+    public void writeTo(SnapshotOutput out) {
+        int n = highWaterMark;
+        out.putInt(n);
+        out.putInt(size);
+        for (int i = 0; i < n; i++) {
+            out.putByte(columns.components(i));
+        }
+        for (int i = 0; i < n; i++) {
+            out.putShort(columns.age(i));
+        }
+        for (int i = 0; i < n; i++) {
+            out.putShort(columns.occupation(i));
+        }
+        for (int i = 0; i < n; i++) {
+            out.putFloat(columns.satisfaction(i));
+        }
+        for (int i = 0; i < n; i++) {
+            out.putInt(columns.origin(i));
+        }
+        for (int i = 0; i < n; i++) {
+            out.putInt(columns.destination(i));
+        }
+        for (int i = 0; i < n; i++) {
+            out.putFloat(columns.departureTime(i));
+        }
+        for (int i = 0; i < n; i++) {
+            out.putInt(columns.preferredRoute(i));
+        }
+        for (int i = 0; i < n; i++) {
+            out.putInt(columns.income(i));
+        }
+        for (int i = 0; i < n; i++) {
+            out.putFloat(columns.travelBudget(i));
+        }
+        for (int i = 0; i < n; i++) {
+            out.putFloat(columns.timeValue(i));
+        }
+        out.putInts(freeIndices, freeCount);
+    }
+
+    /**
+     * {@link #writeTo} で書き出した内容に置き換える（格納先は変えない）
+     */
+    public void readFrom(SnapshotInput in) {
+        int n = in.getInt();
+        int restoredSize = in.getInt();
+        ensureCapacity(n);
+        for (int i = 0; i < n; i++) {
+            columns.setComponents(i, in.getByte());
+        }
+        for (int i = n; i < highWaterMark; i++) {
+            columns.setComponents(i, FREE);
+        }
+        for (int i = 0; i < n; i++) {
+            columns.setAge(i, in.getShort());
+        }
+        for (int i = 0; i < n; i++) {
+            columns.setOccupation(i, in.getShort());
+        }
+        for (int i = 0; i < n; i++) {
+            columns.setSatisfaction(i, in.getFloat());
+        }
+        for (int i = 0; i < n; i++) {
+            columns.setOrigin(i, in.getInt());
+        }
+        for (int i = 0; i < n; i++) {
+            columns.setDestination(i, in.getInt());
+        }
+        for (int i = 0; i < n; i++) {
+            columns.setDepartureTime(i, in.getFloat());
+        }
+        for (int i = 0; i < n; i++) {
+            columns.setPreferredRoute(i, in.getInt());
+        }
+        for (int i = 0; i < n; i++) {
+            columns.setIncome(i, in.getInt());
+        }
+        for (int i = 0; i < n; i++) {
+            columns.setTravelBudget(i, in.getFloat());
+        }
+        for (int i = 0; i < n; i++) {
+            columns.setTimeValue(i, in.getFloat());
+        }
+        int[] free = in.getInts();
+        freeIndices = Arrays.copyOf(free, Math.max(16, free.length));
+        freeCount = free.length;
+        highWaterMark = n;
+        size = restoredSize;
+        changedAll();
+    }
+
+    private HeapResidentColumns heap() {
+        if (columns instanceof HeapResidentColumns heap) {
+            changedAll();
+            return heap;
+        }
+        throw new IllegalStateException("Resident columns are stored off-heap");
+    }
+
+    private void attach(int index, byte component) {
+        columns.setComponents(index, (byte) (columns.components(index) | component));
+        changed(index);
+    }
+
+    private void changed(int index) {
+        int range = index >>> RANGE_SHIFT;
+        int word = range >>> 6;
+        long bit = 1L << range;
+        // 同じ範囲の変更が続く場合は書き込まない
+        if ((changedRanges.get(word) & bit) == 0) {
+            changedRanges.getAndAccumulate(word, bit, (current, add) -> current | add);
+        }
+    }
+
+    private void changedAll() {
+        int ranges = rangesFor(columns.capacity());
+        for (int word = 0; word < ranges >>> 6; word++) {
+            changedRanges.set(word, -1L);
+        }
+        if ((ranges & 63) != 0) {
+            changedRanges.set(ranges >>> 6, (1L << ranges) - 1);
+        }
+    }
+
+    private boolean hasChanges() {
+        for (int word = 0, n = changedRanges.length(); word < n; word++) {
+            if (changedRanges.get(word) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkAlive(int index) {
+        if (index < 0 || index >= highWaterMark || columns.components(index) == FREE) {
+            throw new IllegalArgumentException("Resident does not exist: " + index);
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        int capacity = columns.capacity();
+        if (required > capacity) {
+            growTo(Math.max(required, capacity * 2));
+        }
+    }
+
+    private void growTo(int capacity) {
+        if (capacity > columns.capacity()) {
+            columns.grow(capacity);
+            int words = wordsFor(capacity);
+            if (words > changedRanges.length()) {
+                AtomicLongArray grown = new AtomicLongArray(words);
+                for (int word = 0; word < changedRanges.length(); word++) {
+                    grown.set(word, changedRanges.get(word));
+                }
+                changedRanges = grown;
+            }
+        }
+    }
+
+    private static int rangesFor(int capacity) {
+        return (int) (((long) capacity + RANGE_SIZE - 1) >>> RANGE_SHIFT);
+    }
+
+    private static int wordsFor(int capacity) {
+        return (rangesFor(capacity) + 63) >>> 6;
+    }
+}
@@ -0,0 +1,103 @@
+package net.rushhourgame.core.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import net.rushhourgame.core.database.TransactionHooks;
+import net.rushhourgame.core.database.entities.ScheduleEntity;
+import net.rushhourgame.core.database.entities.StopTimeEntity;
+import net.rushhourgame.core.database.entities.TrainEntity;
+import net.rushhourgame.core.database.repositories.TrainRepository;
+import net.rushhourgame.core.exceptions.EntityNotFoundException;
+import net.rushhourgame.core.mappers.StopTimeMapper;
+import net.rushhourgame.core.simulation.JournaledCommand;
+import net.rushhourgame.core.simulation.SimulationEngine;
+import net.rushhourgame.core.timetable.TimetableTrip;
+import net.rushhourgame.models.timetable.Schedule;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * スケジュールドメインサービス
+ * 時刻表の一括取り込みでは、一定の行数ごとに永続化コンテキストをフラッシュ・クリアし、
+ * INSERT をJDBCバッチ（hibernate.jdbc.batch_size）にまとめて発行する。
+ * 取り込んだスケジュールはコミット後にシミュレーションへコマンドとして登録し、次のティックで時刻表索引へ反映する。
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ScheduleService {
+
+    /**
+     * フラッシュ・クリアする行数の目安（JDBCバッチサイズの倍数にする）
+     */
+    static final int FLUSH_ROWS = 1000;
+
+    private final TrainRepository trainRepository;
+    private final StopTimeMapper stopTimeMapper;
+    private final SimulationEngine simulationEngine;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * スケジュールと停車時間を一括で新規登録
+     * 停車時間の並び順はリストの順とする。電車が存在しない場合は何も登録しない。
+     * 途中でフラッシュ・クリアするため、呼び出し元が管理しているエンティティは切り離される。
+     * @return 登録したスケジュールのID（引数の順）
+     */
+    public List<String> importSchedules(List<Schedule> schedules) {
+        Set<String> trainIds = schedules.stream().map(Schedule::getTrainId).collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<String> existing = trainRepository.findAllById(trainIds).stream()
+            .map(TrainEntity::getId)
+            .collect(Collectors.toSet());
+        for (String trainId : trainIds) {
+            if (!existing.contains(trainId)) {
+                throw new EntityNotFoundException("Train", trainId);
+            }
+        }
+
+        List<String> ids = new ArrayList<>(schedules.size());
+        List<TimetableTrip> trips = new ArrayList<>(schedules.size());
+        int pendingRows = 0;
+        for (Schedule schedule : schedules) {
+            ScheduleEntity entity = toNewEntity(schedule);
+            entityManager.persist(entity);
+            ids.add(entity.getId());
+            trips.add(TimetableTrip.fromEntity(entity));
+            pendingRows += 1 + entity.getStopTimes().size();
+            if (pendingRows >= FLUSH_ROWS) {
+                entityManager.flush();
+                entityManager.clear();
+                pendingRows = 0;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        TransactionHooks.afterCommit(() -> simulationEngine.submit(new JournaledCommand.UpdateTimetable(trips, List.of())));
+        return ids;
+    }
+
+    private ScheduleEntity toNewEntity(Schedule schedule) {
+        ScheduleEntity entity = new ScheduleEntity();
+        entity.setRouteId(schedule.getRouteId());
+        entity.setTrain(entityManager.getReference(TrainEntity.class, schedule.getTrainId()));
+        List<StopTimeEntity> stopTimes = new ArrayList<>();
+        if (schedule.getStopTimes() != null) {
+            for (int i = 0; i < schedule.getStopTimes().size(); i++) {
+                StopTimeEntity stopTime = stopTimeMapper.toEntity(schedule.getStopTimes().get(i));
+                stopTime.setSequenceOrder(i);
+                stopTime.setSchedule(entity);
+                stopTimes.add(stopTime);
+            }
+        }
+        entity.setStopTimes(stopTimes);
+        return entity;
+    }
+}
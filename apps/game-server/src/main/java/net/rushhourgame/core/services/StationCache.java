@@ -0,0 +1,424 @@
+package net.rushhourgame.core.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.rushhourgame.core.database.TransactionHooks;
+import net.rushhourgame.core.database.entities.StationChangedEvent;
+import net.rushhourgame.models.common.Location;
+import net.rushhourgame.models.railway.Corridor;
+import net.rushhourgame.models.railway.Gate;
+import net.rushhourgame.models.railway.Platform;
+import net.rushhourgame.models.station.Station;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 駅ドメインモデルのキャッシュ（StationService の読み込みの前段）
+ * 最大数を超えると最も長く参照されていない駅を破棄し、読み込みから一定時間が過ぎた駅も破棄する。
+ * 駅は永続化モデルのバージョン（楽観的ロック）と一緒に保持し、古いバージョンで新しい駅を上書きしない。
+ * キャッシュへの反映はトランザクションのコミット後に行い、ロールバックされた内容は入らない。
+ * 駅を書き込んだトランザクションの中では、その駅（名前・全件の検索はすべて）についてキャッシュを使わない。
+ * リポジトリを直接使った書き込みは駅エンティティの変更イベントで受け取り、コミット後にその駅を破棄する。
+ * 呼び出し側が変更しても影響しないよう、駅は位置・改札・ホーム・通路まで複製して受け渡す。
+ */
+@Component
+public class StationCache implements MeterBinder {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    // 以下は this で排他する
+    private final LinkedHashMap<String, Entry> entries;
+    private final Map<String, String> idsByName = new HashMap<>();
+    private List<Station> all;
+    private long allExpiresAt;
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public StationCache(StationCacheProperties properties) {
+        this(properties.getMaxSize(), properties.getTtl(), System::nanoTime);
+    }
+
+    StationCache(int maxSize, Duration ttl, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= StationCache.this.maxSize) {
+                    return false;
+                }
+                removeName(eldest.getValue().station());
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * IDで駅を取得
+     * @return キャッシュにない場合は空
+     */
+    public Optional<Station> get(String id) {
+        if (isWritten(id)) {
+            misses.increment();
+            return Optional.empty();
+        }
+        synchronized (this) {
+            Entry entry = live(id);
+            if (entry == null) {
+                misses.increment();
+                return Optional.empty();
+            }
+            hits.increment();
+            return Optional.of(copyOf(entry.station()));
+        }
+    }
+
+    /**
+     * 名前で駅を取得
+     * @return キャッシュにない場合は空
+     */
+    public Optional<Station> getByName(String name) {
+        if (hasWrites()) {
+            misses.increment();
+            return Optional.empty();
+        }
+        synchronized (this) {
+            String id = idsByName.get(name);
+            Entry entry = id == null ? null : live(id);
+            if (entry == null) {
+                misses.increment();
+                return Optional.empty();
+            }
+            hits.increment();
+            return Optional.of(copyOf(entry.station()));
+        }
+    }
+
+    /**
+     * 全ての駅を取得
+     * @return キャッシュにない場合は空
+     */
+    public Optional<List<Station>> getAll() {
+        if (hasWrites()) {
+            misses.increment();
+            return Optional.empty();
+        }
+        synchronized (this) {
+            if (all == null || clock.getAsLong() - allExpiresAt >= 0) {
+                if (all != null) {
+                    all = null;
+                    evictions.increment();
+                }
+                misses.increment();
+                return Optional.empty();
+            }
+            hits.increment();
+            return Optional.of(all.stream().map(StationCache::copyOf).toList());
+        }
+    }
+
+    /**
+     * 読み込みの開始時点の世代
+     * 読み込み中に駅が書き込まれると世代が進み、その読み込み結果はキャッシュに入れない。
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * データベースから読み込んだ駅をキャッシュに入れる（コミット後）
+     * @param loadedGeneration 読み込みを始める前に取得した {@link #generation()}
+     */
+    public void put(Station station, long version, long loadedGeneration) {
+        Station copy = copyOf(station);
+        TransactionHooks.afterCommit(() -> {
+            synchronized (this) {
+                if (generation == loadedGeneration) {
+                    store(copy, version);
+                }
+            }
+        });
+    }
+
+    /**
+     * データベースから読み込んだ全ての駅をキャッシュに入れる（コミット後）
+     * @param versions 駅ごとのバージョン（stations と同じ順）
+     * @param loadedGeneration 読み込みを始める前に取得した {@link #generation()}
+     */
+    public void putAll(List<Station> stations, List<Long> versions, long loadedGeneration) {
+        List<Station> copies = stations.stream().map(StationCache::copyOf).toList();
+        TransactionHooks.afterCommit(() -> {
+            synchronized (this) {
+                if (generation != loadedGeneration) {
+                    return;
+                }
+                for (int i = 0; i < copies.size(); i++) {
+                    store(copies.get(i), versions.get(i));
+                }
+                all = copies;
+                allExpiresAt = clock.getAsLong() + ttlNanos;
+            }
+        });
+    }
+
+    /**
+     * 駅の保存・更新を反映する（コミット後に新しいバージョンで置き換える）
+     */
+    public void written(Station station, long version) {
+        Station copy = copyOf(station);
+        markWritten(copy.getId());
+        TransactionHooks.afterCommit(() -> {
+            synchronized (this) {
+                generation++;
+                all = null;
+                store(copy, version);
+            }
+        });
+    }
+
+    /**
+     * 駅の削除を反映する（コミット後に破棄する）
+     */
+    public void deleted(String id) {
+        markWritten(id);
+        TransactionHooks.afterCommit(() -> invalidate(id));
+    }
+
+    /**
+     * 駅エンティティの保存・削除を反映する（コミット後に破棄し、次の読み込みでデータベースから取り直す）
+     * StationService を通さない書き込みも含め、駅エンティティの変更はすべてここに届く。
+     * StationService の書き込みでは、続く {@link #written} の内容がコミット後に改めて入る。
+     */
+    @EventListener
+    public void onStationChanged(StationChangedEvent event) {
+        markWritten(event.stationId());
+        TransactionHooks.afterCommit(() -> invalidate(event.stationId()));
+    }
+
+    /**
+     * 全ての駅を破棄する（キャッシュを経由せずに駅を書き換えた場合など）
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        all = null;
+        entries.clear();
+        idsByName.clear();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * 最大数の超過・有効期限切れで破棄した数
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rushhour.station.cache.hits", this, StationCache::getHitCount)
+            .register(registry);
+        FunctionCounter.builder("rushhour.station.cache.misses", this, StationCache::getMissCount)
+            .register(registry);
+        FunctionCounter.builder("rushhour.station.cache.evictions", this, StationCache::getEvictionCount)
+            .description("Stations dropped for size or age")
+            .register(registry);
+        Gauge.builder("rushhour.station.cache.size", this, StationCache::size)
+            .register(registry);
+    }
+
+    /**
+     * 有効期限内のエントリ（期限切れなら破棄して null）
+     */
+    private Entry live(String id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.expiresAt() >= 0) {
+            entries.remove(id);
+            removeName(entry.station());
+            evictions.increment();
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * 新しいバージョンの駅で置き換える（キャッシュ済みより古いバージョンは無視する）
+     */
+    private void store(Station station, long version) {
+        Entry current = entries.get(station.getId());
+        if (current != null && current.version() > version) {
+            return;
+        }
+        if (current != null) {
+            removeName(current.station());
+        }
+        entries.put(station.getId(), new Entry(version, station, clock.getAsLong() + ttlNanos));
+        if (station.getName() != null) {
+            idsByName.put(station.getName(), station.getId());
+        }
+    }
+
+    private synchronized void invalidate(String id) {
+        generation++;
+        all = null;
+        Entry removed = entries.remove(id);
+        if (removed != null) {
+            removeName(removed.station());
+        }
+    }
+
+    private void removeName(Station station) {
+        if (station.getName() != null) {
+            idsByName.remove(station.getName(), station.getId());
+        }
+    }
+
+    /**
+     * 現在のトランザクションで書き込んだ駅のID（トランザクション外・未書き込みの場合は null）
+     */
+    @SuppressWarnings("unchecked")
+    private Set<String> writtenIds() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        return (Set<String>) TransactionSynchronizationManager.getResource(this);
+    }
+
+    private boolean isWritten(String id) {
+        Set<String> written = writtenIds();
+        return written != null && written.contains(id);
+    }
+
+    private boolean hasWrites() {
+        return writtenIds() != null;
+    }
+
+    private void markWritten(String id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Set<String> written = writtenIds();
+        if (written == null) {
+            written = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, written);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(StationCache.this);
+                }
+            });
+        }
+        written.add(id);
+    }
+
+    /**
+     * 駅の深いコピー（位置・改札・ホーム・通路も複製し、キャッシュ内の駅と何も共有しない）
+     */
+    static Station copyOf(Station station) {
+        Station copy = new Station();
+        copy.setId(station.getId());
+        copy.setName(station.getName());
+        copy.setOwnerId(station.getOwnerId());
+        copy.setTotalCapacity(station.getTotalCapacity());
+        copy.setLocation(copyOf(station.getLocation()));
+        copy.setGates(copyAll(station.getGates(), StationCache::copyOf));
+        copy.setPlatforms(copyAll(station.getPlatforms(), StationCache::copyOf));
+        copy.setCorridors(copyAll(station.getCorridors(), StationCache::copyOf));
+        copy.setConnectedTrackIds(station.getConnectedTrackIds() == null ? null : new ArrayList<>(station.getConnectedTrackIds()));
+        return copy;
+    }
+
+    private static Location copyOf(Location location) {
+        return location == null ? null : new Location(location.getX(), location.getY(), location.getZ());
+    }
+
+    private static Gate copyOf(Gate gate) {
+        if (gate == null) {
+            return null;
+        }
+        Gate copy = new Gate();
+        copy.setId(gate.getId());
+        copy.setStationId(gate.getStationId());
+        copy.setCapacity(gate.getCapacity());
+        copy.setProcessingTime(gate.getProcessingTime());
+        copy.setPosition(copyOf(gate.getPosition()));
+        return copy;
+    }
+
+    private static Platform copyOf(Platform platform) {
+        if (platform == null) {
+            return null;
+        }
+        Platform copy = new Platform();
+        copy.setId(platform.getId());
+        copy.setStationId(platform.getStationId());
+        copy.setConnectedTrackId(platform.getConnectedTrackId());
+        copy.setCapacity(platform.getCapacity());
+        return copy;
+    }
+
+    private static Corridor copyOf(Corridor corridor) {
+        if (corridor == null) {
+            return null;
+        }
+        Corridor copy = new Corridor();
+        copy.setId(corridor.getId());
+        copy.setStationId(corridor.getStationId());
+        copy.setLength(corridor.getLength());
+        copy.setWidth(corridor.getWidth());
+        return copy;
+    }
+
+    private static <T> List<T> copyAll(List<T> elements, UnaryOperator<T> copier) {
+        if (elements == null) {
+            return null;
+        }
+        List<T> copies = new ArrayList<>(elements.size());
+        for (T element : elements) {
+            copies.add(copier.apply(element));
+        }
+        return copies;
+    }
+
+    private record Entry(long version, Station station, long expiresAt) {
+    }
+}
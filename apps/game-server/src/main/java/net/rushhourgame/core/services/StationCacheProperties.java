@@ -0,0 +1,24 @@
+package net.rushhourgame.core.services;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 駅キャッシュの設定
+ */
+@Data
+@ConfigurationProperties(prefix = "rushhour.station-cache")
+public class StationCacheProperties {
+
+    /**
+     * キャッシュする駅の最大数（超えた場合は最も長く参照されていない駅を破棄する）
+     */
+    private int maxSize = 10_000;
+
+    /**
+     * 駅を読み込んでから破棄するまでの時間（他のサーバーなどキャッシュを経由しない更新の反映遅れの上限）
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+}
@@ -1,20 +1,29 @@
 package net.rushhourgame.core.services;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import net.rushhourgame.core.database.entities.StationEntity;
 import net.rushhourgame.core.database.repositories.StationRepository;
 import net.rushhourgame.core.exceptions.EntityNotFoundException;
 import net.rushhourgame.core.mappers.StationMapper;
+import net.rushhourgame.core.spatial.WorldSpatialIndex;
 import net.rushhourgame.models.station.Station;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
  * 駅ドメインサービス
  * ドメインモデルのみを扱い、永続化の詳細は隠蔽
+ * ID・名前・全件の取得は {@link StationCache} を経由し、保存・更新・削除はコミット後にキャッシュへ反映する。
  */
 @Service
 @RequiredArgsConstructor
@@ -23,14 +32,22 @@ public class StationService {
     
     private final StationRepository stationRepository;
     private final StationMapper stationMapper;
+    private final WorldSpatialIndex spatialIndex;
+    private final StationCache stationCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
     
     /**
      * 駅を保存
      */
     public Station save(Station station) {
         StationEntity entity = stationMapper.toEntity(station);
-        StationEntity savedEntity = stationRepository.save(entity);
-        return stationMapper.toDomain(savedEntity);
+        // バージョンを確定させるためフラッシュする
+        StationEntity savedEntity = stationRepository.saveAndFlush(entity);
+        Station saved = stationMapper.toDomain(savedEntity);
+        stationCache.written(saved, savedEntity.getVersion());
+        return saved;
     }
     
     /**
@@ -38,8 +55,13 @@ public class StationService {
      */
     @Transactional(readOnly = true)
     public Optional<Station> findById(String id) {
+        Optional<Station> cached = stationCache.get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long generation = stationCache.generation();
         return stationRepository.findById(id)
-            .map(stationMapper::toDomain);
+            .map(entity -> toCachedDomain(entity, generation));
     }
     
     /**
@@ -47,8 +69,13 @@ public class StationService {
      */
     @Transactional(readOnly = true)
     public Optional<Station> findByName(String name) {
+        Optional<Station> cached = stationCache.getByName(name);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long generation = stationCache.generation();
         return stationRepository.findByName(name)
-            .map(stationMapper::toDomain);
+            .map(entity -> toCachedDomain(entity, generation));
     }
     
     /**
@@ -65,8 +92,15 @@ public class StationService {
      */
     @Transactional(readOnly = true)
     public List<Station> findAll() {
+        Optional<List<Station>> cached = stationCache.getAll();
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        long generation = stationCache.generation();
         List<StationEntity> entities = stationRepository.findAll();
-        return stationMapper.toDomainList(entities);
+        List<Station> stations = stationMapper.toDomainList(entities);
+        stationCache.putAll(stations, entities.stream().map(StationEntity::getVersion).toList(), generation);
+        return stations;
     }
     
     /**
@@ -79,12 +113,34 @@ public class StationService {
     }
     
     /**
-     * 指定された範囲内の駅を検索
+     * 指定された範囲（境界を含む）内の駅を検索（空間索引を使用）
+     * 空間索引はコミット後に更新されるため、現在のトランザクションに駅の書き込みがある間はデータベースを検索する。
      */
     @Transactional(readOnly = true)
     public List<Station> findByLocationRange(Double minX, Double maxX, Double minY, Double maxY) {
-        List<StationEntity> entities = stationRepository.findByLocationRange(minX, maxX, minY, maxY);
-        return stationMapper.toDomainList(entities);
+        if (minX == null || maxX == null || minY == null || maxY == null) {
+            return List.of();
+        }
+        if (hasPendingStationWrites()) {
+            return stationMapper.toDomainList(stationRepository.findByLocationRange(minX, maxX, minY, maxY));
+        }
+        return findAllInOrder(spatialIndex.getStations().findInRange(minX, minY, maxX, maxY));
+    }
+    
+    /**
+     * 指定位置から近い順に駅を取得（空間索引を使用）
+     */
+    @Transactional(readOnly = true)
+    public List<Station> findNearest(double x, double y, int limit) {
+        return findAllInOrder(spatialIndex.getStations().findNearest(x, y, limit));
+    }
+    
+    /**
+     * 指定位置から半径内の駅を取得（空間索引を使用）
+     */
+    @Transactional(readOnly = true)
+    public List<Station> findWithinRadius(double x, double y, double radius) {
+        return findAllInOrder(spatialIndex.getStations().findWithinRadius(x, y, radius));
     }
     
     /**
@@ -95,8 +151,11 @@ public class StationService {
             .orElseThrow(() -> new EntityNotFoundException("Station", station.getId()));
         
         stationMapper.updateEntityFromDomain(station, entity);
-        StationEntity savedEntity = stationRepository.save(entity);
-        return stationMapper.toDomain(savedEntity);
+        // バージョンを確定させるためフラッシュする
+        StationEntity savedEntity = stationRepository.saveAndFlush(entity);
+        Station updated = stationMapper.toDomain(savedEntity);
+        stationCache.written(updated, savedEntity.getVersion());
+        return updated;
     }
     
     /**
@@ -104,6 +163,7 @@ public class StationService {
      */
     public void deleteById(String id) {
         stationRepository.deleteById(id);
+        stationCache.deleted(id);
     }
     
     /**
@@ -113,4 +173,47 @@ public class StationService {
     public boolean existsById(String id) {
         return stationRepository.existsById(id);
     }
-}
\ No newline at end of file
+    
+    /**
+     * 現在のトランザクションに未コミットの駅の書き込みがあるか
+     * 書き込み可能なトランザクションでは先にフラッシュし、保存待ちの駅の変更も空間索引に届ける（クエリの自動フラッシュと同じ）。
+     */
+    private boolean hasPendingStationWrites() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        entityManager.flush();
+        return spatialIndex.hasPendingStationChanges();
+    }
+
+    /**
+     * IDの順序を保って駅を取得（キャッシュにない駅だけをまとめて読み込む。索引とデータベースの差分で見つからない駅は除く）
+     */
+    private List<Station> findAllInOrder(List<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Station> stations = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            stationCache.get(id).ifPresentOrElse(station -> stations.put(id, station), () -> missing.add(id));
+        }
+        if (!missing.isEmpty()) {
+            long generation = stationCache.generation();
+            for (StationEntity entity : stationRepository.findAllById(missing)) {
+                stations.put(entity.getId(), toCachedDomain(entity, generation));
+            }
+        }
+        return ids.stream()
+            .map(stations::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    private Station toCachedDomain(StationEntity entity, long generation) {
+        Station station = stationMapper.toDomain(entity);
+        stationCache.put(station, entity.getVersion(), generation);
+        return station;
+    }
+}
@@ -0,0 +1,56 @@
+package net.rushhourgame.core.simulation;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 線路ごとの閉塞占有表
+ * 線路1本につき1つのアトミックな枠を持ち、予約した電車の添字を比較交換（CAS）で書き込む。
+ * ロックを使わないため、ティックスレッド以外からの参照や並列な判定処理からも安全に読み書きできる。
+ */
+public final class BlockOccupancy {
+
+    /**
+     * 線路が予約されていないことを表す値
+     */
+    public static final int FREE = TrainStateStore.NO_TRAIN;
+
+    // 電車の添字 + 1 を格納する（0 が空き）
+    private final AtomicIntegerArray holders;
+
+    public BlockOccupancy(int trackCount) {
+        this.holders = new AtomicIntegerArray(trackCount);
+    }
+
+    public int size() {
+        return holders.length();
+    }
+
+    /**
+     * 線路を予約する
+     * @return 予約できた場合、または既にその電車が予約している場合true
+     */
+    public boolean tryAcquire(int track, int train) {
+        int value = train + 1;
+        return holders.compareAndSet(track, 0, value) || holders.get(track) == value;
+    }
+
+    /**
+     * 電車が予約している線路を解放する
+     * @return 解放した場合true（他の電車の予約は解放しない）
+     */
+    public boolean release(int track, int train) {
+        return holders.compareAndSet(track, train + 1, 0);
+    }
+
+    /**
+     * 線路を予約している電車
+     * @return 電車の添字。空いている場合は {@link #FREE}
+     */
+    public int holder(int track) {
+        return holders.get(track) - 1;
+    }
+
+    public boolean isFree(int track) {
+        return holders.get(track) == 0;
+    }
+}
@@ -0,0 +1,404 @@
+package net.rushhourgame.core.simulation;
+
+import net.rushhourgame.core.event.EventPartition;
+import net.rushhourgame.core.snapshot.SnapshotInput;
+import net.rushhourgame.core.snapshot.SnapshotOutput;
+import net.rushhourgame.models.common.SignalType;
+import net.rushhourgame.models.event.EventType;
+
+import java.util.Arrays;
+
+/**
+ * 信号機の種別に従って閉塞区間を予約・解放する
+ * 電車は信号機のある線路から次の線路へ進む前に {@link #requestEntry} で進入許可を得て、
+ * 進入後に {@link #onEnter} で通過済みの区間を解放する。判定は線路ごとの占有表を引くだけで、電車同士の比較は行わない。
+ * <ul>
+ * <li>信号機なし：保護区間の線路に入る場合だけその線路を予約する</li>
+ * <li>SHUNTING（入換）：予約せず、他の電車が予約している線路への進入だけを止める</li>
+ * <li>BLOCK（閉塞）：次の線路1本を予約し、その線路を出るときに解放する</li>
+ * <li>PATH（進路）：保護区間の全線路をまとめて予約し、通過した線路から順に解放する</li>
+ * <li>ABSOLUTE（絶対）：保護区間の全線路をまとめて予約し、電車が区間を出るまで解放しない</li>
+ * </ul>
+ * 区間の予約は全線路を取れた場合だけ成立させ（取れなければ取った分を戻す）、区間の一部を持ったまま待つことはない。
+ * 進入を拒否された電車は、妨げている電車への待ち（待ちグラフの辺）として記録する。
+ * 電車ごとに予約中の線路の一覧を持ち、撤去・譲歩時の解放は線路数ではなくその電車の予約数に比例する。
+ * 線路の予約・解放と信号待ちの変化はイベント区画に発行する。
+ */
+public final class BlockReservations {
+
+    private final SignalLayout layout;
+    private final BlockOccupancy occupancy;
+    private final EventPartition events;
+
+    // 電車ごとに予約中の区間の信号機（PATH・ABSOLUTE）
+    private int[] sectionSignals = new int[0];
+    // 電車ごとに進入を妨げている電車（待ちグラフの辺）
+    private int[] waitingFor = new int[0];
+    // 電車ごとに残っている譲歩（進入要求を拒否する回数）
+    private int[] yieldRequests = new int[0];
+    // 電車ごとに予約中の線路（順不同）と数
+    private int[][] heldTracks = new int[0][];
+    private int[] heldCounts = new int[0];
+    // 待ちグラフの辺が変わるたびに増える版数
+    private long waitVersion;
+    // 直近の進入拒否で妨げになった電車
+    private int lastBlocker;
+    // 区間予約の巻き戻し用作業配列
+    private int[] acquired = new int[8];
+
+    public BlockReservations(SignalLayout layout, int trackCount) {
+        this(layout, trackCount, new EventPartition("block-reservations", 1));
+    }
+
+    /**
+     * @param events イベントの発行先（ティックスレッドの区画）
+     */
+    public BlockReservations(SignalLayout layout, int trackCount, EventPartition events) {
+        this.layout = layout;
+        this.occupancy = new BlockOccupancy(trackCount);
+        this.events = events;
+    }
+
+    public SignalLayout getLayout() {
+        return layout;
+    }
+
+    public BlockOccupancy getOccupancy() {
+        return occupancy;
+    }
+
+    /**
+     * 線路 from から線路 to へ進入してよいか判定し、必要な予約を取る
+     * 許可済みの場合に再度呼び出してもよい（予約は重複しない）。
+     * @return 進入してよい場合true。falseの場合は from の終端で停止すること
+     */
+    public boolean requestEntry(int train, int from, int to) {
+        ensureTrainCapacity(train + 1);
+        if (yieldRequests[train] > 0) {
+            // 待ちの循環を解くために譲っている間は予約しない
+            yieldRequests[train]--;
+            setWaiting(train, TrainStateStore.NO_TRAIN);
+            return false;
+        }
+        lastBlocker = TrainStateStore.NO_TRAIN;
+        boolean granted = tryEnter(train, from, to);
+        setWaiting(train, granted ? TrainStateStore.NO_TRAIN : lastBlocker);
+        return granted;
+    }
+
+    private boolean tryEnter(int train, int from, int to) {
+        int signal = layout.signalAt(from);
+        if (signal == SignalLayout.NO_SIGNAL) {
+            return !layout.isProtected(to) || acquire(to, train);
+        }
+        SignalType type = layout.type(signal);
+        return switch (type) {
+            case SHUNTING -> isAvailable(to, train);
+            case BLOCK -> acquire(to, train);
+            case PATH, ABSOLUTE -> acquireSection(train, signal, from);
+        };
+    }
+
+    /**
+     * 電車が線路 from から線路 to へ進入した後に呼び出し、不要になった予約を解放する
+     */
+    public void onEnter(int train, int from, int to) {
+        int section = sectionSignal(train);
+        if (section != SignalLayout.NO_SIGNAL && layout.protects(section, to)) {
+            // 区間内を進行中（絶対信号機の区間は出るまで保持する）
+            if (layout.type(section) != SignalType.ABSOLUTE || !layout.protects(section, from)) {
+                release(from, train);
+            }
+            return;
+        }
+        if (section != SignalLayout.NO_SIGNAL) {
+            releaseSection(train, section, SignalLayout.NO_SIGNAL, to);
+            sectionSignals[train] = SignalLayout.NO_SIGNAL;
+        }
+        release(from, train);
+    }
+
+    /**
+     * 配置された電車に現在の線路を予約させる
+     * @return 予約が不要、または予約できた場合true
+     */
+    public boolean occupy(int train, int track) {
+        return !layout.isProtected(track) || acquire(track, train);
+    }
+
+    /**
+     * 電車の予約をすべて解放する（撤去時）
+     */
+    public void releaseTrain(int train) {
+        if (train < sectionSignals.length) {
+            // 解放に失敗した線路（占有表では既に空いているもの）も一覧からは必ず除く
+            int count = heldCounts[train];
+            if (count > 0) {
+                for (int track : Arrays.copyOf(heldTracks[train], count)) {
+                    release(track, train);
+                }
+            }
+            heldCounts[train] = 0;
+            sectionSignals[train] = SignalLayout.NO_SIGNAL;
+            yieldRequests[train] = 0;
+            setWaiting(train, TrainStateStore.NO_TRAIN);
+        }
+    }
+
+    /**
+     * 電車に在線中の線路以外の予約を手放させ、しばらく進入要求を拒否する（待ちの循環の解消用）
+     * 手放せる予約がない場合は何もしない。
+     * @param currentTrack 電車が在線中の線路（保持し続ける）
+     * @param requests 拒否する進入要求の回数
+     * @return 手放した線路の数
+     */
+    public int yieldReservations(int train, int currentTrack, int requests) {
+        ensureTrainCapacity(train + 1);
+        int released = 0;
+        // 解放すると末尾の線路が空いた位置に移るため、末尾から走査する
+        for (int i = heldCounts[train] - 1; i >= 0; i--) {
+            int track = heldTracks[train][i];
+            if (track != currentTrack && release(track, train)) {
+                released++;
+            }
+        }
+        if (released > 0) {
+            sectionSignals[train] = SignalLayout.NO_SIGNAL;
+            yieldRequests[train] = requests;
+            setWaiting(train, TrainStateStore.NO_TRAIN);
+        }
+        return released;
+    }
+
+    /**
+     * 信号待ちの記録を消す（電車を止めた場合など）
+     */
+    public void clearWaiting(int train) {
+        if (train < waitingFor.length) {
+            setWaiting(train, TrainStateStore.NO_TRAIN);
+        }
+    }
+
+    /**
+     * 電車の進入を妨げている電車
+     * @return 電車の添字。待っていない場合は {@link TrainStateStore#NO_TRAIN}
+     */
+    public int blockerOf(int train) {
+        return train < waitingFor.length ? waitingFor[train] : TrainStateStore.NO_TRAIN;
+    }
+
+    /**
+     * 待ちグラフの版数（辺が変わるたびに増える）
+     */
+    public long waitVersion() {
+        return waitVersion;
+    }
+
+    /**
+     * 電車が予約中の区間の信号機
+     * @return 信号機の添字。予約していない場合は {@link SignalLayout#NO_SIGNAL}
+     */
+    public int sectionSignal(int train) {
+        return train < sectionSignals.length ? sectionSignals[train] : SignalLayout.NO_SIGNAL;
+    }
+
+    private boolean isAvailable(int track, int train) {
+        int holder = occupancy.holder(track);
+        if (holder == BlockOccupancy.FREE || holder == train) {
+            return true;
+        }
+        lastBlocker = holder;
+        return false;
+    }
+
+    private boolean acquire(int track, int train) {
+        if (occupancy.holder(track) == train) {
+            return true;
+        }
+        if (occupancy.tryAcquire(track, train)) {
+            hold(track, train);
+            events.publish(EventType.BLOCK_RESERVED, train, track, 0.0);
+            return true;
+        }
+        lastBlocker = occupancy.holder(track);
+        return false;
+    }
+
+    private boolean release(int track, int train) {
+        if (occupancy.release(track, train)) {
+            unhold(track, train);
+            events.publish(EventType.BLOCK_RELEASED, train, track, 0.0);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 予約した線路を電車の一覧に加える
+     */
+    private void hold(int track, int train) {
+        ensureTrainCapacity(train + 1);
+        int[] tracks = heldTracks[train];
+        int count = heldCounts[train];
+        if (tracks == null || count == tracks.length) {
+            tracks = tracks == null ? new int[4] : Arrays.copyOf(tracks, count * 2);
+            heldTracks[train] = tracks;
+        }
+        tracks[count] = track;
+        heldCounts[train] = count + 1;
+    }
+
+    /**
+     * 解放した線路を電車の一覧から除く（末尾の線路で穴を埋める）
+     */
+    private void unhold(int track, int train) {
+        int[] tracks = heldTracks[train];
+        int last = heldCounts[train] - 1;
+        for (int i = last; i >= 0; i--) {
+            if (tracks[i] == track) {
+                tracks[i] = tracks[last];
+                heldCounts[train] = last;
+                return;
+            }
+        }
+    }
+
+    private void setWaiting(int train, int blocker) {
+        if (waitingFor[train] != blocker) {
+            waitingFor[train] = blocker;
+            waitVersion++;
+            if (blocker == TrainStateStore.NO_TRAIN) {
+                events.publish(EventType.TRAIN_UNBLOCKED, train, 0.0);
+            } else {
+                events.publish(EventType.TRAIN_BLOCKED, train, blocker, 0.0);
+            }
+        }
+    }
+
+    private boolean acquireSection(int train, int signal, int from) {
+        int current = sectionSignal(train);
+        if (current == signal) {
+            return true;
+        }
+        int start = layout.protectedStart(signal);
+        int end = layout.protectedEnd(signal);
+        if (acquired.length < end - start) {
+            acquired = new int[end - start];
+        }
+        int count = 0;
+        for (int slot = start; slot < end; slot++) {
+            int track = layout.protectedTrack(slot);
+            if (occupancy.holder(track) == train) {
+                continue;
+            }
+            // 区間全体が取れるまでイベントは発行しない
+            if (!occupancy.tryAcquire(track, train)) {
+                lastBlocker = occupancy.holder(track);
+                for (int i = 0; i < count; i++) {
+                    occupancy.release(acquired[i], train);
+                }
+                return false;
+            }
+            acquired[count++] = track;
+        }
+        for (int i = 0; i < count; i++) {
+            hold(acquired[i], train);
+            events.publish(EventType.BLOCK_RESERVED, train, acquired[i], 0.0);
+        }
+        if (current != SignalLayout.NO_SIGNAL) {
+            // 前の区間の終端から次の区間へ続けて進む場合は、前の区間の残りを手放す
+            releaseSection(train, current, signal, from);
+        }
+        sectionSignals[train] = signal;
+        return true;
+    }
+
+    /**
+     * 区間の線路のうち、次の区間に含まれず電車が在線していないものを解放する
+     */
+    private void releaseSection(int train, int section, int nextSection, int keepTrack) {
+        for (int slot = layout.protectedStart(section), end = layout.protectedEnd(section); slot < end; slot++) {
+            int track = layout.protectedTrack(slot);
+            if (track == keepTrack
+                    || (nextSection != SignalLayout.NO_SIGNAL && layout.protects(nextSection, track))) {
+                continue;
+            }
+            release(track, train);
+        }
+    }
+
+    /**
+     * 同じ予約状態の独立した複製（スナップショットの取得用。イベントは発行しない）
+     */
+    public BlockReservations copy() {
+        BlockReservations copy = new BlockReservations(layout, occupancy.size());
+        for (int track = 0, n = occupancy.size(); track < n; track++) {
+            int holder = occupancy.holder(track);
+            if (holder != BlockOccupancy.FREE) {
+                copy.occupancy.tryAcquire(track, holder);
+                copy.hold(track, holder);
+            }
+        }
+        copy.ensureTrainCapacity(sectionSignals.length);
+        System.arraycopy(sectionSignals, 0, copy.sectionSignals, 0, sectionSignals.length);
+        System.arraycopy(waitingFor, 0, copy.waitingFor, 0, waitingFor.length);
+        System.arraycopy(yieldRequests, 0, copy.yieldRequests, 0, yieldRequests.length);
+        copy.waitVersion = waitVersion;
+        return copy;
+    }
+
+    /**
+     * 線路ごとの予約と電車ごとの区間・信号待ち・譲歩を書き出す（信号機配置は含まない）
+     */
+    public void writeTo(SnapshotOutput out) {
+        int tracks = occupancy.size();
+        out.putInt(tracks);
+        for (int track = 0; track < tracks; track++) {
+            out.putInt(occupancy.holder(track));
+        }
+        out.putInts(sectionSignals, sectionSignals.length);
+        out.putInts(waitingFor, waitingFor.length);
+        out.putInts(yieldRequests, yieldRequests.length);
+        out.putLong(waitVersion);
+    }
+
+    /**
+     * {@link #writeTo} で書き出した予約を復元する（イベントは発行しない）
+     */
+    public void readFrom(SnapshotInput in) {
+        int tracks = in.getInt();
+        if (tracks != occupancy.size()) {
+            throw new IllegalArgumentException("Snapshot has " + tracks + " tracks, expected " + occupancy.size());
+        }
+        for (int track = 0; track < tracks; track++) {
+            int holder = in.getInt();
+            if (holder != BlockOccupancy.FREE) {
+                occupancy.tryAcquire(track, holder);
+                hold(track, holder);
+            }
+        }
+        int[] sections = in.getInts();
+        int[] waiting = in.getInts();
+        int[] yields = in.getInts();
+        ensureTrainCapacity(sections.length);
+        System.arraycopy(sections, 0, sectionSignals, 0, sections.length);
+        System.arraycopy(waiting, 0, waitingFor, 0, waiting.length);
+        System.arraycopy(yields, 0, yieldRequests, 0, yields.length);
+        waitVersion = in.getLong();
+    }
+
+    private void ensureTrainCapacity(int required) {
+        if (required <= sectionSignals.length) {
+            return;
+        }
+        int oldLength = sectionSignals.length;
+        int capacity = Math.max(required, Math.max(16, oldLength * 2));
+        sectionSignals = Arrays.copyOf(sectionSignals, capacity);
+        Arrays.fill(sectionSignals, oldLength, capacity, SignalLayout.NO_SIGNAL);
+        waitingFor = Arrays.copyOf(waitingFor, capacity);
+        Arrays.fill(waitingFor, oldLength, capacity, TrainStateStore.NO_TRAIN);
+        yieldRequests = Arrays.copyOf(yieldRequests, capacity);
+        heldTracks = Arrays.copyOf(heldTracks, capacity);
+        heldCounts = Arrays.copyOf(heldCounts, capacity);
+    }
+}
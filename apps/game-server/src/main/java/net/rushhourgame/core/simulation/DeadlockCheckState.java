@@ -0,0 +1,97 @@
+package net.rushhourgame.core.simulation;
+
+import net.rushhourgame.core.snapshot.SnapshotInput;
+import net.rushhourgame.core.snapshot.SnapshotOutput;
+
+/**
+ * 閉塞予約の待ちの循環の検査状態（{@link DeadlockDetector} が使う）
+ * 検出中の待ちグラフと結果を受け取るティック、最後に検査した待ちの版をワールドに持たせ、
+ * スナップショットから再開しても記録時と同じティックで解消できるようにする。ティックスレッドからのみ変更すること。
+ */
+public class DeadlockCheckState {
+
+    private WaitForGraph pending;
+    private long resolveTick;
+    private long checkedVersion = -1L;
+
+    /**
+     * 検出中の待ちグラフ（なければnull）
+     */
+    public WaitForGraph pending() {
+        return pending;
+    }
+
+    /**
+     * 検出の結果を受け取るティック
+     */
+    public long resolveTick() {
+        return resolveTick;
+    }
+
+    /**
+     * 最後に検査した閉塞予約の待ちの版（{@link BlockReservations#waitVersion()}）
+     */
+    public long checkedVersion() {
+        return checkedVersion;
+    }
+
+    /**
+     * 待ちグラフの検出を始める
+     */
+    public void start(WaitForGraph graph, long resolveTick, long checkedVersion) {
+        this.pending = graph;
+        this.resolveTick = resolveTick;
+        this.checkedVersion = checkedVersion;
+    }
+
+    /**
+     * 検出中の待ちグラフを取り除く（結果を受け取ったとき）
+     */
+    public void finish() {
+        pending = null;
+    }
+
+    /**
+     * 検査状態を破棄する（閉塞予約を作り直したとき）
+     */
+    public void reset() {
+        pending = null;
+        resolveTick = 0L;
+        checkedVersion = -1L;
+    }
+
+    /**
+     * 同じ内容の独立した状態（スナップショットの取得用。待ちグラフは不変のため共有する）
+     */
+    public DeadlockCheckState copy() {
+        DeadlockCheckState copy = new DeadlockCheckState();
+        copy.pending = pending;
+        copy.resolveTick = resolveTick;
+        copy.checkedVersion = checkedVersion;
+        return copy;
+    }
+
+    /**
+     * 最後に検査した版と検出中の待ちグラフを書き出す
+     */
+    public void writeTo(SnapshotOutput out) {
+        out.putLong(checkedVersion);
+        out.putBoolean(pending != null);
+        if (pending != null) {
+            out.putLong(resolveTick);
+            pending.writeTo(out);
+        }
+    }
+
+    /**
+     * {@link #writeTo} で書き出した内容に置き換える
+     */
+    public void readFrom(SnapshotInput in) {
+        reset();
+        checkedVersion = in.getLong();
+        if (in.getBoolean()) {
+            resolveTick = in.getLong();
+            pending = WaitForGraph.readFrom(in);
+        }
+    }
+}
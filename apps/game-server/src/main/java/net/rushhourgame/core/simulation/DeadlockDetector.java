@@ -0,0 +1,151 @@
+package net.rushhourgame.core.simulation;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 閉塞予約の待ちの循環（デッドロック）を検出・解消するシステム
+ * 一定ティックごとに待ちグラフが変化していればスナップショットを取り、循環の検出は検出スレッドで行う。
+ * 検出の結果はスナップショットを取ったティックから検査間隔だけ後のティックで（終わっていなければ待って）受け取り、
+ * ティックスレッド上で解消する。検出スレッドの進み具合によらず同じティックで解消するため、リプレイで再現できる。
+ * 検出中の待ちグラフと受け取るティックはワールド（{@link DeadlockCheckState}）に持たせ、スナップショットから再開しても変わらない。
+ * 循環がまだ残っていれば、種別の優先度が最も低い電車に在線中の線路以外の予約を手放させ、しばらく進入要求を控えさせる。
+ * 在線中の線路だけで循環している場合（単線で向かい合った電車など）は手放せる予約がないため、その電車を運行から外す。
+ */
+@Component
+@Order(300)
+public class DeadlockDetector implements SimulationSystem {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadlockDetector.class);
+
+    private final SimulationWorld world;
+    private final DeadlockMetrics metrics;
+    private final int checkIntervalTicks;
+    private final int yieldRequests;
+    private final Executor executor;
+
+    // 検出スレッドに渡した待ちグラフとその結果（検査状態そのものはワールドが持つ）
+    private WaitForGraph submitted;
+    private CompletableFuture<Detection> detection;
+
+    @Autowired
+    public DeadlockDetector(SimulationWorld world, SimulationProperties properties, DeadlockMetrics metrics) {
+        this(world, properties, metrics, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "simulation-deadlock");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    DeadlockDetector(SimulationWorld world, SimulationProperties properties, DeadlockMetrics metrics,
+                     Executor executor) {
+        this.world = world;
+        this.metrics = metrics;
+        this.checkIntervalTicks = Math.max(1, properties.getDeadlockCheckIntervalTicks());
+        this.yieldRequests = properties.getDeadlockYieldRequests();
+        this.executor = executor;
+    }
+
+    @Override
+    public void update(long tick, double deltaSeconds) {
+        DeadlockCheckState checks = world.getDeadlockChecks();
+        WaitForGraph pending = checks.pending();
+        if (pending != null && pending != submitted) {
+            // スナップショットから復元した検査は、結果を受け取るティックまでに検出し直す
+            submit(pending);
+        }
+        if (pending != null && tick >= checks.resolveTick()) {
+            checks.finish();
+            try {
+                resolve(detection.join());
+            } catch (CompletionException e) {
+                logger.error("Deadlock detection for tick {} failed", pending.getTick(), e.getCause());
+            }
+        }
+        if (tick % checkIntervalTicks != 0 || checks.pending() != null) {
+            return;
+        }
+        long version = world.getReservations().waitVersion();
+        if (version == checks.checkedVersion()) {
+            return;
+        }
+        WaitForGraph graph = WaitForGraph.capture(tick, world.getTrains(), world.getReservations());
+        checks.start(graph, tick + checkIntervalTicks, version);
+        submit(graph);
+    }
+
+    private void submit(WaitForGraph graph) {
+        submitted = graph;
+        detection = CompletableFuture.supplyAsync(() -> detect(graph), executor);
+    }
+
+    private Detection detect(WaitForGraph graph) {
+        List<int[]> cycles = graph.findCycles();
+        metrics.recordDetection(System.nanoTime() - graph.getCapturedNanos(), graph.size(), cycles.size());
+        return new Detection(graph, cycles);
+    }
+
+    private void resolve(Detection detection) {
+        BlockReservations reservations = world.getReservations();
+        TrainStateStore trains = world.getTrains();
+        for (int[] cycle : detection.cycles()) {
+            if (!isStillWaiting(reservations, cycle)) {
+                continue;
+            }
+            int victim = detection.graph().chooseVictim(cycle);
+            String victimId = trains.idAt(victim);
+            String members = trainIds(trains, cycle);
+            int released = reservations.yieldReservations(victim, trains.trackIndex(victim), yieldRequests);
+            if (released > 0) {
+                metrics.recordResolution(true);
+                logger.info("Resolved deadlock among trains {} by making {} release {} blocks",
+                    members, victimId, released);
+                continue;
+            }
+            // 電車の向きや経路は変えられないため、在線中の線路ごと明け渡させる
+            boolean withdrawn = world.removeTrain(victimId);
+            metrics.recordResolution(withdrawn);
+            if (withdrawn) {
+                metrics.recordWithdrawal();
+                logger.warn("Resolved deadlock among trains {} by withdrawing {} from service", members, victimId);
+            } else {
+                logger.warn("Deadlock among trains {} cannot be resolved", members);
+            }
+        }
+    }
+
+    private static boolean isStillWaiting(BlockReservations reservations, int[] cycle) {
+        for (int i = 0; i < cycle.length; i++) {
+            if (reservations.blockerOf(cycle[i]) != cycle[(i + 1) % cycle.length]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String trainIds(TrainStateStore trains, int[] cycle) {
+        return Arrays.toString(Arrays.stream(cycle).mapToObj(trains::idAt).toArray());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    private record Detection(WaitForGraph graph, List<int[]> cycles) {
+    }
+}
@@ -0,0 +1,125 @@
+package net.rushhourgame.core.simulation;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 信号待ちの循環（デッドロック）検出の計測値
+ * 検出は検出スレッドが、解消はティックスレッドが書き込む。
+ */
+@Component
+public class DeadlockMetrics implements MeterBinder {
+
+    private final AtomicLong detections = new AtomicLong();
+    private final AtomicLong cyclesDetected = new AtomicLong();
+    private final AtomicLong cyclesResolved = new AtomicLong();
+    private final AtomicLong cyclesUnresolved = new AtomicLong();
+    private final AtomicLong trainsWithdrawn = new AtomicLong();
+    private volatile long lastDetectionNanos;
+    private volatile long maxDetectionNanos;
+    private volatile int waitingTrains;
+
+    /**
+     * 1回の検出を記録
+     * @param latencyNanos 待ちグラフの取得から検出完了までの時間（ナノ秒）
+     * @param waiting 信号待ちの電車の数
+     * @param cycles 見つかった循環の数
+     */
+    public void recordDetection(long latencyNanos, int waiting, int cycles) {
+        detections.incrementAndGet();
+        cyclesDetected.addAndGet(cycles);
+        lastDetectionNanos = latencyNanos;
+        if (latencyNanos > maxDetectionNanos) {
+            maxDetectionNanos = latencyNanos;
+        }
+        waitingTrains = waiting;
+    }
+
+    /**
+     * 循環の解消結果を記録
+     */
+    public void recordResolution(boolean resolved) {
+        if (resolved) {
+            cyclesResolved.incrementAndGet();
+        } else {
+            cyclesUnresolved.incrementAndGet();
+        }
+    }
+
+    /**
+     * 循環を解くために電車を運行から外したことを記録
+     */
+    public void recordWithdrawal() {
+        trainsWithdrawn.incrementAndGet();
+    }
+
+    public long getDetections() {
+        return detections.get();
+    }
+
+    public long getCyclesDetected() {
+        return cyclesDetected.get();
+    }
+
+    public long getCyclesResolved() {
+        return cyclesResolved.get();
+    }
+
+    public long getCyclesUnresolved() {
+        return cyclesUnresolved.get();
+    }
+
+    public long getTrainsWithdrawn() {
+        return trainsWithdrawn.get();
+    }
+
+    public long getLastDetectionNanos() {
+        return lastDetectionNanos;
+    }
+
+    public long getMaxDetectionNanos() {
+        return maxDetectionNanos;
+    }
+
+    public int getWaitingTrains() {
+        return waitingTrains;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rushhour.simulation.deadlock.detections", this, DeadlockMetrics::getDetections)
+            .description("Wait-for graph cycle searches")
+            .register(registry);
+        FunctionCounter.builder("rushhour.simulation.deadlock.cycles", this, DeadlockMetrics::getCyclesDetected)
+            .description("Cycles found among trains waiting for block reservations")
+            .register(registry);
+        FunctionCounter.builder("rushhour.simulation.deadlock.resolved", this, DeadlockMetrics::getCyclesResolved)
+            .description("Cycles broken by making a train give up its reservations or withdrawing it")
+            .register(registry);
+        FunctionCounter.builder("rushhour.simulation.deadlock.unresolved", this, DeadlockMetrics::getCyclesUnresolved)
+            .description("Cycles that could not be broken")
+            .register(registry);
+        FunctionCounter.builder("rushhour.simulation.deadlock.withdrawn", this, DeadlockMetrics::getTrainsWithdrawn)
+            .description("Trains withdrawn from service because only their current blocks formed a cycle")
+            .register(registry);
+        Gauge.builder("rushhour.simulation.deadlock.latency.last", this, m -> toMillis(m.getLastDetectionNanos()))
+            .baseUnit("milliseconds")
+            .register(registry);
+        Gauge.builder("rushhour.simulation.deadlock.latency.max", this, m -> toMillis(m.getMaxDetectionNanos()))
+            .baseUnit("milliseconds")
+            .register(registry);
+        Gauge.builder("rushhour.simulation.deadlock.waiting", this, DeadlockMetrics::getWaitingTrains)
+            .description("Trains waiting for a block held by another train")
+            .register(registry);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,88 @@
+package net.rushhourgame.core.simulation;
+
+import net.rushhourgame.core.stationflow.StationLayout;
+import net.rushhourgame.core.timetable.TimetableIndex;
+import net.rushhourgame.core.timetable.TimetableTrip;
+import net.rushhourgame.models.common.TrainOperationState;
+import net.rushhourgame.models.common.TrainType;
+
+import java.util.List;
+
+/**
+ * リプレイ用の記録に残せるワールド変更コマンド
+ * プレイヤーの操作とデータベースからの再読み込みはこの型で {@link SimulationEngine#submit} すること
+ * （ラムダのコマンドは内容を記録できず、リプレイで再現できない）。
+ * 再読み込みのコマンドは読み込んだ内容ごと記録するため、リプレイではデータベースを読まない。
+ */
+public sealed interface JournaledCommand extends SimulationCommand {
+
+    /**
+     * 電車を線路上に配置する
+     */
+    record PlaceTrain(String trainId, String trackId, double position, TrainType type) implements JournaledCommand {
+        @Override
+        public void apply(SimulationWorld world) {
+            world.placeTrain(trainId, trackId, position, type);
+        }
+    }
+
+    /**
+     * 電車を撤去する
+     */
+    record RemoveTrain(String trainId) implements JournaledCommand {
+        @Override
+        public void apply(SimulationWorld world) {
+            world.removeTrain(trainId);
+        }
+    }
+
+    /**
+     * 電車の運行状態を変更する
+     */
+    record ChangeTrainState(String trainId, TrainOperationState state) implements JournaledCommand {
+        @Override
+        public void apply(SimulationWorld world) {
+            world.changeState(trainId, state);
+        }
+    }
+
+    /**
+     * データベースから読み込んだ線路網と信号機配置に差し替える
+     */
+    record ReloadTracks(TrackNetwork network, SignalLayout layout) implements JournaledCommand {
+        @Override
+        public void apply(SimulationWorld world) {
+            world.replaceNetwork(network, layout);
+        }
+    }
+
+    /**
+     * データベースから読み込んだ駅の配置に差し替える
+     */
+    record ReloadStations(StationLayout layout) implements JournaledCommand {
+        @Override
+        public void apply(SimulationWorld world) {
+            world.getStationFlows().replaceLayout(layout);
+        }
+    }
+
+    /**
+     * データベースから読み込んだ時刻表の索引に差し替える
+     */
+    record ReloadTimetable(TimetableIndex timetable) implements JournaledCommand {
+        @Override
+        public void apply(SimulationWorld world) {
+            world.replaceTimetable(timetable);
+        }
+    }
+
+    /**
+     * スケジュールの追加・変更・削除を時刻表の索引に反映する
+     */
+    record UpdateTimetable(List<TimetableTrip> changed, List<String> removedScheduleIds) implements JournaledCommand {
+        @Override
+        public void apply(SimulationWorld world) {
+            world.replaceTimetable(world.getTimetable().update(changed, removedScheduleIds));
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package net.rushhourgame.core.simulation;
+
+import net.rushhourgame.core.database.entities.SignalEntity;
+import net.rushhourgame.models.common.SignalType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 信号機配置のスナップショット（不変）
+ * 信号機は設置された線路の終端を守り、その線路から先へ進む電車に保護区間の予約を要求する。
+ * 保護対象の線路は線路網の添字に変換し、信号機ごとに連続した配列（CSR形式）で保持する。
+ * 線路網と同じ添字を使うため、線路網を差し替える際は一緒に作り直すこと。
+ */
+public final class SignalLayout {
+
+    /**
+     * 信号機が存在しないことを表す添字
+     */
+    public static final int NO_SIGNAL = -1;
+
+    private static final Logger logger = LoggerFactory.getLogger(SignalLayout.class);
+
+    private static final SignalLayout EMPTY = new SignalLayout(new String[0], new SignalType[0], new int[] {0},
+        new int[0], new int[0], new boolean[0]);
+
+    private final String[] signalIds;
+    private final SignalType[] types;
+    private final int[] protectedStart;
+    private final int[] protectedTracks;
+    private final int[] signalByTrack;
+    private final boolean[] protectedByAny;
+
+    private SignalLayout(String[] signalIds, SignalType[] types, int[] protectedStart, int[] protectedTracks,
+                         int[] signalByTrack, boolean[] protectedByAny) {
+        this.signalIds = signalIds;
+        this.types = types;
+        this.protectedStart = protectedStart;
+        this.protectedTracks = protectedTracks;
+        this.signalByTrack = signalByTrack;
+        this.protectedByAny = protectedByAny;
+    }
+
+    private static boolean[] protectedFlags(int trackCount, int[] protectedTracks, int count) {
+        boolean[] flags = new boolean[trackCount];
+        for (int i = 0; i < count; i++) {
+            flags[protectedTracks[i]] = true;
+        }
+        return flags;
+    }
+
+    /**
+     * 信号機を持たない配置
+     */
+    public static SignalLayout empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 信号機エンティティから配置を構築
+     * 1本の線路に複数の信号機がある場合は制御の強いもの（ABSOLUTE > PATH > BLOCK > SHUNTING）を採用する。
+     * 線路網に存在しない線路は無視する。設置線路を読み込んだエンティティを渡すこと。
+     */
+    public static SignalLayout fromEntities(List<SignalEntity> signals, TrackNetwork network) {
+        List<SignalEntity> placed = new ArrayList<>();
+        for (SignalEntity signal : signals) {
+            if (signal.getTrack() != null && network.indexOf(signal.getTrack().getId()) != TrackNetwork.NO_TRACK) {
+                placed.add(signal);
+            }
+        }
+        placed.sort(Comparator.comparingInt(signal -> strength(signal.getSignalType())));
+
+        int[] signalByTrack = new int[network.size()];
+        Arrays.fill(signalByTrack, NO_SIGNAL);
+        String[] ids = new String[placed.size()];
+        SignalType[] types = new SignalType[placed.size()];
+        int[] start = new int[placed.size() + 1];
+        int[] tracks = new int[placed.stream().mapToInt(signal -> signal.getProtectedTrackIds().size()).sum()];
+        int cursor = 0;
+        for (int s = 0; s < placed.size(); s++) {
+            SignalEntity signal = placed.get(s);
+            ids[s] = signal.getId();
+            types[s] = signal.getSignalType();
+            start[s] = cursor;
+            for (String trackId : signal.getProtectedTrackIds()) {
+                int index = network.indexOf(trackId);
+                if (index == TrackNetwork.NO_TRACK) {
+                    logger.warn("Signal {} protects unknown track {}", signal.getId(), trackId);
+                } else {
+                    tracks[cursor++] = index;
+                }
+            }
+            // 同じ線路の信号機は強い順に後から上書きされる
+            signalByTrack[network.indexOf(signal.getTrack().getId())] = s;
+        }
+        start[placed.size()] = cursor;
+        return new SignalLayout(ids, types, start, Arrays.copyOf(tracks, cursor), signalByTrack,
+            protectedFlags(network.size(), tracks, cursor));
+    }
+
+    /**
+     * 配列から直接配置を構築（テスト用）
+     * @param signalTracks 信号機ごとの設置線路の添字
+     * @param protectedTracks 信号機ごとの保護対象線路の添字
+     */
+    public static SignalLayout of(int trackCount, SignalType[] types, int[] signalTracks, int[][] protectedTracks) {
+        int n = types.length;
+        String[] ids = new String[n];
+        int[] start = new int[n + 1];
+        int[] signalByTrack = new int[trackCount];
+        Arrays.fill(signalByTrack, NO_SIGNAL);
+        for (int s = 0; s < n; s++) {
+            ids[s] = "signal-" + s;
+            start[s + 1] = start[s] + protectedTracks[s].length;
+            signalByTrack[signalTracks[s]] = s;
+        }
+        int[] tracks = new int[start[n]];
+        for (int s = 0; s < n; s++) {
+            System.arraycopy(protectedTracks[s], 0, tracks, start[s], protectedTracks[s].length);
+        }
+        return new SignalLayout(ids, types.clone(), start, tracks, signalByTrack,
+            protectedFlags(trackCount, tracks, tracks.length));
+    }
+
+    /**
+     * 配列から直接配置を構築（スナップショット復元用）
+     * @param protectedStart 信号機ごとの保護対象線路の開始位置（信号機数 + 1）
+     * @param signalByTrack 線路ごとの終端を守る信号機（線路網と同じ長さ）
+     */
+    public static SignalLayout of(String[] signalIds, SignalType[] types, int[] protectedStart, int[] protectedTracks,
+                                  int[] signalByTrack) {
+        if (types.length != signalIds.length || protectedStart.length != signalIds.length + 1) {
+            throw new IllegalArgumentException("Signal arrays must have the same length");
+        }
+        return new SignalLayout(signalIds.clone(), types.clone(), protectedStart.clone(), protectedTracks.clone(),
+            signalByTrack.clone(), protectedFlags(signalByTrack.length, protectedTracks, protectedTracks.length));
+    }
+
+    public int size() {
+        return signalIds.length;
+    }
+
+    /**
+     * 線路の終端を守る信号機
+     * @return 信号機の添字。存在しない場合は {@link #NO_SIGNAL}
+     */
+    public int signalAt(int track) {
+        return track < signalByTrack.length ? signalByTrack[track] : NO_SIGNAL;
+    }
+
+    /**
+     * 線路がいずれかの信号機の保護区間に含まれるか
+     */
+    public boolean isProtected(int track) {
+        return track < protectedByAny.length && protectedByAny[track];
+    }
+
+    public String signalId(int signal) {
+        return signalIds[signal];
+    }
+
+    public SignalType type(int signal) {
+        return types[signal];
+    }
+
+    public int protectedStart(int signal) {
+        return protectedStart[signal];
+    }
+
+    public int protectedEnd(int signal) {
+        return protectedStart[signal + 1];
+    }
+
+    public int protectedTrack(int slot) {
+        return protectedTracks[slot];
+    }
+
+    /**
+     * 線路が信号機の保護区間に含まれるか
+     */
+    public boolean protects(int signal, int track) {
+        for (int slot = protectedStart[signal], end = protectedStart[signal + 1]; slot < end; slot++) {
+            if (protectedTracks[slot] == track) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int strength(SignalType type) {
+        return switch (type) {
+            case SHUNTING -> 0;
+            case BLOCK -> 1;
+            case PATH -> 2;
+            case ABSOLUTE -> 3;
+        };
+    }
+}
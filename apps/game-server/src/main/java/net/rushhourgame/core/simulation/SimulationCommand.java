@@ -0,0 +1,13 @@
+package net.rushhourgame.core.simulation;
+
+/**
+ * ティック開始時にティックスレッド上で適用されるワールド変更
+ */
+@FunctionalInterface
+public interface SimulationCommand {
+
+    /**
+     * ワールドに変更を適用する
+     */
+    void apply(SimulationWorld world);
+}
@@ -0,0 +1,187 @@
+package net.rushhourgame.core.simulation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 固定タイムステップのシミュレーションループ
+ * 専用スレッドで {@link SimulationSystem} を順番に実行し、処理時間をティックごとに計測する。
+ * 処理が周期に間に合わない場合は最大 maxCatchUpTicks まで連続実行して追いつき、それ以上の遅れは破棄する。
+ * 適用したコマンドとティックの完了は {@link SimulationRecorder} に通知する。
+ */
+@Component
+public class SimulationEngine implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulationEngine.class);
+
+    private final SimulationProperties properties;
+    private final SimulationWorld world;
+    private final List<SimulationSystem> systems;
+    private final TickMetrics metrics;
+    private final List<SimulationRecorder> recorders;
+    private final Queue<SimulationCommand> commands = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean running;
+    private volatile long currentTick;
+    private Thread tickThread;
+
+    public SimulationEngine(SimulationProperties properties, SimulationWorld world,
+                            List<SimulationSystem> systems, TickMetrics metrics) {
+        this(properties, world, systems, metrics, List.of());
+    }
+
+    @Autowired
+    public SimulationEngine(SimulationProperties properties, SimulationWorld world,
+                            List<SimulationSystem> systems, TickMetrics metrics,
+                            ObjectProvider<SimulationRecorder> recorders) {
+        this(properties, world, systems, metrics, recorders.orderedStream().toList());
+    }
+
+    public SimulationEngine(SimulationProperties properties, SimulationWorld world,
+                            List<SimulationSystem> systems, TickMetrics metrics, List<SimulationRecorder> recorders) {
+        this.properties = properties;
+        this.world = world;
+        this.systems = List.copyOf(systems);
+        this.metrics = metrics;
+        this.recorders = List.copyOf(recorders);
+    }
+
+    /**
+     * ワールド変更コマンドを登録（次のティック開始時に適用）
+     */
+    public void submit(SimulationCommand command) {
+        commands.add(command);
+    }
+
+    /**
+     * 1ティック分を同期的に実行
+     * ループ停止中のテストやリプレイから呼び出す。ループ実行中はティックスレッド以外から呼び出さないこと。
+     */
+    public void tick() {
+        long start = System.nanoTime();
+        long tick = currentTick;
+        applyCommands(tick);
+        world.getEvents().setTick(tick);
+        double deltaSeconds = properties.tickSeconds();
+        for (int i = 0, n = systems.size(); i < n; i++) {
+            systems.get(i).update(tick, deltaSeconds);
+        }
+        for (int i = 0, n = recorders.size(); i < n; i++) {
+            recorders.get(i).onTickCompleted(tick, world);
+        }
+        currentTick = tick + 1;
+        metrics.recordTick(System.nanoTime() - start, properties.tickBudgetNanos());
+    }
+
+    private void applyCommands(long tick) {
+        SimulationCommand command;
+        while ((command = commands.poll()) != null) {
+            for (int i = 0, n = recorders.size(); i < n; i++) {
+                recorders.get(i).onCommand(tick, command);
+            }
+            try {
+                command.apply(world);
+            } catch (RuntimeException ex) {
+                logger.warn("Simulation command rejected: {}", ex.getMessage());
+            }
+        }
+    }
+
+    private void runLoop() {
+        long period = properties.tickPeriodNanos();
+        int maxCatchUp = properties.getMaxCatchUpTicks();
+        long nextTickAt = System.nanoTime();
+        while (running) {
+            long now = System.nanoTime();
+            int steps = 0;
+            while (now - nextTickAt >= 0 && steps < maxCatchUp) {
+                safeTick();
+                nextTickAt += period;
+                steps++;
+                now = System.nanoTime();
+            }
+            long behind = (now - nextTickAt) / period;
+            if (behind > 0) {
+                metrics.recordSkipped(behind);
+                nextTickAt += behind * period;
+            }
+            LockSupport.parkNanos(nextTickAt - System.nanoTime());
+        }
+    }
+
+    private void safeTick() {
+        try {
+            tick();
+        } catch (RuntimeException ex) {
+            logger.error("Simulation tick {} failed", currentTick, ex);
+            currentTick++;
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running || !properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        tickThread = new Thread(this::runLoop, "simulation-tick");
+        tickThread.setDaemon(true);
+        tickThread.start();
+        logger.info("Simulation loop started at {} Hz", properties.getTickRate());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(tickThread);
+        try {
+            tickThread.join(1000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        tickThread = null;
+        logger.info("Simulation loop stopped at tick {}", currentTick);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 次に実行されるティック番号
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * 次に実行するティック番号を設定（スナップショットから再開する場合に、ループの開始前に呼び出す）
+     */
+    public synchronized void setCurrentTick(long tick) {
+        if (running) {
+            throw new IllegalStateException("Simulation loop is running");
+        }
+        currentTick = tick;
+    }
+
+    public TickMetrics getMetrics() {
+        return metrics;
+    }
+
+    public SimulationWorld getWorld() {
+        return world;
+    }
+}
@@ -0,0 +1,85 @@
+package net.rushhourgame.core.simulation;
+
+import lombok.Data;
+import net.rushhourgame.core.resident.ResidentStorage;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * シミュレーションループの設定
+ * 仕様書：位置更新30fps（simulationTick: 33ms）
+ */
+@Data
+@ConfigurationProperties(prefix = "rushhour.simulation")
+public class SimulationProperties {
+
+    /**
+     * アプリケーション起動時にティックループを開始するか
+     */
+    private boolean enabled = true;
+
+    /**
+     * 1秒あたりのティック数（固定タイムステップ）
+     */
+    private int tickRate = 30;
+
+    /**
+     * 1ティックの処理時間の上限（ミリ秒）。超過した場合はオーバーランとして計測する
+     */
+    private double tickBudgetMillis = 1.0;
+
+    /**
+     * 処理遅延時に追いつくために連続実行する最大ティック数
+     */
+    private int maxCatchUpTicks = 5;
+
+    /**
+     * 電車の加速度（線路長単位/秒^2）
+     */
+    private double acceleration = 1.0;
+
+    /**
+     * 電車の減速度（線路長単位/秒^2）
+     */
+    private double deceleration = 1.2;
+
+    /**
+     * 信号待ちの循環（デッドロック）を検査する間隔（ティック数）
+     */
+    private int deadlockCheckIntervalTicks = 15;
+
+    /**
+     * 循環の解消で予約を手放した電車が、進入要求を控える回数（信号待ちの電車は毎ティック要求する）
+     */
+    private int deadlockYieldRequests = 90;
+
+    /**
+     * 住民コンポーネントの格納先（OFF_HEAPの場合はヒープ外に置き、住民数がGC停止時間に影響しない）
+     */
+    private ResidentStorage residentStorage = ResidentStorage.HEAP;
+
+    /**
+     * 住民ストアの初期容量（想定する住民数を指定すると起動後の拡張による再確保を避けられる）
+     */
+    private int residentInitialCapacity = 1024;
+
+    /**
+     * 1ティックあたりの経過時間（秒）
+     */
+    public double tickSeconds() {
+        return 1.0 / tickRate;
+    }
+
+    /**
+     * 1ティックあたりの周期（ナノ秒）
+     */
+    public long tickPeriodNanos() {
+        return 1_000_000_000L / tickRate;
+    }
+
+    /**
+     * ティック処理時間の上限（ナノ秒）
+     */
+    public long tickBudgetNanos() {
+        return (long) (tickBudgetMillis * 1_000_000L);
+    }
+}
@@ -0,0 +1,18 @@
+package net.rushhourgame.core.simulation;
+
+/**
+ * シミュレーションへの入力とティックの進行を記録する
+ * ティックスレッドから呼び出されるため、実装は待たずに返ること。
+ */
+public interface SimulationRecorder {
+
+    /**
+     * ティック開始時に適用するコマンド（適用の前に、適用する順に呼ばれる）
+     */
+    void onCommand(long tick, SimulationCommand command);
+
+    /**
+     * ティックの全システムの実行後
+     */
+    void onTickCompleted(long tick, SimulationWorld world);
+}
@@ -0,0 +1,16 @@
+package net.rushhourgame.core.simulation;
+
+/**
+ * ティックごとに実行されるシミュレーション処理
+ * ティックスレッドからのみ呼び出されるため、実装は同期化を必要としない。
+ * 実行順序は {@link org.springframework.core.annotation.Order} で指定する。
+ */
+public interface SimulationSystem {
+
+    /**
+     * 1ティック分の状態を進める
+     * @param tick ティック番号（0始まり）
+     * @param deltaSeconds 1ティックあたりの経過時間（秒）
+     */
+    void update(long tick, double deltaSeconds);
+}
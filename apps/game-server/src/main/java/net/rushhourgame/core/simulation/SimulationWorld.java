@@ -0,0 +1,219 @@
+package net.rushhourgame.core.simulation;
+
+import net.rushhourgame.core.event.EventBusProperties;
+import net.rushhourgame.core.event.EventPartition;
+import net.rushhourgame.core.exceptions.BusinessLogicException;
+import net.rushhourgame.core.exceptions.TrackNotFoundException;
+import net.rushhourgame.core.exceptions.TrainNotFoundException;
+import net.rushhourgame.core.resident.ResidentStore;
+import net.rushhourgame.core.stationflow.StationFlowStore;
+import net.rushhourgame.core.timetable.TimetableIndex;
+import net.rushhourgame.models.common.TrainOperationState;
+import net.rushhourgame.models.common.TrainType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * シミュレーションのライブ状態（線路網と走行中の電車、住民、駅構内の旅客流動、時刻表の索引）
+ * JPAから切り離されたインメモリ状態であり、ティックスレッドからのみ変更する。
+ * 状態の変化はティックスレッドのイベント区画（{@link #getEvents()}）に発行する。
+ * 他スレッドからの変更は {@link SimulationEngine#submit(SimulationCommand)} を経由すること。
+ */
+@Component
+public class SimulationWorld {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulationWorld.class);
+
+    private TrackNetwork network = TrackNetwork.empty();
+    private BlockReservations reservations;
+    private final TrainStateStore trains = new TrainStateStore();
+    private final ResidentStore residents;
+    private final StationFlowStore stationFlows = new StationFlowStore();
+    private final DeadlockCheckState deadlockChecks = new DeadlockCheckState();
+    private final EventPartition events;
+    // 不変の索引で、他スレッドからは差し替えの前後どちらかを読む
+    private volatile TimetableIndex timetable = TimetableIndex.empty();
+
+    public SimulationWorld() {
+        this(new ResidentStore(), new EventBusProperties());
+    }
+
+    @Autowired
+    public SimulationWorld(SimulationProperties properties, EventBusProperties eventProperties) {
+        this(new ResidentStore(properties.getResidentInitialCapacity(), properties.getResidentStorage()), eventProperties);
+    }
+
+    SimulationWorld(ResidentStore residents) {
+        this(residents, new EventBusProperties());
+    }
+
+    private SimulationWorld(ResidentStore residents, EventBusProperties eventProperties) {
+        this.residents = residents;
+        this.events = new EventPartition("simulation", eventProperties.getPartitionCapacity());
+        this.reservations = new BlockReservations(SignalLayout.empty(), 0, events);
+    }
+
+    public TrackNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * 線路の閉塞予約
+     */
+    public BlockReservations getReservations() {
+        return reservations;
+    }
+
+    /**
+     * 信号機のない線路網に差し替える
+     */
+    public void replaceNetwork(TrackNetwork newNetwork) {
+        replaceNetwork(newNetwork, SignalLayout.empty());
+    }
+
+    /**
+     * 線路網と信号機配置を差し替え、電車の線路添字を新しい線路網に付け替える
+     * 撤去された線路上の電車はシミュレーションから取り除く。
+     * 閉塞予約は作り直し、各電車は在線中の線路だけを予約し直す（区間の予約は次の信号機で取り直す）。
+     * 作り直す前の予約に対する待ちの循環の検査は破棄する。
+     */
+    public void replaceNetwork(TrackNetwork newNetwork, SignalLayout layout) {
+        TrackNetwork oldNetwork = this.network;
+        int[] trackIndices = trains.trackIndices();
+        double[] positions = trains.positions();
+        for (int i = 0, n = trains.highWaterMark(); i < n; i++) {
+            if (!trains.isAlive(i)) {
+                continue;
+            }
+            int newIndex = newNetwork.indexOf(oldNetwork.trackId(trackIndices[i]));
+            if (newIndex == TrackNetwork.NO_TRACK) {
+                logger.warn("Removing train {} because its track was removed", trains.idAt(i));
+                reservations.releaseTrain(i);
+                trains.remove(trains.idAt(i));
+            } else {
+                trackIndices[i] = newIndex;
+                positions[i] = Math.min(positions[i], newNetwork.length(newIndex));
+            }
+        }
+        this.network = newNetwork;
+        this.reservations = new BlockReservations(layout, newNetwork.size(), events);
+        deadlockChecks.reset();
+        for (int i = 0, n = trains.highWaterMark(); i < n; i++) {
+            if (trains.isAlive(i) && !reservations.occupy(i, trackIndices[i])) {
+                logger.warn("Train {} shares block {} with another train", trains.idAt(i),
+                    newNetwork.trackId(trackIndices[i]));
+            }
+        }
+    }
+
+    /**
+     * 線路網と信号機配置を差し替え、閉塞予約を空の状態で作り直す（スナップショット復元用）
+     * 電車の付け替えと予約の取り直しは行わない。続けて電車と予約を復元すること。
+     */
+    public void restoreNetwork(TrackNetwork newNetwork, SignalLayout layout) {
+        this.network = newNetwork;
+        this.reservations = new BlockReservations(layout, newNetwork.size(), events);
+    }
+
+    /**
+     * 普通電車を線路上に配置（停車状態で配置される）
+     * @return 電車の添字
+     */
+    public int placeTrain(String trainId, String trackId, double position) {
+        return placeTrain(trainId, trackId, position, TrainType.LOCAL);
+    }
+
+    /**
+     * 電車を線路上に配置（停車状態で配置される）
+     * @return 電車の添字
+     */
+    public int placeTrain(String trainId, String trackId, double position, TrainType type) {
+        if (trains.indexOf(trainId) != TrainStateStore.NO_TRAIN) {
+            throw new BusinessLogicException("Train is already placed: " + trainId);
+        }
+        int trackIndex = network.indexOf(trackId);
+        if (trackIndex == TrackNetwork.NO_TRACK) {
+            throw new TrackNotFoundException(trackId);
+        }
+        BlockOccupancy occupancy = reservations.getOccupancy();
+        if (reservations.getLayout().isProtected(trackIndex) && !occupancy.isFree(trackIndex)) {
+            throw new BusinessLogicException(
+                "Block is occupied by train " + trains.idAt(occupancy.holder(trackIndex)) + ": " + trackId);
+        }
+        double clamped = Math.max(0.0, Math.min(position, network.length(trackIndex)));
+        int index = trains.add(trainId, trackIndex, clamped, type);
+        reservations.occupy(index, trackIndex);
+        return index;
+    }
+
+    /**
+     * 電車を撤去
+     * @return 撤去した場合true
+     */
+    public boolean removeTrain(String trainId) {
+        int index = trains.indexOf(trainId);
+        if (index == TrainStateStore.NO_TRAIN) {
+            return false;
+        }
+        reservations.releaseTrain(index);
+        return trains.remove(trainId);
+    }
+
+    /**
+     * 電車の運行状態を変更
+     */
+    public void changeState(String trainId, TrainOperationState state) {
+        int index = trains.indexOf(trainId);
+        if (index == TrainStateStore.NO_TRAIN) {
+            throw new TrainNotFoundException(trainId);
+        }
+        trains.setState(index, state);
+        if (!state.canMove()) {
+            trains.speeds()[index] = 0.0;
+            // 止めた電車は信号待ちではなくなる
+            reservations.clearWaiting(index);
+        }
+    }
+
+    public TrainStateStore getTrains() {
+        return trains;
+    }
+
+    public ResidentStore getResidents() {
+        return residents;
+    }
+
+    public StationFlowStore getStationFlows() {
+        return stationFlows;
+    }
+
+    /**
+     * 閉塞予約の待ちの循環の検査状態
+     */
+    public DeadlockCheckState getDeadlockChecks() {
+        return deadlockChecks;
+    }
+
+    /**
+     * 時刻表の索引（住民の経路探索と発車案内が参照する）
+     */
+    public TimetableIndex getTimetable() {
+        return timetable;
+    }
+
+    /**
+     * 時刻表の索引を差し替える
+     */
+    public void replaceTimetable(TimetableIndex newTimetable) {
+        this.timetable = newTimetable;
+    }
+
+    /**
+     * ティックスレッドが発行するドメインイベントの区画
+     */
+    public EventPartition getEvents() {
+        return events;
+    }
+}
@@ -0,0 +1,140 @@
+package net.rushhourgame.core.simulation;
+
+import lombok.RequiredArgsConstructor;
+import net.rushhourgame.core.database.TransactionHooks;
+import net.rushhourgame.core.database.entities.TrackChangedEvent;
+import net.rushhourgame.core.database.entities.TrackEntity;
+import net.rushhourgame.core.database.entities.StationEntity;
+import net.rushhourgame.core.database.repositories.ScheduleRepository;
+import net.rushhourgame.core.database.repositories.SignalRepository;
+import net.rushhourgame.core.database.repositories.StationRepository;
+import net.rushhourgame.core.database.repositories.TrackRepository;
+import net.rushhourgame.core.pathfinding.TrackGraph;
+import net.rushhourgame.core.pathfinding.TrackGraphService;
+import net.rushhourgame.core.replay.ReplayMode;
+import net.rushhourgame.core.replay.ReplayProperties;
+import net.rushhourgame.core.snapshot.SnapshotRestorer;
+import net.rushhourgame.core.stationflow.StationFlowProperties;
+import net.rushhourgame.core.stationflow.StationLayout;
+import net.rushhourgame.core.timetable.TimetableIndex;
+import net.rushhourgame.core.timetable.TimetableTrip;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 永続化された線路・信号機・駅・スケジュールからシミュレーション用の線路網・駅の配置・時刻表の索引を構築する
+ * データベースへのアクセスはここに閉じ込め、ティックループはJPAに触れない。
+ * 構築した内容はコマンドに載せてエンジンに登録するため、ジャーナルに記録されリプレイではそのまま使われる。
+ */
+@Component
+@RequiredArgsConstructor
+public class SimulationWorldLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulationWorldLoader.class);
+
+    private final TrackRepository trackRepository;
+    private final SignalRepository signalRepository;
+    private final TrackCurveCache curveCache;
+    private final SimulationEngine simulationEngine;
+    private final StationRepository stationRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final StationFlowProperties stationFlowProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final ReplayProperties replayProperties;
+    private final SnapshotRestorer snapshotRestorer;
+    private final TrackGraphService trackGraphService;
+
+    // 起動時の読み込みが終わるまでは線路の変更を反映しない（起動時の移行処理による保存を含む）
+    private volatile boolean tracksLoaded;
+
+    /**
+     * 起動完了時に線路網・駅・時刻表を読み込む
+     * リプレイ時はジャーナルに記録した内容を使い、スナップショットから復元した場合は読み込まない。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (replayProperties.getMode() == ReplayMode.REPLAY) {
+            return;
+        }
+        if (!snapshotRestorer.isRestored()) {
+            // 経路探索のグラフは TrackGraphService が起動時に構築する
+            loadTracks();
+            reloadStations();
+            reloadTimetable();
+        }
+        tracksLoaded = true;
+    }
+
+    /**
+     * 線路の保存・削除をコミット後に線路網と経路探索のグラフへ反映する（同じトランザクションの変更はまとめて1回読み込む）
+     * リポジトリを直接使った書き込みも含め、線路エンティティの変更はすべてここに届く。
+     * リプレイ中はジャーナルの線路網を使うため、経路探索のグラフだけを作り直す。
+     */
+    @EventListener
+    public void onTrackChanged(TrackChangedEvent event) {
+        if (replayProperties.getMode() == ReplayMode.REPLAY) {
+            trackGraphService.tracksChanged();
+        } else if (tracksLoaded) {
+            TransactionHooks.afterCommitOnce(this, this::reloadTracks);
+        }
+    }
+
+    /**
+     * 線路網と信号機配置を再構築し、次のティックで差し替える
+     * 読み込んだ線路で経路探索のグラフも作り直す。
+     */
+    public void reloadTracks() {
+        List<TrackEntity> tracks = loadTracks();
+        trackGraphService.replaceGraph(TrackGraph.fromEntities(tracks));
+    }
+
+    /**
+     * 線路網と信号機配置を読み込んでエンジンに登録し、読み込んだ線路を返す
+     * 曲線の点を詰めた線路は点の行を読まずに取得し、詰めていない線路だけカーブと一緒に取得する。
+     */
+    private List<TrackEntity> loadTracks() {
+        List<TrackEntity> tracks = new ArrayList<>(trackRepository.findAllWithPackedCurve());
+        tracks.addAll(trackRepository.findAllWithUnpackedCurve());
+        TrackNetwork network = TrackNetwork.fromEntities(tracks, curveCache::curveOf);
+        curveCache.retainAll(tracks.stream().map(TrackEntity::getId).toList());
+        SignalLayout layout = SignalLayout.fromEntities(signalRepository.findAllWithProtectedTracks(), network);
+        simulationEngine.submit(new JournaledCommand.ReloadTracks(network, layout));
+        logger.info("Loaded {} tracks and {} signals into the simulation", network.size(), layout.size());
+        return tracks;
+    }
+
+    /**
+     * 駅の配置を再構築し、次のティックで差し替える
+     * 改札・通路・プラットフォームは1回で取得すると直積になるため、同じトランザクションで別々に読み込む。
+     */
+    public void reloadStations() {
+        StationLayout layout = transactionTemplate.execute(status -> {
+            List<StationEntity> stations = stationRepository.findAllWithGates();
+            stationRepository.findAllWithCorridors();
+            stationRepository.findAllWithPlatforms();
+            return StationLayout.fromEntities(stations, stationFlowProperties.getWalkingSpeed(),
+                stationFlowProperties.getCorridorSpecificFlow());
+        });
+        simulationEngine.submit(new JournaledCommand.ReloadStations(layout));
+        logger.info("Loaded {} stations into the passenger flow simulation", layout.size());
+    }
+
+    /**
+     * 全スケジュールから時刻表の索引を作り直し、次のティックで差し替える
+     */
+    public void reloadTimetable() {
+        List<TimetableTrip> trips = scheduleRepository.findAllWithStopTimes().stream()
+            .map(TimetableTrip::fromEntity)
+            .toList();
+        TimetableIndex index = TimetableIndex.build(trips);
+        simulationEngine.submit(new JournaledCommand.ReloadTimetable(index));
+        logger.info("Indexed {} schedules at {} stations", index.tripCount(), index.stationCount());
+    }
+}
@@ -0,0 +1,103 @@
+package net.rushhourgame.core.simulation;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ティック処理の計測値
+ * ティックスレッドが書き込み、メトリクス収集側が読み取る。
+ */
+@Component
+public class TickMetrics implements MeterBinder {
+
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong overruns = new AtomicLong();
+    private final AtomicLong skippedTicks = new AtomicLong();
+    private final AtomicLong totalTickNanos = new AtomicLong();
+    private volatile long lastTickNanos;
+    private volatile long maxTickNanos;
+
+    /**
+     * 1ティックの処理時間を記録
+     * @param durationNanos 処理時間（ナノ秒）
+     * @param budgetNanos 処理時間の上限（ナノ秒）
+     */
+    public void recordTick(long durationNanos, long budgetNanos) {
+        ticks.incrementAndGet();
+        totalTickNanos.addAndGet(durationNanos);
+        lastTickNanos = durationNanos;
+        if (durationNanos > maxTickNanos) {
+            maxTickNanos = durationNanos;
+        }
+        if (durationNanos > budgetNanos) {
+            overruns.incrementAndGet();
+        }
+    }
+
+    /**
+     * 遅延により実行を諦めたティック数を記録
+     */
+    public void recordSkipped(long count) {
+        skippedTicks.addAndGet(count);
+    }
+
+    public long getTicks() {
+        return ticks.get();
+    }
+
+    public long getOverruns() {
+        return overruns.get();
+    }
+
+    public long getSkippedTicks() {
+        return skippedTicks.get();
+    }
+
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    public long getMaxTickNanos() {
+        return maxTickNanos;
+    }
+
+    /**
+     * 平均ティック処理時間（ナノ秒）
+     */
+    public double getMeanTickNanos() {
+        long count = ticks.get();
+        return count == 0 ? 0.0 : (double) totalTickNanos.get() / count;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rushhour.simulation.ticks", this, TickMetrics::getTicks)
+            .description("Executed simulation ticks")
+            .register(registry);
+        FunctionCounter.builder("rushhour.simulation.tick.overruns", this, TickMetrics::getOverruns)
+            .description("Ticks that exceeded the per-tick latency budget")
+            .register(registry);
+        FunctionCounter.builder("rushhour.simulation.tick.skipped", this, TickMetrics::getSkippedTicks)
+            .description("Ticks dropped because the loop fell too far behind")
+            .register(registry);
+        Gauge.builder("rushhour.simulation.tick.last", this, m -> toMillis(m.getLastTickNanos()))
+            .baseUnit("milliseconds")
+            .register(registry);
+        Gauge.builder("rushhour.simulation.tick.max", this, m -> toMillis(m.getMaxTickNanos()))
+            .baseUnit("milliseconds")
+            .register(registry);
+        Gauge.builder("rushhour.simulation.tick.mean", this, m -> m.getMeanTickNanos() / TimeUnit.MILLISECONDS.toNanos(1))
+            .baseUnit("milliseconds")
+            .register(registry);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
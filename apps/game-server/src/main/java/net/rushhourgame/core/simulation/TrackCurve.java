@@ -0,0 +1,206 @@
+package net.rushhourgame.core.simulation;
+
+import net.rushhourgame.core.database.entities.Point3DEmbeddable;
+import net.rushhourgame.core.database.entities.TrackEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 弧長でパラメータ化した線路の曲線（不変）
+ * 頂点ごとに累積弧長と座標（s, x, y, z）を1つの double 配列に詰めて保持し、
+ * 距離から座標を求める際は累積弧長の二分探索（O(log n)）と区間内の線形補間で求める。
+ * 曲線は保存された点を結ぶ折れ線として扱う。
+ */
+public final class TrackCurve {
+
+    private static final int STRIDE = 4;
+
+    private static final TrackCurve EMPTY = new TrackCurve(new double[STRIDE]);
+
+    // 頂点ごとに s, x, y, z の順に並べる
+    private final double[] data;
+    private final int vertexCount;
+    private final double length;
+
+    private TrackCurve(double[] data) {
+        this.data = data;
+        this.vertexCount = data.length / STRIDE;
+        this.length = data[(vertexCount - 1) * STRIDE];
+    }
+
+    /**
+     * 原点だけからなる長さ0の曲線
+     */
+    public static TrackCurve empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 線路エンティティから構築
+     * 詰めた曲線（curveData）があればそれを使い、なければ曲線の点を読む。
+     */
+    public static TrackCurve fromEntity(TrackEntity track) {
+        if (track.getCurveData() != null) {
+            return TrackCurveCodec.decode(track.getCurveData());
+        }
+        return fromPoints(track.getCurve());
+    }
+
+    /**
+     * 永続化された曲線の点から構築（sequenceOrder の順に結ぶ）
+     */
+    public static TrackCurve fromPoints(List<Point3DEmbeddable> points) {
+        if (points == null || points.isEmpty()) {
+            return EMPTY;
+        }
+        List<Point3DEmbeddable> ordered = new ArrayList<>(points);
+        ordered.sort(Comparator.comparing(Point3DEmbeddable::getSequenceOrder));
+        int n = ordered.size();
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        double[] zs = new double[n];
+        for (int i = 0; i < n; i++) {
+            Point3DEmbeddable point = ordered.get(i);
+            xs[i] = point.getX();
+            ys[i] = point.getY();
+            zs[i] = point.getZ() == null ? 0.0 : point.getZ();
+        }
+        return of(xs, ys, zs);
+    }
+
+    /**
+     * 座標の配列から構築（連続する同一点は1つにまとめる）
+     */
+    public static TrackCurve of(double[] xs, double[] ys, double[] zs) {
+        int n = xs.length;
+        if (n == 0) {
+            return EMPTY;
+        }
+        if (ys.length != n || zs.length != n) {
+            throw new IllegalArgumentException("Coordinate arrays must have the same length");
+        }
+        double[] data = new double[n * STRIDE];
+        int count = 0;
+        double s = 0.0;
+        for (int i = 0; i < n; i++) {
+            if (count > 0) {
+                int previous = (count - 1) * STRIDE;
+                double dx = xs[i] - data[previous + 1];
+                double dy = ys[i] - data[previous + 2];
+                double dz = zs[i] - data[previous + 3];
+                double segment = Math.sqrt(dx * dx + dy * dy + dz * dz);
+                if (segment == 0.0) {
+                    continue;
+                }
+                s += segment;
+            }
+            int offset = count * STRIDE;
+            data[offset] = s;
+            data[offset + 1] = xs[i];
+            data[offset + 2] = ys[i];
+            data[offset + 3] = zs[i];
+            count++;
+        }
+        return new TrackCurve(count == n ? data : Arrays.copyOf(data, count * STRIDE));
+    }
+
+    /**
+     * 曲線の長さ（折れ線の弧長）
+     */
+    public double length() {
+        return length;
+    }
+
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * 頂点のX座標
+     */
+    public double vertexX(int vertex) {
+        return data[vertex * STRIDE + 1];
+    }
+
+    /**
+     * 頂点のY座標
+     */
+    public double vertexY(int vertex) {
+        return data[vertex * STRIDE + 2];
+    }
+
+    /**
+     * 頂点のZ座標
+     */
+    public double vertexZ(int vertex) {
+        return data[vertex * STRIDE + 3];
+    }
+
+    /**
+     * 弧長 distance の点を含む区間の始点の頂点番号
+     * 範囲外の距離は両端に丸める。
+     */
+    public int segmentAt(double distance) {
+        if (vertexCount == 1 || distance <= 0.0) {
+            return 0;
+        }
+        if (distance >= length) {
+            return vertexCount - 2;
+        }
+        int low = 0;
+        int high = vertexCount - 1;
+        // data[low].s <= distance < data[high].s を保つ
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (data[mid * STRIDE] <= distance) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public double x(double distance) {
+        return interpolate(distance, 1);
+    }
+
+    public double y(double distance) {
+        return interpolate(distance, 2);
+    }
+
+    public double z(double distance) {
+        return interpolate(distance, 3);
+    }
+
+    /**
+     * 弧長 distance での進行方向（XY平面上の角度、ラジアン）
+     */
+    public double heading(double distance) {
+        if (vertexCount == 1) {
+            return 0.0;
+        }
+        int from = segmentAt(distance) * STRIDE;
+        int to = from + STRIDE;
+        return Math.atan2(data[to + 2] - data[from + 2], data[to + 1] - data[from + 1]);
+    }
+
+    private double interpolate(double distance, int component) {
+        if (vertexCount == 1) {
+            return data[component];
+        }
+        int from = segmentAt(distance) * STRIDE;
+        int to = from + STRIDE;
+        double span = data[to] - data[from];
+        double ratio = (distance - data[from]) / span;
+        if (ratio < 0.0) {
+            ratio = 0.0;
+        } else if (ratio > 1.0) {
+            ratio = 1.0;
+        }
+        return data[from + component] + (data[to + component] - data[from + component]) * ratio;
+    }
+}
@@ -0,0 +1,102 @@
+package net.rushhourgame.core.simulation;
+
+import net.rushhourgame.core.database.entities.Point3DEmbeddable;
+import net.rushhourgame.core.database.entities.TrackEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 線路ごとの弧長パラメータ化曲線のキャッシュ
+ * 曲線は初めて要求されたときに構築し、線路と曲線の点のバージョンが変わるまで再利用する。
+ * 線路網の再読み込みでは変更された線路の曲線だけが作り直される。
+ */
+@Component
+public class TrackCurveCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong builds = new AtomicLong();
+
+    /**
+     * 線路の曲線を取得（バージョンが変わっていれば作り直す）
+     * 詰めた曲線（curveData）を持たない線路は、曲線の点を読み込んだエンティティを渡すこと。
+     */
+    public TrackCurve curveOf(TrackEntity track) {
+        CurveVersion version = versionOf(track);
+        if (track.getId() == null || version == null) {
+            return build(track);
+        }
+        Entry entry = entries.get(track.getId());
+        if (entry != null && entry.version().equals(version)) {
+            return entry.curve();
+        }
+        TrackCurve curve = build(track);
+        entries.put(track.getId(), new Entry(version, curve));
+        return curve;
+    }
+
+    /**
+     * 指定した線路以外の曲線を破棄する（撤去された線路の削除用）
+     */
+    public void retainAll(Collection<String> trackIds) {
+        Set<String> keep = Set.copyOf(trackIds);
+        entries.keySet().removeIf(id -> !keep.contains(id));
+    }
+
+    public void evict(String trackId) {
+        entries.remove(trackId);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * これまでに構築した曲線の数
+     */
+    public long getBuildCount() {
+        return builds.get();
+    }
+
+    private TrackCurve build(TrackEntity track) {
+        builds.incrementAndGet();
+        return TrackCurve.fromEntity(track);
+    }
+
+    /**
+     * 線路と曲線の点のバージョンの組
+     * 点の編集は点自身のバージョンだけを上げるため、点のバージョンの合計と点の数も含める。
+     * 詰めた曲線は線路の列なので、線路のバージョンだけで変更を判定する（点の数は -1 とする）。
+     * @return 未保存（バージョンなし）の場合null
+     */
+    private static CurveVersion versionOf(TrackEntity track) {
+        if (track.getVersion() == null) {
+            return null;
+        }
+        if (track.getCurveData() != null) {
+            return new CurveVersion(track.getVersion(), -1, 0L);
+        }
+        long pointVersions = 0L;
+        int pointCount = 0;
+        if (track.getCurve() != null) {
+            for (Point3DEmbeddable point : track.getCurve()) {
+                if (point.getVersion() == null) {
+                    return null;
+                }
+                pointVersions += point.getVersion();
+                pointCount++;
+            }
+        }
+        return new CurveVersion(track.getVersion(), pointCount, pointVersions);
+    }
+
+    private record CurveVersion(long trackVersion, int pointCount, long pointVersions) {
+    }
+
+    private record Entry(CurveVersion version, TrackCurve curve) {
+    }
+}
@@ -0,0 +1,103 @@
+package net.rushhourgame.core.simulation;
+
+import net.rushhourgame.core.database.entities.Point3DEmbeddable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 線路の曲線の点を1つのバイト列に詰める形式（{@link net.rushhourgame.core.database.entities.TrackEntity#getCurveData()}）
+ * 形式番号（1バイト）、点の数（int）、続けて点ごとに x, y, z（double）をリトルエンディアンで並べる。
+ * 点1つあたり24バイトで、1点1行の保存に比べ行ごとのヘッダ・ID・監査列が不要になる。
+ */
+public final class TrackCurveCodec {
+
+    static final byte FORMAT_VERSION = 1;
+
+    private static final int HEADER_BYTES = Byte.BYTES + Integer.BYTES;
+    private static final int POINT_BYTES = 3 * Double.BYTES;
+
+    private TrackCurveCodec() {
+    }
+
+    /**
+     * 永続化された曲線の点を詰める（sequenceOrder の順）
+     */
+    public static byte[] encode(List<Point3DEmbeddable> points) {
+        List<Point3DEmbeddable> ordered = new ArrayList<>(points);
+        ordered.sort(Comparator.comparing(Point3DEmbeddable::getSequenceOrder));
+        ByteBuffer buffer = allocate(ordered.size());
+        for (Point3DEmbeddable point : ordered) {
+            buffer.putDouble(point.getX());
+            buffer.putDouble(point.getY());
+            buffer.putDouble(point.getZ() == null ? 0.0 : point.getZ());
+        }
+        return buffer.array();
+    }
+
+    /**
+     * 座標の配列を詰める
+     */
+    public static byte[] encode(double[] xs, double[] ys, double[] zs) {
+        int n = xs.length;
+        if (ys.length != n || zs.length != n) {
+            throw new IllegalArgumentException("Coordinate arrays must have the same length");
+        }
+        ByteBuffer buffer = allocate(n);
+        for (int i = 0; i < n; i++) {
+            buffer.putDouble(xs[i]);
+            buffer.putDouble(ys[i]);
+            buffer.putDouble(zs[i]);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * 詰めた点から曲線を構築
+     */
+    public static TrackCurve decode(byte[] data) {
+        ByteBuffer buffer = header(data);
+        int n = buffer.getInt();
+        if (data.length != HEADER_BYTES + n * POINT_BYTES) {
+            throw new IllegalArgumentException("Packed curve length does not match point count " + n);
+        }
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        double[] zs = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = buffer.getDouble();
+            ys[i] = buffer.getDouble();
+            zs[i] = buffer.getDouble();
+        }
+        return TrackCurve.of(xs, ys, zs);
+    }
+
+    /**
+     * 詰めた点の数
+     */
+    public static int pointCount(byte[] data) {
+        return header(data).getInt();
+    }
+
+    private static ByteBuffer allocate(int pointCount) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + pointCount * POINT_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(FORMAT_VERSION);
+        buffer.putInt(pointCount);
+        return buffer;
+    }
+
+    private static ByteBuffer header(byte[] data) {
+        if (data.length < HEADER_BYTES) {
+            throw new IllegalArgumentException("Packed curve is too short: " + data.length + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        byte format = buffer.get();
+        if (format != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported packed curve format: " + format);
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,193 @@
+package net.rushhourgame.core.simulation;
+
+import net.rushhourgame.core.database.entities.TrackEntity;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * シミュレーション用の線路網スナップショット（不変）
+ * JPAエンティティから切り離し、線路をint添字で参照できるよう配列に展開する。
+ * 線路の追加・撤去時は新しいスナップショットを生成して差し替える。
+ */
+public final class TrackNetwork {
+
+    /**
+     * 接続先の線路が存在しないことを表す添字
+     */
+    public static final int NO_TRACK = -1;
+
+    private static final TrackNetwork EMPTY = new TrackNetwork(new String[0], new double[0], new double[0], new int[0],
+        new TrackCurve[0]);
+
+    private final String[] trackIds;
+    private final double[] lengths;
+    private final double[] maxSpeeds;
+    private final int[] nextTracks;
+    private final TrackCurve[] curves;
+    // 線路上の位置（線路長基準）を曲線の弧長に換算する倍率
+    private final double[] arcScales;
+    private final Map<String, Integer> indexById;
+
+    private TrackNetwork(String[] trackIds, double[] lengths, double[] maxSpeeds, int[] nextTracks,
+                         TrackCurve[] curves) {
+        this.trackIds = trackIds;
+        this.lengths = lengths;
+        this.maxSpeeds = maxSpeeds;
+        this.nextTracks = nextTracks;
+        this.curves = curves;
+        this.arcScales = new double[curves.length];
+        for (int i = 0; i < curves.length; i++) {
+            arcScales[i] = lengths[i] > 0.0 ? curves[i].length() / lengths[i] : 0.0;
+        }
+        this.indexById = new HashMap<>(trackIds.length * 2);
+        for (int i = 0; i < trackIds.length; i++) {
+            indexById.put(trackIds[i], i);
+        }
+    }
+
+    /**
+     * 線路を持たない空の線路網
+     */
+    public static TrackNetwork empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 線路エンティティから線路網を構築（曲線は毎回構築する）
+     */
+    public static TrackNetwork fromEntities(List<TrackEntity> tracks) {
+        return fromEntities(tracks, TrackCurve::fromEntity);
+    }
+
+    /**
+     * 線路エンティティから線路網を構築
+     * 終了接続点を開始接続点に持つ線路を、その線路の次の線路とする（複数ある場合は最初の1本）。
+     * @param curves 線路の曲線の取得方法（{@link TrackCurveCache#curveOf} など）
+     */
+    public static TrackNetwork fromEntities(List<TrackEntity> tracks, Function<TrackEntity, TrackCurve> curves) {
+        int n = tracks.size();
+        String[] ids = new String[n];
+        double[] lengths = new double[n];
+        double[] maxSpeeds = new double[n];
+        TrackCurve[] trackCurves = new TrackCurve[n];
+        Map<String, Integer> firstTrackByStartJunction = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            TrackEntity track = tracks.get(i);
+            ids[i] = track.getId();
+            lengths[i] = track.getLength();
+            maxSpeeds[i] = track.getMaxSpeed();
+            trackCurves[i] = curves.apply(track);
+            if (track.getStartJunctionId() != null) {
+                firstTrackByStartJunction.putIfAbsent(track.getStartJunctionId(), i);
+            }
+        }
+        int[] next = new int[n];
+        Arrays.fill(next, NO_TRACK);
+        for (int i = 0; i < n; i++) {
+            String endJunctionId = tracks.get(i).getEndJunctionId();
+            if (endJunctionId != null) {
+                next[i] = firstTrackByStartJunction.getOrDefault(endJunctionId, NO_TRACK);
+            }
+        }
+        return new TrackNetwork(ids, lengths, maxSpeeds, next, trackCurves);
+    }
+
+    /**
+     * 配列から直接線路網を構築（テスト用）
+     */
+    public static TrackNetwork of(String[] trackIds, double[] lengths, double[] maxSpeeds, int[] nextTracks) {
+        return of(trackIds, lengths, maxSpeeds, nextTracks, new double[trackIds.length * 4]);
+    }
+
+    /**
+     * 座標付きの配列から直接線路網を構築（テスト・ベンチマーク用）
+     * @param endpoints 線路ごとの startX, startY, endX, endY を順に並べた配列
+     */
+    public static TrackNetwork of(String[] trackIds, double[] lengths, double[] maxSpeeds, int[] nextTracks,
+                                  double[] endpoints) {
+        if (trackIds.length != lengths.length || trackIds.length != maxSpeeds.length
+                || trackIds.length != nextTracks.length || trackIds.length * 4 != endpoints.length) {
+            throw new IllegalArgumentException("Track arrays must have the same length");
+        }
+        TrackCurve[] curves = new TrackCurve[trackIds.length];
+        for (int i = 0; i < curves.length; i++) {
+            curves[i] = TrackCurve.of(
+                new double[] {endpoints[i * 4], endpoints[i * 4 + 2]},
+                new double[] {endpoints[i * 4 + 1], endpoints[i * 4 + 3]},
+                new double[2]);
+        }
+        return new TrackNetwork(trackIds.clone(), lengths.clone(), maxSpeeds.clone(), nextTracks.clone(), curves);
+    }
+
+    /**
+     * 配列と曲線から直接線路網を構築（スナップショット復元用）
+     */
+    public static TrackNetwork of(String[] trackIds, double[] lengths, double[] maxSpeeds, int[] nextTracks,
+                                  TrackCurve[] curves) {
+        if (trackIds.length != lengths.length || trackIds.length != maxSpeeds.length
+                || trackIds.length != nextTracks.length || trackIds.length != curves.length) {
+            throw new IllegalArgumentException("Track arrays must have the same length");
+        }
+        return new TrackNetwork(trackIds.clone(), lengths.clone(), maxSpeeds.clone(), nextTracks.clone(),
+            curves.clone());
+    }
+
+    public int size() {
+        return trackIds.length;
+    }
+
+    /**
+     * 線路IDから添字を取得
+     * @return 添字。存在しない場合は {@link #NO_TRACK}
+     */
+    public int indexOf(String trackId) {
+        Integer index = indexById.get(trackId);
+        return index == null ? NO_TRACK : index;
+    }
+
+    public String trackId(int index) {
+        return trackIds[index];
+    }
+
+    public double length(int index) {
+        return lengths[index];
+    }
+
+    public double maxSpeed(int index) {
+        return maxSpeeds[index];
+    }
+
+    /**
+     * 次の線路の添字
+     * @return 添字。行き止まりの場合は {@link #NO_TRACK}
+     */
+    public int next(int index) {
+        return nextTracks[index];
+    }
+
+    /**
+     * 線路の曲線
+     */
+    public TrackCurve curve(int index) {
+        return curves[index];
+    }
+
+    /**
+     * 線路上の位置（始点からの距離）のX座標
+     * 位置は線路長に対する割合で曲線の弧長に換算する。
+     */
+    public double x(int index, double position) {
+        return curves[index].x(position * arcScales[index]);
+    }
+
+    /**
+     * 線路上の位置（始点からの距離）のY座標
+     */
+    public double y(int index, double position) {
+        return curves[index].y(position * arcScales[index]);
+    }
+}
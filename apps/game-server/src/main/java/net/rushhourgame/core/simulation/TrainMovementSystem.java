@@ -0,0 +1,101 @@
+package net.rushhourgame.core.simulation;
+
+import net.rushhourgame.core.event.EventPartition;
+import net.rushhourgame.models.common.TrainOperationState;
+import net.rushhourgame.models.event.EventType;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 電車を線路に沿って走行させるシステム
+ * 線路の最高速度まで加速し、行き止まりの手前では制動距離に応じて減速・停車する。
+ * 次の線路へ進む前に {@link BlockReservations} で進入許可を取り、許可が出ない間は線路の終端を停止位置とする
+ * （信号待ちの電車は運行状態を変えず、許可が出れば走行を再開する）。
+ * 線路への進入と終端での停車はイベントとして発行する。
+ * {@link TrainStateStore} の配列を直接走査し、ティック中はオブジェクトを割り当てない。
+ */
+@Component
+@Order(100)
+public class TrainMovementSystem implements SimulationSystem {
+
+    private final SimulationWorld world;
+    private final double acceleration;
+    private final double deceleration;
+
+    public TrainMovementSystem(SimulationWorld world, SimulationProperties properties) {
+        this.world = world;
+        this.acceleration = properties.getAcceleration();
+        this.deceleration = properties.getDeceleration();
+    }
+
+    @Override
+    public void update(long tick, double deltaSeconds) {
+        TrackNetwork network = world.getNetwork();
+        TrainStateStore trains = world.getTrains();
+        BlockReservations reservations = world.getReservations();
+        EventPartition events = world.getEvents();
+        double[] positions = trains.positions();
+        double[] speeds = trains.speeds();
+        int[] trackIndices = trains.trackIndices();
+        byte[] states = trains.states();
+        byte stopped = TrainStateStore.encode(TrainOperationState.STOPPED);
+
+        for (int i = 0, n = trains.highWaterMark(); i < n; i++) {
+            if (!TrainStateStore.canMove(states[i])) {
+                continue;
+            }
+            int track = trackIndices[i];
+            double position = positions[i];
+            double speed = speeds[i];
+
+            double limit = network.maxSpeed(track);
+            double remaining = network.length(track) - position;
+            double brakingDistance = speed * speed / (2.0 * deceleration);
+            int nextTrack = network.next(track);
+            double distanceToStop = Double.POSITIVE_INFINITY;
+            if (nextTrack == TrackNetwork.NO_TRACK) {
+                distanceToStop = remaining;
+            } else {
+                // 最高速度からの制動距離に入ったら進入許可を求め、出なければ終端を停止位置とする
+                double sightSpeed = Math.max(speed, limit);
+                double sightDistance = sightSpeed * sightSpeed / (2.0 * deceleration) + sightSpeed * deltaSeconds;
+                if (sightDistance >= remaining && !reservations.requestEntry(i, track, nextTrack)) {
+                    distanceToStop = remaining;
+                }
+            }
+
+            if (brakingDistance >= distanceToStop) {
+                speed = Math.max(0.0, speed - deceleration * deltaSeconds);
+            } else if (speed > limit) {
+                speed = Math.max(limit, speed - deceleration * deltaSeconds);
+            } else if (speed < limit) {
+                speed = Math.min(limit, speed + acceleration * deltaSeconds);
+            }
+
+            position += speed * deltaSeconds;
+            while (position >= network.length(track)) {
+                int next = network.next(track);
+                if (next == TrackNetwork.NO_TRACK) {
+                    position = network.length(track);
+                    speed = 0.0;
+                    states[i] = stopped;
+                    events.publish(EventType.TRAIN_ARRIVED, i, track, 0.0);
+                    break;
+                }
+                if (!reservations.requestEntry(i, track, next)) {
+                    position = network.length(track);
+                    speed = 0.0;
+                    break;
+                }
+                reservations.onEnter(i, track, next);
+                position -= network.length(track);
+                track = next;
+                events.publish(EventType.TRAIN_ENTERED_TRACK, i, track, speed);
+            }
+
+            trackIndices[i] = track;
+            positions[i] = position;
+            speeds[i] = speed;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package net.rushhourgame.core.simulation;
+
+import net.rushhourgame.core.snapshot.SnapshotInput;
+import net.rushhourgame.core.snapshot.SnapshotOutput;
+import net.rushhourgame.models.common.TrainOperationState;
+import net.rushhourgame.models.common.TrainType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 電車のライブ状態を保持するStructure-of-Arrays形式のストア
+ * 状態はint添字で参照するプリミティブ配列に格納し、ティック処理でのポインタ追跡とGC負荷を避ける。
+ * 添字は電車が撤去されるまで変わらず、撤去で空いた添字は次の追加で再利用する。
+ * ティックスレッドからのみ変更すること。
+ */
+public class TrainStateStore {
+
+    /**
+     * 電車が存在しないことを表す添字
+     */
+    public static final int NO_TRAIN = -1;
+
+    /**
+     * 空き添字を表す状態値
+     */
+    public static final byte STATE_FREE = -1;
+
+    private static final TrainOperationState[] STATES = TrainOperationState.values();
+    private static final TrainType[] TYPES = TrainType.values();
+    private static final boolean[] CAN_MOVE = new boolean[STATES.length];
+
+    static {
+        for (TrainOperationState state : STATES) {
+            CAN_MOVE[state.ordinal()] = state.canMove();
+        }
+    }
+
+    private String[] ids;
+    private double[] positions;
+    private double[] speeds;
+    private int[] trackIndices;
+    private byte[] states;
+    private byte[] types;
+
+    private final Map<String, Integer> indexById = new HashMap<>();
+    private int[] freeIndices = new int[16];
+    private int freeCount;
+    private int highWaterMark;
+
+    public TrainStateStore() {
+        this(1024);
+    }
+
+    public TrainStateStore(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        ids = new String[capacity];
+        positions = new double[capacity];
+        speeds = new double[capacity];
+        trackIndices = new int[capacity];
+        states = new byte[capacity];
+        types = new byte[capacity];
+        Arrays.fill(states, STATE_FREE);
+    }
+
+    /**
+     * 運行状態をbyte値に変換
+     */
+    public static byte encode(TrainOperationState state) {
+        return (byte) state.ordinal();
+    }
+
+    /**
+     * byte値を運行状態に変換
+     */
+    public static TrainOperationState decode(byte state) {
+        return STATES[state];
+    }
+
+    /**
+     * byte値の運行状態で移動可能かを判定（ティック処理用）
+     */
+    public static boolean canMove(byte state) {
+        return state >= 0 && CAN_MOVE[state];
+    }
+
+    /**
+     * 普通電車として追加（停車状態）
+     * @return 割り当てた添字
+     */
+    public int add(String trainId, int trackIndex, double position) {
+        return add(trainId, trackIndex, position, TrainType.LOCAL);
+    }
+
+    /**
+     * 電車を追加（停車状態）
+     * @return 割り当てた添字
+     */
+    public int add(String trainId, int trackIndex, double position, TrainType type) {
+        if (indexById.containsKey(trainId)) {
+            throw new IllegalArgumentException("Train already exists: " + trainId);
+        }
+        int index;
+        if (freeCount > 0) {
+            index = freeIndices[--freeCount];
+        } else {
+            index = highWaterMark++;
+            ensureCapacity(highWaterMark);
+        }
+        ids[index] = trainId;
+        trackIndices[index] = trackIndex;
+        positions[index] = position;
+        speeds[index] = 0.0;
+        states[index] = encode(TrainOperationState.STOPPED);
+        types[index] = (byte) type.ordinal();
+        indexById.put(trainId, index);
+        return index;
+    }
+
+    /**
+     * 電車を削除
+     * @return 削除した場合true
+     */
+    public boolean remove(String trainId) {
+        Integer index = indexById.remove(trainId);
+        if (index == null) {
+            return false;
+        }
+        ids[index] = null;
+        speeds[index] = 0.0;
+        states[index] = STATE_FREE;
+        if (freeCount == freeIndices.length) {
+            freeIndices = Arrays.copyOf(freeIndices, freeCount * 2);
+        }
+        freeIndices[freeCount++] = index;
+        return true;
+    }
+
+    /**
+     * 電車IDから添字を取得
+     * @return 添字。存在しない場合は {@link #NO_TRAIN}
+     */
+    public int indexOf(String trainId) {
+        Integer index = indexById.get(trainId);
+        return index == null ? NO_TRAIN : index;
+    }
+
+    public String idAt(int index) {
+        return ids[index];
+    }
+
+    /**
+     * 添字が使用中かを判定
+     */
+    public boolean isAlive(int index) {
+        return states[index] != STATE_FREE;
+    }
+
+    /**
+     * 登録されている電車数
+     */
+    public int size() {
+        return indexById.size();
+    }
+
+    /**
+     * 走査対象となる添字の上限（この値未満の添字を isAlive で判定しながら走査する）
+     */
+    public int highWaterMark() {
+        return highWaterMark;
+    }
+
+    public TrainOperationState state(int index) {
+        return decode(states[index]);
+    }
+
+    public void setState(int index, TrainOperationState state) {
+        states[index] = encode(state);
+    }
+
+    public TrainType type(int index) {
+        return TYPES[types[index]];
+    }
+
+    public double position(int index) {
+        return positions[index];
+    }
+
+    public double speed(int index) {
+        return speeds[index];
+    }
+
+    public int trackIndex(int index) {
+        return trackIndices[index];
+    }
+
+    // ティック処理用の配列アクセス。配列は追加時に再確保されるため、ティックをまたいで保持しないこと。
+
+    public double[] positions() {
+        return positions;
+    }
+
+    public double[] speeds() {
+        return speeds;
+    }
+
+    public int[] trackIndices() {
+        return trackIndices;
+    }
+
+    public byte[] states() {
+        return states;
+    }
+
+    /**
+     * 同じ内容の独立したストア（スナップショットの取得用）
+     */
+    public TrainStateStore copy() {
+        TrainStateStore copy = new TrainStateStore(1);
+        copy.ids = ids.clone();
+        copy.positions = positions.clone();
+        copy.speeds = speeds.clone();
+        copy.trackIndices = trackIndices.clone();
+        copy.states = states.clone();
+        copy.types = types.clone();
+        copy.indexById.putAll(indexById);
+        copy.freeIndices = freeIndices.clone();
+        copy.freeCount = freeCount;
+        copy.highWaterMark = highWaterMark;
+        return copy;
+    }
+
+    /**
+     * 添字の割り当て（空き添字の順序を含む）ごと書き出す
+     */
+    public void writeTo(SnapshotOutput out) {
+        out.putInt(highWaterMark);
+        for (int i = 0; i < highWaterMark; i++) {
+            out.putByte(states[i]);
+            if (states[i] != STATE_FREE) {
+                out.putString(ids[i]);
+                out.putInt(trackIndices[i]);
+                out.putDouble(positions[i]);
+                out.putDouble(speeds[i]);
+                out.putByte(types[i]);
+            }
+        }
+        out.putInts(freeIndices, freeCount);
+    }
+
+    /**
+     * {@link #writeTo} で書き出した内容に置き換える
+     */
+    public void readFrom(SnapshotInput in) {
+        int count = in.getInt();
+        int capacity = Math.max(1, count);
+        ids = new String[capacity];
+        positions = new double[capacity];
+        speeds = new double[capacity];
+        trackIndices = new int[capacity];
+        states = new byte[capacity];
+        types = new byte[capacity];
+        Arrays.fill(states, STATE_FREE);
+        indexById.clear();
+        for (int i = 0; i < count; i++) {
+            states[i] = in.getByte();
+            if (states[i] != STATE_FREE) {
+                ids[i] = in.getString();
+                trackIndices[i] = in.getInt();
+                positions[i] = in.getDouble();
+                speeds[i] = in.getDouble();
+                types[i] = in.getByte();
+                indexById.put(ids[i], i);
+            }
+        }
+        int[] free = in.getInts();
+        freeIndices = Arrays.copyOf(free, Math.max(16, free.length));
+        freeCount = free.length;
+        highWaterMark = count;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length * 2);
+        int oldCapacity = ids.length;
+        ids = Arrays.copyOf(ids, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        speeds = Arrays.copyOf(speeds, capacity);
+        trackIndices = Arrays.copyOf(trackIndices, capacity);
+        states = Arrays.copyOf(states, capacity);
+        types = Arrays.copyOf(types, capacity);
+        Arrays.fill(states, oldCapacity, capacity, STATE_FREE);
+    }
+}
@@ -0,0 +1,195 @@
+package net.rushhourgame.core.simulation;
+
+import net.rushhourgame.core.snapshot.SnapshotInput;
+import net.rushhourgame.core.snapshot.SnapshotOutput;
+import net.rushhourgame.models.common.TrainType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 信号待ちの電車の待ちグラフのスナップショット（不変）
+ * 電車は同時に1台の電車だけを待つため、各頂点の出次数は高々1となり、循環は辺を辿るだけで見つけられる。
+ * ティックスレッドで取得し、循環の検出は別スレッドで行う。
+ */
+public final class WaitForGraph {
+
+    private static final TrainType[] TYPES = TrainType.values();
+
+    private final long tick;
+    private final long capturedNanos;
+    private final int[] trains;
+    private final int[] blockers;
+    private final TrainType[] types;
+
+    private WaitForGraph(long tick, long capturedNanos, int[] trains, int[] blockers, TrainType[] types) {
+        this.tick = tick;
+        this.capturedNanos = capturedNanos;
+        this.trains = trains;
+        this.blockers = blockers;
+        this.types = types;
+    }
+
+    /**
+     * 現在の待ち状態を取得する（ティックスレッドから呼び出すこと）
+     */
+    public static WaitForGraph capture(long tick, TrainStateStore store, BlockReservations reservations) {
+        int n = store.highWaterMark();
+        int[] trains = new int[16];
+        int[] blockers = new int[16];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            int blocker = reservations.blockerOf(i);
+            if (blocker == TrainStateStore.NO_TRAIN || !store.isAlive(i)) {
+                continue;
+            }
+            if (count == trains.length) {
+                trains = Arrays.copyOf(trains, count * 2);
+                blockers = Arrays.copyOf(blockers, count * 2);
+            }
+            trains[count] = i;
+            blockers[count] = blocker;
+            count++;
+        }
+        TrainType[] types = new TrainType[count];
+        for (int k = 0; k < count; k++) {
+            types[k] = store.type(trains[k]);
+        }
+        return new WaitForGraph(tick, System.nanoTime(), Arrays.copyOf(trains, count),
+            Arrays.copyOf(blockers, count), types);
+    }
+
+    /**
+     * 辺を直接指定して構築（テスト用）
+     */
+    public static WaitForGraph of(int[] trains, int[] blockers, TrainType[] types) {
+        return new WaitForGraph(0L, System.nanoTime(), trains.clone(), blockers.clone(), types.clone());
+    }
+
+    /**
+     * 取得したティックと辺を書き出す（取得時刻は書き出さない）
+     */
+    public void writeTo(SnapshotOutput out) {
+        out.putLong(tick);
+        out.putInts(trains, trains.length);
+        out.putInts(blockers, blockers.length);
+        for (TrainType type : types) {
+            out.putByte((byte) type.ordinal());
+        }
+    }
+
+    /**
+     * {@link #writeTo} で書き出した待ちグラフを読み込む（取得時刻は読み込んだ時刻とする）
+     */
+    public static WaitForGraph readFrom(SnapshotInput in) {
+        long tick = in.getLong();
+        int[] trains = in.getInts();
+        int[] blockers = in.getInts();
+        TrainType[] types = new TrainType[trains.length];
+        for (int k = 0; k < types.length; k++) {
+            types[k] = TYPES[in.getByte()];
+        }
+        return new WaitForGraph(tick, System.nanoTime(), trains, blockers, types);
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * 取得時刻（System.nanoTime）
+     */
+    public long getCapturedNanos() {
+        return capturedNanos;
+    }
+
+    /**
+     * 信号待ちの電車の数
+     */
+    public int size() {
+        return trains.length;
+    }
+
+    /**
+     * 待ちの循環をすべて求める
+     * 各頂点を一度だけ辿るため、待っている電車の数に比例する。
+     * @return 循環ごとの電車の添字（待つ側から待たれる側の順）
+     */
+    public List<int[]> findCycles() {
+        int maxTrain = -1;
+        for (int train : trains) {
+            maxTrain = Math.max(maxTrain, train);
+        }
+        int[] vertexOf = new int[maxTrain + 1];
+        Arrays.fill(vertexOf, -1);
+        for (int k = 0; k < trains.length; k++) {
+            vertexOf[trains[k]] = k;
+        }
+        // 0: 未訪問、正の値: その値の探索で訪問中、-1: 探索済み
+        int[] visited = new int[trains.length];
+        List<int[]> cycles = new ArrayList<>();
+        for (int start = 0; start < trains.length; start++) {
+            if (visited[start] != 0) {
+                continue;
+            }
+            int walk = start + 1;
+            int k = start;
+            while (k >= 0 && visited[k] == 0) {
+                visited[k] = walk;
+                int blocker = blockers[k];
+                k = blocker <= maxTrain ? vertexOf[blocker] : -1;
+            }
+            if (k >= 0 && visited[k] == walk) {
+                cycles.add(extractCycle(k, vertexOf));
+            }
+            for (int v = start; v >= 0 && visited[v] == walk; ) {
+                visited[v] = -1;
+                int blocker = blockers[v];
+                v = blocker <= maxTrain ? vertexOf[blocker] : -1;
+            }
+        }
+        return cycles;
+    }
+
+    /**
+     * 循環の中で譲らせる電車（種別の優先度が最も低く、同じ場合は添字の大きい電車）
+     */
+    public int chooseVictim(int[] cycle) {
+        int victim = cycle[0];
+        TrainType victimType = typeOf(victim);
+        for (int i = 1; i < cycle.length; i++) {
+            TrainType type = typeOf(cycle[i]);
+            if (victimType.hasHigherPriorityThan(type)
+                    || (!type.hasHigherPriorityThan(victimType) && cycle[i] > victim)) {
+                victim = cycle[i];
+                victimType = type;
+            }
+        }
+        return victim;
+    }
+
+    private TrainType typeOf(int train) {
+        for (int k = 0; k < trains.length; k++) {
+            if (trains[k] == train) {
+                return types[k];
+            }
+        }
+        return TrainType.LOCAL;
+    }
+
+    private int[] extractCycle(int entry, int[] vertexOf) {
+        int length = 0;
+        int k = entry;
+        do {
+            length++;
+            k = vertexOf[blockers[k]];
+        } while (k != entry);
+        int[] cycle = new int[length];
+        for (int i = 0; i < length; i++) {
+            cycle[i] = trains[k];
+            k = vertexOf[blockers[k]];
+        }
+        return cycle;
+    }
+}
@@ -0,0 +1,227 @@
+package net.rushhourgame.core.snapshot;
+
+import net.rushhourgame.core.simulation.SignalLayout;
+import net.rushhourgame.core.simulation.TrackCurve;
+import net.rushhourgame.core.simulation.TrackNetwork;
+import net.rushhourgame.core.stationflow.StationLayout;
+import net.rushhourgame.core.timetable.TimetableIndex;
+import net.rushhourgame.core.timetable.TimetableTrip;
+import net.rushhourgame.models.common.SignalType;
+
+import java.io.IOException;
+
+/**
+ * 不変の配置（線路網・信号機配置・駅の配置・時刻表）のバイナリ形式
+ * スナップショットの本体と、再読み込みのコマンドのジャーナルへの記録で同じ形式を使う。
+ */
+public final class LayoutCodec {
+
+    private LayoutCodec() {
+    }
+
+    /**
+     * 線路網（線路ごとの長さ・最高速度・次の線路・曲線の頂点）
+     */
+    public static void writeNetwork(SnapshotOutput out, TrackNetwork network) {
+        int n = network.size();
+        out.putInt(n);
+        for (int i = 0; i < n; i++) {
+            out.putString(network.trackId(i));
+            out.putDouble(network.length(i));
+            out.putDouble(network.maxSpeed(i));
+            out.putInt(network.next(i));
+            TrackCurve curve = network.curve(i);
+            int vertices = curve.vertexCount();
+            out.putInt(vertices);
+            for (int v = 0; v < vertices; v++) {
+                out.putDouble(curve.vertexX(v));
+                out.putDouble(curve.vertexY(v));
+                out.putDouble(curve.vertexZ(v));
+            }
+        }
+    }
+
+    /**
+     * {@link #writeNetwork} で書き出した線路網
+     */
+    public static TrackNetwork readNetwork(SnapshotInput in) {
+        int n = in.getInt();
+        String[] ids = new String[n];
+        double[] lengths = new double[n];
+        double[] maxSpeeds = new double[n];
+        int[] next = new int[n];
+        TrackCurve[] curves = new TrackCurve[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = in.getString();
+            lengths[i] = in.getDouble();
+            maxSpeeds[i] = in.getDouble();
+            next[i] = in.getInt();
+            int vertices = in.getInt();
+            double[] xs = new double[vertices];
+            double[] ys = new double[vertices];
+            double[] zs = new double[vertices];
+            for (int v = 0; v < vertices; v++) {
+                xs[v] = in.getDouble();
+                ys[v] = in.getDouble();
+                zs[v] = in.getDouble();
+            }
+            curves[i] = TrackCurve.of(xs, ys, zs);
+        }
+        return TrackNetwork.of(ids, lengths, maxSpeeds, next, curves);
+    }
+
+    /**
+     * 信号機配置（線路数は線路網に合わせる）
+     */
+    public static void writeSignals(SnapshotOutput out, SignalLayout signals, int trackCount) {
+        int n = signals.size();
+        out.putInt(n);
+        int[] protectedStart = new int[n + 1];
+        for (int s = 0; s < n; s++) {
+            out.putString(signals.signalId(s));
+            out.putString(signals.type(s).name());
+            protectedStart[s + 1] = signals.protectedEnd(s);
+        }
+        out.putInts(protectedStart, n + 1);
+        int[] protectedTracks = new int[protectedStart[n]];
+        for (int slot = 0; slot < protectedTracks.length; slot++) {
+            protectedTracks[slot] = signals.protectedTrack(slot);
+        }
+        out.putInts(protectedTracks, protectedTracks.length);
+        int[] signalByTrack = new int[trackCount];
+        for (int track = 0; track < trackCount; track++) {
+            signalByTrack[track] = signals.signalAt(track);
+        }
+        out.putInts(signalByTrack, trackCount);
+    }
+
+    /**
+     * {@link #writeSignals} で書き出した信号機配置
+     * @throws IOException 線路網の線路数と合わない場合
+     */
+    public static SignalLayout readSignals(SnapshotInput in, int trackCount) throws IOException {
+        int n = in.getInt();
+        String[] ids = new String[n];
+        SignalType[] types = new SignalType[n];
+        for (int s = 0; s < n; s++) {
+            ids[s] = in.getString();
+            types[s] = SignalType.valueOf(in.getString());
+        }
+        int[] protectedStart = in.getInts();
+        int[] protectedTracks = in.getInts();
+        int[] signalByTrack = in.getInts();
+        if (signalByTrack.length != trackCount) {
+            throw new IOException("Signal layout does not match the track network");
+        }
+        return SignalLayout.of(ids, types, protectedStart, protectedTracks, signalByTrack);
+    }
+
+    /**
+     * 駅の配置
+     */
+    public static void writeStations(SnapshotOutput out, StationLayout layout) {
+        int n = layout.size();
+        out.putInt(n);
+        for (int i = 0; i < n; i++) {
+            out.putString(layout.stationId(i));
+            out.putDouble(layout.gateRate(i));
+            out.putDouble(layout.corridorRate(i));
+            out.putDouble(layout.corridorSeconds(i));
+            out.putInt(layout.platformCapacity(i));
+        }
+    }
+
+    /**
+     * {@link #writeStations} で書き出した駅の配置
+     */
+    public static StationLayout readStations(SnapshotInput in) {
+        int n = in.getInt();
+        String[] stationIds = new String[n];
+        double[] gateRates = new double[n];
+        double[] corridorRates = new double[n];
+        double[] corridorSeconds = new double[n];
+        int[] platformCapacities = new int[n];
+        for (int i = 0; i < n; i++) {
+            stationIds[i] = in.getString();
+            gateRates[i] = in.getDouble();
+            corridorRates[i] = in.getDouble();
+            corridorSeconds[i] = in.getDouble();
+            platformCapacities[i] = in.getInt();
+        }
+        return StationLayout.of(stationIds, gateRates, corridorRates, corridorSeconds, platformCapacities);
+    }
+
+    /**
+     * 時刻表の索引（運行の枠の番号を保つ）
+     */
+    public static void writeTimetable(SnapshotOutput out, TimetableIndex timetable) {
+        int stations = timetable.stationCount();
+        out.putInt(stations);
+        for (int s = 0; s < stations; s++) {
+            out.putString(timetable.stationId(s));
+        }
+        int capacity = timetable.tripCapacity();
+        out.putInt(capacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            TimetableTrip trip = timetable.trip(slot);
+            out.putBoolean(trip != null);
+            if (trip == null) {
+                continue;
+            }
+            writeTrip(out, trip);
+        }
+    }
+
+    /**
+     * 運行1件
+     */
+    public static void writeTrip(SnapshotOutput out, TimetableTrip trip) {
+        out.putString(trip.scheduleId());
+        out.putString(trip.routeId());
+        out.putString(trip.trainId());
+        int stops = trip.stopCount();
+        out.putInt(stops);
+        for (int stop = 0; stop < stops; stop++) {
+            out.putString(trip.stationId(stop));
+            out.putInt(trip.arrival(stop));
+            out.putInt(trip.departure(stop));
+        }
+    }
+
+    /**
+     * {@link #writeTimetable} で書き出した時刻表の索引
+     */
+    public static TimetableIndex readTimetable(SnapshotInput in) {
+        String[] stationIds = new String[in.getInt()];
+        for (int s = 0; s < stationIds.length; s++) {
+            stationIds[s] = in.getString();
+        }
+        TimetableTrip[] trips = new TimetableTrip[in.getInt()];
+        for (int slot = 0; slot < trips.length; slot++) {
+            if (!in.getBoolean()) {
+                continue;
+            }
+            trips[slot] = readTrip(in);
+        }
+        return TimetableIndex.restore(stationIds, trips);
+    }
+
+    /**
+     * {@link #writeTrip} で書き出した運行
+     */
+    public static TimetableTrip readTrip(SnapshotInput in) {
+        String scheduleId = in.getString();
+        String routeId = in.getString();
+        String trainId = in.getString();
+        int stops = in.getInt();
+        String[] stopStations = new String[stops];
+        int[] arrivals = new int[stops];
+        int[] departures = new int[stops];
+        for (int stop = 0; stop < stops; stop++) {
+            stopStations[stop] = in.getString();
+            arrivals[stop] = in.getInt();
+            departures[stop] = in.getInt();
+        }
+        return new TimetableTrip(scheduleId, routeId, trainId, stopStations, arrivals, departures);
+    }
+}
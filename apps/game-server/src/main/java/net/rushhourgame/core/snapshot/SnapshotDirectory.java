@@ -0,0 +1,124 @@
+package net.rushhourgame.core.snapshot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * スナップショットファイルの置き場所
+ * ファイル名はティックを0埋めした world-%016d.snap とし、名前の順がティックの順になる。
+ * 一時ファイルに書いてディスクに書き出してから名前を変えるため、途中で終了しても壊れたファイルは残らない。
+ */
+final class SnapshotDirectory {
+
+    static final String PREFIX = "world-";
+    static final String SUFFIX = ".snap";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotDirectory.class);
+
+    private final Path directory;
+    private final int retain;
+
+    SnapshotDirectory(Path directory, int retain) {
+        this.directory = directory;
+        this.retain = Math.max(1, retain);
+    }
+
+    Path directory() {
+        return directory;
+    }
+
+    static String fileName(long tick) {
+        return String.format("%s%016d%s", PREFIX, tick, SUFFIX);
+    }
+
+    /**
+     * スナップショットを書き込み、保持数を超えた古いファイルを削除する
+     * @return 書き込んだバイト数
+     */
+    long write(long tick, ByteBuffer body) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(fileName(tick));
+        Path temporary = directory.resolve(fileName(tick) + TEMPORARY_SUFFIX);
+        ByteBuffer[] buffers = {WorldSnapshotCodec.header(tick, body), body.duplicate()};
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffers[1].hasRemaining()) {
+                written += channel.write(buffers);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        prune();
+        return written;
+    }
+
+    /**
+     * スナップショットファイルを新しい順に列挙する
+     * @param maxTick このティック以前のファイルだけを返す（負の場合はすべて）
+     */
+    List<Path> newestFirst(long maxTick) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing
+                .filter(file -> tickOf(file) >= 0)
+                .filter(file -> maxTick < 0 || tickOf(file) <= maxTick)
+                .sorted(Comparator.comparing((Path file) -> file.getFileName().toString()).reversed())
+                .toList();
+        }
+    }
+
+    /**
+     * ファイルをメモリマップで開く（ファイルを閉じても領域は参照できる）
+     */
+    static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * ファイル名のティック
+     * @return スナップショットファイルでない場合は-1
+     */
+    static long tickOf(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name, PREFIX.length(), name.length() - SUFFIX.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void prune() throws IOException {
+        List<Path> snapshots = newestFirst(-1);
+        for (Path stale : snapshots.subList(Math.min(retain, snapshots.size()), snapshots.size())) {
+            Files.deleteIfExists(stale);
+            logger.debug("Deleted old snapshot {}", stale);
+        }
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path temporary : listing.filter(file -> file.getFileName().toString().endsWith(TEMPORARY_SUFFIX))
+                    .toList()) {
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package net.rushhourgame.core.snapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * スナップショットの書き込み先（必要に応じて拡張するリトルエンディアンのバッファ）
+ * 文字列は長さ（int、null は -1）とUTF-8のバイト列で書く。
+ */
+public final class SnapshotOutput {
+
+    private ByteBuffer buffer;
+
+    public SnapshotOutput(int initialCapacity) {
+        buffer = ByteBuffer.allocate(Math.max(64, initialCapacity)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public int position() {
+        return buffer.position();
+    }
+
+    /**
+     * 確保した領域を残したまま位置0から書き直す
+     */
+    public void clear() {
+        buffer.clear();
+    }
+
+    public void putByte(byte value) {
+        ensure(Byte.BYTES).put(value);
+    }
+
+    public void putBoolean(boolean value) {
+        putByte(value ? (byte) 1 : 0);
+    }
+
+    public void putShort(short value) {
+        ensure(Short.BYTES).putShort(value);
+    }
+
+    public void putInt(int value) {
+        ensure(Integer.BYTES).putInt(value);
+    }
+
+    public void putLong(long value) {
+        ensure(Long.BYTES).putLong(value);
+    }
+
+    public void putFloat(float value) {
+        ensure(Float.BYTES).putFloat(value);
+    }
+
+    public void putDouble(double value) {
+        ensure(Double.BYTES).putDouble(value);
+    }
+
+    public void putString(String value) {
+        if (value == null) {
+            putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        ensure(bytes.length).put(bytes);
+    }
+
+    /**
+     * 長さと要素を書く
+     */
+    public void putInts(int[] values, int count) {
+        putInt(count);
+        ensure(count * Integer.BYTES).asIntBuffer().put(values, 0, count);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+    }
+
+    /**
+     * 長さと要素を書く
+     */
+    public void putDoubles(double[] values, int count) {
+        putInt(count);
+        ensure(count * Double.BYTES).asDoubleBuffer().put(values, 0, count);
+        buffer.position(buffer.position() + count * Double.BYTES);
+    }
+
+    /**
+     * 書き込んだ範囲（位置0から）
+     */
+    public ByteBuffer toBuffer() {
+        return buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).flip();
+    }
+
+    private ByteBuffer ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            long required = (long) buffer.position() + bytes;
+            if (required > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Snapshot exceeds 2 GiB");
+            }
+            int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(buffer.capacity() * 2L, required));
+            ByteBuffer grown = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+            grown.put(buffer.flip());
+            buffer = grown;
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,50 @@
+package net.rushhourgame.core.snapshot;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/**
+ * ワールドのスナップショットの設定
+ */
+@Data
+@ConfigurationProperties(prefix = "rushhour.snapshot")
+public class SnapshotProperties {
+
+    /**
+     * 定期的にスナップショットを書き出すか
+     */
+    private boolean enabled = true;
+
+    /**
+     * スナップショットファイルを置くディレクトリ
+     */
+    private Path directory = Path.of("data/snapshots");
+
+    /**
+     * スナップショットを書き出す間隔（ティック数）。終了時にも書き出す
+     */
+    private int intervalTicks = 9_000;
+
+    /**
+     * 書き出すティック以外で、住民の変更を複製へ写しておく1ティックあたりの住民数の上限
+     * 書き出すティックでは残りの変更だけを写すため、ティックが止まる時間が短くなる。
+     */
+    private int syncResidentsPerTick = 65_536;
+
+    /**
+     * 残すスナップショットの数（古いものから削除する）
+     */
+    private int retain = 3;
+
+    /**
+     * 起動時に最新のスナップショットから復元するか（復元した場合はデータベースから読み込まない）
+     */
+    private boolean restoreOnStartup = true;
+
+    /**
+     * 復元するスナップショットのティックの上限（負の場合は最新。リプレイを途中から始める場合に指定する）
+     */
+    private long restoreTick = -1;
+}
@@ -0,0 +1,127 @@
+package net.rushhourgame.core.snapshot;
+
+import lombok.RequiredArgsConstructor;
+import net.rushhourgame.core.replay.ReplayMode;
+import net.rushhourgame.core.replay.ReplayProperties;
+import net.rushhourgame.core.simulation.SimulationEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * ティックループの開始前に最新のスナップショットからワールドを復元する
+ * ファイルはメモリマップで読み、壊れている場合は1つ前のスナップショットを試す。
+ * 復元した場合、起動完了時の線路網・駅・時刻表の読み込み（データベース）は行わない。
+ * リプレイでは起動時に復元せず、記録を始めたティックのスナップショットだけを {@link #restore} で復元する。
+ */
+@Component
+@RequiredArgsConstructor
+public class SnapshotRestorer implements SmartLifecycle {
+
+    /**
+     * 復元していないことを表すティック
+     */
+    public static final long NOT_RESTORED = -1;
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotRestorer.class);
+
+    private final SnapshotProperties properties;
+    private final ReplayProperties replayProperties;
+    private final SimulationEngine engine;
+
+    private volatile long restoredTick = NOT_RESTORED;
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        running = true;
+        if (!properties.isRestoreOnStartup() || restoredTick != NOT_RESTORED
+            || replayProperties.getMode() == ReplayMode.REPLAY) {
+            return;
+        }
+        try {
+            restoreLatest();
+        } catch (IOException e) {
+            logger.error("Failed to list world snapshots in {}", properties.getDirectory(), e);
+        }
+    }
+
+    /**
+     * 設定したティック以前の最新のスナップショットから復元する
+     * @return 復元したティック（復元できなかった場合は {@link #NOT_RESTORED}）
+     */
+    public long restoreLatest() throws IOException {
+        SnapshotDirectory directory = new SnapshotDirectory(properties.getDirectory(), properties.getRetain());
+        for (Path file : directory.newestFirst(properties.getRestoreTick())) {
+            try {
+                return restore(file);
+            } catch (IOException | RuntimeException e) {
+                // 長さとCRCを検査してからワールドを書き換えるため、壊れたファイルではワールドは変わらない
+                logger.error("World snapshot {} is unreadable, trying the previous one", file.getFileName(), e);
+            }
+        }
+        logger.info("No usable world snapshot in {}, loading from the database", properties.getDirectory());
+        return NOT_RESTORED;
+    }
+
+    /**
+     * 指定したティックのスナップショットから復元する（リプレイの開始時に使う）
+     * @throws IOException 指定したティックのスナップショットがない、または読めない場合
+     */
+    public void restore(long tick) throws IOException {
+        SnapshotDirectory directory = new SnapshotDirectory(properties.getDirectory(), properties.getRetain());
+        for (Path file : directory.newestFirst(tick)) {
+            if (SnapshotDirectory.tickOf(file) == tick) {
+                restore(file);
+                return;
+            }
+        }
+        throw new IOException("No world snapshot at tick " + tick + " in " + properties.getDirectory());
+    }
+
+    private long restore(Path file) throws IOException {
+        long started = System.nanoTime();
+        long tick = WorldSnapshotCodec.restore(SnapshotDirectory.map(file), engine.getWorld());
+        engine.setCurrentTick(tick + 1);
+        restoredTick = tick;
+        logger.info("Restored world snapshot {} at tick {} in {} ms", file.getFileName(), tick,
+            (System.nanoTime() - started) / 1_000_000);
+        return restoredTick;
+    }
+
+    /**
+     * 復元したか
+     */
+    public boolean isRestored() {
+        return restoredTick != NOT_RESTORED;
+    }
+
+    /**
+     * 復元したティック（復元していない場合は {@link #NOT_RESTORED}）
+     */
+    public long getRestoredTick() {
+        return restoredTick;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * ティックループより先に開始する
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1;
+    }
+}
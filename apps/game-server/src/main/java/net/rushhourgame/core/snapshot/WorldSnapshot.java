@@ -0,0 +1,44 @@
+package net.rushhourgame.core.snapshot;
+
+import net.rushhourgame.core.resident.ResidentStore;
+import net.rushhourgame.core.simulation.BlockReservations;
+import net.rushhourgame.core.simulation.DeadlockCheckState;
+import net.rushhourgame.core.simulation.SignalLayout;
+import net.rushhourgame.core.simulation.SimulationWorld;
+import net.rushhourgame.core.simulation.TrackNetwork;
+import net.rushhourgame.core.simulation.TrainStateStore;
+import net.rushhourgame.core.stationflow.StationFlowStore;
+import net.rushhourgame.core.timetable.TimetableIndex;
+
+/**
+ * ティック終了時点のワールドの複製
+ * 不変の線路網・信号機配置・駅の配置・時刻表の索引は参照を共有し、ティックで変わる電車・閉塞予約・待ちの循環の検査状態・住民・駅構内の人数だけを複製する。
+ * 複製はティックスレッドで行い、ファイルへの変換は別のスレッドで行う（その間もティックは進む）。
+ * 住民は数が多いため、定期的な書き出しでは {@link ResidentStore#syncTo} で差分を写し続けた複製を渡す。
+ * @param tick 取得したティック（このティックの実行後の状態）
+ */
+public record WorldSnapshot(long tick, TrackNetwork network, SignalLayout signals, BlockReservations reservations,
+                            DeadlockCheckState deadlockChecks, TrainStateStore trains, ResidentStore residents,
+                            StationFlowStore stationFlows, TimetableIndex timetable) {
+
+    /**
+     * ワールドを複製する（ティックスレッドから呼び出すこと）
+     */
+    public static WorldSnapshot capture(long tick, SimulationWorld world) {
+        BlockReservations reservations = world.getReservations();
+        return new WorldSnapshot(tick, world.getNetwork(), reservations.getLayout(), reservations.copy(),
+            world.getDeadlockChecks().copy(), world.getTrains().copy(), world.getResidents().copy(),
+            world.getStationFlows().copy(), world.getTimetable());
+    }
+
+    /**
+     * 住民以外を複製し、住民は同期済みの複製を使う（ティックスレッドから呼び出すこと）
+     * @param residents ワールドの住民を写し終えた複製（書き出しが終わるまで変更しないこと）
+     */
+    public static WorldSnapshot capture(long tick, SimulationWorld world, ResidentStore residents) {
+        BlockReservations reservations = world.getReservations();
+        return new WorldSnapshot(tick, world.getNetwork(), reservations.getLayout(), reservations.copy(),
+            world.getDeadlockChecks().copy(), world.getTrains().copy(), residents, world.getStationFlows().copy(),
+            world.getTimetable());
+    }
+}
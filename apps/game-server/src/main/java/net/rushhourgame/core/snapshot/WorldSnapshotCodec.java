@@ -0,0 +1,112 @@
+package net.rushhourgame.core.snapshot;
+
+import net.rushhourgame.core.simulation.SignalLayout;
+import net.rushhourgame.core.simulation.SimulationWorld;
+import net.rushhourgame.core.simulation.TrackNetwork;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32C;
+
+/**
+ * スナップショットのバイナリ形式
+ * ヘッダー（マジック・版・ティック・本体の長さ・本体のCRC32C、28バイト）に続けて、
+ * 線路網・信号機配置・電車・閉塞予約・待ちの循環の検査状態・住民・駅構内の人数・時刻表の順に本体を書く（配置は {@link LayoutCodec} の形式）。
+ * 版が変わった場合は読み込まずに起動時の読み込み（データベース）に戻す。
+ */
+final class WorldSnapshotCodec {
+
+    static final int MAGIC = 0x534E5752; // "RWNS"
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 28;
+
+    private static final int INITIAL_CAPACITY = 1 << 20;
+
+    private WorldSnapshotCodec() {
+    }
+
+    /**
+     * ヘッダー
+     */
+    static ByteBuffer header(long tick, ByteBuffer body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        return ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+            .putInt(MAGIC)
+            .putInt(VERSION)
+            .putLong(tick)
+            .putLong(body.remaining())
+            .putInt((int) crc.getValue())
+            .flip();
+    }
+
+    /**
+     * 本体
+     */
+    static ByteBuffer encode(WorldSnapshot snapshot) {
+        return encode(snapshot, new SnapshotOutput(INITIAL_CAPACITY));
+    }
+
+    /**
+     * 本体を out の先頭から書く（返すバッファは out を次に使うまで有効）
+     */
+    static ByteBuffer encode(WorldSnapshot snapshot, SnapshotOutput out) {
+        out.clear();
+        LayoutCodec.writeNetwork(out, snapshot.network());
+        LayoutCodec.writeSignals(out, snapshot.signals(), snapshot.network().size());
+        snapshot.trains().writeTo(out);
+        snapshot.reservations().writeTo(out);
+        snapshot.deadlockChecks().writeTo(out);
+        snapshot.residents().writeTo(out);
+        snapshot.stationFlows().writeTo(out);
+        LayoutCodec.writeTimetable(out, snapshot.timetable());
+        return out.toBuffer();
+    }
+
+    /**
+     * ヘッダーを検査し、記録したティックを返す
+     * @throws IOException スナップショットでない・版が異なる・長さかCRCが合わない場合
+     */
+    static long verify(ByteBuffer data) throws IOException {
+        ByteBuffer buffer = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a world snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported snapshot version " + buffer.getInt(4));
+        }
+        long length = buffer.getLong(16);
+        if (length != buffer.remaining() - HEADER_BYTES) {
+            throw new IOException("Snapshot is truncated");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(HEADER_BYTES, (int) length));
+        if ((int) crc.getValue() != buffer.getInt(24)) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+        return buffer.getLong(8);
+    }
+
+    /**
+     * ヘッダーを検査し、ワールドを書き換える（ティックループの開始前に呼び出すこと）
+     * @return 復元したティック（次はこの次のティックから始める）
+     */
+    static long restore(ByteBuffer data, SimulationWorld world) throws IOException {
+        long tick = verify(data);
+        SnapshotInput in = new SnapshotInput(data.slice(HEADER_BYTES, data.remaining() - HEADER_BYTES));
+        TrackNetwork network = LayoutCodec.readNetwork(in);
+        SignalLayout signals = LayoutCodec.readSignals(in, network.size());
+        world.restoreNetwork(network, signals);
+        world.getTrains().readFrom(in);
+        world.getReservations().readFrom(in);
+        world.getDeadlockChecks().readFrom(in);
+        world.getResidents().readFrom(in);
+        world.getStationFlows().readFrom(in);
+        world.replaceTimetable(LayoutCodec.readTimetable(in));
+        if (in.remaining() != 0) {
+            throw new IOException("Snapshot has " + in.remaining() + " trailing bytes");
+        }
+        return tick;
+    }
+}
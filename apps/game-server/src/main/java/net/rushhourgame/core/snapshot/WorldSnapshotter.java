@@ -0,0 +1,245 @@
+package net.rushhourgame.core.snapshot;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import net.rushhourgame.core.replay.ReplayMode;
+import net.rushhourgame.core.replay.ReplayProperties;
+import net.rushhourgame.core.resident.ResidentStore;
+import net.rushhourgame.core.simulation.SimulationCommand;
+import net.rushhourgame.core.simulation.SimulationRecorder;
+import net.rushhourgame.core.simulation.SimulationWorld;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一定のティックごとにワールドのスナップショットをファイルに書き出す
+ * ティックスレッドはティックの終わりに可変の状態を複製するだけで、変換と書き込みは専用スレッドで行う。
+ * 住民は書き出しの間も使い回す複製を持ち、書き込み中でなければ毎ティック変更の一部を写しておく。
+ * 書き出すティックでは残りの変更だけを写すため、住民数ではなく直近の変更量に比例した時間しか止まらない。
+ * 前の書き込みが終わっていない場合はそのティックを見送る。終了時には最後のティックを書き出す。
+ * リプレイ中は書き出さない。
+ */
+@Component
+public class WorldSnapshotter implements SimulationRecorder, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorldSnapshotter.class);
+
+    private final SnapshotProperties properties;
+    private final SnapshotDirectory directory;
+    private final boolean active;
+    private final int intervalTicks;
+    private final int syncResidentsPerTick;
+    private final ExecutorService writer;
+    private final AtomicBoolean writing = new AtomicBoolean();
+
+    /**
+     * 書き込みスレッドが使い回す変換先（毎回確保し直すとGCでティックスレッドも止まる）
+     */
+    private final SnapshotOutput output = new SnapshotOutput(1 << 20);
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong writtenBytes = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private volatile long lastWrittenTick = -1;
+    private volatile long captureNanos;
+
+    private SimulationWorld lastWorld;
+    private long lastTick = -1;
+
+    /**
+     * 住民の複製（書き込み中は書き込みスレッドが読み、それ以外はティックスレッドが更新する）
+     */
+    private ResidentStore residents;
+    private ResidentStore residentSource;
+
+    public WorldSnapshotter(SnapshotProperties properties, ReplayProperties replayProperties) {
+        this.properties = properties;
+        this.directory = new SnapshotDirectory(properties.getDirectory(), properties.getRetain());
+        this.active = properties.isEnabled() && replayProperties.getMode() != ReplayMode.REPLAY;
+        this.intervalTicks = Math.max(1, properties.getIntervalTicks());
+        this.syncResidentsPerTick = Math.max(1, properties.getSyncResidentsPerTick());
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void onCommand(long tick, SimulationCommand command) {
+        // コマンドの結果はティック終了時のワールドに含まれる
+    }
+
+    @Override
+    public void onTickCompleted(long tick, SimulationWorld world) {
+        lastWorld = world;
+        lastTick = tick;
+        if (!active) {
+            return;
+        }
+        if (tick > 0 && tick % intervalTicks == 0) {
+            capture(tick, world);
+        } else if (!writing.get()) {
+            syncResidents(world, syncResidentsPerTick);
+        }
+    }
+
+    /**
+     * ワールドを複製して書き込みを依頼する（ティックスレッドから呼び出すこと）
+     * @return 書き込み中のため見送った場合false
+     */
+    boolean capture(long tick, SimulationWorld world) {
+        if (!writing.compareAndSet(false, true)) {
+            skipped.incrementAndGet();
+            logger.warn("Previous snapshot is still being written, skipping tick {}", tick);
+            return false;
+        }
+        long started = System.nanoTime();
+        WorldSnapshot snapshot;
+        try {
+            snapshot = WorldSnapshot.capture(tick, world, syncResidents(world, Integer.MAX_VALUE));
+            captureNanos = System.nanoTime() - started;
+        } catch (RuntimeException e) {
+            writing.set(false);
+            throw e;
+        }
+        writer.execute(() -> {
+            try {
+                write(snapshot);
+            } finally {
+                writing.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * 書き込み中のスナップショットがあれば終わるまで待つ
+     */
+    public boolean awaitWritten(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (writing.get()) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    /**
+     * 書き込みスレッドを止め、最後のティックを書き出す
+     * ティックループの停止後に呼ばれる。
+     */
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (active && lastTick > lastWrittenTick && lastWorld != null) {
+            if (writing.get()) {
+                // 書き込みスレッドがまだ複製と変換先を使っている
+                logger.warn("Previous snapshot is still being written, skipping final snapshot at tick {}", lastTick);
+                return;
+            }
+            write(WorldSnapshot.capture(lastTick, lastWorld, syncResidents(lastWorld, Integer.MAX_VALUE)));
+        }
+    }
+
+    /**
+     * ワールドの住民の変更を複製へ写す（書き込み中は呼び出さないこと）
+     * @return 住民の複製
+     */
+    private ResidentStore syncResidents(SimulationWorld world, int maxResidents) {
+        ResidentStore source = world.getResidents();
+        if (residents == null || residentSource != source) {
+            residentSource = source;
+            residents = source.createSyncTarget();
+        }
+        source.syncTo(residents, maxResidents);
+        return residents;
+    }
+
+    private void write(WorldSnapshot snapshot) {
+        long started = System.nanoTime();
+        try {
+            long bytes = directory.write(snapshot.tick(), WorldSnapshotCodec.encode(snapshot, output));
+            lastWrittenTick = snapshot.tick();
+            written.incrementAndGet();
+            writtenBytes.addAndGet(bytes);
+            logger.info("Wrote world snapshot at tick {} ({} bytes) in {} ms", snapshot.tick(), bytes,
+                (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            logger.error("Failed to write world snapshot at tick {} to {}", snapshot.tick(),
+                properties.getDirectory(), e);
+        }
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getWrittenBytes() {
+        return writtenBytes.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+    public long getLastWrittenTick() {
+        return lastWrittenTick;
+    }
+
+    /**
+     * 直近の書き出しでティックスレッドが複製に使った時間（ナノ秒）
+     */
+    public long getCaptureNanos() {
+        return captureNanos;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rushhour.snapshot.written", this, WorldSnapshotter::getWritten)
+            .description("World snapshots written to disk")
+            .register(registry);
+        FunctionCounter.builder("rushhour.snapshot.written.bytes", this, WorldSnapshotter::getWrittenBytes)
+            .description("Bytes of world snapshots written to disk")
+            .baseUnit("bytes")
+            .register(registry);
+        FunctionCounter.builder("rushhour.snapshot.failed", this, WorldSnapshotter::getFailed)
+            .description("World snapshots that could not be written")
+            .register(registry);
+        FunctionCounter.builder("rushhour.snapshot.skipped", this, WorldSnapshotter::getSkipped)
+            .description("Snapshot ticks skipped because the previous snapshot was still being written")
+            .register(registry);
+        Gauge.builder("rushhour.snapshot.capture.last", this,
+                s -> s.getCaptureNanos() / (double) TimeUnit.MILLISECONDS.toNanos(1))
+            .description("Time the tick thread spent copying the world for the last snapshot")
+            .baseUnit("milliseconds")
+            .register(registry);
+        Gauge.builder("rushhour.snapshot.tick", this, WorldSnapshotter::getLastWrittenTick)
+            .description("Tick of the last world snapshot on disk")
+            .register(registry);
+    }
+}
@@ -0,0 +1,166 @@
+package net.rushhourgame.core.spatial;
+
+import net.rushhourgame.core.simulation.TrackNetwork;
+import net.rushhourgame.core.simulation.TrainStateStore;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * 電車同士の衝突判定
+ * 電車は先頭から線路に沿って後方へ伸びる線分に幅を持たせたカプセルとして扱う。
+ * 粗い判定では先頭位置の空間索引から、カプセルが重なり得る距離（長さ2両分＋幅）内の電車だけを候補とし、
+ * 詳細な判定は候補の組についてだけ線分間の距離を計算する。電車数に対してほぼ線形の計算量となる。
+ * スレッドセーフではない（ティックスレッドから呼び出す）。
+ */
+public final class CollisionDetector {
+
+    /**
+     * 衝突している電車の組を受け取る
+     */
+    @FunctionalInterface
+    public interface PairConsumer {
+
+        /**
+         * @param first 添字の小さい方の電車
+         * @param second 添字の大きい方の電車
+         */
+        void accept(int first, int second);
+    }
+
+    private final double trainLength;
+    private final double candidateRadius;
+    private final double widthSquared;
+
+    private double[] headX = new double[0];
+    private double[] headY = new double[0];
+    private double[] tailX = new double[0];
+    private double[] tailY = new double[0];
+
+    // detect 1回分の作業状態
+    private final IntConsumer candidateVisitor = this::checkCandidate;
+    private PairConsumer sink;
+    private int current;
+    private int candidates;
+    private int collisions;
+
+    public CollisionDetector(double trainLength, double trainWidth) {
+        this.trainLength = trainLength;
+        this.candidateRadius = 2.0 * trainLength + trainWidth;
+        this.widthSquared = trainWidth * trainWidth;
+    }
+
+    /**
+     * 衝突している電車の組を列挙する
+     * @param grid 電車の先頭位置の索引（ハンドルは電車の添字）
+     * @return 衝突している組の数
+     */
+    public int detect(TrackNetwork network, TrainStateStore trains, SpatialGrid grid, PairConsumer consumer) {
+        int n = trains.highWaterMark();
+        ensureCapacity(n);
+        int[] trackIndices = trains.trackIndices();
+        double[] positions = trains.positions();
+        for (int i = 0; i < n; i++) {
+            if (!grid.contains(i)) {
+                continue;
+            }
+            int track = trackIndices[i];
+            double tail = Math.max(0.0, positions[i] - trainLength);
+            headX[i] = grid.x(i);
+            headY[i] = grid.y(i);
+            tailX[i] = network.x(track, tail);
+            tailY[i] = network.y(track, tail);
+        }
+        sink = consumer;
+        candidates = 0;
+        collisions = 0;
+        for (int i = 0; i < n; i++) {
+            if (grid.contains(i)) {
+                current = i;
+                grid.queryRadius(headX[i], headY[i], candidateRadius, candidateVisitor);
+            }
+        }
+        sink = null;
+        return collisions;
+    }
+
+    /**
+     * 直前の detect で詳細な判定を行った候補の組の数
+     */
+    public int lastCandidateCount() {
+        return candidates;
+    }
+
+    private void checkCandidate(int other) {
+        if (other <= current) {
+            return;
+        }
+        candidates++;
+        int i = current;
+        double distance = segmentDistanceSquared(headX[i], headY[i], tailX[i], tailY[i],
+            headX[other], headY[other], tailX[other], tailY[other]);
+        if (distance <= widthSquared) {
+            collisions++;
+            sink.accept(i, other);
+        }
+    }
+
+    /**
+     * 線分 ab と線分 cd の最短距離の2乗
+     */
+    static double segmentDistanceSquared(double ax, double ay, double bx, double by,
+                                         double cx, double cy, double dx, double dy) {
+        double ux = bx - ax;
+        double uy = by - ay;
+        double vx = dx - cx;
+        double vy = dy - cy;
+        double wx = ax - cx;
+        double wy = ay - cy;
+        double a = ux * ux + uy * uy;
+        double b = ux * vx + uy * vy;
+        double c = vx * vx + vy * vy;
+        double d = ux * wx + uy * wy;
+        double e = vx * wx + vy * wy;
+        double s;
+        double t;
+        if (a <= 1e-12 && c <= 1e-12) {
+            s = 0.0;
+            t = 0.0;
+        } else if (a <= 1e-12) {
+            s = 0.0;
+            t = clamp(e / c);
+        } else if (c <= 1e-12) {
+            t = 0.0;
+            s = clamp(-d / a);
+        } else {
+            double denominator = a * c - b * b;
+            s = denominator > 1e-12 ? clamp((b * e - c * d) / denominator) : 0.0;
+            t = (b * s + e) / c;
+            if (t < 0.0) {
+                t = 0.0;
+                s = clamp(-d / a);
+            } else if (t > 1.0) {
+                t = 1.0;
+                s = clamp((b - d) / a);
+            }
+        }
+        double px = wx + ux * s - vx * t;
+        double py = wy + uy * s - vy * t;
+        return px * px + py * py;
+    }
+
+    private static double clamp(double value) {
+        return value < 0.0 ? 0.0 : Math.min(value, 1.0);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= headX.length) {
+            return;
+        }
+        int capacity = Math.max(required, headX.length * 2);
+        headX = Arrays.copyOf(headX, capacity);
+        headY = Arrays.copyOf(headY, capacity);
+        tailX = Arrays.copyOf(tailX, capacity);
+        tailY = Arrays.copyOf(tailY, capacity);
+    }
+}
@@ -0,0 +1,56 @@
+package net.rushhourgame.core.spatial;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 電車の衝突判定の計測値
+ * ティックスレッドが書き込み、メトリクス収集側が読み取る。
+ */
+@Component
+public class CollisionMetrics implements MeterBinder {
+
+    private final AtomicLong candidatePairs = new AtomicLong();
+    private final AtomicLong collisions = new AtomicLong();
+    private volatile int lastCandidatePairs;
+
+    /**
+     * 1ティック分の判定結果を記録
+     * @param candidates 詳細な判定を行った候補の組の数
+     * @param newCollisions 新たに検出した衝突の数
+     */
+    public void record(int candidates, int newCollisions) {
+        candidatePairs.addAndGet(candidates);
+        collisions.addAndGet(newCollisions);
+        lastCandidatePairs = candidates;
+    }
+
+    public long getCandidatePairs() {
+        return candidatePairs.get();
+    }
+
+    public long getCollisions() {
+        return collisions.get();
+    }
+
+    public int getLastCandidatePairs() {
+        return lastCandidatePairs;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rushhour.simulation.collision.candidates", this, CollisionMetrics::getCandidatePairs)
+            .description("Train pairs passed from the broad phase to the narrow phase")
+            .register(registry);
+        FunctionCounter.builder("rushhour.simulation.collision.detected", this, CollisionMetrics::getCollisions)
+            .description("Newly detected train collisions")
+            .register(registry);
+        Gauge.builder("rushhour.simulation.collision.candidates.last", this, CollisionMetrics::getLastCandidatePairs)
+            .register(registry);
+    }
+}
@@ -0,0 +1,166 @@
+package net.rushhourgame.core.spatial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 文字列IDで点を管理する空間索引（スレッドセーフ）
+ * IDを内部のintハンドルに割り当てて {@link SpatialGrid} に格納する。削除したハンドルは再利用する。
+ * 更新は書き込みロック、検索は読み取りロックで行い、検索同士は並行に実行できる。
+ */
+public final class PointIndex {
+
+    private final SpatialGrid grid;
+    private final Map<String, Integer> handleById = new HashMap<>();
+    private String[] idByHandle = new String[16];
+    private int[] freeHandles = new int[16];
+    private int freeCount;
+    private int nextHandle;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public PointIndex(double cellSize) {
+        this.grid = new SpatialGrid(cellSize);
+    }
+
+    /**
+     * 点を追加、または移動する
+     */
+    public void put(String id, double x, double y) {
+        lock.writeLock().lock();
+        try {
+            Integer handle = handleById.get(id);
+            if (handle == null) {
+                handle = allocate(id);
+            }
+            grid.put(handle, x, y);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 点を削除する
+     * @return 削除した場合true
+     */
+    public boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer handle = handleById.remove(id);
+            if (handle == null) {
+                return false;
+            }
+            grid.remove(handle);
+            idByHandle[handle] = null;
+            if (freeCount == freeHandles.length) {
+                freeHandles = Arrays.copyOf(freeHandles, freeCount * 2);
+            }
+            freeHandles[freeCount++] = handle;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 全ての点を置き換える
+     * @param ids ID
+     * @param xs X座標（idsと同じ順）
+     * @param ys Y座標（idsと同じ順）
+     */
+    public void replaceAll(List<String> ids, double[] xs, double[] ys) {
+        lock.writeLock().lock();
+        try {
+            grid.clear();
+            handleById.clear();
+            Arrays.fill(idByHandle, null);
+            freeCount = 0;
+            nextHandle = 0;
+            for (int i = 0; i < ids.size(); i++) {
+                grid.put(allocate(ids.get(i)), xs[i], ys[i]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(String id) {
+        lock.readLock().lock();
+        try {
+            return handleById.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return grid.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 矩形範囲（境界を含む）内の点のID
+     */
+    public List<String> findInRange(double minX, double minY, double maxX, double maxY) {
+        List<String> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            grid.queryRange(minX, minY, maxX, maxY, handle -> result.add(idByHandle[handle]));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * 円（境界を含む）内の点のID
+     */
+    public List<String> findWithinRadius(double x, double y, double radius) {
+        List<String> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            grid.queryRadius(x, y, radius, handle -> result.add(idByHandle[handle]));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * 近い順に最大k個の点のID
+     */
+    public List<String> findNearest(double x, double y, int k) {
+        if (k <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int[] handles = new int[Math.min(k, Math.max(1, grid.size()))];
+            int found = grid.nearest(x, y, k, handles);
+            List<String> result = new ArrayList<>(found);
+            for (int i = 0; i < found; i++) {
+                result.add(idByHandle[handles[i]]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int allocate(String id) {
+        int handle = freeCount > 0 ? freeHandles[--freeCount] : nextHandle++;
+        if (handle >= idByHandle.length) {
+            idByHandle = Arrays.copyOf(idByHandle, Math.max(handle + 1, idByHandle.length * 2));
+        }
+        idByHandle[handle] = id;
+        handleById.put(id, handle);
+        return handle;
+    }
+}
@@ -0,0 +1,465 @@
+package net.rushhourgame.core.spatial;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * int ハンドルで点を管理する一様グリッドの空間索引
+ * セルは使用中のものだけをハッシュで保持するため、ワールドの範囲を事前に決める必要がない。
+ * セルの表はプリミティブの long キーによるオープンアドレス法で、検索ごとのボクシングを避ける。
+ * 点の移動はセルが変わる場合だけバケットを付け替える（毎ティックの更新を想定）。
+ * スレッドセーフではない。
+ */
+public final class SpatialGrid {
+
+    private final double cellSize;
+    private final CellTable cells = new CellTable();
+
+    private double[] xs;
+    private double[] ys;
+    private long[] cellKeys;
+    private int[] bucketPositions;
+    private boolean[] present;
+    private int size;
+
+    // 使用中のセルを含む範囲（削除では縮めないため、実際より広い場合がある）
+    private int minCellX = Integer.MAX_VALUE;
+    private int minCellY = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE;
+    private int maxCellY = Integer.MIN_VALUE;
+
+    public SpatialGrid(double cellSize) {
+        this(cellSize, 64);
+    }
+
+    public SpatialGrid(double cellSize, int initialCapacity) {
+        if (!(cellSize > 0.0)) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        int capacity = Math.max(1, initialCapacity);
+        xs = new double[capacity];
+        ys = new double[capacity];
+        cellKeys = new long[capacity];
+        bucketPositions = new int[capacity];
+        present = new boolean[capacity];
+    }
+
+    /**
+     * 点を追加、または既存の点を移動する
+     */
+    public void put(int handle, double x, double y) {
+        ensureCapacity(handle + 1);
+        int cx = cellCoordinate(x);
+        int cy = cellCoordinate(y);
+        long key = cellKey(cx, cy);
+        if (present[handle]) {
+            if (cellKeys[handle] == key) {
+                xs[handle] = x;
+                ys[handle] = y;
+                return;
+            }
+            detach(handle);
+        } else {
+            present[handle] = true;
+            size++;
+        }
+        xs[handle] = x;
+        ys[handle] = y;
+        cellKeys[handle] = key;
+        Cell cell = cells.getOrCreate(key);
+        bucketPositions[handle] = cell.size;
+        cell.add(handle);
+        minCellX = Math.min(minCellX, cx);
+        minCellY = Math.min(minCellY, cy);
+        maxCellX = Math.max(maxCellX, cx);
+        maxCellY = Math.max(maxCellY, cy);
+    }
+
+    /**
+     * 点を削除する
+     * @return 削除した場合true
+     */
+    public boolean remove(int handle) {
+        if (!contains(handle)) {
+            return false;
+        }
+        detach(handle);
+        present[handle] = false;
+        size--;
+        return true;
+    }
+
+    public boolean contains(int handle) {
+        return handle >= 0 && handle < present.length && present[handle];
+    }
+
+    public double x(int handle) {
+        return xs[handle];
+    }
+
+    public double y(int handle) {
+        return ys[handle];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double cellSize() {
+        return cellSize;
+    }
+
+    public void clear() {
+        cells.clear();
+        Arrays.fill(present, false);
+        size = 0;
+        minCellX = Integer.MAX_VALUE;
+        minCellY = Integer.MAX_VALUE;
+        maxCellX = Integer.MIN_VALUE;
+        maxCellY = Integer.MIN_VALUE;
+    }
+
+    /**
+     * 矩形範囲（境界を含む）内の点を列挙する
+     * @return 見つかった点の数
+     */
+    public int queryRange(double minX, double minY, double maxX, double maxY, IntConsumer consumer) {
+        return query(minX, minY, maxX, maxY, 0.0, 0.0, -1.0, consumer);
+    }
+
+    /**
+     * 円（境界を含む）内の点を列挙する
+     * 毎ティック全電車から呼び出されるため、検索ごとにオブジェクトを割り当てない。
+     * @return 見つかった点の数
+     */
+    public int queryRadius(double centerX, double centerY, double radius, IntConsumer consumer) {
+        return query(centerX - radius, centerY - radius, centerX + radius, centerY + radius,
+            centerX, centerY, radius * radius, consumer);
+    }
+
+    /**
+     * 矩形範囲内の点を列挙する（radiusSquared が負でない場合は円内に絞り込む）
+     */
+    private int query(double minX, double minY, double maxX, double maxY,
+                      double centerX, double centerY, double radiusSquared, IntConsumer consumer) {
+        if (size == 0 || maxX < minX || maxY < minY) {
+            return 0;
+        }
+        int fromX = Math.max(cellCoordinate(minX), minCellX);
+        int fromY = Math.max(cellCoordinate(minY), minCellY);
+        int toX = Math.min(cellCoordinate(maxX), maxCellX);
+        int toY = Math.min(cellCoordinate(maxY), maxCellY);
+        if (fromX > toX || fromY > toY) {
+            return 0;
+        }
+        int found = 0;
+        long cellCount = (long) (toX - fromX + 1) * (toY - fromY + 1);
+        if (cellCount > cells.size()) {
+            // 範囲のセル数が使用中のセル数より多い場合は使用中のセルを直接走査する
+            for (int slot = 0, n = cells.capacity(); slot < n; slot++) {
+                Cell cell = cells.at(slot);
+                if (cell != null) {
+                    found += scan(cell, minX, minY, maxX, maxY, centerX, centerY, radiusSquared, consumer);
+                }
+            }
+            return found;
+        }
+        for (int cy = fromY; cy <= toY; cy++) {
+            for (int cx = fromX; cx <= toX; cx++) {
+                Cell cell = cells.get(cellKey(cx, cy));
+                if (cell != null) {
+                    found += scan(cell, minX, minY, maxX, maxY, centerX, centerY, radiusSquared, consumer);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 近い順に最大k個の点を求める
+     * 使用中のセルを含む範囲に最初に届く周から外側へ1周ずつ走査し、次の周の最短距離がk番目の距離を超えた時点で打ち切る。
+     * 各周は使用中の範囲に切り詰め、調べたセル数が使用中のセル数を超えた場合は使用中のセルを直接走査する。
+     * @param out 結果の格納先（長さk以上）。近い順に格納される
+     * @return 見つかった点の数（k以下）
+     */
+    public int nearest(double x, double y, int k, int[] out) {
+        if (k <= 0 || size == 0) {
+            return 0;
+        }
+        int limit = Math.min(k, size);
+        double[] distances = new double[limit];
+        int count = 0;
+        int cx = cellCoordinate(x);
+        int cy = cellCoordinate(y);
+        // 問い合わせ点のセルから使用中の範囲までのチェビシェフ距離（範囲内なら0）
+        long firstRing = Math.max(
+            Math.max(Math.max((long) minCellX - cx, (long) cx - maxCellX), 0L),
+            Math.max(Math.max((long) minCellY - cy, (long) cy - maxCellY), 0L));
+        long maxRing = Math.max(
+            Math.max(Math.abs((long) cx - minCellX), Math.abs((long) maxCellX - cx)),
+            Math.max(Math.abs((long) cy - minCellY), Math.abs((long) maxCellY - cy)));
+        long probes = 0;
+        for (long ring = firstRing; ring <= maxRing; ring++) {
+            if (count == limit) {
+                double ringDistance = (ring - 1) * cellSize;
+                if (ringDistance * ringDistance > distances[count - 1]) {
+                    break;
+                }
+            }
+            long fromY = Math.max(cy - ring, minCellY);
+            long toY = Math.min(cy + ring, maxCellY);
+            long fromX = Math.max(cx - ring, minCellX);
+            long toX = Math.min(cx + ring, maxCellX);
+            for (long gy = fromY; gy <= toY; gy++) {
+                boolean edgeRow = gy == cy - ring || gy == cy + ring;
+                // 上下の辺以外の行は左右の端のセルだけを調べる
+                long step = edgeRow ? 1 : 2 * ring;
+                for (long gx = edgeRow ? fromX : cx - ring; gx <= toX; gx += step) {
+                    if (gx < fromX) {
+                        continue;
+                    }
+                    if (++probes > cells.size()) {
+                        return nearestByScan(x, y, limit, out, distances);
+                    }
+                    Cell cell = cells.get(cellKey((int) gx, (int) gy));
+                    if (cell != null) {
+                        count = insertCell(cell, x, y, out, distances, count, limit);
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 使用中のセルをすべて走査して近い順に最大limit個の点を求める
+     */
+    private int nearestByScan(double x, double y, int limit, int[] out, double[] distances) {
+        int count = 0;
+        for (int slot = 0, n = cells.capacity(); slot < n; slot++) {
+            Cell cell = cells.at(slot);
+            if (cell != null) {
+                count = insertCell(cell, x, y, out, distances, count, limit);
+            }
+        }
+        return count;
+    }
+
+    private int insertCell(Cell cell, double x, double y, int[] out, double[] distances, int count, int limit) {
+        for (int i = 0; i < cell.size; i++) {
+            int handle = cell.handles[i];
+            double dx = xs[handle] - x;
+            double dy = ys[handle] - y;
+            count = insertSorted(out, distances, count, limit, handle, dx * dx + dy * dy);
+        }
+        return count;
+    }
+
+    private static int insertSorted(int[] handles, double[] distances, int count, int limit,
+                                    int handle, double distance) {
+        if (count == limit && distance >= distances[count - 1]) {
+            return count;
+        }
+        int position = count == limit ? count - 1 : count;
+        while (position > 0 && distances[position - 1] > distance) {
+            distances[position] = distances[position - 1];
+            handles[position] = handles[position - 1];
+            position--;
+        }
+        distances[position] = distance;
+        handles[position] = handle;
+        return count == limit ? count : count + 1;
+    }
+
+    private int scan(Cell cell, double minX, double minY, double maxX, double maxY,
+                     double centerX, double centerY, double radiusSquared, IntConsumer consumer) {
+        int found = 0;
+        for (int i = 0; i < cell.size; i++) {
+            int handle = cell.handles[i];
+            double px = xs[handle];
+            double py = ys[handle];
+            if (px < minX || px > maxX || py < minY || py > maxY) {
+                continue;
+            }
+            if (radiusSquared >= 0.0) {
+                double dx = px - centerX;
+                double dy = py - centerY;
+                if (dx * dx + dy * dy > radiusSquared) {
+                    continue;
+                }
+            }
+            found++;
+            consumer.accept(handle);
+        }
+        return found;
+    }
+
+    private void detach(int handle) {
+        long key = cellKeys[handle];
+        Cell cell = cells.get(key);
+        int moved = cell.removeAt(bucketPositions[handle]);
+        if (moved >= 0) {
+            bucketPositions[moved] = bucketPositions[handle];
+        }
+        if (cell.size == 0) {
+            cells.remove(key);
+        }
+    }
+
+    private int cellCoordinate(double value) {
+        double cell = Math.floor(value / cellSize);
+        if (cell >= Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE - 1;
+        }
+        if (cell <= Integer.MIN_VALUE) {
+            return Integer.MIN_VALUE + 1;
+        }
+        return (int) cell;
+    }
+
+    private static long cellKey(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= present.length) {
+            return;
+        }
+        int capacity = Math.max(required, present.length * 2);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        cellKeys = Arrays.copyOf(cellKeys, capacity);
+        bucketPositions = Arrays.copyOf(bucketPositions, capacity);
+        present = Arrays.copyOf(present, capacity);
+    }
+
+    /**
+     * セル内のハンドル（順不同）
+     */
+    private static final class Cell {
+
+        private int[] handles = new int[4];
+        private int size;
+
+        void add(int handle) {
+            if (size == handles.length) {
+                handles = Arrays.copyOf(handles, size * 2);
+            }
+            handles[size++] = handle;
+        }
+
+        /**
+         * 末尾の要素で穴を埋めて削除する
+         * @return 位置が変わったハンドル。変わらない場合は -1
+         */
+        int removeAt(int position) {
+            size--;
+            if (position == size) {
+                return -1;
+            }
+            handles[position] = handles[size];
+            return handles[position];
+        }
+    }
+
+    /**
+     * セル座標のキーからセルを引くオープンアドレス法（線形探査）のハッシュ表
+     */
+    private static final class CellTable {
+
+        private long[] keys = new long[64];
+        private Cell[] values = new Cell[64];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        int capacity() {
+            return values.length;
+        }
+
+        Cell at(int slot) {
+            return values[slot];
+        }
+
+        Cell get(long key) {
+            int mask = values.length - 1;
+            for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return null;
+        }
+
+        Cell getOrCreate(long key) {
+            int mask = values.length - 1;
+            int slot = hash(key) & mask;
+            for (; values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            Cell cell = new Cell();
+            keys[slot] = key;
+            values[slot] = cell;
+            if (++size * 2 > values.length) {
+                rehash(values.length * 2);
+            }
+            return cell;
+        }
+
+        void remove(long key) {
+            int mask = values.length - 1;
+            int slot = hash(key) & mask;
+            while (values[slot] != null && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (values[slot] == null) {
+                return;
+            }
+            values[slot] = null;
+            size--;
+            // 後続の要素を詰め直して探査列を保つ
+            for (int next = (slot + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+                int home = hash(keys[next]) & mask;
+                if (((next - home) & mask) >= ((next - slot) & mask)) {
+                    keys[slot] = keys[next];
+                    values[slot] = values[next];
+                    values[next] = null;
+                    slot = next;
+                }
+            }
+        }
+
+        void clear() {
+            Arrays.fill(values, null);
+            size = 0;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            Cell[] oldValues = values;
+            keys = new long[capacity];
+            values = new Cell[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != null) {
+                    int slot = hash(oldKeys[i]) & mask;
+                    while (values[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package net.rushhourgame.core.spatial;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 空間索引の設定
+ * セルの大きさは、よく使う検索範囲と同程度にすると走査するセル数が少なくなる。
+ */
+@Data
+@ConfigurationProperties(prefix = "rushhour.spatial")
+public class SpatialProperties {
+
+    /**
+     * 駅の索引のセルの大きさ
+     */
+    private double stationCellSize = 500.0;
+
+    /**
+     * 信号機の索引のセルの大きさ
+     */
+    private double signalCellSize = 200.0;
+
+    /**
+     * 電車の索引のセルの大きさ
+     */
+    private double trainCellSize = 200.0;
+
+    /**
+     * 衝突判定に使う電車の長さ（先頭から後方へ線路に沿って占める距離）
+     */
+    private double trainLength = 20.0;
+
+    /**
+     * 衝突判定に使う電車の幅
+     */
+    private double trainWidth = 3.0;
+
+    /**
+     * 衝突を検出した電車を緊急停止させるか
+     */
+    private boolean collisionEmergencyStop = true;
+}
@@ -0,0 +1,64 @@
+package net.rushhourgame.core.spatial;
+
+import net.rushhourgame.core.simulation.SimulationSystem;
+import net.rushhourgame.core.simulation.SimulationWorld;
+import net.rushhourgame.core.simulation.TrainStateStore;
+import net.rushhourgame.models.common.TrainOperationState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 電車同士の衝突を検出するシステム
+ * 閉塞予約をすり抜けた接近（信号機のない線路など）に対する安全装置として、
+ * {@link TrainSpatialIndex} の更新後に毎ティック判定し、衝突した電車を緊急停止させる。
+ */
+@Component
+@Order(250)
+public class TrainCollisionSystem implements SimulationSystem {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrainCollisionSystem.class);
+
+    private final SimulationWorld world;
+    private final TrainSpatialIndex spatialIndex;
+    private final CollisionMetrics metrics;
+    private final CollisionDetector detector;
+    private final boolean emergencyStop;
+    private final CollisionDetector.PairConsumer handler = this::onCollision;
+
+    private int newCollisions;
+
+    public TrainCollisionSystem(SimulationWorld world, TrainSpatialIndex spatialIndex, SpatialProperties properties,
+                                CollisionMetrics metrics) {
+        this.world = world;
+        this.spatialIndex = spatialIndex;
+        this.metrics = metrics;
+        this.detector = new CollisionDetector(properties.getTrainLength(), properties.getTrainWidth());
+        this.emergencyStop = properties.isCollisionEmergencyStop();
+    }
+
+    @Override
+    public void update(long tick, double deltaSeconds) {
+        newCollisions = 0;
+        detector.detect(world.getNetwork(), world.getTrains(), spatialIndex.getGrid(), handler);
+        metrics.record(detector.lastCandidateCount(), newCollisions);
+    }
+
+    private void onCollision(int first, int second) {
+        TrainStateStore trains = world.getTrains();
+        // 両方とも緊急停止済みの組は検出済みとして数えない
+        if (trains.state(first).isEmergency() && trains.state(second).isEmergency()) {
+            return;
+        }
+        newCollisions++;
+        if (!emergencyStop) {
+            // 緊急停止しない設定では接触が続く間は毎ティック検出される
+            logger.debug("Trains {} and {} are colliding", trains.idAt(first), trains.idAt(second));
+            return;
+        }
+        logger.warn("Trains {} and {} are colliding", trains.idAt(first), trains.idAt(second));
+        world.changeState(trains.idAt(first), TrainOperationState.EMERGENCY);
+        world.changeState(trains.idAt(second), TrainOperationState.EMERGENCY);
+    }
+}
@@ -0,0 +1,49 @@
+package net.rushhourgame.core.spatial;
+
+import net.rushhourgame.core.simulation.SimulationSystem;
+import net.rushhourgame.core.simulation.SimulationWorld;
+import net.rushhourgame.core.simulation.TrackNetwork;
+import net.rushhourgame.core.simulation.TrainStateStore;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 走行中の電車の空間索引
+ * 電車の移動後に毎ティック更新する。ハンドルは {@link TrainStateStore} の添字と同じ。
+ * 索引の参照はティックスレッド（シミュレーションシステム）からのみ行うこと。
+ */
+@Component
+@Order(200)
+public class TrainSpatialIndex implements SimulationSystem {
+
+    private final SimulationWorld world;
+    private final SpatialGrid grid;
+
+    public TrainSpatialIndex(SimulationWorld world, SpatialProperties properties) {
+        this.world = world;
+        this.grid = new SpatialGrid(properties.getTrainCellSize(), 1024);
+    }
+
+    @Override
+    public void update(long tick, double deltaSeconds) {
+        TrainStateStore trains = world.getTrains();
+        TrackNetwork network = world.getNetwork();
+        int[] trackIndices = trains.trackIndices();
+        double[] positions = trains.positions();
+        int n = trains.highWaterMark();
+        for (int i = 0; i < n; i++) {
+            if (trains.isAlive(i)) {
+                grid.put(i, network.x(trackIndices[i], positions[i]), network.y(trackIndices[i], positions[i]));
+            } else {
+                grid.remove(i);
+            }
+        }
+    }
+
+    /**
+     * 電車の添字をハンドルとする索引
+     */
+    public SpatialGrid getGrid() {
+        return grid;
+    }
+}
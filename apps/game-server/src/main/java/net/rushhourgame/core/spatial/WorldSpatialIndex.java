@@ -0,0 +1,125 @@
+package net.rushhourgame.core.spatial;
+
+import net.rushhourgame.core.database.TransactionHooks;
+import net.rushhourgame.core.database.entities.LocationEmbeddable;
+import net.rushhourgame.core.database.entities.SignalEntity;
+import net.rushhourgame.core.database.entities.StationChangedEvent;
+import net.rushhourgame.core.database.entities.StationEntity;
+import net.rushhourgame.core.database.repositories.SignalRepository;
+import net.rushhourgame.core.database.repositories.StationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 駅・信号機の位置のインメモリ空間索引
+ * 起動時にデータベースから構築し、以降は駅エンティティの変更イベントで差分を反映する。
+ * トランザクション中の更新はコミット後に反映し、ロールバックされた変更が索引に残らないようにする。
+ */
+@Component
+public class WorldSpatialIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorldSpatialIndex.class);
+
+    private final StationRepository stationRepository;
+    private final SignalRepository signalRepository;
+    private final PointIndex stations;
+    private final PointIndex signals;
+    // 索引へ未反映の駅の変更があるトランザクションに記録するキー
+    private final Object pendingStations = new Object();
+
+    public WorldSpatialIndex(StationRepository stationRepository, SignalRepository signalRepository,
+                             SpatialProperties properties) {
+        this.stationRepository = stationRepository;
+        this.signalRepository = signalRepository;
+        this.stations = new PointIndex(properties.getStationCellSize());
+        this.signals = new PointIndex(properties.getSignalCellSize());
+    }
+
+    /**
+     * 起動完了時に索引を構築する
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * データベースの内容で索引を作り直す
+     */
+    public void rebuild() {
+        List<StationEntity> stationEntities = stationRepository.findAll();
+        List<String> stationIds = new ArrayList<>(stationEntities.size());
+        List<LocationEmbeddable> stationLocations = new ArrayList<>(stationEntities.size());
+        for (StationEntity station : stationEntities) {
+            if (isPlaced(station.getLocation())) {
+                stationIds.add(station.getId());
+                stationLocations.add(station.getLocation());
+            }
+        }
+        replace(stations, stationIds, stationLocations);
+
+        List<SignalEntity> signalEntities = signalRepository.findAll();
+        List<String> signalIds = new ArrayList<>(signalEntities.size());
+        List<LocationEmbeddable> signalLocations = new ArrayList<>(signalEntities.size());
+        for (SignalEntity signal : signalEntities) {
+            if (isPlaced(signal.getPosition())) {
+                signalIds.add(signal.getId());
+                signalLocations.add(signal.getPosition());
+            }
+        }
+        replace(signals, signalIds, signalLocations);
+        logger.info("Built spatial index with {} stations and {} signals", stations.size(), signals.size());
+    }
+
+    public PointIndex getStations() {
+        return stations;
+    }
+
+    public PointIndex getSignals() {
+        return signals;
+    }
+
+    /**
+     * 駅の保存・削除をコミット後に索引へ反映する（位置が無い場合は索引から外す）
+     * リポジトリを直接使った書き込みも含め、駅エンティティの変更はすべてここに届く。
+     */
+    @EventListener
+    public void onStationChanged(StationChangedEvent event) {
+        TransactionHooks.mark(pendingStations);
+        TransactionHooks.afterCommit(() -> {
+            if (event.removed() || event.x() == null || event.y() == null) {
+                stations.remove(event.stationId());
+            } else {
+                stations.put(event.stationId(), event.x(), event.y());
+            }
+        });
+    }
+
+    /**
+     * 現在のトランザクションに索引へ未反映の駅の変更があるか（フラッシュ済みの変更のみ）
+     * この間の駅の検索結果には、トランザクション内で保存・削除した駅が反映されていない。
+     */
+    public boolean hasPendingStationChanges() {
+        return TransactionHooks.isMarked(pendingStations);
+    }
+
+    private static boolean isPlaced(LocationEmbeddable location) {
+        return location != null && location.getX() != null && location.getY() != null;
+    }
+
+    private static void replace(PointIndex index, List<String> ids, List<LocationEmbeddable> locations) {
+        double[] xs = new double[ids.size()];
+        double[] ys = new double[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            xs[i] = locations.get(i).getX();
+            ys[i] = locations.get(i).getY();
+        }
+        index.replaceAll(ids, xs, ys);
+    }
+}
@@ -0,0 +1,22 @@
+package net.rushhourgame.core.stationflow;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 駅構内の旅客流動の設定
+ */
+@Data
+@ConfigurationProperties(prefix = "rushhour.station-flow")
+public class StationFlowProperties {
+
+    /**
+     * 通路の歩行速度（距離単位/秒）
+     */
+    private double walkingSpeed = 1.3;
+
+    /**
+     * 通路の単位幅あたりの流量（人/秒/幅の単位）
+     */
+    private double corridorSpecificFlow = 1.3;
+}
@@ -0,0 +1,241 @@
+package net.rushhourgame.core.stationflow;
+
+import net.rushhourgame.core.snapshot.LayoutCodec;
+import net.rushhourgame.core.snapshot.SnapshotInput;
+import net.rushhourgame.core.snapshot.SnapshotOutput;
+
+/**
+ * 駅構内の旅客流動の状態
+ * 旅客は個別のオブジェクトではなく、駅ごと・待ち行列ごとの人数（小数を含む流体近似）として保持する。
+ * 入場は改札待ち → 通路 → プラットフォーム、出場はプラットフォーム（降車客）→ 通路 → 改札待ちの順に流れ、
+ * 改札と通路の処理能力は両方向の需要に応じて按分する。
+ * 通路は所要時間に応じた割合で出口側へ送り出し、プラットフォームが満員の間は通路から先へ進めない（手前の待ち行列が伸びる）。
+ * 1ティックの処理量は駅数に比例し、旅客数によらない。ティックスレッドからのみ変更すること。
+ */
+public class StationFlowStore {
+
+    private StationLayout layout = StationLayout.empty();
+
+    private double[] entryQueues = new double[0];
+    private double[] entryCorridors = new double[0];
+    private double[] platforms = new double[0];
+    private double[] exitQueues = new double[0];
+    private double[] exitCorridors = new double[0];
+    private double[] exitGateQueues = new double[0];
+    // プラットフォームが満員として発行済みの駅
+    private boolean[] overcrowded = new boolean[0];
+
+    public StationLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * 駅の配置を差し替え、同じ駅IDの人数と満員の状態を引き継ぐ（撤去された駅の旅客は取り除く）
+     */
+    public void replaceLayout(StationLayout newLayout) {
+        int n = newLayout.size();
+        double[] newEntryQueues = new double[n];
+        double[] newEntryCorridors = new double[n];
+        double[] newPlatforms = new double[n];
+        double[] newExitQueues = new double[n];
+        double[] newExitCorridors = new double[n];
+        double[] newExitGateQueues = new double[n];
+        boolean[] newOvercrowded = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            int old = layout.indexOf(newLayout.stationId(i));
+            if (old == StationLayout.NO_STATION) {
+                continue;
+            }
+            newEntryQueues[i] = entryQueues[old];
+            newEntryCorridors[i] = entryCorridors[old];
+            newPlatforms[i] = platforms[old];
+            newExitQueues[i] = exitQueues[old];
+            newExitCorridors[i] = exitCorridors[old];
+            newExitGateQueues[i] = exitGateQueues[old];
+            newOvercrowded[i] = overcrowded[old];
+        }
+        layout = newLayout;
+        entryQueues = newEntryQueues;
+        entryCorridors = newEntryCorridors;
+        platforms = newPlatforms;
+        exitQueues = newExitQueues;
+        exitCorridors = newExitCorridors;
+        exitGateQueues = newExitGateQueues;
+        overcrowded = newOvercrowded;
+    }
+
+    /**
+     * 駅の入口に旅客が到着する（改札待ちに並ぶ）
+     */
+    public void arrive(int station, int passengers) {
+        entryQueues[station] += passengers;
+    }
+
+    /**
+     * 電車から旅客が降りる（プラットフォームから出口へ向かう）
+     */
+    public void alight(int station, int passengers) {
+        exitQueues[station] += passengers;
+    }
+
+    /**
+     * プラットフォームで待つ旅客を電車に乗せる
+     * @return 乗車した人数（待っている人数の整数部分と maxPassengers の小さい方）
+     */
+    public int board(int station, int maxPassengers) {
+        int boarded = (int) Math.min(Math.floor(platforms[station]), maxPassengers);
+        platforms[station] -= boarded;
+        return boarded;
+    }
+
+    /**
+     * 全駅の流動を deltaSeconds 秒進める
+     * 下流から順に処理し、空いた分をそのティックのうちに上流から流し込む。
+     */
+    public void step(double deltaSeconds) {
+        for (int i = 0, n = layout.size(); i < n; i++) {
+            // 通路 → プラットフォーム（入場）・改札待ち（出場）
+            double corridorSeconds = layout.corridorSeconds(i);
+            double walked = corridorSeconds <= deltaSeconds ? 1.0 : deltaSeconds / corridorSeconds;
+            double platformSpace = Math.max(0.0, layout.platformCapacity(i) - platforms[i] - exitQueues[i]);
+            double toPlatform = Math.min(entryCorridors[i] * walked, platformSpace);
+            entryCorridors[i] -= toPlatform;
+            platforms[i] += toPlatform;
+            double toExitGate = exitCorridors[i] * walked;
+            exitCorridors[i] -= toExitGate;
+            exitGateQueues[i] += toExitGate;
+
+            // 改札（両方向で按分）。出場者はここで駅を出る
+            double gateCapacity = layout.gateRate(i) * deltaSeconds;
+            double gateDemand = entryQueues[i] + exitGateQueues[i];
+            double gateShare = gateDemand <= gateCapacity ? 1.0 : gateCapacity / gateDemand;
+            exitGateQueues[i] -= exitGateQueues[i] * gateShare;
+            double throughGate = entryQueues[i] * gateShare;
+
+            // 通路への進入（改札を通った入場者と降車客で按分）
+            double corridorCapacity = layout.corridorRate(i) * deltaSeconds;
+            double corridorDemand = throughGate + exitQueues[i];
+            double corridorShare = corridorDemand <= corridorCapacity ? 1.0 : corridorCapacity / corridorDemand;
+            double entering = throughGate * corridorShare;
+            entryQueues[i] -= entering;
+            entryCorridors[i] += entering;
+            double leaving = exitQueues[i] * corridorShare;
+            exitQueues[i] -= leaving;
+            exitCorridors[i] += leaving;
+        }
+    }
+
+    /**
+     * 改札待ちの入場者数
+     */
+    public double entryQueue(int station) {
+        return entryQueues[station];
+    }
+
+    /**
+     * 通路を歩いている入場者数
+     */
+    public double entryCorridor(int station) {
+        return entryCorridors[station];
+    }
+
+    /**
+     * プラットフォームで電車を待つ旅客数
+     */
+    public double waiting(int station) {
+        return platforms[station];
+    }
+
+    /**
+     * プラットフォームで通路に入るのを待つ降車客数
+     */
+    public double exitQueue(int station) {
+        return exitQueues[station];
+    }
+
+    /**
+     * 通路を歩いている出場者数
+     */
+    public double exitCorridor(int station) {
+        return exitCorridors[station];
+    }
+
+    /**
+     * 改札待ちの出場者数
+     */
+    public double exitGateQueue(int station) {
+        return exitGateQueues[station];
+    }
+
+    /**
+     * 駅構内にいる旅客数
+     */
+    public double passengers(int station) {
+        return entryQueues[station] + entryCorridors[station] + platforms[station] + exitQueues[station]
+            + exitCorridors[station] + exitGateQueues[station];
+    }
+
+    /**
+     * プラットフォームが満員として発行済みの駅か
+     */
+    public boolean isOvercrowded(int station) {
+        return overcrowded[station];
+    }
+
+    /**
+     * プラットフォームが満員として発行したかを記録する
+     */
+    public void setOvercrowded(int station, boolean value) {
+        overcrowded[station] = value;
+    }
+
+    /**
+     * 同じ内容の独立したストア（スナップショットの取得用。配置は不変のため共有する）
+     */
+    public StationFlowStore copy() {
+        StationFlowStore copy = new StationFlowStore();
+        copy.layout = layout;
+        copy.entryQueues = entryQueues.clone();
+        copy.entryCorridors = entryCorridors.clone();
+        copy.platforms = platforms.clone();
+        copy.exitQueues = exitQueues.clone();
+        copy.exitCorridors = exitCorridors.clone();
+        copy.exitGateQueues = exitGateQueues.clone();
+        copy.overcrowded = overcrowded.clone();
+        return copy;
+    }
+
+    /**
+     * 駅の配置と待ち行列ごとの人数、満員の状態を書き出す
+     */
+    public void writeTo(SnapshotOutput out) {
+        int n = layout.size();
+        LayoutCodec.writeStations(out, layout);
+        out.putDoubles(entryQueues, n);
+        out.putDoubles(entryCorridors, n);
+        out.putDoubles(platforms, n);
+        out.putDoubles(exitQueues, n);
+        out.putDoubles(exitCorridors, n);
+        out.putDoubles(exitGateQueues, n);
+        for (int i = 0; i < n; i++) {
+            out.putBoolean(overcrowded[i]);
+        }
+    }
+
+    /**
+     * {@link #writeTo} で書き出した内容に置き換える
+     */
+    public void readFrom(SnapshotInput in) {
+        layout = LayoutCodec.readStations(in);
+        entryQueues = in.getDoubles();
+        entryCorridors = in.getDoubles();
+        platforms = in.getDoubles();
+        exitQueues = in.getDoubles();
+        exitCorridors = in.getDoubles();
+        exitGateQueues = in.getDoubles();
+        overcrowded = new boolean[layout.size()];
+        for (int i = 0; i < overcrowded.length; i++) {
+            overcrowded[i] = in.getBoolean();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package net.rushhourgame.core.stationflow;
+
+import net.rushhourgame.core.event.EventPartition;
+import net.rushhourgame.core.simulation.SimulationSystem;
+import net.rushhourgame.core.simulation.SimulationWorld;
+import net.rushhourgame.models.event.EventType;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 駅構内の旅客流動を進めるシステム
+ * プラットフォームが満員になった駅と、満員が解消した駅をイベントとして発行する（発行済みかどうかはストアが持つ）。
+ */
+@Component
+@Order(500)
+public class StationFlowSystem implements SimulationSystem {
+
+    /**
+     * 満員の解消とみなすプラットフォームの使用率（満員の前後で発行を繰り返さないよう、満員より低くする）
+     */
+    static final double RELIEVED_RATIO = 0.9;
+
+    private final SimulationWorld world;
+
+    public StationFlowSystem(SimulationWorld world) {
+        this.world = world;
+    }
+
+    @Override
+    public void update(long tick, double deltaSeconds) {
+        StationFlowStore flows = world.getStationFlows();
+        flows.step(deltaSeconds);
+
+        StationLayout layout = flows.getLayout();
+        EventPartition events = world.getEvents();
+        for (int i = 0, n = layout.size(); i < n; i++) {
+            double onPlatform = flows.waiting(i) + flows.exitQueue(i);
+            int capacity = layout.platformCapacity(i);
+            boolean overcrowded = flows.isOvercrowded(i);
+            if (!overcrowded && capacity > 0 && onPlatform >= capacity) {
+                flows.setOvercrowded(i, true);
+                events.publish(EventType.STATION_OVERCROWDED, i, onPlatform);
+            } else if (overcrowded && onPlatform < capacity * RELIEVED_RATIO) {
+                flows.setOvercrowded(i, false);
+                events.publish(EventType.STATION_RELIEVED, i, onPlatform);
+            }
+        }
+    }
+}
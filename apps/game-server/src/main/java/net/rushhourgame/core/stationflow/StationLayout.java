@@ -0,0 +1,164 @@
+package net.rushhourgame.core.stationflow;
+
+import net.rushhourgame.core.database.entities.CorridorEntity;
+import net.rushhourgame.core.database.entities.GateEntity;
+import net.rushhourgame.core.database.entities.PlatformEntity;
+import net.rushhourgame.core.database.entities.StationEntity;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 駅構内の旅客流動のパラメータ（不変）
+ * 駅ごとに改札・通路・プラットフォームをそれぞれ1つの待ち行列にまとめ、処理能力を次のように求める。
+ * <ul>
+ *   <li>改札：各改札の通路数（capacity）÷ 1人あたりの処理時間（秒）の合計（人/秒）</li>
+ *   <li>通路：各通路の幅 × 単位幅あたりの流量の合計（人/秒）、所要時間は幅で重み付けした平均の長さ ÷ 歩行速度</li>
+ *   <li>プラットフォーム：収容人数の合計（プラットフォームがない駅は駅全体の収容人数）</li>
+ * </ul>
+ * 改札・通路がない駅は制約なしとして無限大の処理能力と所要時間0を持つ。
+ */
+public final class StationLayout {
+
+    /**
+     * 駅が存在しないことを表す添字
+     */
+    public static final int NO_STATION = -1;
+
+    private static final StationLayout EMPTY = new StationLayout(new String[0], new double[0], new double[0],
+        new double[0], new int[0]);
+
+    private final String[] stationIds;
+    private final Map<String, Integer> indexById;
+    private final double[] gateRates;
+    private final double[] corridorRates;
+    private final double[] corridorSeconds;
+    private final int[] platformCapacities;
+
+    private StationLayout(String[] stationIds, double[] gateRates, double[] corridorRates, double[] corridorSeconds,
+                          int[] platformCapacities) {
+        this.stationIds = stationIds;
+        this.gateRates = gateRates;
+        this.corridorRates = corridorRates;
+        this.corridorSeconds = corridorSeconds;
+        this.platformCapacities = platformCapacities;
+        this.indexById = new HashMap<>(stationIds.length * 2);
+        for (int i = 0; i < stationIds.length; i++) {
+            indexById.put(stationIds[i], i);
+        }
+    }
+
+    /**
+     * 駅を持たない配置
+     */
+    public static StationLayout empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 駅ごとの処理能力を直接指定して構築
+     */
+    public static StationLayout of(String[] stationIds, double[] gateRates, double[] corridorRates,
+                                   double[] corridorSeconds, int[] platformCapacities) {
+        int n = stationIds.length;
+        if (gateRates.length != n || corridorRates.length != n || corridorSeconds.length != n
+            || platformCapacities.length != n) {
+            throw new IllegalArgumentException("Station parameter arrays must have the same length");
+        }
+        return new StationLayout(stationIds.clone(), gateRates.clone(), corridorRates.clone(),
+            corridorSeconds.clone(), platformCapacities.clone());
+    }
+
+    /**
+     * 駅エンティティから構築
+     * 改札・通路・プラットフォームを読み込んだエンティティを渡すこと。
+     * @param walkingSpeed 通路の歩行速度（距離単位/秒）
+     * @param corridorSpecificFlow 通路の単位幅あたりの流量（人/秒/幅の単位）
+     */
+    public static StationLayout fromEntities(Collection<StationEntity> stations, double walkingSpeed,
+                                             double corridorSpecificFlow) {
+        int n = stations.size();
+        String[] ids = new String[n];
+        double[] gateRates = new double[n];
+        double[] corridorRates = new double[n];
+        double[] corridorSeconds = new double[n];
+        int[] platformCapacities = new int[n];
+        int i = 0;
+        for (StationEntity station : stations) {
+            ids[i] = station.getId();
+            gateRates[i] = gateRate(station.getGates());
+            double totalWidth = 0.0;
+            double weightedLength = 0.0;
+            for (CorridorEntity corridor : station.getCorridors()) {
+                totalWidth += corridor.getWidth();
+                weightedLength += corridor.getWidth() * corridor.getLength();
+            }
+            if (totalWidth > 0.0) {
+                corridorRates[i] = totalWidth * corridorSpecificFlow;
+                corridorSeconds[i] = weightedLength / totalWidth / walkingSpeed;
+            } else {
+                corridorRates[i] = Double.POSITIVE_INFINITY;
+            }
+            int capacity = 0;
+            for (PlatformEntity platform : station.getPlatforms()) {
+                capacity += platform.getCapacity();
+            }
+            platformCapacities[i] = station.getPlatforms().isEmpty() ? station.getTotalCapacity() : capacity;
+            i++;
+        }
+        return new StationLayout(ids, gateRates, corridorRates, corridorSeconds, platformCapacities);
+    }
+
+    private static double gateRate(Collection<GateEntity> gates) {
+        if (gates.isEmpty()) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double rate = 0.0;
+        for (GateEntity gate : gates) {
+            rate += gate.getCapacity() / gate.getProcessingTime();
+        }
+        return rate;
+    }
+
+    public int size() {
+        return stationIds.length;
+    }
+
+    /**
+     * 駅IDの添字
+     * @return 存在しない場合は {@link #NO_STATION}
+     */
+    public int indexOf(String stationId) {
+        return indexById.getOrDefault(stationId, NO_STATION);
+    }
+
+    public String stationId(int station) {
+        return stationIds[station];
+    }
+
+    /**
+     * 改札の処理能力（人/秒）
+     */
+    public double gateRate(int station) {
+        return gateRates[station];
+    }
+
+    /**
+     * 通路の処理能力（人/秒、両方向の合計）
+     */
+    public double corridorRate(int station) {
+        return corridorRates[station];
+    }
+
+    /**
+     * 通路の所要時間（秒）
+     */
+    public double corridorSeconds(int station) {
+        return corridorSeconds[station];
+    }
+
+    public int platformCapacity(int station) {
+        return platformCapacities[station];
+    }
+}
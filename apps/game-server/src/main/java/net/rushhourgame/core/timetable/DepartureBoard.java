@@ -0,0 +1,92 @@
+package net.rushhourgame.core.timetable;
+
+import java.util.Arrays;
+
+/**
+ * 1駅の発車案内（不変）
+ * 出発時刻（0時からの秒）の昇順に、出発時刻・運行の添字・運行内の停車位置を並列の int 配列で保持する。
+ * 同じ時刻の出発は構築時に渡した順に並べる。
+ */
+public final class DepartureBoard {
+
+    static final DepartureBoard EMPTY = new DepartureBoard(new int[0], new int[0], new int[0]);
+
+    private final int[] departures;
+    private final int[] trips;
+    private final int[] stops;
+
+    private DepartureBoard(int[] departures, int[] trips, int[] stops) {
+        this.departures = departures;
+        this.trips = trips;
+        this.stops = stops;
+    }
+
+    /**
+     * 並び順を問わない出発から構築
+     * @param count 配列の先頭から使う要素数
+     */
+    static DepartureBoard of(int[] departures, int[] trips, int[] stops, int count) {
+        if (count == 0) {
+            return EMPTY;
+        }
+        // 上位32ビットに時刻、下位に元の位置を詰めて整列する（同時刻は元の順を保つ）
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = ((long) departures[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] sortedDepartures = new int[count];
+        int[] sortedTrips = new int[count];
+        int[] sortedStops = new int[count];
+        for (int i = 0; i < count; i++) {
+            int from = (int) keys[i];
+            sortedDepartures[i] = departures[from];
+            sortedTrips[i] = trips[from];
+            sortedStops[i] = stops[from];
+        }
+        return new DepartureBoard(sortedDepartures, sortedTrips, sortedStops);
+    }
+
+    public int size() {
+        return departures.length;
+    }
+
+    /**
+     * 出発時刻（0時からの秒）
+     */
+    public int departure(int position) {
+        return departures[position];
+    }
+
+    /**
+     * 運行の添字（{@link TimetableIndex#trip(int)}）
+     */
+    public int trip(int position) {
+        return trips[position];
+    }
+
+    /**
+     * 運行内の停車位置
+     */
+    public int stop(int position) {
+        return stops[position];
+    }
+
+    /**
+     * second 以降の最初の出発の位置（二分探索、O(log n)）
+     * @return 該当する出発がない場合は {@link #size()}
+     */
+    public int firstAtOrAfter(int second) {
+        int low = 0;
+        int high = departures.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departures[mid] < second) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
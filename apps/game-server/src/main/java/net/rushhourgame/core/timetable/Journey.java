@@ -0,0 +1,17 @@
+package net.rushhourgame.core.timetable;
+
+import java.util.List;
+
+/**
+ * 乗換経路（駅は {@link TimetableIndex} の添字、時刻は0時からの秒）
+ * @param transfers 乗換回数（乗車区間の数 - 1）
+ */
+public record Journey(int origin, int destination, int departureTime, int arrivalTime, int transfers, List<Leg> legs) {
+
+    /**
+     * 1つの運行に乗車する区間
+     * @param tripSlot 運行の添字（{@link TimetableIndex#trip(int)}）
+     */
+    public record Leg(int tripSlot, int fromStation, int toStation, int departureTime, int arrivalTime) {
+    }
+}
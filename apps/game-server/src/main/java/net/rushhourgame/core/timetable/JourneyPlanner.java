@@ -0,0 +1,117 @@
+package net.rushhourgame.core.timetable;
+
+import jakarta.annotation.PreDestroy;
+import net.rushhourgame.models.resident.TravelPlan;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * 時刻表に基づく乗換経路探索
+ * 時刻表索引が更新されると、次の探索時に運行データ（{@link TransitNetwork}）を作り直す。
+ * 探索器は作業配列を持つためスレッドごとに用意し、{@link #planAll} は専用のスレッドプールで並列に探索する。
+ */
+@Component
+public class JourneyPlanner {
+
+    private final TimetableService timetableService;
+    private final TimetableProperties properties;
+    private final ForkJoinPool pool;
+
+    private final ThreadLocal<RaptorSearcher> searchers = new ThreadLocal<>();
+
+    private volatile TransitNetwork network;
+
+    public JourneyPlanner(TimetableService timetableService, TimetableProperties properties) {
+        this.timetableService = timetableService;
+        this.properties = properties;
+        int threads = properties.getPlannerThreads() > 0
+            ? properties.getPlannerThreads()
+            : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("journey-planner-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * 住民の移動計画の経路を探索
+     * 駅は時刻表索引の添字、出発時刻は0時からの秒として扱う。preferredRoute は考慮しない。
+     */
+    public JourneyResult plan(TravelPlan travelPlan) {
+        return searcherFor(getNetwork())
+            .search(travelPlan.origin(), travelPlan.destination(), (int) travelPlan.departureTime());
+    }
+
+    /**
+     * 駅ID間の経路を探索
+     */
+    public JourneyResult plan(String originStationId, String destinationStationId, LocalTime departureTime) {
+        TransitNetwork current = getNetwork();
+        TimetableIndex index = current.getSource();
+        int origin = index.stationIndex(originStationId);
+        int destination = index.stationIndex(destinationStationId);
+        if (origin == TimetableIndex.NO_STATION || destination == TimetableIndex.NO_STATION) {
+            return JourneyResult.notFound();
+        }
+        return searcherFor(current).search(origin, destination, departureTime.toSecondOfDay());
+    }
+
+    /**
+     * 複数の移動計画を並列に探索（結果は入力と同じ順）
+     */
+    public List<JourneyResult> planAll(List<TravelPlan> travelPlans) {
+        TransitNetwork current = getNetwork();
+        return pool.submit(() -> travelPlans.parallelStream()
+            .map(travelPlan -> searcherFor(current)
+                .search(travelPlan.origin(), travelPlan.destination(), (int) travelPlan.departureTime()))
+            .toList()).join();
+    }
+
+    /**
+     * 駅の添字で経路を探索（同じティック内の探索で運行データをそろえる場合に、{@link #getNetwork()} で取得したものを渡す）
+     * @param departureTime 0時からの秒
+     */
+    public JourneyResult plan(TransitNetwork network, int origin, int destination, int departureTime) {
+        return searcherFor(network).search(origin, destination, departureTime);
+    }
+
+    /**
+     * 現在の時刻表索引に対応する運行データ（索引が更新されていれば作り直す）
+     */
+    public TransitNetwork getNetwork() {
+        TimetableIndex index = timetableService.getIndex();
+        TransitNetwork current = network;
+        if (current != null && current.getSource() == index) {
+            return current;
+        }
+        synchronized (this) {
+            index = timetableService.getIndex();
+            current = network;
+            if (current == null || current.getSource() != index) {
+                current = TransitNetwork.build(index);
+                network = current;
+            }
+            return current;
+        }
+    }
+
+    private RaptorSearcher searcherFor(TransitNetwork current) {
+        RaptorSearcher searcher = searchers.get();
+        if (searcher == null || searcher.getNetwork() != current) {
+            searcher = new RaptorSearcher(current, properties.getMaxTransfers(), properties.getMinTransferSeconds());
+            searchers.set(searcher);
+        }
+        return searcher;
+    }
+}
@@ -0,0 +1,34 @@
+package net.rushhourgame.core.timetable;
+
+import java.util.List;
+
+/**
+ * 乗換経路探索の結果
+ * 到着時刻と乗換回数についてパレート最適な経路を乗換回数の少ない順に持つ（後ろほど早く着く）。
+ */
+public record JourneyResult(List<Journey> journeys) {
+
+    private static final JourneyResult NOT_FOUND = new JourneyResult(List.of());
+
+    public static JourneyResult notFound() {
+        return NOT_FOUND;
+    }
+
+    public boolean isFound() {
+        return !journeys.isEmpty();
+    }
+
+    /**
+     * 最も早く着く経路
+     */
+    public Journey earliestArrival() {
+        return journeys.get(journeys.size() - 1);
+    }
+
+    /**
+     * 乗換が最も少ない経路
+     */
+    public Journey fewestTransfers() {
+        return journeys.get(0);
+    }
+}
@@ -0,0 +1,201 @@
+package net.rushhourgame.core.timetable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ラウンド方式（RAPTOR）の乗換経路探索
+ * k 回目のラウンドで k 本目の運行に乗って着ける最早到着時刻を求め、到着駅の時刻が縮んだラウンドの経路をパレート最適解として返す。
+ * ラウンドごとに前のラウンドで時刻が縮んだ駅を通る系統だけを走査し、到着駅の時刻を上回る到着は記録しない。
+ * 作業配列を探索間で使い回すため、スレッドごとにインスタンスを用意すること。
+ */
+public final class RaptorSearcher {
+
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int NO_TRIP = -1;
+
+    private final TransitNetwork network;
+    private final int maxRounds;
+    private final int minTransferSeconds;
+    private final int n;
+
+    // ラウンド k・駅 s の値は [k * n + s]
+    private final int[] labels;
+    private final int[] parentTrip;
+    private final int[] parentBoard;
+    private final int[] parentAlight;
+    private final int[] best;
+
+    private final boolean[] marked;
+    private final int[] markedStations;
+    private int markedCount;
+
+    private final int[] routeStartPosition;
+    private final int[] queuedRoutes;
+    private int queuedCount;
+
+    /**
+     * @param maxTransfers 乗換回数の上限
+     * @param minTransferSeconds 乗換に必要な時間（秒）
+     */
+    public RaptorSearcher(TransitNetwork network, int maxTransfers, int minTransferSeconds) {
+        this.network = network;
+        this.maxRounds = maxTransfers + 1;
+        this.minTransferSeconds = minTransferSeconds;
+        this.n = network.stationCount();
+        int size = (maxRounds + 1) * n;
+        labels = new int[size];
+        parentTrip = new int[size];
+        parentBoard = new int[size];
+        parentAlight = new int[size];
+        best = new int[n];
+        marked = new boolean[n];
+        markedStations = new int[n];
+        routeStartPosition = new int[network.routeCount()];
+        Arrays.fill(routeStartPosition, -1);
+        queuedRoutes = new int[network.routeCount()];
+    }
+
+    public TransitNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * departureTime 以降に origin を出て destination に着く経路を探索
+     * @param departureTime 0時からの秒
+     */
+    public JourneyResult search(int origin, int destination, int departureTime) {
+        if (origin < 0 || origin >= n || destination < 0 || destination >= n) {
+            return JourneyResult.notFound();
+        }
+        if (origin == destination) {
+            return new JourneyResult(List.of(
+                new Journey(origin, destination, departureTime, departureTime, 0, List.of())));
+        }
+        Arrays.fill(labels, 0, n, INFINITY);
+        Arrays.fill(best, INFINITY);
+        labels[origin] = departureTime;
+        best[origin] = departureTime;
+        markedCount = 0;
+        mark(origin);
+
+        int rounds = 0;
+        for (int k = 1; k <= maxRounds && markedCount > 0; k++) {
+            int base = k * n;
+            System.arraycopy(labels, base - n, labels, base, n);
+            Arrays.fill(parentTrip, base, base + n, NO_TRIP);
+            queueRoutes();
+            for (int q = 0; q < queuedCount; q++) {
+                int route = queuedRoutes[q];
+                scanRoute(route, routeStartPosition[route], k, origin, destination);
+                routeStartPosition[route] = -1;
+            }
+            queuedCount = 0;
+            rounds = k;
+        }
+        for (int i = 0; i < markedCount; i++) {
+            marked[markedStations[i]] = false;
+        }
+        markedCount = 0;
+        return collect(origin, destination, departureTime, rounds);
+    }
+
+    /**
+     * 時刻が縮んだ駅を通る系統を、その駅の最も手前の停車位置から走査するよう登録する
+     */
+    private void queueRoutes() {
+        for (int i = 0; i < markedCount; i++) {
+            int station = markedStations[i];
+            marked[station] = false;
+            for (int slot = network.stationRouteStart(station), end = network.stationRouteEnd(station); slot < end; slot++) {
+                int route = network.stationRoute(slot);
+                int position = network.stationRoutePosition(slot);
+                if (routeStartPosition[route] < 0) {
+                    queuedRoutes[queuedCount++] = route;
+                    routeStartPosition[route] = position;
+                } else if (position < routeStartPosition[route]) {
+                    routeStartPosition[route] = position;
+                }
+            }
+        }
+        markedCount = 0;
+    }
+
+    private void scanRoute(int route, int start, int k, int origin, int destination) {
+        int base = k * n;
+        int previousBase = base - n;
+        int trip = NO_TRIP;
+        int board = -1;
+        for (int position = start, length = network.routeLength(route); position < length; position++) {
+            int station = network.routeStop(route, position);
+            if (trip != NO_TRIP) {
+                int arrival = network.arrival(trip, position);
+                if (arrival < best[station] && arrival < best[destination]) {
+                    labels[base + station] = arrival;
+                    best[station] = arrival;
+                    parentTrip[base + station] = trip;
+                    parentBoard[base + station] = board;
+                    parentAlight[base + station] = position;
+                    mark(station);
+                }
+            }
+            int previous = labels[previousBase + station];
+            if (previous == INFINITY) {
+                continue;
+            }
+            int ready = k > 1 && station != origin ? previous + minTransferSeconds : previous;
+            if (trip == NO_TRIP || ready <= network.departure(trip, position)) {
+                int earliest = network.earliestTrip(route, position, ready);
+                if (earliest != NO_TRIP && (trip == NO_TRIP || earliest < trip)) {
+                    trip = earliest;
+                    board = position;
+                }
+            }
+        }
+    }
+
+    /**
+     * 到着駅の時刻が縮んだラウンドごとに経路を復元する
+     */
+    private JourneyResult collect(int origin, int destination, int departureTime, int rounds) {
+        List<Journey> journeys = new ArrayList<>();
+        int previous = INFINITY;
+        for (int k = 1; k <= rounds; k++) {
+            int index = k * n + destination;
+            if (labels[index] >= previous || parentTrip[index] == NO_TRIP) {
+                continue;
+            }
+            previous = labels[index];
+            List<Journey.Leg> legs = reconstruct(destination, k);
+            journeys.add(new Journey(origin, destination, departureTime, labels[index], legs.size() - 1, legs));
+        }
+        return journeys.isEmpty() ? JourneyResult.notFound() : new JourneyResult(List.copyOf(journeys));
+    }
+
+    private List<Journey.Leg> reconstruct(int destination, int round) {
+        List<Journey.Leg> legs = new ArrayList<>();
+        int station = destination;
+        for (int k = round; k > 0; k--) {
+            int index = k * n + station;
+            int trip = parentTrip[index];
+            if (trip == NO_TRIP) {
+                continue;
+            }
+            int route = network.routeOfTrip(trip);
+            int board = parentBoard[index];
+            int from = network.routeStop(route, board);
+            legs.add(new Journey.Leg(network.tripSlot(trip), from, station,
+                network.departure(trip, board), network.arrival(trip, parentAlight[index])));
+            station = from;
+        }
+        return legs.reversed();
+    }
+
+    private void mark(int station) {
+        if (!marked[station]) {
+            marked[station] = true;
+            markedStations[markedCount++] = station;
+        }
+    }
+}
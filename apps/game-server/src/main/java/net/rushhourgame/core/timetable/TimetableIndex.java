@@ -0,0 +1,280 @@
+package net.rushhourgame.core.timetable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 時刻表の索引（不変）
+ * 駅・運行を添字で管理し、駅ごとの発車案内（{@link DepartureBoard}）を出発時刻の昇順の int 配列で保持する。
+ * 「駅Xを時刻T以降に出発する列車」は発車案内の二分探索で求まる。
+ * 運行の追加・変更・削除は {@link #update} で新しい索引を作り、影響する駅の発車案内だけを作り直す（他の駅は共有する）。
+ * 時刻は0時からの秒で扱い、日付をまたぐ運行は考慮しない。
+ */
+public final class TimetableIndex {
+
+    public static final int NO_STATION = -1;
+    public static final int NO_TRIP = -1;
+
+    private static final TimetableIndex EMPTY = new TimetableIndex(
+        Map.of(), new String[0], new DepartureBoard[0], Map.of(), new TimetableTrip[0], new int[0][]);
+
+    private final Map<String, Integer> stationIndices;
+    private final String[] stationIds;
+    private final DepartureBoard[] boards;
+    private final Map<String, Integer> tripSlots;
+    // 削除された運行の添字は null（再利用しない）
+    private final TimetableTrip[] trips;
+    private final int[][] tripStations;
+
+    private TimetableIndex(Map<String, Integer> stationIndices, String[] stationIds, DepartureBoard[] boards,
+                           Map<String, Integer> tripSlots, TimetableTrip[] trips, int[][] tripStations) {
+        this.stationIndices = stationIndices;
+        this.stationIds = stationIds;
+        this.boards = boards;
+        this.tripSlots = tripSlots;
+        this.trips = trips;
+        this.tripStations = tripStations;
+    }
+
+    public static TimetableIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 運行の一覧から構築
+     */
+    public static TimetableIndex build(Collection<TimetableTrip> trips) {
+        return EMPTY.update(trips, List.of());
+    }
+
+    /**
+     * 駅と運行の添字を保ったまま構築（スナップショットの復元用）
+     * 削除された運行の添字は仮の運行で埋めてから削除し、添字を詰めない。
+     * @param stationIds 駅の添字の順の駅ID
+     * @param tripsBySlot 運行の添字の順の運行（削除された添字は null）
+     */
+    public static TimetableIndex restore(String[] stationIds, TimetableTrip[] tripsBySlot) {
+        Map<String, Integer> stationIndices = new HashMap<>(stationIds.length * 2);
+        for (int i = 0; i < stationIds.length; i++) {
+            stationIndices.put(stationIds[i], i);
+        }
+        DepartureBoard[] boards = new DepartureBoard[stationIds.length];
+        Arrays.fill(boards, DepartureBoard.EMPTY);
+        TimetableIndex stations = new TimetableIndex(stationIndices, stationIds.clone(), boards, Map.of(),
+            new TimetableTrip[0], new int[0][]);
+        List<TimetableTrip> trips = new ArrayList<>(tripsBySlot.length);
+        List<String> holes = new ArrayList<>();
+        for (int slot = 0; slot < tripsBySlot.length; slot++) {
+            TimetableTrip trip = tripsBySlot[slot];
+            if (trip == null) {
+                String placeholder = "\0removed-" + slot;
+                holes.add(placeholder);
+                trip = new TimetableTrip(placeholder, null, null, new String[0], new int[0], new int[0]);
+            }
+            trips.add(trip);
+        }
+        TimetableIndex index = stations.update(trips, List.of());
+        return holes.isEmpty() ? index : index.update(List.of(), holes);
+    }
+
+    /**
+     * 運行を追加・置換・削除した索引を作る
+     * 同じスケジュールIDの運行は置き換える（添字は変わらない）。
+     * @param changed 追加または変更された運行
+     * @param removedScheduleIds 削除されたスケジュールのID（未登録のIDは無視する）
+     */
+    public TimetableIndex update(Collection<TimetableTrip> changed, Collection<String> removedScheduleIds) {
+        Map<String, TimetableTrip> added = new LinkedHashMap<>();
+        for (TimetableTrip trip : changed) {
+            added.put(trip.scheduleId(), trip);
+        }
+        Map<String, Integer> newStationIndices = new HashMap<>(stationIndices);
+        List<String> newStationIds = new ArrayList<>(Arrays.asList(stationIds));
+        Map<String, Integer> newTripSlots = new HashMap<>(tripSlots);
+
+        // 削除・置換される運行
+        BitSet dropped = new BitSet(trips.length);
+        BitSet affected = new BitSet(stationIds.length);
+        for (String scheduleId : removedScheduleIds) {
+            Integer slot = newTripSlots.remove(scheduleId);
+            if (slot != null) {
+                dropped.set(slot);
+            }
+        }
+        int tripCapacity = trips.length;
+        int[] addedSlots = new int[added.size()];
+        int a = 0;
+        for (TimetableTrip trip : added.values()) {
+            Integer slot = newTripSlots.get(trip.scheduleId());
+            if (slot == null) {
+                slot = tripCapacity++;
+                newTripSlots.put(trip.scheduleId(), slot);
+            } else {
+                dropped.set(slot);
+            }
+            addedSlots[a++] = slot;
+        }
+        for (int slot = dropped.nextSetBit(0); slot >= 0; slot = dropped.nextSetBit(slot + 1)) {
+            for (int station : tripStations[slot]) {
+                affected.set(station);
+            }
+        }
+
+        TimetableTrip[] newTrips = Arrays.copyOf(trips, tripCapacity);
+        int[][] newTripStations = Arrays.copyOf(tripStations, tripCapacity);
+        for (int slot = dropped.nextSetBit(0); slot >= 0; slot = dropped.nextSetBit(slot + 1)) {
+            newTrips[slot] = null;
+            newTripStations[slot] = null;
+        }
+        a = 0;
+        for (TimetableTrip trip : added.values()) {
+            int slot = addedSlots[a++];
+            int[] stations = new int[trip.stopCount()];
+            for (int stop = 0; stop < stations.length; stop++) {
+                String stationId = trip.stationId(stop);
+                Integer station = newStationIndices.get(stationId);
+                if (station == null) {
+                    station = newStationIds.size();
+                    newStationIndices.put(stationId, station);
+                    newStationIds.add(stationId);
+                }
+                stations[stop] = station;
+                affected.set(station);
+            }
+            newTrips[slot] = trip;
+            newTripStations[slot] = stations;
+        }
+
+        int stationCount = newStationIds.size();
+        DepartureBoard[] newBoards = Arrays.copyOf(boards, stationCount);
+        int[] counts = new int[stationCount];
+        for (int station = affected.nextSetBit(0); station >= 0; station = affected.nextSetBit(station + 1)) {
+            DepartureBoard board = station < boards.length ? boards[station] : DepartureBoard.EMPTY;
+            for (int p = 0; p < board.size(); p++) {
+                if (!dropped.get(board.trip(p))) {
+                    counts[station]++;
+                }
+            }
+        }
+        a = 0;
+        for (TimetableTrip trip : added.values()) {
+            int[] stations = newTripStations[addedSlots[a++]];
+            // 終点からは出発しない
+            for (int stop = 0; stop < stations.length - 1; stop++) {
+                counts[stations[stop]]++;
+            }
+        }
+
+        int[][] departures = new int[stationCount][];
+        int[][] departureTrips = new int[stationCount][];
+        int[][] departureStops = new int[stationCount][];
+        int[] filled = new int[stationCount];
+        for (int station = affected.nextSetBit(0); station >= 0; station = affected.nextSetBit(station + 1)) {
+            departures[station] = new int[counts[station]];
+            departureTrips[station] = new int[counts[station]];
+            departureStops[station] = new int[counts[station]];
+            DepartureBoard board = station < boards.length ? boards[station] : DepartureBoard.EMPTY;
+            for (int p = 0; p < board.size(); p++) {
+                if (!dropped.get(board.trip(p))) {
+                    int f = filled[station]++;
+                    departures[station][f] = board.departure(p);
+                    departureTrips[station][f] = board.trip(p);
+                    departureStops[station][f] = board.stop(p);
+                }
+            }
+        }
+        a = 0;
+        for (TimetableTrip trip : added.values()) {
+            int slot = addedSlots[a++];
+            int[] stations = newTripStations[slot];
+            for (int stop = 0; stop < stations.length - 1; stop++) {
+                int station = stations[stop];
+                int f = filled[station]++;
+                departures[station][f] = trip.departure(stop);
+                departureTrips[station][f] = slot;
+                departureStops[station][f] = stop;
+            }
+        }
+        for (int station = affected.nextSetBit(0); station >= 0; station = affected.nextSetBit(station + 1)) {
+            newBoards[station] = DepartureBoard.of(
+                departures[station], departureTrips[station], departureStops[station], counts[station]);
+        }
+        return new TimetableIndex(newStationIndices, newStationIds.toArray(String[]::new), newBoards,
+            newTripSlots, newTrips, newTripStations);
+    }
+
+    /**
+     * 駅IDの添字
+     * @return 登録されていない場合は {@link #NO_STATION}
+     */
+    public int stationIndex(String stationId) {
+        return stationIndices.getOrDefault(stationId, NO_STATION);
+    }
+
+    public String stationId(int station) {
+        return stationIds[station];
+    }
+
+    public int stationCount() {
+        return stationIds.length;
+    }
+
+    /**
+     * 駅の発車案内
+     */
+    public DepartureBoard board(int station) {
+        return boards[station];
+    }
+
+    /**
+     * 駅を second 以降に出発する最初の出発の発車案内上の位置
+     * @return 該当する出発がない場合は -1
+     */
+    public int nextDeparture(int station, int second) {
+        DepartureBoard board = boards[station];
+        int position = board.firstAtOrAfter(second);
+        return position < board.size() ? position : -1;
+    }
+
+    /**
+     * スケジュールIDの運行の添字
+     * @return 登録されていない場合は {@link #NO_TRIP}
+     */
+    public int tripSlot(String scheduleId) {
+        return tripSlots.getOrDefault(scheduleId, NO_TRIP);
+    }
+
+    /**
+     * 運行（削除された添字は null）
+     */
+    public TimetableTrip trip(int slot) {
+        return trips[slot];
+    }
+
+    /**
+     * 運行の停車駅の添字
+     */
+    public int tripStation(int slot, int stop) {
+        return tripStations[slot][stop];
+    }
+
+    /**
+     * 運行の添字の上限（削除された添字を含む）
+     */
+    public int tripCapacity() {
+        return trips.length;
+    }
+
+    /**
+     * 登録されている運行の数
+     */
+    public int tripCount() {
+        return tripSlots.size();
+    }
+}
@@ -0,0 +1,27 @@
+package net.rushhourgame.core.timetable;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 時刻表・乗換経路探索の設定
+ */
+@Data
+@ConfigurationProperties(prefix = "rushhour.timetable")
+public class TimetableProperties {
+
+    /**
+     * 乗換回数の上限
+     */
+    private int maxTransfers = 4;
+
+    /**
+     * 乗換に必要な時間（秒）
+     */
+    private int minTransferSeconds = 60;
+
+    /**
+     * 一括探索に使うスレッド数（0の場合はCPUコア数）
+     */
+    private int plannerThreads = 0;
+}
@@ -0,0 +1,52 @@
+package net.rushhourgame.core.timetable;
+
+import lombok.RequiredArgsConstructor;
+import net.rushhourgame.core.simulation.SimulationWorld;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 時刻表索引の参照
+ * 索引はシミュレーションのワールドが持ち、読み込みとスケジュールの変更はコマンドとして
+ * {@link net.rushhourgame.core.simulation.SimulationEngine#submit} し、ティックの境界で差し替える（リプレイで再現できる）。
+ * 索引は不変のため、検索は {@link #getIndex()} で取得した索引をロックなしで参照できる。
+ */
+@Component
+@RequiredArgsConstructor
+public class TimetableService {
+
+    private final SimulationWorld world;
+
+    public TimetableIndex getIndex() {
+        return world.getTimetable();
+    }
+
+    /**
+     * 駅を指定時刻以降に出発する列車を出発順に取得
+     */
+    public List<Departure> nextDepartures(String stationId, LocalTime after, int limit) {
+        TimetableIndex current = world.getTimetable();
+        int station = current.stationIndex(stationId);
+        if (station == TimetableIndex.NO_STATION) {
+            return List.of();
+        }
+        DepartureBoard board = current.board(station);
+        List<Departure> departures = new ArrayList<>(Math.min(limit, board.size()));
+        for (int p = board.firstAtOrAfter(after.toSecondOfDay()); p < board.size() && departures.size() < limit; p++) {
+            TimetableTrip trip = current.trip(board.trip(p));
+            departures.add(new Departure(trip.scheduleId(), trip.routeId(), trip.trainId(),
+                LocalTime.ofSecondOfDay(board.departure(p)), board.stop(p)));
+        }
+        return departures;
+    }
+
+    /**
+     * 発車案内の1件
+     * @param stopSequence 運行内の停車順（0始まり）
+     */
+    public record Departure(String scheduleId, String routeId, String trainId, LocalTime departureTime, int stopSequence) {
+    }
+}
@@ -0,0 +1,90 @@
+package net.rushhourgame.core.timetable;
+
+import net.rushhourgame.core.database.entities.ScheduleEntity;
+import net.rushhourgame.core.database.entities.StopTimeEntity;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 時刻表索引に登録する1本の運行（スケジュール）
+ * 停車駅と到着・出発時刻（0時からの秒）を停車順に保持する。
+ */
+public final class TimetableTrip {
+
+    private final String scheduleId;
+    private final String routeId;
+    private final String trainId;
+    private final String[] stationIds;
+    private final int[] arrivals;
+    private final int[] departures;
+
+    public TimetableTrip(String scheduleId, String routeId, String trainId,
+                         String[] stationIds, int[] arrivals, int[] departures) {
+        if (arrivals.length != stationIds.length || departures.length != stationIds.length) {
+            throw new IllegalArgumentException("Stop arrays must have the same length");
+        }
+        this.scheduleId = scheduleId;
+        this.routeId = routeId;
+        this.trainId = trainId;
+        this.stationIds = stationIds.clone();
+        this.arrivals = arrivals.clone();
+        this.departures = departures.clone();
+    }
+
+    /**
+     * スケジュールエンティティから構築（停車時間を sequenceOrder の順に並べる）
+     * 停車時間を読み込んだエンティティを渡すこと。
+     */
+    public static TimetableTrip fromEntity(ScheduleEntity schedule) {
+        List<StopTimeEntity> stops = new ArrayList<>(schedule.getStopTimes());
+        stops.sort(Comparator.comparing(StopTimeEntity::getSequenceOrder));
+        int n = stops.size();
+        String[] stationIds = new String[n];
+        int[] arrivals = new int[n];
+        int[] departures = new int[n];
+        for (int i = 0; i < n; i++) {
+            StopTimeEntity stop = stops.get(i);
+            stationIds[i] = stop.getStationId();
+            arrivals[i] = stop.getArrivalTime().toSecondOfDay();
+            departures[i] = stop.getDepartureTime().toSecondOfDay();
+        }
+        String trainId = schedule.getTrain() == null ? null : schedule.getTrain().getId();
+        return new TimetableTrip(schedule.getId(), schedule.getRouteId(), trainId, stationIds, arrivals, departures);
+    }
+
+    public String scheduleId() {
+        return scheduleId;
+    }
+
+    public String routeId() {
+        return routeId;
+    }
+
+    public String trainId() {
+        return trainId;
+    }
+
+    public int stopCount() {
+        return stationIds.length;
+    }
+
+    public String stationId(int stop) {
+        return stationIds[stop];
+    }
+
+    /**
+     * 停車駅での到着時刻（0時からの秒）
+     */
+    public int arrival(int stop) {
+        return arrivals[stop];
+    }
+
+    /**
+     * 停車駅での出発時刻（0時からの秒）
+     */
+    public int departure(int stop) {
+        return departures[stop];
+    }
+}
@@ -0,0 +1,269 @@
+package net.rushhourgame.core.timetable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 乗換経路探索（RAPTOR）用の運行データ（不変）
+ * 停車駅の並びが同じ運行を1つの系統にまとめ、系統内では運行を追い越しのない順（全停車駅で出発・到着が単調）に並べる。
+ * 追い越しがある場合は系統を分ける。時刻は系統ごとに「運行 × 停車位置」の int 配列に詰める。
+ * 駅の添字は元の {@link TimetableIndex} と同じ。
+ */
+public final class TransitNetwork {
+
+    private final TimetableIndex source;
+    private final int stationCount;
+
+    // 系統 r の停車駅は routeStops[routeStopStart[r] .. routeStopStart[r + 1])
+    private final int[] routeStopStart;
+    private final int[] routeStops;
+    // 系統 r の運行は tripStart[r] .. tripStart[r + 1]（通し番号）
+    private final int[] tripStart;
+    // 通し番号の運行の時刻は timeStart[trip] から停車位置の順
+    private final int[] timeStart;
+    private final int[] arrivals;
+    private final int[] departures;
+    private final int[] tripSlots;
+
+    // 駅 s を通る系統と停車位置は stationRoutes/stationRoutePositions[stationRouteStart[s] .. stationRouteStart[s + 1])
+    private final int[] stationRouteStart;
+    private final int[] stationRoutes;
+    private final int[] stationRoutePositions;
+
+    private TransitNetwork(TimetableIndex source, int[] routeStopStart, int[] routeStops, int[] tripStart,
+                           int[] timeStart, int[] arrivals, int[] departures, int[] tripSlots) {
+        this.source = source;
+        this.stationCount = source.stationCount();
+        this.routeStopStart = routeStopStart;
+        this.routeStops = routeStops;
+        this.tripStart = tripStart;
+        this.timeStart = timeStart;
+        this.arrivals = arrivals;
+        this.departures = departures;
+        this.tripSlots = tripSlots;
+
+        int routeCount = routeStopStart.length - 1;
+        stationRouteStart = new int[stationCount + 1];
+        for (int stop : routeStops) {
+            stationRouteStart[stop + 1]++;
+        }
+        for (int s = 0; s < stationCount; s++) {
+            stationRouteStart[s + 1] += stationRouteStart[s];
+        }
+        stationRoutes = new int[routeStops.length];
+        stationRoutePositions = new int[routeStops.length];
+        int[] filled = Arrays.copyOf(stationRouteStart, stationCount);
+        for (int r = 0; r < routeCount; r++) {
+            for (int p = routeStopStart[r]; p < routeStopStart[r + 1]; p++) {
+                int f = filled[routeStops[p]]++;
+                stationRoutes[f] = r;
+                stationRoutePositions[f] = p - routeStopStart[r];
+            }
+        }
+    }
+
+    /**
+     * 時刻表索引から構築
+     */
+    public static TransitNetwork build(TimetableIndex index) {
+        Map<Pattern, List<Integer>> patterns = new HashMap<>();
+        List<Pattern> patternOrder = new ArrayList<>();
+        for (int slot = 0; slot < index.tripCapacity(); slot++) {
+            TimetableTrip trip = index.trip(slot);
+            if (trip == null || trip.stopCount() < 2) {
+                continue;
+            }
+            int[] stations = new int[trip.stopCount()];
+            for (int stop = 0; stop < stations.length; stop++) {
+                stations[stop] = index.tripStation(slot, stop);
+            }
+            Pattern pattern = new Pattern(stations);
+            patterns.computeIfAbsent(pattern, key -> {
+                patternOrder.add(key);
+                return new ArrayList<>();
+            }).add(slot);
+        }
+
+        List<int[]> routeStations = new ArrayList<>();
+        List<List<Integer>> routeTrips = new ArrayList<>();
+        for (Pattern pattern : patternOrder) {
+            List<Integer> slots = patterns.get(pattern);
+            slots.sort(Comparator.<Integer>comparingInt(slot -> index.trip(slot).departure(0)).thenComparingInt(slot -> slot));
+            List<List<Integer>> subRoutes = new ArrayList<>();
+            for (int slot : slots) {
+                List<Integer> target = null;
+                for (List<Integer> subRoute : subRoutes) {
+                    if (!overtakes(index.trip(subRoute.get(subRoute.size() - 1)), index.trip(slot))) {
+                        target = subRoute;
+                        break;
+                    }
+                }
+                if (target == null) {
+                    target = new ArrayList<>();
+                    subRoutes.add(target);
+                }
+                target.add(slot);
+            }
+            for (List<Integer> subRoute : subRoutes) {
+                routeStations.add(pattern.stations());
+                routeTrips.add(subRoute);
+            }
+        }
+
+        int routeCount = routeStations.size();
+        int[] routeStopStart = new int[routeCount + 1];
+        int[] tripStart = new int[routeCount + 1];
+        int timeCount = 0;
+        for (int r = 0; r < routeCount; r++) {
+            routeStopStart[r + 1] = routeStopStart[r] + routeStations.get(r).length;
+            tripStart[r + 1] = tripStart[r] + routeTrips.get(r).size();
+            timeCount += routeStations.get(r).length * routeTrips.get(r).size();
+        }
+        int[] routeStops = new int[routeStopStart[routeCount]];
+        int[] timeStart = new int[tripStart[routeCount]];
+        int[] tripSlots = new int[tripStart[routeCount]];
+        int[] arrivals = new int[timeCount];
+        int[] departures = new int[timeCount];
+        int time = 0;
+        for (int r = 0; r < routeCount; r++) {
+            int[] stations = routeStations.get(r);
+            System.arraycopy(stations, 0, routeStops, routeStopStart[r], stations.length);
+            List<Integer> slots = routeTrips.get(r);
+            for (int t = 0; t < slots.size(); t++) {
+                int trip = tripStart[r] + t;
+                TimetableTrip timetableTrip = index.trip(slots.get(t));
+                tripSlots[trip] = slots.get(t);
+                timeStart[trip] = time;
+                for (int stop = 0; stop < stations.length; stop++) {
+                    arrivals[time] = timetableTrip.arrival(stop);
+                    departures[time] = timetableTrip.departure(stop);
+                    time++;
+                }
+            }
+        }
+        return new TransitNetwork(index, routeStopStart, routeStops, tripStart, timeStart, arrivals, departures, tripSlots);
+    }
+
+    /**
+     * later がどこかの停車駅で earlier より早く出発・到着する（追い越す）か
+     */
+    private static boolean overtakes(TimetableTrip earlier, TimetableTrip later) {
+        for (int stop = 0; stop < earlier.stopCount(); stop++) {
+            if (later.departure(stop) < earlier.departure(stop) || later.arrival(stop) < earlier.arrival(stop)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public TimetableIndex getSource() {
+        return source;
+    }
+
+    public int stationCount() {
+        return stationCount;
+    }
+
+    public int routeCount() {
+        return routeStopStart.length - 1;
+    }
+
+    public int routeLength(int route) {
+        return routeStopStart[route + 1] - routeStopStart[route];
+    }
+
+    public int routeStop(int route, int position) {
+        return routeStops[routeStopStart[route] + position];
+    }
+
+    public int tripStart(int route) {
+        return tripStart[route];
+    }
+
+    public int tripEnd(int route) {
+        return tripStart[route + 1];
+    }
+
+    /**
+     * 通し番号の運行が属する系統（二分探索）
+     */
+    public int routeOfTrip(int trip) {
+        int low = 0;
+        int high = routeCount() - 1;
+        // tripStart[low] <= trip < tripStart[high + 1] を保つ
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (tripStart[mid] <= trip) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    public int arrival(int trip, int position) {
+        return arrivals[timeStart[trip] + position];
+    }
+
+    public int departure(int trip, int position) {
+        return departures[timeStart[trip] + position];
+    }
+
+    /**
+     * 通し番号の運行の、時刻表索引での添字
+     */
+    public int tripSlot(int trip) {
+        return tripSlots[trip];
+    }
+
+    /**
+     * 系統の停車位置 position を time 以降に出発する最初の運行（二分探索）
+     * @return 該当する運行がない場合は -1
+     */
+    public int earliestTrip(int route, int position, int time) {
+        int low = tripStart[route];
+        int high = tripStart[route + 1];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departure(mid, position) < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < tripStart[route + 1] ? low : -1;
+    }
+
+    public int stationRouteStart(int station) {
+        return stationRouteStart[station];
+    }
+
+    public int stationRouteEnd(int station) {
+        return stationRouteStart[station + 1];
+    }
+
+    public int stationRoute(int slot) {
+        return stationRoutes[slot];
+    }
+
+    public int stationRoutePosition(int slot) {
+        return stationRoutePositions[slot];
+    }
+
+    private record Pattern(int[] stations) {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Pattern pattern && Arrays.equals(stations, pattern.stations);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(stations);
+        }
+    }
+}
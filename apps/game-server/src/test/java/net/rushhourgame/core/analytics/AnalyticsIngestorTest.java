@@ -0,0 +1,140 @@
+package net.rushhourgame.core.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.rushhourgame.proto.GameEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * AnalyticsIngestorの単体テストクラス
+ */
+class AnalyticsIngestorTest {
+
+    private final List<List<GameEvent>> batches = new ArrayList<>();
+    private AnalyticsIngestor ingestor;
+
+    @AfterEach
+    void tearDown() {
+        ingestor.shutdown();
+    }
+
+    /**
+     * 満杯の間に届いたイベントは破棄して数え、書き出しはバッチサイズごとにまとめることを確認
+     */
+    @Test
+    void flush_shouldWriteInBatchesAndCountDrops() {
+        ingestor = new AnalyticsIngestor(events -> batches.add(List.copyOf(events)), properties(8, 3, 0.5));
+
+        for (int i = 0; i < 10; i++) {
+            ingestor.offer(event(i));
+        }
+
+        assertThat(ingestor.getAccepted()).isEqualTo(8);
+        assertThat(ingestor.getDropped()).isEqualTo(2);
+        assertThat(ingestor.flush()).isEqualTo(8);
+        assertThat(batches.stream().map(List::size).toList()).containsExactly(3, 3, 2);
+        assertThat(batches.get(0).get(0).getTimestamp()).isZero();
+        assertThat(batches.get(2).get(1).getTimestamp()).isEqualTo(7);
+        assertThat(ingestor.getWritten()).isEqualTo(8);
+        assertThat(ingestor.getBuffered()).isZero();
+    }
+
+    /**
+     * 使用率が閾値を超えると停止を求め、書き出しで下回ったときに停止したストリームを再開することを確認
+     */
+    @Test
+    void resumeWhenDrained_shouldResumeAfterFlush() {
+        ingestor = new AnalyticsIngestor(events -> batches.add(List.copyOf(events)), properties(8, 100, 0.5));
+        AtomicInteger resumed = new AtomicInteger();
+
+        for (int i = 0; i < 4; i++) {
+            ingestor.offer(event(i));
+        }
+        assertThat(ingestor.shouldPause()).isTrue();
+        ingestor.resumeWhenDrained(resumed::incrementAndGet);
+        assertThat(resumed.get()).isZero();
+
+        ingestor.flush();
+
+        assertThat(ingestor.shouldPause()).isFalse();
+        assertThat(resumed.get()).isEqualTo(1);
+        assertThat(ingestor.getPauses()).isEqualTo(1);
+        // 空いていれば登録した時点で再開する
+        ingestor.resumeWhenDrained(resumed::incrementAndGet);
+        assertThat(resumed.get()).isEqualTo(2);
+    }
+
+    /**
+     * 保存に失敗したバッチは破棄して数え、後続のバッチは書き出すことを確認
+     */
+    @Test
+    void flush_shouldCountFailedBatches() {
+        ingestor = new AnalyticsIngestor(events -> {
+            if (batches.isEmpty()) {
+                batches.add(List.of());
+                throw new IllegalStateException("storage unavailable");
+            }
+            batches.add(List.copyOf(events));
+        }, properties(8, 2, 0.5));
+
+        for (int i = 0; i < 3; i++) {
+            ingestor.offer(event(i));
+        }
+
+        assertThat(ingestor.flush()).isEqualTo(1);
+        assertThat(ingestor.getFailed()).isEqualTo(2);
+        assertThat(ingestor.getWritten()).isEqualTo(1);
+    }
+
+    /**
+     * バッファが空でも、書き出しのたびに保存先へ通知することを確認
+     */
+    @Test
+    void flush_shouldNotifySinkEvenWithoutEvents() {
+        AtomicInteger flushed = new AtomicInteger();
+        ingestor = new AnalyticsIngestor(new AnalyticsEventSink() {
+            @Override
+            public void write(List<GameEvent> events) {
+                batches.add(List.copyOf(events));
+            }
+
+            @Override
+            public void flushed() {
+                flushed.incrementAndGet();
+            }
+        }, properties(8, 2, 0.5));
+
+        assertThat(ingestor.flush()).isZero();
+        ingestor.offer(event(0));
+        assertThat(ingestor.flush()).isEqualTo(1);
+
+        assertThat(flushed.get()).isEqualTo(2);
+        assertThat(batches).hasSize(1);
+    }
+
+    /**
+     * 定期書き出しがテスト中に走らないよう、間隔を長くした設定
+     */
+    private static AnalyticsProperties properties(int capacity, int batchSize, double threshold) {
+        AnalyticsProperties properties = new AnalyticsProperties();
+        properties.setBufferCapacity(capacity);
+        properties.setBatchSize(batchSize);
+        properties.setBackpressureThreshold(threshold);
+        properties.setFlushInterval(Duration.ofHours(1));
+        return properties;
+    }
+
+    private static GameEvent event(long timestamp) {
+        return GameEvent.newBuilder()
+            .setEventType("test")
+            .setPlayerId("player")
+            .setTimestamp(timestamp)
+            .build();
+    }
+}
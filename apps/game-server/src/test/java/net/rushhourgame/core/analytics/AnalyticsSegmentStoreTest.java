@@ -0,0 +1,156 @@
+package net.rushhourgame.core.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import net.rushhourgame.proto.GameEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * AnalyticsSegmentStoreの単体テストクラス
+ */
+class AnalyticsSegmentStoreTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * 行数の上限でセグメントが確定し、確定済みと書き込み中の両方が集計されることを確認
+     */
+    @Test
+    void write_shouldSealSegmentsAndAggregateAcrossThem() {
+        AnalyticsSegmentStore store = new AnalyticsSegmentStore(properties(4));
+
+        store.write(List.of(
+            event("ride", "p1", 100, "fare", "200"),
+            event("ride", "p2", 150, "fare", "150"),
+            event("login", "p1", 160)));
+        assertThat(store.segmentCount()).isZero();
+        store.write(List.of(
+            event("ride", "p1", 300, "fare", "100"),
+            event("ride", "p3", 400, "fare", "free")));
+        assertThat(store.segmentCount()).isEqualTo(1);
+        store.write(List.of(event("ride", "p2", 500, "fare", "50")));
+
+        assertThat(store.openRowCount()).isEqualTo(1);
+        assertThat(store.count(0, 1_000, null)).isEqualTo(6);
+        assertThat(store.count(150, 500, "ride")).isEqualTo(3);
+        assertThat(store.countBy(EventDimension.EVENT_TYPE, 0, 1_000, null))
+            .containsEntry("ride", 5L)
+            .containsEntry("login", 1L);
+        assertThat(store.countBy(EventDimension.PLAYER_ID, 0, 1_000, "ride"))
+            .containsEntry("p1", 2L)
+            .containsEntry("p2", 2L)
+            .containsEntry("p3", 1L);
+        // 数値でない値は合計しない
+        assertThat(store.sumBy(EventDimension.PLAYER_ID, "fare", 0, 1_000, "ride"))
+            .containsEntry("p1", 300.0)
+            .containsEntry("p2", 200.0)
+            .doesNotContainKey("p3");
+        assertThat(store.count(0, 1_000, "unknown")).isZero();
+    }
+
+    /**
+     * 確定したセグメントを再起動後に読み込み、確定前の一時ファイルは削除することを確認
+     */
+    @Test
+    void constructor_shouldLoadSealedSegments() throws IOException {
+        AnalyticsSegmentStore store = new AnalyticsSegmentStore(properties(100));
+        store.write(List.of(event("ride", "p1", 100), event("ride", "p2", 200)));
+        store.seal();
+        store.write(List.of(event("login", "p1", 300)));
+        store.seal();
+        Files.writeString(directory.resolve("events-0000000000000002.seg.tmp"), "partial");
+
+        AnalyticsSegmentStore reopened = new AnalyticsSegmentStore(properties(100));
+        reopened.write(List.of(event("ride", "p3", 400)));
+        reopened.seal();
+
+        List<GameEvent> events = new ArrayList<>();
+        reopened.scan(0, 1_000, events::add);
+        assertThat(reopened.segmentCount()).isEqualTo(3);
+        assertThat(events.stream().map(GameEvent::getPlayerId).toList()).containsExactly("p1", "p2", "p1", "p3");
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.map(file -> file.getFileName().toString()).sorted().toList()).containsExactly(
+                "events-0000000000000000.seg", "events-0000000000000001.seg", "events-0000000000000002.seg");
+        }
+    }
+
+    /**
+     * 書き込みが途絶えても、経過時間の上限を過ぎた書き込み中のセグメントは書き出しスレッドの確認で確定することを確認
+     */
+    @Test
+    void flushed_shouldSealExpiredSegmentWithoutWrites() throws InterruptedException {
+        AnalyticsProperties properties = properties(100);
+        properties.setSegmentMaxAge(Duration.ofMillis(50));
+        AnalyticsSegmentStore store = new AnalyticsSegmentStore(properties);
+        store.flushed();
+        store.write(List.of(event("ride", "p1", 100)));
+        store.flushed();
+        assertThat(store.openRowCount()).isEqualTo(1);
+
+        Thread.sleep(60);
+        store.flushed();
+
+        assertThat(store.segmentCount()).isEqualTo(1);
+        assertThat(store.openRowCount()).isZero();
+        assertThat(store.count(0, 1_000, "ride")).isEqualTo(1);
+    }
+
+    /**
+     * 書き込み・確定と並行して集計しても、書き込み済みのイベント数が減って見えることはないことを確認
+     */
+    @Test
+    void count_shouldNotLoseEventsWhileSealing() throws InterruptedException {
+        AnalyticsSegmentStore store = new AnalyticsSegmentStore(properties(4));
+        int total = 400;
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < total; i++) {
+                store.write(List.of(event("ride", "p1", i)));
+            }
+        });
+        writer.start();
+
+        long last = 0;
+        List<Long> decreases = new ArrayList<>();
+        while (writer.isAlive()) {
+            long count = store.count(0, total, null);
+            if (count < last) {
+                decreases.add(count);
+            }
+            last = Math.max(last, count);
+        }
+        writer.join();
+
+        assertThat(decreases).isEmpty();
+        assertThat(store.count(0, total, null)).isEqualTo(total);
+        assertThat(store.segmentCount()).isEqualTo(total / 4);
+    }
+
+    private AnalyticsProperties properties(int maxRows) {
+        AnalyticsProperties properties = new AnalyticsProperties();
+        properties.setSegmentDirectory(directory);
+        properties.setSegmentMaxRows(maxRows);
+        properties.setSegmentMaxAge(Duration.ofHours(1));
+        return properties;
+    }
+
+    private static GameEvent event(String type, String player, long timestamp, String... attributes) {
+        GameEvent.Builder builder = GameEvent.newBuilder()
+            .setEventType(type)
+            .setPlayerId(player)
+            .setTimestamp(timestamp);
+        for (int i = 0; i < attributes.length; i += 2) {
+            builder.putAttributes(attributes[i], attributes[i + 1]);
+        }
+        return builder.build();
+    }
+}
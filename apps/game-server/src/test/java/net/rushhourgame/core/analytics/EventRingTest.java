@@ -0,0 +1,88 @@
+package net.rushhourgame.core.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * EventRingの単体テストクラス
+ */
+class EventRingTest {
+
+    /**
+     * 容量が2のべき乗に切り上げられ、満杯では追加できず、取り出した分だけ空くことを確認
+     */
+    @Test
+    void offer_shouldRejectWhenFull() {
+        EventRing<Integer> ring = new EventRing<>(3);
+
+        assertThat(ring.capacity()).isEqualTo(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(ring.offer(i)).isTrue();
+        }
+        assertThat(ring.offer(4)).isFalse();
+        assertThat(ring.size()).isEqualTo(4);
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(ring.drainTo(drained, 1)).isEqualTo(1);
+        assertThat(ring.offer(4)).isTrue();
+        assertThat(ring.drainTo(drained, 10)).isEqualTo(4);
+        assertThat(drained).containsExactly(0, 1, 2, 3, 4);
+        assertThat(ring.size()).isZero();
+        assertThat(ring.drainTo(drained, 10)).isZero();
+    }
+
+    /**
+     * 複数スレッドから追加しても、要素が欠けず各スレッド内の順序が保たれることを確認
+     */
+    @Test
+    void offer_shouldKeepEveryElementFromConcurrentProducers() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 50_000;
+        EventRing<Long> ring = new EventRing<>(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    while (!ring.offer(producer * perProducer + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+
+        long[] next = new long[producers];
+        List<Long> batch = new ArrayList<>();
+        int received = 0;
+        while (received < producers * perProducer) {
+            batch.clear();
+            received += ring.drainTo(batch, 100);
+            for (long value : batch) {
+                int producer = (int) (value / perProducer);
+                assertThat(value % perProducer).isEqualTo(next[producer]);
+                next[producer]++;
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (long count : next) {
+            assertThat(count).isEqualTo(perProducer);
+        }
+        assertThat(ring.size()).isZero();
+    }
+}
@@ -0,0 +1,83 @@
+package net.rushhourgame.core.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.rushhourgame.proto.GameEvent;
+import org.junit.jupiter.api.Test;
+
+/**
+ * EventSegment・EventSegmentEncoderの単体テストクラス
+ */
+class EventSegmentTest {
+
+    /**
+     * 行が時刻の順に並び替えられ、辞書・属性を含めて元のイベントに戻せることを確認
+     */
+    @Test
+    void of_shouldRoundTripEventsInTimestampOrder() {
+        EventSegment segment = EventSegment.of(List.of(
+            event("purchase", "p2", 300, "amount", "120"),
+            event("login", "p1", 100),
+            event("purchase", "p1", 200, "amount", "80", "item", "ticket")));
+
+        List<GameEvent> events = new ArrayList<>();
+        segment.scan(Long.MIN_VALUE, Long.MAX_VALUE, (row, timestamp) -> events.add(segment.event(row, timestamp)));
+
+        assertThat(segment.rowCount()).isEqualTo(3);
+        assertThat(segment.minTimestamp()).isEqualTo(100);
+        assertThat(segment.maxTimestamp()).isEqualTo(300);
+        assertThat(segment.eventTypeCount()).isEqualTo(2);
+        assertThat(segment.eventTypeId("unknown")).isEqualTo(EventSegment.NOT_FOUND);
+        assertThat(events.stream().map(GameEvent::getTimestamp).toList()).containsExactly(100L, 200L, 300L);
+        assertThat(events.get(0).getEventType()).isEqualTo("login");
+        assertThat(events.get(1).getPlayerId()).isEqualTo("p1");
+        assertThat(events.get(1).getAttributesMap()).containsEntry("amount", "80").containsEntry("item", "ticket");
+        assertThat(events.get(2).getAttributesMap()).containsEntry("amount", "120");
+    }
+
+    /**
+     * 複数ブロックにまたがり同じ時刻が多い場合も、時刻範囲の走査が総当たりと一致することを確認
+     */
+    @Test
+    void scan_shouldMatchBruteForceAcrossBlocks() {
+        Random random = new Random(11);
+        List<GameEvent> events = new ArrayList<>();
+        for (int i = 0; i < EventSegment.BLOCK_ROWS * 5 + 17; i++) {
+            // 300種類のプレイヤーで番号が2バイトになる
+            events.add(event("type" + random.nextInt(5), "p" + random.nextInt(300), random.nextInt(2_000)));
+        }
+        EventSegment segment = EventSegment.of(events);
+
+        for (int query = 0; query < 200; query++) {
+            long from = random.nextInt(2_200) - 100;
+            long to = from + random.nextInt(500);
+            long expected = events.stream()
+                .filter(event -> event.getTimestamp() >= from && event.getTimestamp() < to)
+                .count();
+            long[] actual = new long[1];
+            long[] previous = {Long.MIN_VALUE};
+            segment.scan(from, to, (row, timestamp) -> {
+                assertThat(timestamp).isGreaterThanOrEqualTo(previous[0]);
+                previous[0] = timestamp;
+                actual[0]++;
+            });
+            assertThat(actual[0]).isEqualTo(expected);
+        }
+        assertThat(segment.playerCount()).isEqualTo(300);
+    }
+
+    private static GameEvent event(String type, String player, long timestamp, String... attributes) {
+        GameEvent.Builder builder = GameEvent.newBuilder()
+            .setEventType(type)
+            .setPlayerId(player)
+            .setTimestamp(timestamp);
+        for (int i = 0; i < attributes.length; i += 2) {
+            builder.putAttributes(attributes[i], attributes[i + 1]);
+        }
+        return builder.build();
+    }
+}
@@ -1,5 +1,6 @@
 package net.rushhourgame.core.database.repositories;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -241,6 +242,28 @@ class TrackRepositoryTest {
         assertThat(tracks).extracting(TrackEntity::getId).containsExactlyInAnyOrder(track17.getId(), track18.getId());
     }
 
+    /**
+     * 曲線の点を詰めた線路と詰めていない線路の取得・点の行の削除テスト
+     * 詰めた曲線の有無で線路が振り分けられ、点の行を一括削除できることを確認
+     */
+    @Test
+    void findAllWithPackedCurve_shouldSeparatePackedTracks() {
+        // テストデータの準備
+        TrackEntity packed = createTestTrackEntity("owner-11", 100.0, 100.0, null, null);
+        packed.setCurveData(new byte[] {1, 0, 0, 0, 0});
+        packed = trackRepository.save(packed);
+        TrackEntity unpacked = createTestTrackEntity("owner-11", 100.0, 100.0, null, null);
+        unpacked.setCurve(new ArrayList<>(List.of(createTestPoint3DEmbeddable(1.0, 2.0, 3.0, 0, unpacked))));
+        unpacked = trackRepository.saveAndFlush(unpacked);
+
+        // 検証
+        assertThat(trackRepository.findAllWithPackedCurve()).extracting(TrackEntity::getId).containsExactly(packed.getId());
+        assertThat(trackRepository.findAllWithUnpackedCurve()).extracting(TrackEntity::getId).containsExactly(unpacked.getId());
+        assertThat(trackRepository.findIdsWithUnpackedCurve()).containsExactly(unpacked.getId());
+        assertThat(trackRepository.findAllWithPackedCurve().get(0).getCurveData()).containsExactly(1, 0, 0, 0, 0);
+        assertThat(trackRepository.deleteCurvePointsByTrackIdIn(List.of(unpacked.getId()))).isEqualTo(1);
+    }
+
     // ヘルパーメソッド：テスト用のTrackEntityを作成
     private TrackEntity createTestTrackEntity(String ownerId, Double length, Double maxSpeed, String startJunctionId, String endJunctionId) {
         TrackEntity entity = new TrackEntity();
@@ -0,0 +1,141 @@
+package net.rushhourgame.core.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.rushhourgame.models.event.Event;
+import net.rushhourgame.models.event.EventType;
+import org.junit.jupiter.api.Test;
+
+/**
+ * DomainEventBus・EventPartitionの単体テストクラス
+ */
+class DomainEventBusTest {
+
+    /**
+     * 区画ごとに発行順でバッチに分けて配信され、購読した種別を含むバッチだけが渡されることを確認
+     */
+    @Test
+    void dispatch_shouldDeliverBatchesInPublishOrder() {
+        DomainEventBus bus = new DomainEventBus(properties(16, 3));
+        EventPartition partition = bus.createPartition("test");
+        List<Integer> arrivals = new ArrayList<>();
+        List<Integer> batchSizes = new ArrayList<>();
+        List<Integer> stationBatches = new ArrayList<>();
+        bus.subscribe(batch -> {
+            batchSizes.add(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                if (batch.get(i).getType() == EventType.TRAIN_ARRIVED) {
+                    arrivals.add(batch.get(i).getSubject());
+                }
+            }
+        }, EventType.TRAIN_ARRIVED, EventType.TRAIN_ENTERED_TRACK);
+        bus.subscribe(batch -> stationBatches.add(batch.size()), EventType.STATION_OVERCROWDED);
+
+        partition.setTick(7);
+        for (int train = 0; train < 5; train++) {
+            partition.publish(EventType.TRAIN_ARRIVED, train, 10 + train, 0.0);
+        }
+        partition.publish(EventType.STATION_OVERCROWDED, 1, 120.0);
+
+        assertThat(bus.dispatch()).isEqualTo(6);
+        assertThat(arrivals).containsExactly(0, 1, 2, 3, 4);
+        assertThat(batchSizes).containsExactly(3, 3);
+        assertThat(stationBatches).containsExactly(3);
+        assertThat(bus.dispatch()).isZero();
+        assertThat(partition.pending()).isZero();
+    }
+
+    /**
+     * 配信が追いつかず満杯になった区画では発行を破棄して数え、配信後は再び発行できることを確認
+     */
+    @Test
+    void publish_shouldDropWhenPartitionIsFull() {
+        DomainEventBus bus = new DomainEventBus(properties(4, 10));
+        EventPartition partition = bus.createPartition("test");
+        List<Long> ticks = new ArrayList<>();
+        bus.subscribe(batch -> {
+            for (int i = 0; i < batch.size(); i++) {
+                Event event = batch.get(i);
+                ticks.add(event.getTick() * 100 + event.getSubject());
+            }
+        }, EventType.BLOCK_RESERVED);
+
+        for (int i = 0; i < 6; i++) {
+            partition.setTick(i);
+            partition.publish(EventType.BLOCK_RESERVED, i, 0, 0.0);
+        }
+        assertThat(partition.droppedCount()).isEqualTo(2);
+        assertThat(bus.dispatch()).isEqualTo(4);
+        assertThat(partition.publish(EventType.BLOCK_RESERVED, 9, 0, 0.0)).isTrue();
+        bus.dispatch();
+
+        assertThat(ticks).containsExactly(0L, 101L, 202L, 303L, 509L);
+        assertThat(bus.getPublished()).isEqualTo(5);
+        assertThat(bus.getDropped()).isEqualTo(2);
+    }
+
+    /**
+     * 購読者が例外を投げても他の購読者への配信と以降の配信が続くことを確認
+     */
+    @Test
+    void dispatch_shouldContinueAfterSubscriberFailure() {
+        DomainEventBus bus = new DomainEventBus(properties(16, 10));
+        EventPartition partition = bus.createPartition("test");
+        List<Integer> received = new ArrayList<>();
+        bus.subscribe(batch -> {
+            throw new IllegalStateException("broken subscriber");
+        }, EventType.TRAIN_BLOCKED);
+        bus.subscribe(batch -> received.add(batch.get(0).getTarget()), EventType.TRAIN_BLOCKED);
+
+        partition.publish(EventType.TRAIN_BLOCKED, 0, 1, 0.0);
+        bus.dispatch();
+        partition.publish(EventType.TRAIN_BLOCKED, 1, 0, 0.0);
+        bus.dispatch();
+
+        assertThat(received).containsExactly(1, 0);
+        assertThat(bus.getFailures()).isEqualTo(2);
+        assertThat(bus.getDispatched()).isEqualTo(2);
+    }
+
+    /**
+     * 別スレッドが所有する区画のイベントも、欠けず発行順に配信されることを確認
+     */
+    @Test
+    void dispatch_shouldReceiveEventsFromAnotherThread() throws InterruptedException {
+        DomainEventBus bus = new DomainEventBus(properties(256, 64));
+        EventPartition partition = bus.createPartition("worker");
+        int count = 100_000;
+        int[] next = {0};
+        bus.subscribe(batch -> {
+            for (int i = 0; i < batch.size(); i++) {
+                assertThat(batch.get(i).getSubject()).isEqualTo(next[0]);
+                next[0]++;
+            }
+        }, EventType.TRAIN_ENTERED_TRACK);
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                while (!partition.publish(EventType.TRAIN_ENTERED_TRACK, i, 0, 0.0)) {
+                    Thread.onSpinWait();
+                }
+            }
+        });
+        producer.start();
+        while (next[0] < count) {
+            bus.dispatch();
+        }
+        producer.join();
+
+        assertThat(next[0]).isEqualTo(count);
+    }
+
+    private static EventBusProperties properties(int capacity, int batchSize) {
+        EventBusProperties properties = new EventBusProperties();
+        properties.setPartitionCapacity(capacity);
+        properties.setBatchSize(batchSize);
+        return properties;
+    }
+}
@@ -0,0 +1,161 @@
+package net.rushhourgame.core.pathfinding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * BidirectionalDijkstraの単体テストクラス
+ */
+class BidirectionalDijkstraTest {
+
+    /**
+     * 所要時間が最短となる経路（距離最短ではない）が選ばれることを確認
+     */
+    @Test
+    void search_shouldReturnShortestTimePath() {
+        TrackGraph graph = TrackGraph.builder()
+            .addTrack("t-ab", "A", "B", 10.0)
+            .addTrack("t-bd", "B", "D", 10.0)
+            .addTrack("t-ac", "A", "C", 3.0)
+            .addTrack("t-cd", "C", "D", 4.0)
+            .addTrack("t-ad", "A", "D", 30.0)
+            .build();
+        BidirectionalDijkstra searcher = new BidirectionalDijkstra(graph);
+
+        PathResult result = searcher.search(graph.indexOf("A"), graph.indexOf("D"));
+
+        assertThat(result.junctionIds()).containsExactly("A", "C", "D");
+        assertThat(result.trackIds()).containsExactly("t-ac", "t-cd");
+        assertThat(result.travelTime()).isEqualTo(7.0);
+    }
+
+    /**
+     * 線路の向きに逆らう経路は返さないことを確認
+     */
+    @Test
+    void search_shouldRespectTrackDirection() {
+        TrackGraph graph = TrackGraph.builder()
+            .addTrack("t-ab", "A", "B", 1.0)
+            .build();
+        BidirectionalDijkstra searcher = new BidirectionalDijkstra(graph);
+
+        PathResult result = searcher.search(graph.indexOf("B"), graph.indexOf("A"));
+
+        assertThat(result.isFound()).isFalse();
+        assertThat(result.junctionIds()).isEmpty();
+    }
+
+    /**
+     * 出発点と到着点が同じ場合は所要時間0の経路となることを確認
+     */
+    @Test
+    void search_shouldHandleSameSourceAndTarget() {
+        TrackGraph graph = TrackGraph.builder()
+            .addTrack("t-ab", "A", "B", 1.0)
+            .build();
+
+        PathResult result = new BidirectionalDijkstra(graph).search(0, 0);
+
+        assertThat(result.junctionIds()).containsExactly("A");
+        assertThat(result.trackIds()).isEmpty();
+        assertThat(result.travelTime()).isZero();
+    }
+
+    /**
+     * 負の所要時間を持つ線路が拒否されることを確認
+     */
+    @Test
+    void addTrack_shouldRejectNegativeTravelTime() {
+        TrackGraph.Builder builder = TrackGraph.builder();
+
+        assertThrows(IllegalArgumentException.class, () -> builder.addTrack("t", "A", "B", -1.0));
+    }
+
+    /**
+     * ランダムなグラフで単方向ダイクストラ法と所要時間が一致し、経路が連続していることを確認
+     * 同じ探索器を繰り返し使い、作業配列の使い回しも検証する
+     */
+    @Test
+    void search_shouldMatchUnidirectionalDijkstraOnRandomGraphs() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            int nodes = 50 + random.nextInt(50);
+            TrackGraph.Builder builder = TrackGraph.builder();
+            for (int i = 0; i < nodes; i++) {
+                builder.addTrack("ring-" + i, "J" + i, "J" + ((i + 1) % nodes), 50.0);
+            }
+            for (int e = 0; e < nodes * 3; e++) {
+                builder.addTrack("t-" + e, "J" + random.nextInt(nodes), "J" + random.nextInt(nodes),
+                    random.nextDouble() * 10.0);
+            }
+            TrackGraph graph = builder.build();
+            BidirectionalDijkstra searcher = new BidirectionalDijkstra(graph);
+
+            for (int q = 0; q < 50; q++) {
+                int source = random.nextInt(graph.nodeCount());
+                int target = random.nextInt(graph.nodeCount());
+                PathResult result = searcher.search(source, target);
+                double expected = referenceDistance(graph, source, target);
+
+                assertThat(result.travelTime()).isCloseTo(expected, within(1e-9));
+                assertThat(result.junctionIds().get(0)).isEqualTo(graph.nodeId(source));
+                assertThat(result.junctionIds().get(result.junctionIds().size() - 1))
+                    .isEqualTo(graph.nodeId(target));
+                assertThat(result.trackIds()).hasSize(result.junctionIds().size() - 1);
+                assertThat(sumTravelTime(graph, result)).isCloseTo(expected, within(1e-9));
+            }
+        }
+    }
+
+    private static double sumTravelTime(TrackGraph graph, PathResult result) {
+        double total = 0.0;
+        List<String> junctions = result.junctionIds();
+        for (int i = 0; i < result.trackIds().size(); i++) {
+            int from = graph.indexOf(junctions.get(i));
+            int to = graph.indexOf(junctions.get(i + 1));
+            String trackId = result.trackIds().get(i);
+            boolean matched = false;
+            for (int slot = graph.outStart(from); slot < graph.outEnd(from); slot++) {
+                if (graph.outTarget(slot) == to && graph.trackId(graph.outTrack(slot)).equals(trackId)) {
+                    total += graph.outWeight(slot);
+                    matched = true;
+                    break;
+                }
+            }
+            assertThat(matched).isTrue();
+        }
+        return total;
+    }
+
+    private static double referenceDistance(TrackGraph graph, int source, int target) {
+        double[] dist = new double[graph.nodeCount()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[source] = 0.0;
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        queue.add(new double[] {0.0, source});
+        while (!queue.isEmpty()) {
+            double[] entry = queue.poll();
+            int u = (int) entry[1];
+            if (entry[0] > dist[u]) {
+                continue;
+            }
+            for (int slot = graph.outStart(u); slot < graph.outEnd(u); slot++) {
+                int v = graph.outTarget(slot);
+                double candidate = dist[u] + graph.outWeight(slot);
+                if (candidate < dist[v]) {
+                    dist[v] = candidate;
+                    queue.add(new double[] {candidate, v});
+                }
+            }
+        }
+        return dist[target];
+    }
+}
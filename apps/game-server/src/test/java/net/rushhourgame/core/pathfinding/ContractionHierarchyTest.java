@@ -0,0 +1,87 @@
+package net.rushhourgame.core.pathfinding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * ContractionHierarchy・ContractionHierarchySearcherの単体テストクラス
+ */
+class ContractionHierarchyTest {
+
+    /**
+     * ショートカットを経由した経路が元の線路に展開されることを確認
+     */
+    @Test
+    void search_shouldUnpackShortcutsIntoOriginalTracks() {
+        TrackGraph graph = TrackGraph.builder()
+            .addTrack("t-ab", "A", "B", 1.0)
+            .addTrack("t-bc", "B", "C", 1.0)
+            .addTrack("t-cd", "C", "D", 1.0)
+            .addTrack("t-de", "D", "E", 1.0)
+            .addTrack("t-ae", "A", "E", 10.0)
+            .build();
+        ContractionHierarchySearcher searcher = new ContractionHierarchySearcher(ContractionHierarchy.build(graph));
+
+        PathResult result = searcher.search(graph.indexOf("A"), graph.indexOf("E"));
+
+        assertThat(result.junctionIds()).containsExactly("A", "B", "C", "D", "E");
+        assertThat(result.trackIds()).containsExactly("t-ab", "t-bc", "t-cd", "t-de");
+        assertThat(result.travelTime()).isEqualTo(4.0);
+    }
+
+    /**
+     * 線路の向きに逆らう経路は返さないことを確認
+     */
+    @Test
+    void search_shouldRespectTrackDirection() {
+        TrackGraph graph = TrackGraph.builder()
+            .addTrack("t-ab", "A", "B", 1.0)
+            .addTrack("t-bc", "B", "C", 1.0)
+            .build();
+        ContractionHierarchySearcher searcher = new ContractionHierarchySearcher(ContractionHierarchy.build(graph));
+
+        assertThat(searcher.search(graph.indexOf("C"), graph.indexOf("A")).isFound()).isFalse();
+        assertThat(searcher.search(graph.indexOf("A"), graph.indexOf("C")).trackIds())
+            .containsExactly("t-ab", "t-bc");
+    }
+
+    /**
+     * ランダムなグラフで双方向ダイクストラ法と所要時間・経路の妥当性が一致することを確認
+     */
+    @Test
+    void search_shouldMatchBidirectionalDijkstraOnRandomGraphs() {
+        Random random = new Random(7);
+        for (int round = 0; round < 10; round++) {
+            int nodes = 100 + random.nextInt(100);
+            TrackGraph.Builder builder = TrackGraph.builder();
+            for (int e = 0; e < nodes * 3; e++) {
+                builder.addTrack("t-" + e, "J" + random.nextInt(nodes), "J" + random.nextInt(nodes),
+                    random.nextDouble() * 10.0);
+            }
+            TrackGraph graph = builder.build();
+            BidirectionalDijkstra baseline = new BidirectionalDijkstra(graph);
+            ContractionHierarchySearcher searcher = new ContractionHierarchySearcher(ContractionHierarchy.build(graph));
+
+            for (int q = 0; q < 100; q++) {
+                int source = random.nextInt(graph.nodeCount());
+                int target = random.nextInt(graph.nodeCount());
+                PathResult expected = baseline.search(source, target);
+                PathResult actual = searcher.search(source, target);
+
+                assertThat(actual.isFound()).isEqualTo(expected.isFound());
+                if (!expected.isFound()) {
+                    continue;
+                }
+                assertThat(actual.travelTime()).isCloseTo(expected.travelTime(), within(1e-9));
+                assertThat(actual.junctionIds().get(0)).isEqualTo(graph.nodeId(source));
+                assertThat(actual.junctionIds().get(actual.junctionIds().size() - 1))
+                    .isEqualTo(graph.nodeId(target));
+                assertThat(actual.trackIds()).hasSize(actual.junctionIds().size() - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package net.rushhourgame.core.pathfinding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import net.rushhourgame.core.database.entities.TrackEntity;
+import net.rushhourgame.core.database.repositories.TrackRepository;
+import net.rushhourgame.core.simulation.SimulationWorldLoader;
+
+/**
+ * TrackGraphServiceの統合テストクラス
+ * 線路の変更がコミット後に経路探索のグラフへ反映されることを検証
+ */
+@SpringBootTest
+class TrackGraphServiceTest {
+
+    @Autowired
+    private TrackGraphService trackGraphService;
+
+    @Autowired
+    private TrackRepository trackRepository;
+
+    @Autowired
+    private SimulationWorldLoader simulationWorldLoader;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        trackRepository.deleteAll();
+        trackGraphService.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        trackRepository.deleteAll();
+        trackGraphService.rebuild();
+    }
+
+    /**
+     * 線路の追加がコミット後にグラフへ反映され、コミット前のグラフは変わらないことを確認
+     */
+    @Test
+    void tracksChanged_shouldRebuildGraphAfterCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            trackRepository.save(createTestTrack("junction-a", "junction-b"));
+            trackGraphService.tracksChanged();
+            assertThat(trackGraphService.getGraph().indexOf("junction-a")).isEqualTo(TrackGraph.NO_NODE);
+        });
+
+        assertThat(trackGraphService.findPath("junction-a", "junction-b").isFound()).isTrue();
+    }
+
+    /**
+     * ロールバックされた線路の変更はグラフに反映されないことを確認
+     */
+    @Test
+    void tracksChanged_shouldIgnoreRolledBackChanges() {
+        transactionTemplate.executeWithoutResult(status -> {
+            trackRepository.save(createTestTrack("junction-a", "junction-b"));
+            trackGraphService.tracksChanged();
+            status.setRollbackOnly();
+        });
+
+        assertThat(trackGraphService.getGraph().indexOf("junction-a")).isEqualTo(TrackGraph.NO_NODE);
+    }
+
+    /**
+     * リポジトリで保存した線路がコミット後に経路探索できるようになり、削除するとグラフから外れることを確認
+     */
+    @Test
+    void save_shouldMakeTrackRoutableAfterCommit() {
+        TrackEntity saved = transactionTemplate.execute(status -> {
+            trackRepository.save(createTestTrack("junction-a", "junction-b"));
+            TrackEntity track = trackRepository.save(createTestTrack("junction-b", "junction-c"));
+            assertThat(trackGraphService.getGraph().indexOf("junction-a")).isEqualTo(TrackGraph.NO_NODE);
+            return track;
+        });
+
+        PathResult path = trackGraphService.findPath("junction-a", "junction-c");
+        assertThat(path.isFound()).isTrue();
+        assertThat(path.junctionIds()).containsExactly("junction-a", "junction-b", "junction-c");
+
+        trackRepository.deleteById(saved.getId());
+
+        assertThat(trackGraphService.getGraph().indexOf("junction-c")).isEqualTo(TrackGraph.NO_NODE);
+        assertThat(trackGraphService.findPath("junction-a", "junction-b").isFound()).isTrue();
+    }
+
+    /**
+     * 線路網の再読み込みで経路探索のグラフも作り直されることを確認
+     */
+    @Test
+    void reloadTracks_shouldRebuildGraph() {
+        trackRepository.save(createTestTrack("junction-a", "junction-b"));
+        trackRepository.save(createTestTrack("junction-b", "junction-c"));
+
+        simulationWorldLoader.reloadTracks();
+
+        PathResult path = trackGraphService.findPath("junction-a", "junction-c");
+        assertThat(path.isFound()).isTrue();
+        assertThat(path.junctionIds()).containsExactly("junction-a", "junction-b", "junction-c");
+    }
+
+    /**
+     * テスト用の線路エンティティを作成
+     */
+    private TrackEntity createTestTrack(String startJunctionId, String endJunctionId) {
+        TrackEntity track = new TrackEntity();
+        track.setOwnerId("owner-1");
+        track.setLength(100.0);
+        track.setMaxSpeed(10.0);
+        track.setStartJunctionId(startJunctionId);
+        track.setEndJunctionId(endJunctionId);
+        return track;
+    }
+}
@@ -0,0 +1,185 @@
+package net.rushhourgame.core.realtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.rushhourgame.proto.GameStateUpdate;
+import net.rushhourgame.proto.TrainDelta;
+
+/**
+ * DeltaEncoderの単体テストクラス
+ */
+class DeltaEncoderTest {
+
+    private RealtimeProperties properties;
+    private DeltaEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RealtimeProperties();
+        properties.setPositionResolution(0.1);
+        properties.setSpeedResolution(0.1);
+        properties.setKeyframeIntervalFrames(3);
+        properties.setViewportMargin(10.0);
+        properties.setGridCellSize(50.0);
+        properties.setLodDistances(new double[] {50.0, 200.0, 500.0});
+        properties.setLodFrameIntervals(new int[] {1, 2, 4, 8});
+        encoder = new DeltaEncoder(properties);
+    }
+
+    /**
+     * 最初のフレームが全電車を含む量子化済みキーフレームになることを確認
+     */
+    @Test
+    void encode_shouldStartWithKeyframe() {
+        GameStateUpdate update = encoder.encode(frame(1, new String[] {"train-1", "train-2"},
+            new double[] {1.0, 2.5}, new double[] {0.0, -1.0}, new double[] {3.0, 0.0}));
+
+        assertThat(update.getKeyframe()).isTrue();
+        assertThat(update.getTick()).isEqualTo(1L);
+        assertThat(update.getTrainDeltasList()).hasSize(2);
+        TrainDelta second = update.getTrainDeltasList().get(1);
+        assertThat(second.getHandle()).isEqualTo(1);
+        assertThat(second.getId()).isEqualTo("train-2");
+        assertThat(second.getX()).isEqualTo(25);
+        assertThat(second.getY()).isEqualTo(-10);
+    }
+
+    /**
+     * 差分フレームには量子化後に変化した電車の差分だけが含まれることを確認
+     */
+    @Test
+    void encode_shouldEmitOnlyChangedTrainsAsDifferences() {
+        encoder.encode(frame(1, new String[] {"train-1", "train-2"},
+            new double[] {1.0, 2.0}, new double[] {0.0, 0.0}, new double[] {0.0, 0.0}));
+
+        GameStateUpdate update = encoder.encode(frame(2, new String[] {"train-1", "train-2"},
+            new double[] {1.02, 2.3}, new double[] {0.0, 0.0}, new double[] {0.0, 1.0}));
+
+        assertThat(update.getKeyframe()).isFalse();
+        assertThat(update.getTrainDeltasList()).hasSize(1);
+        TrainDelta delta = update.getTrainDeltasList().get(0);
+        assertThat(delta.getHandle()).isEqualTo(1);
+        assertThat(delta.getId()).isEmpty();
+        assertThat(delta.getX()).isEqualTo(3);
+        assertThat(delta.getSpeed()).isEqualTo(10);
+    }
+
+    /**
+     * 削除された電車と、別の電車に再利用された添字が削除として通知されることを確認
+     */
+    @Test
+    void encode_shouldReportRemovedAndReusedHandles() {
+        encoder.encode(frame(1, new String[] {"train-1", "train-2"},
+            new double[] {0.0, 0.0}, new double[] {0.0, 0.0}, new double[] {0.0, 0.0}));
+
+        GameStateUpdate update = encoder.encode(frame(2, new String[] {null, "train-3"},
+            new double[] {0.0, 5.0}, new double[] {0.0, 0.0}, new double[] {0.0, 0.0}));
+
+        assertThat(update.getRemovedHandlesList()).containsExactlyInAnyOrder(0, 1);
+        assertThat(update.getTrainDeltasList()).hasSize(1);
+        assertThat(update.getTrainDeltasList().get(0).getId()).isEqualTo("train-3");
+        assertThat(update.getTrainDeltasList().get(0).getX()).isEqualTo(50);
+    }
+
+    /**
+     * 設定したフレーム数ごとにキーフレームが送られることを確認
+     */
+    @Test
+    void encode_shouldEmitPeriodicKeyframes() {
+        String[] ids = {"train-1"};
+        double[] zero = {0.0};
+        assertThat(encoder.encode(frame(1, ids, zero, zero, zero)).getKeyframe()).isTrue();
+        assertThat(encoder.encode(frame(2, ids, zero, zero, zero)).getKeyframe()).isFalse();
+        assertThat(encoder.encode(frame(3, ids, zero, zero, zero)).getKeyframe()).isFalse();
+        assertThat(encoder.encode(frame(4, ids, zero, zero, zero)).getKeyframe()).isFalse();
+        GameStateUpdate keyframe = encoder.encode(frame(5, ids, zero, zero, zero));
+
+        assertThat(keyframe.getKeyframe()).isTrue();
+        assertThat(keyframe.getTrainDeltasList()).hasSize(1);
+    }
+
+    /**
+     * 表示範囲（＋余白）の外にいる電車が送られないことを確認
+     */
+    @Test
+    void encode_shouldSkipTrainsOutsideViewport() {
+        InterestArea area = InterestArea.of(0.0, 0.0, 100.0, 100.0, 1.0);
+
+        GameStateUpdate update = encoder.encode(frame(1, new String[] {"inside", "margin", "outside"},
+            new double[] {50.0, 105.0, 500.0}, new double[] {50.0, 50.0, 500.0},
+            new double[] {0.0, 0.0, 0.0}), area);
+
+        assertThat(update.getTrainDeltasList()).hasSize(2);
+        assertThat(update.getTrainDeltasList().stream().map(TrainDelta::getId).toList())
+            .containsExactlyInAnyOrder("inside", "margin");
+    }
+
+    /**
+     * 表示範囲から出た電車は削除、入った電車は新規として通知されることを確認
+     */
+    @Test
+    void encode_shouldReportTrainsLeavingAndEnteringViewport() {
+        InterestArea area = InterestArea.of(0.0, 0.0, 100.0, 100.0, 1.0);
+        encoder.encode(frame(1, new String[] {"train-1", "train-2"},
+            new double[] {50.0, 900.0}, new double[] {50.0, 900.0}, new double[] {0.0, 0.0}), area);
+
+        GameStateUpdate update = encoder.encode(frame(2, new String[] {"train-1", "train-2"},
+            new double[] {900.0, 60.0}, new double[] {900.0, 60.0}, new double[] {0.0, 0.0}), area);
+
+        assertThat(update.getRemovedHandlesList()).containsExactly(0);
+        assertThat(update.getTrainDeltasList()).hasSize(1);
+        assertThat(update.getTrainDeltasList().get(0).getId()).isEqualTo("train-2");
+    }
+
+    /**
+     * 表示範囲の中心から遠い電車はLODの更新間隔でまとめて差分が送られることを確認
+     */
+    @Test
+    void encode_shouldThrottleDistantTrainsByLod() {
+        properties.setKeyframeIntervalFrames(100);
+        encoder = new DeltaEncoder(properties);
+        InterestArea area = InterestArea.of(-1000.0, -1000.0, 1000.0, 1000.0, 1.0);
+        String[] ids = {"near", "far"};
+        double[] ys = {0.0, 0.0};
+        double[] speeds = {0.0, 0.0};
+        encoder.encode(frame(1, ids, new double[] {0.0, 800.0}, ys, speeds), area);
+
+        int nearUpdates = 0;
+        int farUpdates = 0;
+        int farMovement = 0;
+        int lastFarFrame = 0;
+        for (int f = 1; f <= 16; f++) {
+            GameStateUpdate update = encoder.encode(frame(1 + f, ids, new double[] {f, 800.0 + f}, ys, speeds), area);
+            for (TrainDelta delta : update.getTrainDeltasList()) {
+                if (delta.getHandle() == 0) {
+                    nearUpdates++;
+                } else {
+                    farUpdates++;
+                    farMovement += delta.getX();
+                    lastFarFrame = f;
+                }
+            }
+        }
+
+        assertThat(nearUpdates).isEqualTo(16);
+        assertThat(farUpdates).isEqualTo(2);
+        // 間引かれたフレームの移動も次の更新でまとめて送られる
+        assertThat(farMovement).isEqualTo(lastFarFrame * 10);
+    }
+
+    /**
+     * 範囲が空のリクエストは全体を対象とすることを確認
+     */
+    @Test
+    void interestArea_shouldBeUnboundedWhenViewportIsEmpty() {
+        assertThat(InterestArea.of(0.0, 0.0, 0.0, 0.0, 0.0).isBounded()).isFalse();
+        assertThat(InterestArea.of(0.0, 0.0, 10.0, 10.0, 0.0).zoom()).isEqualTo(1.0);
+    }
+
+    private static TrainFrame frame(long tick, String[] ids, double[] xs, double[] ys, double[] speeds) {
+        return TrainFrame.of(tick, ids, xs, ys, speeds);
+    }
+}
@@ -0,0 +1,163 @@
+package net.rushhourgame.core.realtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import net.rushhourgame.proto.GameStateUpdate;
+
+/**
+ * RealtimeSubscriptionの単体テストクラス
+ * 送信は呼び出しスレッドで同期実行し、フロー制御の状態をテスト側で切り替える
+ */
+class RealtimeSubscriptionTest {
+
+    private FakeObserver observer;
+    private RealtimeMetrics metrics;
+    private RealtimeSubscription subscription;
+
+    @BeforeEach
+    void setUp() {
+        observer = new FakeObserver();
+        metrics = new RealtimeMetrics();
+        subscription = new RealtimeSubscription(observer, new DeltaEncoder(new RealtimeProperties()),
+            Runnable::run, metrics);
+    }
+
+    /**
+     * 送信可能な間はフレームがそのまま送られることを確認
+     */
+    @Test
+    void offer_shouldSendImmediatelyWhenReady() {
+        subscription.offer(frame(1, 0.0));
+        subscription.offer(frame(2, 1.0));
+
+        assertThat(observer.sent).hasSize(2);
+        assertThat(metrics.getFramesSent()).isEqualTo(2);
+        assertThat(metrics.getKeyframesSent()).isEqualTo(1);
+    }
+
+    /**
+     * 送信できない間は最新フレームだけを保持し、再開時に送ることを確認
+     */
+    @Test
+    void offer_shouldConflateFramesWhileNotReady() {
+        observer.ready = false;
+        subscription.offer(frame(1, 0.0));
+        subscription.offer(frame(2, 1.0));
+        subscription.offer(frame(3, 2.0));
+
+        assertThat(observer.sent).isEmpty();
+        assertThat(metrics.getFramesConflated()).isEqualTo(2);
+
+        observer.becomeReady();
+
+        assertThat(observer.sent).hasSize(1);
+        assertThat(observer.sent.get(0).getTick()).isEqualTo(3L);
+        assertThat(observer.sent.get(0).getKeyframe()).isTrue();
+    }
+
+    /**
+     * 終了要求で送信待ちのフレームを送ってからストリームを閉じることを確認
+     */
+    @Test
+    void complete_shouldFlushPendingFrameBeforeCompleting() {
+        observer.ready = false;
+        subscription.offer(frame(1, 0.0));
+        subscription.complete();
+
+        observer.becomeReady();
+
+        assertThat(observer.sent).hasSize(1);
+        assertThat(observer.completed).isTrue();
+        assertThat(subscription.isClosed()).isTrue();
+    }
+
+    /**
+     * 送信に失敗した購読が閉じられることを確認
+     */
+    @Test
+    void offer_shouldCloseOnSendFailure() {
+        observer.failOnNext = true;
+
+        subscription.offer(frame(1, 0.0));
+
+        assertThat(subscription.isClosed()).isTrue();
+    }
+
+    private static TrainFrame frame(long tick, double x) {
+        return TrainFrame.of(tick, new String[] {"train-1"}, new double[] {x}, new double[] {0.0},
+            new double[] {0.0});
+    }
+
+    private static final class FakeObserver extends ServerCallStreamObserver<GameStateUpdate> {
+
+        private final List<GameStateUpdate> sent = new ArrayList<>();
+        private boolean ready = true;
+        private boolean completed;
+        private boolean failOnNext;
+        private Runnable onReadyHandler;
+
+        void becomeReady() {
+            ready = true;
+            onReadyHandler.run();
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setOnReadyHandler(Runnable onReadyHandler) {
+            this.onReadyHandler = onReadyHandler;
+        }
+
+        @Override
+        public void setOnCancelHandler(Runnable onCancelHandler) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void setCompression(String compression) {
+        }
+
+        @Override
+        public void disableAutoInboundFlowControl() {
+        }
+
+        @Override
+        public void request(int count) {
+        }
+
+        @Override
+        public void setMessageCompression(boolean enable) {
+        }
+
+        @Override
+        public void onNext(GameStateUpdate value) {
+            if (failOnNext) {
+                throw new IllegalStateException("call already closed");
+            }
+            sent.add(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onCompleted() {
+            completed = true;
+        }
+    }
+}
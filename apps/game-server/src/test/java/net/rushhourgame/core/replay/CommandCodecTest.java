@@ -0,0 +1,79 @@
+package net.rushhourgame.core.replay;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import net.rushhourgame.core.simulation.JournaledCommand;
+import net.rushhourgame.core.simulation.SignalLayout;
+import net.rushhourgame.core.simulation.TrackCurve;
+import net.rushhourgame.core.simulation.TrackNetwork;
+import net.rushhourgame.core.timetable.TimetableIndex;
+import net.rushhourgame.core.timetable.TimetableTrip;
+import net.rushhourgame.models.common.SignalType;
+import org.junit.jupiter.api.Test;
+
+/**
+ * CommandCodecの単体テストクラス
+ */
+class CommandCodecTest {
+
+    /**
+     * 線路網・信号機配置の再読み込みが読み込んだ内容ごと復元されることを確認
+     */
+    @Test
+    void decode_shouldRestoreReloadedTracks() {
+        TrackCurve curve = TrackCurve.of(new double[] {0.0, 600.0, 600.0}, new double[] {0.0, 0.0, 400.0},
+                new double[] {0.0, 0.0, 0.0});
+        TrackNetwork network = TrackNetwork.of(
+                new String[] {"track-0", "track-1"},
+                new double[] {50.0, 1000.0},
+                new double[] {10.0, 20.0},
+                new int[] {1, TrackNetwork.NO_TRACK},
+                new TrackCurve[] {TrackCurve.empty(), curve});
+        SignalLayout layout = SignalLayout.of(2, new SignalType[] {SignalType.BLOCK}, new int[] {0}, new int[][] {{1}});
+
+        JournaledCommand.ReloadTracks decoded =
+            (JournaledCommand.ReloadTracks) roundTrip(new JournaledCommand.ReloadTracks(network, layout));
+
+        assertThat(decoded.network().size()).isEqualTo(2);
+        assertThat(decoded.network().trackId(1)).isEqualTo("track-1");
+        assertThat(decoded.network().maxSpeed(1)).isEqualTo(20.0);
+        assertThat(decoded.network().next(0)).isEqualTo(1);
+        assertThat(decoded.network().curve(1).length()).isEqualTo(curve.length());
+        assertThat(decoded.layout().signalAt(0)).isEqualTo(0);
+        assertThat(decoded.layout().protects(0, 1)).isTrue();
+    }
+
+    /**
+     * 時刻表の再読み込みと更新が、読み込んだ便ごと復元されることを確認
+     */
+    @Test
+    void decode_shouldRestoreTimetableChanges() {
+        TimetableTrip trip = new TimetableTrip("schedule-a", "route-1", null, new String[] {"station-1", "station-2"},
+                new int[] {3600, 3900}, new int[] {3660, 3960});
+
+        JournaledCommand.ReloadTimetable reload = (JournaledCommand.ReloadTimetable)
+            roundTrip(new JournaledCommand.ReloadTimetable(TimetableIndex.build(List.of(trip))));
+        assertThat(reload.timetable().tripSlot("schedule-a")).isZero();
+        int station = reload.timetable().stationIndex("station-1");
+        assertThat(reload.timetable().nextDeparture(station, 0)).isZero();
+        assertThat(reload.timetable().nextDeparture(station, 3700)).isEqualTo(-1);
+
+        JournaledCommand.UpdateTimetable update = (JournaledCommand.UpdateTimetable)
+            roundTrip(new JournaledCommand.UpdateTimetable(List.of(trip), List.of("schedule-b")));
+        assertThat(update.changed()).hasSize(1);
+        assertThat(update.changed().get(0).scheduleId()).isEqualTo("schedule-a");
+        assertThat(update.changed().get(0).trainId()).isNull();
+        assertThat(update.changed().get(0).departure(1)).isEqualTo(3960);
+        assertThat(update.removedScheduleIds()).containsExactly("schedule-b");
+    }
+
+    private static JournaledCommand roundTrip(JournaledCommand command) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        CommandCodec.encode(command, buffer);
+        return CommandCodec.decode(buffer.flip());
+    }
+}
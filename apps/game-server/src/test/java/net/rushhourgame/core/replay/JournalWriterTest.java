@@ -0,0 +1,124 @@
+package net.rushhourgame.core.replay;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import net.rushhourgame.core.simulation.JournaledCommand;
+import net.rushhourgame.core.stationflow.StationLayout;
+import net.rushhourgame.models.common.TrainOperationState;
+import net.rushhourgame.models.common.TrainType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JournalWriter・JournalReaderの単体テストクラス
+ */
+class JournalWriterTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * 書き込んだヘッダー・コマンド・チェックサムがそのまま読み出せることを確認
+     */
+    @Test
+    void write_shouldRoundTripRecords() throws IOException {
+        JournalWriter writer = new JournalWriter(directory, 1 << 20, 42L, 30, 10);
+        writer.tickCompleted(5);
+        writer.writeCommand(6, new JournaledCommand.PlaceTrain("train-1", "track-1", 12.5, TrainType.EXPRESS));
+        writer.writeCommand(6, new JournaledCommand.ChangeTrainState("train-1", TrainOperationState.MOVING));
+        writer.writeUnrecorded(6);
+        writer.tickCompleted(6);
+        writer.writeCommand(7, new JournaledCommand.ReloadStations(StationLayout.of(new String[] {"station-1"},
+            new double[] {2.0}, new double[] {1.5}, new double[] {30.0}, new int[] {500})));
+        writer.writeChecksum(7, 0x1234_5678_9ABCL);
+        writer.tickCompleted(7);
+        writer.commit();
+        assertThat(writer.committedTick()).isEqualTo(7);
+        writer.close();
+
+        JournalReader reader = JournalReader.open(directory);
+        assertThat(reader.header()).isEqualTo(new JournalReader.Header(5, 42L, 30, 10));
+        JournalReader.Record record = reader.next();
+        assertThat(record.type()).isEqualTo(JournalWriter.COMMAND);
+        assertThat(record.tick()).isEqualTo(6);
+        assertThat(CommandCodec.decode(record.payload()))
+            .isEqualTo(new JournaledCommand.PlaceTrain("train-1", "track-1", 12.5, TrainType.EXPRESS));
+        assertThat(CommandCodec.decode(reader.next().payload()))
+            .isEqualTo(new JournaledCommand.ChangeTrainState("train-1", TrainOperationState.MOVING));
+        assertThat(reader.next().type()).isEqualTo(JournalWriter.UNRECORDED);
+        record = reader.next();
+        assertThat(record.tick()).isEqualTo(7);
+        StationLayout layout = ((JournaledCommand.ReloadStations) CommandCodec.decode(record.payload())).layout();
+        assertThat(layout.stationId(0)).isEqualTo("station-1");
+        assertThat(layout.platformCapacity(0)).isEqualTo(500);
+        record = reader.next();
+        assertThat(record.type()).isEqualTo(JournalWriter.CHECKSUM);
+        assertThat(record.payload().getLong(0)).isEqualTo(0x1234_5678_9ABCL);
+        assertThat(reader.next()).isNull();
+        assertThat(reader.isTorn()).isFalse();
+    }
+
+    /**
+     * ファイルを切り替えて書き込み、末尾の壊れた記録は読まないことを確認
+     */
+    @Test
+    void read_shouldFollowSegmentsAndStopAtTornTail() throws IOException {
+        JournalWriter writer = new JournalWriter(directory, 2048, 0L, 30, 300);
+        for (int tick = 0; tick < 200; tick++) {
+            writer.writeCommand(tick, new JournaledCommand.RemoveTrain("train-" + tick));
+            writer.tickCompleted(tick);
+        }
+        writer.close();
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.sorted().toList();
+        }
+        assertThat(files.size()).isGreaterThan(1);
+        assertThat(readTicks()).hasSize(200);
+
+        // 最後の記録のCRCを壊す（書き込み途中の終了）
+        Path last = files.get(files.size() - 1);
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int position = JournalWriter.HEADER_BYTES;
+            int lastRecord = position;
+            while (Integer.reverseBytes(data.getInt(position)) != 0) {
+                lastRecord = position;
+                position += Integer.BYTES * 2 + Integer.reverseBytes(data.getInt(position));
+            }
+            data.put(position - 1, (byte) (data.get(position - 1) ^ 0xFF));
+            assertThat(lastRecord).isLessThan(position);
+        }
+
+        JournalReader reader = JournalReader.open(directory);
+        List<Long> ticks = new ArrayList<>();
+        JournalReader.Record record;
+        while ((record = reader.next()) != null) {
+            ticks.add(record.tick());
+        }
+        assertThat(ticks).hasSize(199);
+        assertThat(ticks.get(198)).isEqualTo(198L);
+        assertThat(reader.isTorn()).isTrue();
+    }
+
+    private List<Long> readTicks() throws IOException {
+        JournalReader reader = JournalReader.open(directory);
+        List<Long> ticks = new ArrayList<>();
+        JournalReader.Record record;
+        while ((record = reader.next()) != null) {
+            ticks.add(record.tick());
+        }
+        return ticks;
+    }
+}
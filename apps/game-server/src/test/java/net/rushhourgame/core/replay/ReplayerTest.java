@@ -0,0 +1,292 @@
+package net.rushhourgame.core.replay;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import net.rushhourgame.core.resident.ResidentDecisionSystem;
+import net.rushhourgame.core.resident.ResidentProperties;
+import net.rushhourgame.core.resident.ResidentStore;
+import net.rushhourgame.core.simulation.DeadlockDetector;
+import net.rushhourgame.core.simulation.DeadlockMetrics;
+import net.rushhourgame.core.simulation.JournaledCommand;
+import net.rushhourgame.core.simulation.SignalLayout;
+import net.rushhourgame.core.simulation.SimulationEngine;
+import net.rushhourgame.core.simulation.SimulationProperties;
+import net.rushhourgame.core.simulation.SimulationWorld;
+import net.rushhourgame.core.simulation.TickMetrics;
+import net.rushhourgame.core.simulation.TrackNetwork;
+import net.rushhourgame.core.simulation.TrainMovementSystem;
+import net.rushhourgame.core.snapshot.SnapshotProperties;
+import net.rushhourgame.core.snapshot.SnapshotRestorer;
+import net.rushhourgame.core.snapshot.WorldSnapshotter;
+import net.rushhourgame.core.timetable.JourneyPlanner;
+import net.rushhourgame.core.timetable.TimetableIndex;
+import net.rushhourgame.core.timetable.TimetableProperties;
+import net.rushhourgame.core.timetable.TimetableService;
+import net.rushhourgame.core.timetable.TimetableTrip;
+import net.rushhourgame.models.common.SignalType;
+import net.rushhourgame.models.common.TrainOperationState;
+import net.rushhourgame.models.common.TrainType;
+import net.rushhourgame.models.resident.EconomicStatus;
+import net.rushhourgame.models.resident.PersonalInfo;
+import net.rushhourgame.models.resident.TravelPlan;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * CommandJournalで記録したジャーナルをReplayerで再実行する単体テストクラス
+ */
+class ReplayerTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * 記録したコマンドを同じティックで再実行し、すべてのチェックサムが一致することを確認
+     */
+    @Test
+    void replay_shouldReproduceRecordedRun() throws IOException {
+        record(150);
+
+        SimulationProperties properties = simulationProperties();
+        SimulationWorld world = world();
+        ReplayResult result = replay(properties, world);
+
+        assertThat(result.matched()).isTrue();
+        assertThat(result.commands()).isEqualTo(3);
+        // 10ティックごと（0〜140）と終了時の149
+        assertThat(result.verified()).isEqualTo(16);
+        assertThat(result.endTick()).isEqualTo(150);
+        assertThat(world.getTrains().state(world.getTrains().indexOf("train-1")))
+            .isEqualTo(TrainOperationState.STOPPED);
+    }
+
+    /**
+     * 再実行の結果が記録と異なる場合、最初に一致しなかったティックで止まることを確認
+     */
+    @Test
+    void replay_shouldStopAtFirstMismatch() throws IOException {
+        record(150);
+
+        SimulationProperties properties = simulationProperties();
+        properties.setAcceleration(2.0);
+        ReplayResult result = replay(properties, world());
+
+        assertThat(result.matched()).isFalse();
+        assertThat(result.mismatchTick()).isZero();
+        assertThat(result.verified()).isZero();
+    }
+
+    /**
+     * 検出スレッドで見つけた待ちの循環の解消が、記録と同じティックで再現されることを確認
+     */
+    @Test
+    void replay_shouldReproduceDeadlockResolution() throws IOException {
+        DeadlockMetrics recorded = new DeadlockMetrics();
+        ReplayProperties replayProperties = new ReplayProperties();
+        replayProperties.setDirectory(directory);
+        replayProperties.setChecksumIntervalTicks(10);
+        SimulationProperties properties = deadlockProperties();
+        SimulationWorld world = deadlockWorld();
+        CommandJournal journal = new CommandJournal(replayProperties, properties, new ResidentProperties());
+        DeadlockDetector detector = new DeadlockDetector(world, properties, recorded);
+        SimulationEngine engine = new SimulationEngine(properties, world,
+                List.of(new TrainMovementSystem(world, properties), detector), new TickMetrics(), List.of(journal));
+        // 普通電車が絶対信号機の区間 track-1, track-2 を保持したまま、特急電車の在線する track-3 を待つ
+        engine.submit(new JournaledCommand.PlaceTrain("local", "track-0", 0.0, TrainType.LOCAL));
+        engine.submit(new JournaledCommand.PlaceTrain("express", "track-3", 0.0, TrainType.LIMITED_EXPRESS));
+        engine.submit(new JournaledCommand.ChangeTrainState("local", TrainOperationState.MOVING));
+        for (int i = 0; i < 900; i++) {
+            if (i == 300) {
+                engine.submit(new JournaledCommand.ChangeTrainState("express", TrainOperationState.MOVING));
+            }
+            engine.tick();
+        }
+        journal.shutdown();
+        detector.shutdown();
+
+        DeadlockMetrics replayed = new DeadlockMetrics();
+        SimulationWorld replayWorld = deadlockWorld();
+        DeadlockDetector replayDetector = new DeadlockDetector(replayWorld, properties, replayed);
+        SimulationEngine replayEngine = new SimulationEngine(properties, replayWorld,
+                List.of(new TrainMovementSystem(replayWorld, properties), replayDetector), new TickMetrics());
+        ReplayResult result = new Replayer(replayEngine, replayWorld).replay(JournalReader.open(run()));
+        replayDetector.shutdown();
+
+        assertThat(recorded.getCyclesResolved()).isPositive();
+        assertThat(result.matched()).isTrue();
+        // 10ティックごと（0〜890）と終了時の899
+        assertThat(result.verified()).isEqualTo(91);
+        assertThat(replayed.getCyclesResolved()).isEqualTo(recorded.getCyclesResolved());
+        assertThat(replayWorld.getTrains().trackIndex(replayWorld.getTrains().indexOf("express")))
+            .isEqualTo(world.getTrains().trackIndex(world.getTrains().indexOf("express")));
+    }
+
+    /**
+     * 待ちの循環の検出中に書き出したスナップショットから再実行しても、記録と同じティックで循環を解消し、
+     * その後の日付の変わり目で決定済みのタグが外れることを確認
+     */
+    @Test
+    void replay_shouldMatchFromSnapshotTakenDuringDetection() throws IOException {
+        // 検査は300ティックで待ちグラフを取り、305ティックで解消する。302ティックで書き出す
+        SnapshotProperties snapshotProperties = new SnapshotProperties();
+        snapshotProperties.setDirectory(directory.resolve("snapshots"));
+        snapshotProperties.setIntervalTicks(302);
+        ReplayProperties replayProperties = new ReplayProperties();
+        replayProperties.setDirectory(directory.resolve("journal"));
+        replayProperties.setChecksumIntervalTicks(10);
+        SimulationProperties properties = deadlockProperties();
+        // 2ゲーム秒/ティックで、315ティックに日付が変わる（住民の決定は300, 330ティック）
+        ResidentProperties residentProperties = new ResidentProperties();
+        residentProperties.setStartSecondOfDay(86_400 - 630);
+        JourneyPlanner planner = planner();
+        DeadlockMetrics recorded = new DeadlockMetrics();
+        SimulationWorld world = deadlockWorld();
+        ResidentStore residents = world.getResidents();
+        for (int i = 0; i < 10; i++) {
+            residents.create(new PersonalInfo((short) 30, (short) 1, 0.5f),
+                    new TravelPlan(0, 1, 86_000 - i * 10, 0), new EconomicStatus(500_000, 1_000f, 3_000f));
+        }
+        CommandJournal journal = new CommandJournal(replayProperties, properties, residentProperties);
+        WorldSnapshotter snapshotter = new WorldSnapshotter(snapshotProperties, replayProperties);
+        DeadlockDetector detector = new DeadlockDetector(world, properties, recorded);
+        ResidentDecisionSystem decisions = new ResidentDecisionSystem(world, planner, residentProperties);
+        SimulationEngine engine = new SimulationEngine(properties, world,
+                List.of(new TrainMovementSystem(world, properties), detector, decisions), new TickMetrics(),
+                List.of(journal, snapshotter));
+        engine.submit(new JournaledCommand.PlaceTrain("local", "track-0", 0.0, TrainType.LOCAL));
+        engine.submit(new JournaledCommand.PlaceTrain("express", "track-3", 0.0, TrainType.LIMITED_EXPRESS));
+        engine.submit(new JournaledCommand.ChangeTrainState("local", TrainOperationState.MOVING));
+        for (int i = 0; i < 450; i++) {
+            if (i == 300) {
+                engine.submit(new JournaledCommand.ChangeTrainState("express", TrainOperationState.MOVING));
+            }
+            if (i == 310) {
+                assertThat(residents.has(0, ResidentStore.TRIP_DECIDED)).isTrue();
+            }
+            engine.tick();
+        }
+        journal.shutdown();
+        snapshotter.shutdown();
+        detector.shutdown();
+        decisions.shutdown();
+
+        DeadlockMetrics replayed = new DeadlockMetrics();
+        SimulationWorld replayWorld = new SimulationWorld();
+        DeadlockDetector replayDetector = new DeadlockDetector(replayWorld, properties, replayed);
+        ResidentDecisionSystem replayDecisions = new ResidentDecisionSystem(replayWorld, planner, residentProperties);
+        SimulationEngine replayEngine = new SimulationEngine(properties, replayWorld,
+                List.of(new TrainMovementSystem(replayWorld, properties), replayDetector, replayDecisions),
+                new TickMetrics());
+        replayProperties.setMode(ReplayMode.REPLAY);
+        new SnapshotRestorer(snapshotProperties, replayProperties, replayEngine).restore(302);
+        assertThat(replayWorld.getDeadlockChecks().pending()).isNotNull();
+        ResidentStore replayResidents = replayWorld.getResidents();
+        assertThat(replayResidents.has(0, ResidentStore.TRIP_DECIDED)).isTrue();
+        ReplayResult result = new Replayer(replayEngine, replayWorld)
+            .replay(JournalReader.open(run(replayProperties.getDirectory())));
+        replayDetector.shutdown();
+        replayDecisions.shutdown();
+        planner.shutdown();
+
+        assertThat(result.startTick()).isEqualTo(303);
+        assertThat(result.matched()).isTrue();
+        // 10ティックごと（310〜440）と終了時の449
+        assertThat(result.verified()).isEqualTo(15);
+        assertThat(recorded.getCyclesResolved()).isPositive();
+        assertThat(replayed.getCyclesResolved()).isEqualTo(recorded.getCyclesResolved());
+        assertThat(replayResidents.has(0, ResidentStore.TRIP_DECIDED)).isFalse();
+    }
+
+    private void record(int ticks) {
+        ReplayProperties replayProperties = new ReplayProperties();
+        replayProperties.setDirectory(directory);
+        replayProperties.setChecksumIntervalTicks(10);
+        SimulationProperties properties = simulationProperties();
+        SimulationWorld world = world();
+        CommandJournal journal = new CommandJournal(replayProperties, properties, new ResidentProperties());
+        SimulationEngine engine = new SimulationEngine(properties, world,
+                List.of(new TrainMovementSystem(world, properties)), new TickMetrics(), List.of(journal));
+
+        engine.submit(new JournaledCommand.PlaceTrain("train-1", "track-1", 0.0, TrainType.LOCAL));
+        engine.submit(new JournaledCommand.ChangeTrainState("train-1", TrainOperationState.MOVING));
+        for (int i = 0; i < ticks; i++) {
+            if (i == 100) {
+                engine.submit(new JournaledCommand.ChangeTrainState("train-1", TrainOperationState.STOPPED));
+            }
+            engine.tick();
+        }
+        journal.shutdown();
+    }
+
+    private ReplayResult replay(SimulationProperties properties, SimulationWorld world) throws IOException {
+        SimulationEngine engine = new SimulationEngine(properties, world,
+                List.of(new TrainMovementSystem(world, properties)), new TickMetrics());
+        return new Replayer(engine, world).replay(JournalReader.open(run()));
+    }
+
+    private Path run() throws IOException {
+        return run(directory);
+    }
+
+    private static Path run(Path directory) throws IOException {
+        try (Stream<Path> runs = Files.list(directory)) {
+            return runs.findFirst().orElseThrow();
+        }
+    }
+
+    private static SimulationProperties simulationProperties() {
+        SimulationProperties properties = new SimulationProperties();
+        properties.setEnabled(false);
+        return properties;
+    }
+
+    private static SimulationProperties deadlockProperties() {
+        SimulationProperties properties = simulationProperties();
+        properties.setDeadlockCheckIntervalTicks(5);
+        return properties;
+    }
+
+    /**
+     * track-0 -> track-1 -> track-2 -> track-3 -> track-1 の線路網
+     * track-0 の終端に track-1, track-2 を守る絶対信号機、track-2, track-3 の終端に閉塞信号機がある
+     */
+    private static SimulationWorld deadlockWorld() {
+        SimulationWorld world = new SimulationWorld();
+        world.replaceNetwork(TrackNetwork.of(
+                new String[] {"track-0", "track-1", "track-2", "track-3"},
+                new double[] {20.0, 20.0, 20.0, 20.0},
+                new double[] {10.0, 10.0, 10.0, 10.0},
+                new int[] {1, 2, 3, 1}),
+            SignalLayout.of(4,
+                new SignalType[] {SignalType.ABSOLUTE, SignalType.BLOCK, SignalType.BLOCK},
+                new int[] {0, 2, 3},
+                new int[][] {{1, 2}, {3}, {1}}));
+        return world;
+    }
+
+    /**
+     * 駅0から駅1への便だけの時刻表で経路を探す
+     */
+    private static JourneyPlanner planner() {
+        SimulationWorld timetables = new SimulationWorld();
+        timetables.replaceTimetable(TimetableIndex.build(List.of(new TimetableTrip("trip", "route", null,
+                new String[] {"station-0", "station-1"}, new int[] {86_100, 86_200}, new int[] {86_100, 86_200}))));
+        return new JourneyPlanner(new TimetableService(timetables), new TimetableProperties());
+    }
+
+    private static SimulationWorld world() {
+        SimulationWorld world = new SimulationWorld();
+        world.replaceNetwork(TrackNetwork.of(
+                new String[] {"track-1", "track-2"},
+                new double[] {100.0, 50.0},
+                new double[] {10.0, 10.0},
+                new int[] {1, TrackNetwork.NO_TRACK}));
+        return world;
+    }
+}
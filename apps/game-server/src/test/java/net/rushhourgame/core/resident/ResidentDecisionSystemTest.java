@@ -0,0 +1,213 @@
+package net.rushhourgame.core.resident;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.rushhourgame.core.simulation.SimulationWorld;
+import net.rushhourgame.core.snapshot.SnapshotOutput;
+import net.rushhourgame.core.timetable.JourneyPlanner;
+import net.rushhourgame.core.timetable.TimetableIndex;
+import net.rushhourgame.core.timetable.TimetableProperties;
+import net.rushhourgame.core.timetable.TimetableService;
+import net.rushhourgame.core.timetable.TimetableTrip;
+import net.rushhourgame.models.resident.EconomicStatus;
+import net.rushhourgame.models.resident.PersonalInfo;
+import net.rushhourgame.models.resident.TravelPlan;
+
+/**
+ * ResidentDecisionSystemの単体テストクラス
+ * 時刻表はテスト内で直接登録し、ゲーム内時刻はティック0で 8:00 になるように設定する
+ */
+class ResidentDecisionSystemTest {
+
+    private static final int EIGHT_O_CLOCK = 8 * 3600;
+
+    private TimetableService timetableService;
+    private JourneyPlanner planner;
+    private TimetableIndex index;
+
+    @BeforeEach
+    void setUp() {
+        SimulationWorld timetables = new SimulationWorld();
+        timetables.replaceTimetable(TimetableIndex.build(List.of(
+                trip("slow", "A", EIGHT_O_CLOCK + 600, "B", EIGHT_O_CLOCK + 1200, "C", EIGHT_O_CLOCK + 4800),
+                trip("fast", "B", EIGHT_O_CLOCK + 1300, "C", EIGHT_O_CLOCK + 1800),
+                trip("back", "C", EIGHT_O_CLOCK + 600, "A", EIGHT_O_CLOCK + 1800))));
+        timetableService = new TimetableService(timetables);
+        planner = new JourneyPlanner(timetableService, new TimetableProperties());
+        index = timetableService.getIndex();
+    }
+
+    @AfterEach
+    void tearDown() {
+        planner.shutdown();
+    }
+
+    /**
+     * 出発時刻を過ぎた住民だけが経路を決定し、予算内の経路がない住民は満足度が下がることを確認
+     */
+    @Test
+    void update_shouldDecideResidentsPastDepartureTime() {
+        ResidentProperties properties = properties(1);
+        properties.setChoiceDispersion(0.0);
+        SimulationWorld world = new SimulationWorld();
+        ResidentStore residents = world.getResidents();
+        int a = index.stationIndex("A");
+        int c = index.stationIndex("C");
+        // 時間価値が高い住民は乗り換えて早く着く経路を選ぶ
+        int hurried = residents.create(new PersonalInfo((short) 30, (short) 1, 0.5f),
+                new TravelPlan(a, c, EIGHT_O_CLOCK, 0), new EconomicStatus(500_000, 1_000f, 3_000f));
+        // 予算が1回分の運賃しかない住民は直通を選ぶ
+        int thrifty = residents.create(new PersonalInfo((short) 30, (short) 1, 0.5f),
+                new TravelPlan(a, c, EIGHT_O_CLOCK, 0), new EconomicStatus(200_000, 200f, 3_000f));
+        int broke = residents.create(new PersonalInfo((short) 30, (short) 1, 0.5f),
+                new TravelPlan(a, c, EIGHT_O_CLOCK, 0), new EconomicStatus(0, 0f, 3_000f));
+        int later = residents.create(new PersonalInfo((short) 30, (short) 1, 0.5f),
+                new TravelPlan(a, c, EIGHT_O_CLOCK + 7200, 0), new EconomicStatus(500_000, 1_000f, 3_000f));
+
+        ResidentDecisionSystem system = new ResidentDecisionSystem(world, planner, properties);
+        try {
+            system.update(0, 1.0 / 30);
+        } finally {
+            system.shutdown();
+        }
+
+        assertThat(index.trip(residents.preferredRoute(hurried)).scheduleId()).isEqualTo("slow");
+        assertThat(residents.has(hurried, ResidentStore.TRIP_DECIDED)).isTrue();
+        assertThat(residents.satisfaction(thrifty)).isLessThan(residents.satisfaction(hurried));
+        assertThat(residents.preferredRoute(broke)).isEqualTo(TimetableIndex.NO_TRIP);
+        assertThat(residents.satisfaction(broke)).isEqualTo(0.4f);
+        assertThat(residents.has(later, ResidentStore.TRIP_DECIDED)).isFalse();
+        assertThat(residents.satisfaction(later)).isEqualTo(0.5f);
+    }
+
+    /**
+     * 経路選択に誤差を加えても、スレッド数によらず同じ結果になることを確認
+     */
+    @Test
+    void update_shouldBeReproducibleRegardlessOfParallelism() {
+        SimulationWorld single = populatedWorld();
+        SimulationWorld parallel = populatedWorld();
+        ResidentDecisionSystem singleSystem = new ResidentDecisionSystem(single, planner, properties(1));
+        ResidentDecisionSystem parallelSystem = new ResidentDecisionSystem(parallel, planner, properties(4));
+        try {
+            singleSystem.update(0, 1.0 / 30);
+            parallelSystem.update(0, 1.0 / 30);
+        } finally {
+            singleSystem.shutdown();
+            parallelSystem.shutdown();
+        }
+
+        ResidentStore expected = single.getResidents();
+        ResidentStore actual = parallel.getResidents();
+        int decided = 0;
+        for (int i = 0; i < expected.highWaterMark(); i++) {
+            assertThat(actual.satisfaction(i)).isEqualTo(expected.satisfaction(i));
+            assertThat(actual.preferredRoute(i)).isEqualTo(expected.preferredRoute(i));
+            if (expected.has(i, ResidentStore.TRIP_DECIDED)) {
+                decided++;
+            }
+        }
+        assertThat(decided).isGreaterThan(1_000);
+    }
+
+    /**
+     * 複数のスレッドで決定した変更が漏れなく記録され、差分の同期で複製が元のストアと同じになることを確認
+     */
+    @Test
+    void update_shouldRecordParallelChangesForSync() {
+        for (int round = 0; round < 10; round++) {
+            SimulationWorld world = populatedWorld();
+            ResidentStore residents = world.getResidents();
+            ResidentStore copy = residents.createSyncTarget();
+            assertThat(residents.syncTo(copy, Integer.MAX_VALUE)).isTrue();
+            ResidentProperties properties = properties(4);
+            // 作業単位を変更の記録の範囲より細かくし、同じ範囲・ワードを複数のスレッドが書き込むようにする
+            properties.setChunkSize(7);
+            ResidentDecisionSystem system = new ResidentDecisionSystem(world, planner, properties);
+            try {
+                system.update(0, 1.0 / 30);
+            } finally {
+                system.shutdown();
+            }
+
+            assertThat(residents.syncTo(copy, Integer.MAX_VALUE)).isTrue();
+            assertThat(encode(copy)).isEqualTo(encode(residents));
+        }
+    }
+
+    /**
+     * 日付が変わると決定済みのタグが外れることを確認
+     */
+    @Test
+    void update_shouldClearDecisionsOnNewDay() {
+        ResidentProperties properties = properties(2);
+        properties.setStartSecondOfDay(86_400 - 60);
+        SimulationWorld world = new SimulationWorld();
+        ResidentStore residents = world.getResidents();
+        int resident = residents.create(new PersonalInfo((short) 30, (short) 1, 0.5f),
+                new TravelPlan(0, 1, 86_000, 0), new EconomicStatus(500_000, 1_000f, 3_000f));
+
+        ResidentDecisionSystem system = new ResidentDecisionSystem(world, planner, properties);
+        try {
+            system.update(0, 1.0);
+            assertThat(residents.has(resident, ResidentStore.TRIP_DECIDED)).isTrue();
+            system.update(1, 1.0);
+            assertThat(system.secondOfDay(1, 1.0)).isEqualTo(0);
+            assertThat(residents.has(resident, ResidentStore.TRIP_DECIDED)).isFalse();
+        } finally {
+            system.shutdown();
+        }
+    }
+
+    private SimulationWorld populatedWorld() {
+        Random random = new Random(5);
+        SimulationWorld world = new SimulationWorld();
+        ResidentStore residents = world.getResidents();
+        for (int i = 0; i < 5_000; i++) {
+            int origin = random.nextInt(index.stationCount());
+            int destination = random.nextInt(index.stationCount());
+            residents.create(new PersonalInfo((short) random.nextInt(90), (short) 0, random.nextFloat()),
+                    new TravelPlan(origin, destination, EIGHT_O_CLOCK - random.nextInt(3600), 0),
+                    new EconomicStatus(0, random.nextFloat() * 1_000f, random.nextFloat() * 5_000f));
+        }
+        return world;
+    }
+
+    private static ByteBuffer encode(ResidentStore store) {
+        SnapshotOutput out = new SnapshotOutput(1024);
+        store.writeTo(out);
+        return out.toBuffer();
+    }
+
+    private static ResidentProperties properties(int parallelism) {
+        ResidentProperties properties = new ResidentProperties();
+        properties.setDecisionIntervalTicks(1);
+        properties.setStartSecondOfDay(EIGHT_O_CLOCK);
+        properties.setChunkSize(64);
+        properties.setParallelism(parallelism);
+        properties.setSeed(42L);
+        return properties;
+    }
+
+    /**
+     * 駅IDと時刻を交互に並べた運行（到着時刻は出発時刻と同じ）
+     */
+    private static TimetableTrip trip(String id, Object... stops) {
+        int n = stops.length / 2;
+        String[] stations = new String[n];
+        int[] times = new int[n];
+        for (int i = 0; i < n; i++) {
+            stations[i] = (String) stops[i * 2];
+            times[i] = (Integer) stops[i * 2 + 1];
+        }
+        return new TimetableTrip(id, "route", "train-" + id, stations, times, times);
+    }
+}
@@ -0,0 +1,247 @@
+package net.rushhourgame.core.resident;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+import net.rushhourgame.core.snapshot.SnapshotOutput;
+import net.rushhourgame.models.resident.EconomicStatus;
+import net.rushhourgame.models.resident.PersonalInfo;
+import net.rushhourgame.models.resident.TravelPlan;
+
+/**
+ * ResidentStoreの単体テストクラス
+ */
+class ResidentStoreTest {
+
+    /**
+     * 追加したコンポーネントが列に格納され、同じ値のレコードとして取り出せることを確認
+     */
+    @Test
+    void create_shouldStoreComponentsInColumns() {
+        ResidentStore store = new ResidentStore(2);
+
+        int index = store.create(new PersonalInfo((short) 34, (short) 2, 0.75f),
+                new TravelPlan(1, 5, 28_800f, 3),
+                new EconomicStatus(420_000, 1_500f, 18.5f));
+
+        assertThat(store.personalInfo(index)).isEqualTo(new PersonalInfo((short) 34, (short) 2, 0.75f));
+        assertThat(store.travelPlan(index)).isEqualTo(new TravelPlan(1, 5, 28_800f, 3));
+        assertThat(store.economicStatus(index)).isEqualTo(new EconomicStatus(420_000, 1_500f, 18.5f));
+        assertThat(store.ages()[index]).isEqualTo((short) 34);
+        assertThat(store.destinations()[index]).isEqualTo(5);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    /**
+     * 容量を超えて追加しても既存の値が保たれ、削除した添字が再利用されることを確認
+     */
+    @Test
+    void create_shouldGrowAndReuseFreedIndices() {
+        ResidentStore store = new ResidentStore(2);
+        for (int i = 0; i < 10; i++) {
+            int index = store.create();
+            store.setPersonalInfo(index, new PersonalInfo((short) i, (short) 0, 0f));
+        }
+
+        assertThat(store.remove(3)).isTrue();
+        assertThat(store.remove(3)).isFalse();
+        assertThat(store.isAlive(3)).isFalse();
+        int reused = store.create();
+
+        assertThat(reused).isEqualTo(3);
+        assertThat(store.personalInfo(reused)).isNull();
+        assertThat(store.personalInfo(9).age()).isEqualTo((short) 9);
+        assertThat(store.size()).isEqualTo(10);
+        assertThat(store.highWaterMark()).isEqualTo(10);
+    }
+
+    /**
+     * 走査で指定したコンポーネントをすべて持つ住民だけが対象になることを確認
+     */
+    @Test
+    void forEach_shouldVisitResidentsWithAllComponents() {
+        ResidentStore store = new ResidentStore();
+        int personalOnly = store.create();
+        store.setPersonalInfo(personalOnly, new PersonalInfo((short) 20, (short) 1, 0.5f));
+        int both = store.create();
+        store.setPersonalInfo(both, new PersonalInfo((short) 40, (short) 1, 0.5f));
+        store.setTravelPlan(both, new TravelPlan(0, 1, 0f, 0));
+        int removed = store.create();
+        store.setPersonalInfo(removed, new PersonalInfo((short) 60, (short) 1, 0.5f));
+        store.setTravelPlan(removed, new TravelPlan(0, 1, 0f, 0));
+        store.remove(removed);
+        int detached = store.create();
+        store.setPersonalInfo(detached, new PersonalInfo((short) 80, (short) 1, 0.5f));
+        store.setTravelPlan(detached, new TravelPlan(0, 1, 0f, 0));
+        store.removeComponent(detached, ResidentStore.TRAVEL_PLAN);
+
+        List<Integer> visited = new ArrayList<>();
+        store.forEach(ResidentStore.PERSONAL_INFO | ResidentStore.TRAVEL_PLAN, visited::add);
+
+        assertThat(visited).containsExactly(both);
+        assertThat(store.has(detached, ResidentStore.PERSONAL_INFO)).isTrue();
+        assertThat(store.travelPlan(detached)).isNull();
+    }
+
+    /**
+     * 存在しない住民へのコンポーネント設定が拒否されることを確認
+     */
+    @Test
+    void setPersonalInfo_shouldRejectMissingResident() {
+        ResidentStore store = new ResidentStore();
+        int index = store.create();
+        store.remove(index);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> store.setPersonalInfo(index, new PersonalInfo((short) 1, (short) 1, 0f)));
+        assertThrows(IllegalArgumentException.class,
+                () -> store.setPersonalInfo(5, new PersonalInfo((short) 1, (short) 1, 0f)));
+    }
+
+    /**
+     * ヒープ外格納でも、ランダムな追加・削除・更新の後の値と走査結果がヒープ格納と一致することを確認
+     */
+    @Test
+    void offHeap_shouldMatchHeapStorage() {
+        Random random = new Random(3);
+        ResidentStore heap = new ResidentStore(4, ResidentStorage.HEAP);
+        ResidentStore offHeap = new ResidentStore(4, ResidentStorage.OFF_HEAP);
+        for (int step = 0; step < 2_000; step++) {
+            int operation = random.nextInt(5);
+            if (operation == 0 && heap.highWaterMark() > 0) {
+                int index = random.nextInt(heap.highWaterMark());
+                assertThat(offHeap.remove(index)).isEqualTo(heap.remove(index));
+            } else if (operation == 1 && heap.size() > 0) {
+                int index = random.nextInt(heap.highWaterMark());
+                if (heap.isAlive(index)) {
+                    float satisfaction = random.nextFloat();
+                    heap.setSatisfaction(index, satisfaction);
+                    offHeap.setSatisfaction(index, satisfaction);
+                }
+            } else {
+                PersonalInfo personalInfo = new PersonalInfo((short) random.nextInt(100), (short) random.nextInt(10),
+                        random.nextFloat());
+                TravelPlan travelPlan = new TravelPlan(random.nextInt(), random.nextInt(), random.nextFloat(),
+                        random.nextInt());
+                EconomicStatus economicStatus = new EconomicStatus(random.nextInt(), random.nextFloat(),
+                        random.nextFloat());
+                assertThat(offHeap.create(personalInfo, travelPlan, economicStatus))
+                        .isEqualTo(heap.create(personalInfo, travelPlan, economicStatus));
+            }
+        }
+
+        List<Integer> heapVisited = new ArrayList<>();
+        List<Integer> offHeapVisited = new ArrayList<>();
+        heap.forEach(ResidentStore.TRAVEL_PLAN, heapVisited::add);
+        offHeap.forEach(ResidentStore.TRAVEL_PLAN, offHeapVisited::add);
+        assertThat(offHeapVisited).isEqualTo(heapVisited);
+        assertThat(offHeap.size()).isEqualTo(heap.size());
+        for (int index : heapVisited) {
+            assertThat(offHeap.personalInfo(index)).isEqualTo(heap.personalInfo(index));
+            assertThat(offHeap.travelPlan(index)).isEqualTo(heap.travelPlan(index));
+            assertThat(offHeap.economicStatus(index)).isEqualTo(heap.economicStatus(index));
+        }
+    }
+
+    /**
+     * ヒープ外格納では配列アクセスが拒否されることを確認
+     */
+    @Test
+    void offHeap_shouldRejectArrayAccess() {
+        ResidentStore store = new ResidentStore(4, ResidentStorage.OFF_HEAP);
+
+        assertThrows(IllegalStateException.class, store::satisfactions);
+        assertThat(new ResidentStore(4, ResidentStorage.HEAP).satisfactions().length).isEqualTo(4);
+    }
+
+    /**
+     * 差分の同期で変更した範囲だけが写され、写し終えると元のストアと同じ内容になることを確認
+     */
+    @Test
+    void syncTo_shouldCopyOnlyChangedRanges() {
+        for (ResidentStorage storage : ResidentStorage.values()) {
+            ResidentStore store = new ResidentStore(4, storage);
+            for (int i = 0; i < 2000; i++) {
+                store.create(new PersonalInfo((short) 30, (short) 1, 0.5f), new TravelPlan(1, 2, 28_800f, 0),
+                        new EconomicStatus(300_000, 1_000f, 12f));
+            }
+            ResidentStore target = store.createSyncTarget();
+            assertThat(store.syncTo(target, Integer.MAX_VALUE)).isTrue();
+            assertThat(encode(target)).isEqualTo(encode(store));
+
+            // 同期後に複製だけを書き換えた住民は、元の範囲が変わらない限り上書きされない
+            target.setSatisfaction(600, 0.0f);
+            store.setSatisfaction(1500, 0.25f);
+            store.remove(1800);
+            store.setPreferredRoute(3, 7);
+            assertThat(store.syncTo(target, 1)).isFalse();
+            assertThat(target.preferredRoute(3)).isEqualTo(7);
+            assertThat(target.satisfaction(600)).isEqualTo(0.0f);
+            assertThat(target.satisfaction(1500)).isEqualTo(0.5f);
+
+            assertThat(store.syncTo(target, Integer.MAX_VALUE)).isTrue();
+            assertThat(target.satisfaction(1500)).isEqualTo(0.25f);
+            assertThat(target.isAlive(1800)).isFalse();
+            assertThat(target.size()).isEqualTo(store.size());
+            assertThat(target.create()).isEqualTo(store.create());
+            store.syncTo(target, Integer.MAX_VALUE);
+            target.setSatisfaction(600, 0.5f);
+            assertThat(encode(target)).isEqualTo(encode(store));
+        }
+    }
+
+    /**
+     * 住民ごとに別のスレッドから並列に書き込んでも、変更がすべて記録されることを確認
+     */
+    @Test
+    void syncTo_shouldCopyChangesWrittenInParallel() throws InterruptedException {
+        int threads = 4;
+        ResidentStore store = new ResidentStore(4);
+        for (int i = 0; i < 200_000; i++) {
+            store.create();
+        }
+        for (int round = 0; round < 20; round++) {
+            ResidentStore target = store.createSyncTarget();
+            store.syncTo(target, Integer.MAX_VALUE);
+            float value = round + 1;
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                // 隣り合う住民を別のスレッドが書き込むため、同じ範囲の記録を同時に更新する
+                writers.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = offset; i < store.highWaterMark(); i += threads) {
+                        store.setSatisfaction(i, value);
+                    }
+                }));
+            }
+            start.countDown();
+            for (Thread writer : writers) {
+                writer.join();
+            }
+
+            assertThat(store.syncTo(target, Integer.MAX_VALUE)).isTrue();
+            assertThat(encode(target)).isEqualTo(encode(store));
+        }
+    }
+
+    private static ByteBuffer encode(ResidentStore store) {
+        SnapshotOutput out = new SnapshotOutput(1024);
+        store.writeTo(out);
+        return out.toBuffer();
+    }
+}
@@ -0,0 +1,130 @@
+package net.rushhourgame.core.services;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import net.rushhourgame.core.database.entities.StopTimeEntity;
+import net.rushhourgame.core.database.entities.TrainEntity;
+import net.rushhourgame.core.database.repositories.ScheduleRepository;
+import net.rushhourgame.core.database.repositories.StopTimeRepository;
+import net.rushhourgame.core.database.repositories.TrainRepository;
+import net.rushhourgame.core.exceptions.EntityNotFoundException;
+import net.rushhourgame.models.common.TrainType;
+import net.rushhourgame.models.timetable.Schedule;
+import net.rushhourgame.models.timetable.StopTime;
+
+/**
+ * ScheduleServiceの統合テストクラス
+ * Spring Bootのテストコンテキストを使用し、実際のデータベースとマッパーを検証
+ */
+@SpringBootTest
+@Transactional // 各テストメソッドの後にトランザクションをロールバックし、データベースをクリーンアップ
+class ScheduleServiceTest {
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private StopTimeRepository stopTimeRepository;
+
+    @Autowired
+    private TrainRepository trainRepository;
+
+    /**
+     * 各テストの前にデータベースをクリーンアップ
+     */
+    @BeforeEach
+    void setUp() {
+        stopTimeRepository.deleteAll();
+        scheduleRepository.deleteAll();
+        trainRepository.deleteAll();
+    }
+
+    /**
+     * 時刻表の一括取り込みテスト
+     * フラッシュ間隔を超える件数のスケジュールと停車時間が、リストの順の並び順で保存されることを確認
+     */
+    @Test
+    void importSchedules_shouldPersistSchedulesAndStopTimesInOrder() {
+        // テストデータの準備（1スケジュール21行 × 60 = 1260行）
+        int scheduleCount = 60;
+        int stopCount = 20;
+        List<Schedule> schedules = new ArrayList<>();
+        for (int i = 0; i < scheduleCount; i++) {
+            TrainEntity train = trainRepository.save(createTestTrainEntity("owner-1"));
+            schedules.add(createTestSchedule("route-" + i, train.getId(), stopCount));
+        }
+
+        // サービスメソッドの実行
+        List<String> ids = scheduleService.importSchedules(schedules);
+
+        // 検証
+        assertThat(ids).hasSize(scheduleCount).doesNotContainNull();
+        assertThat(scheduleRepository.count()).isEqualTo(scheduleCount);
+        assertThat(stopTimeRepository.count()).isEqualTo((long) scheduleCount * stopCount);
+        List<StopTimeEntity> stopTimes = new ArrayList<>(stopTimeRepository.findBySchedule_Id(ids.get(0)));
+        stopTimes.sort(Comparator.comparing(StopTimeEntity::getSequenceOrder));
+        assertThat(stopTimes).extracting(StopTimeEntity::getStationId)
+                .containsExactly(schedules.get(0).getStopTimes().stream().map(StopTime::getStationId).toArray(String[]::new));
+        assertThat(scheduleRepository.findByTrain_Id(schedules.get(0).getTrainId())).isPresent();
+    }
+
+    /**
+     * 存在しない電車のスケジュールの取り込みテスト
+     * EntityNotFoundExceptionが発生し、何も保存されないことを確認
+     */
+    @Test
+    void importSchedules_shouldThrowException_whenTrainDoesNotExist() {
+        // テストデータの準備
+        TrainEntity train = trainRepository.save(createTestTrainEntity("owner-1"));
+        List<Schedule> schedules = List.of(
+                createTestSchedule("route-1", train.getId(), 2),
+                createTestSchedule("route-2", "non-existent-train", 2));
+
+        // 検証
+        assertThrows(EntityNotFoundException.class, () -> scheduleService.importSchedules(schedules));
+        assertThat(scheduleRepository.count()).isZero();
+        assertThat(stopTimeRepository.count()).isZero();
+    }
+
+    // ヘルパーメソッド：テスト用のScheduleを作成
+    private Schedule createTestSchedule(String routeId, String trainId, int stopCount) {
+        Schedule schedule = new Schedule();
+        schedule.setRouteId(routeId);
+        schedule.setTrainId(trainId);
+        List<StopTime> stopTimes = new ArrayList<>();
+        for (int i = 0; i < stopCount; i++) {
+            StopTime stopTime = new StopTime();
+            stopTime.setStationId(routeId + "-station-" + i);
+            stopTime.setArrivalTime(LocalTime.of(6, 0).plusMinutes(i * 3L));
+            stopTime.setDepartureTime(LocalTime.of(6, 1).plusMinutes(i * 3L));
+            stopTimes.add(stopTime);
+        }
+        schedule.setStopTimes(stopTimes);
+        return schedule;
+    }
+
+    // ヘルパーメソッド：テスト用のTrainEntityを作成
+    private TrainEntity createTestTrainEntity(String ownerId) {
+        TrainEntity entity = new TrainEntity();
+        entity.setOwnerId(ownerId);
+        entity.setTrainType(TrainType.LOCAL);
+        entity.setTotalCapacity(500);
+        entity.setDoorCount(4);
+        entity.setIsPlayerControlled(true);
+        return entity;
+    }
+}
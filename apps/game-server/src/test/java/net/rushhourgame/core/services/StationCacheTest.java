@@ -0,0 +1,197 @@
+package net.rushhourgame.core.services;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import net.rushhourgame.core.database.entities.StationChangedEvent;
+import net.rushhourgame.models.common.Location;
+import net.rushhourgame.models.railway.Corridor;
+import net.rushhourgame.models.railway.Gate;
+import net.rushhourgame.models.railway.Platform;
+import net.rushhourgame.models.station.Station;
+
+/**
+ * StationCacheの単体テストクラス
+ */
+class StationCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * 入れた駅がID・名前で取得でき、ヒット・ミスが数えられることを確認
+     */
+    @Test
+    void get_shouldReturnCopyAndCountHitsAndMisses() {
+        StationCache cache = new StationCache(10, Duration.ofSeconds(60), now::get);
+        cache.put(station("s1", "東京駅"), 0L, cache.generation());
+
+        Station found = cache.get("s1").orElseThrow();
+        found.setName("変更");
+
+        assertThat(cache.getByName("東京駅").map(Station::getId)).contains("s1");
+        assertThat(cache.get("s2")).isEmpty();
+        assertThat(cache.get("s1").map(Station::getName)).contains("東京駅");
+        assertThat(cache.getHitCount()).isEqualTo(3);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    /**
+     * 最大数を超えると最も長く参照されていない駅が、有効期限を過ぎると読み込んだ駅が破棄されることを確認
+     */
+    @Test
+    void put_shouldEvictLeastRecentlyUsedAndExpiredStations() {
+        StationCache cache = new StationCache(2, Duration.ofSeconds(60), now::get);
+        cache.put(station("s1", "A"), 0L, cache.generation());
+        cache.put(station("s2", "B"), 0L, cache.generation());
+        cache.get("s1");
+        cache.put(station("s3", "C"), 0L, cache.generation());
+
+        assertThat(cache.get("s2")).isEmpty();
+        assertThat(cache.getByName("B")).isEmpty();
+        assertThat(cache.get("s1")).isPresent();
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+
+        now.addAndGet(Duration.ofSeconds(61).toNanos());
+        assertThat(cache.get("s1")).isEmpty();
+        assertThat(cache.getEvictionCount()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    /**
+     * 古いバージョンの駅で上書きされず、書き込みより前に始めた読み込み結果は入らないことを確認
+     */
+    @Test
+    void written_shouldKeepNewestVersionAndDropStaleLoads() {
+        StationCache cache = new StationCache(10, Duration.ofSeconds(60), now::get);
+        long loadedBeforeWrite = cache.generation();
+        cache.written(station("s1", "新しい名前"), 3L);
+        cache.put(station("s1", "古い名前"), 2L, loadedBeforeWrite);
+        cache.putAll(List.of(station("s1", "古い名前")), List.of(2L), loadedBeforeWrite);
+        cache.written(station("s1", "さらに古い名前"), 1L);
+
+        assertThat(cache.get("s1").map(Station::getName)).contains("新しい名前");
+        assertThat(cache.getAll()).isEmpty();
+
+        cache.deleted("s1");
+        assertThat(cache.get("s1")).isEmpty();
+        assertThat(cache.getByName("新しい名前")).isEmpty();
+    }
+
+    /**
+     * トランザクション内の書き込みはコミット後に反映され、書き込んだトランザクションではキャッシュを使わないことを確認
+     */
+    @Test
+    void written_shouldApplyAfterCommitAndBypassCacheInWritingTransaction() {
+        StationCache cache = new StationCache(10, Duration.ofSeconds(60), now::get);
+        cache.put(station("s1", "旧"), 0L, cache.generation());
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.written(station("s1", "新"), 1L);
+        assertThat(cache.get("s1")).isEmpty();
+        assertThat(cache.getByName("旧")).isEmpty();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(cache.get("s1").map(Station::getName)).contains("新");
+
+        // ロールバックされた読み込み結果は入らない
+        TransactionSynchronizationManager.initSynchronization();
+        cache.put(station("s2", "ロールバック"), 0L, cache.generation());
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(cache.get("s2")).isEmpty();
+    }
+
+    /**
+     * キャッシュを通さない駅エンティティの変更で、コミット後に駅が破棄され、変更前に始めた読み込み結果は入らないことを確認
+     */
+    @Test
+    void onStationChanged_shouldInvalidateAfterCommitAndDropStaleLoads() {
+        StationCache cache = new StationCache(10, Duration.ofSeconds(60), now::get);
+        cache.put(station("s1", "旧"), 0L, cache.generation());
+        cache.putAll(List.of(station("s1", "旧")), List.of(0L), cache.generation());
+        long loadedBeforeChange = cache.generation();
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.onStationChanged(new StationChangedEvent("s1", 1.0, 2.0, false));
+        assertThat(cache.get("s1")).isEmpty();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(cache.get("s1")).isEmpty();
+        assertThat(cache.getByName("旧")).isEmpty();
+        assertThat(cache.getAll()).isEmpty();
+        cache.put(station("s1", "旧"), 0L, loadedBeforeChange);
+        assertThat(cache.get("s1")).isEmpty();
+
+        cache.put(station("s1", "新"), 1L, cache.generation());
+        assertThat(cache.get("s1").map(Station::getName)).contains("新");
+    }
+
+    /**
+     * 取得した駅の位置・改札・ホーム・通路を変更してもキャッシュ内の駅は変わらないことを確認
+     */
+    @Test
+    void get_shouldNotShareNestedElements() {
+        StationCache cache = new StationCache(10, Duration.ofSeconds(60), now::get);
+        Station station = station("s1", "東京駅");
+        station.setLocation(new Location(1.0, 2.0, 0.0));
+        Gate gate = new Gate();
+        gate.setId("gate-1");
+        gate.setCapacity(5);
+        gate.setPosition(new Location(1.0, 2.0, 0.0));
+        station.setGates(List.of(gate));
+        Platform platform = new Platform();
+        platform.setCapacity(100);
+        station.setPlatforms(List.of(platform));
+        Corridor corridor = new Corridor();
+        corridor.setWidth(3.0);
+        station.setCorridors(List.of(corridor));
+        cache.put(station, 0L, cache.generation());
+        gate.setCapacity(0);
+
+        Station found = cache.get("s1").orElseThrow();
+        found.getLocation().setX(99.0);
+        found.getGates().get(0).getPosition().setY(99.0);
+        found.getGates().get(0).setCapacity(1);
+        found.getPlatforms().get(0).setCapacity(1);
+        found.getCorridors().get(0).setWidth(1.0);
+
+        Station cached = cache.get("s1").orElseThrow();
+        assertThat(cached.getLocation().getX()).isEqualTo(1.0);
+        assertThat(cached.getGates().get(0).getPosition().getY()).isEqualTo(2.0);
+        assertThat(cached.getGates().get(0).getCapacity()).isEqualTo(5);
+        assertThat(cached.getPlatforms().get(0).getCapacity()).isEqualTo(100);
+        assertThat(cached.getCorridors().get(0).getWidth()).isEqualTo(3.0);
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+    }
+
+    private static Station station(String id, String name) {
+        Station station = new Station();
+        station.setId(id);
+        station.setName(name);
+        return station;
+    }
+}
@@ -10,6 +10,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import net.rushhourgame.core.database.entities.LocationEmbeddable;
@@ -220,6 +221,25 @@ class StationServiceTest {
         assertThat(stations).extracting(Station::getName).containsExactlyInAnyOrder("新宿駅", "渋谷駅");
     }
 
+    /**
+     * リポジトリを直接使った保存・削除も空間索引に反映されることを確認
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void findWithinRadius_shouldReflectRepositoryWrites() {
+        try {
+            StationEntity saved = stationRepository.save(createTestStationEntity("大宮駅", "owner-8", 800, 10.0, 20.0));
+            assertThat(stationService.findWithinRadius(10.0, 20.0, 1.0))
+                    .extracting(Station::getName).containsExactly("大宮駅");
+
+            stationRepository.deleteById(saved.getId());
+            assertThat(stationService.findWithinRadius(10.0, 20.0, 1.0)).isEmpty();
+            assertThat(stationService.findByLocationRange(9.0, 11.0, 19.0, 21.0)).isEmpty();
+        } finally {
+            stationRepository.deleteAll();
+        }
+    }
+
     /**
      * 駅の更新テスト
      * 既存の駅情報が正しく更新されることを確認
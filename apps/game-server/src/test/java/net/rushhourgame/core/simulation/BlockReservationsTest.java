@@ -0,0 +1,250 @@
+package net.rushhourgame.core.simulation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.rushhourgame.core.event.DomainEventBus;
+import net.rushhourgame.core.event.EventBusProperties;
+import net.rushhourgame.core.event.EventPartition;
+import net.rushhourgame.models.common.SignalType;
+import net.rushhourgame.models.common.TrainOperationState;
+import net.rushhourgame.models.event.EventType;
+
+/**
+ * BlockReservationsの単体テストクラス
+ * 線路は 0 -> 1 -> 2 -> 3 -> 4 の一本道として添字で指定する
+ */
+class BlockReservationsTest {
+
+    private static final int TRAIN_A = 0;
+    private static final int TRAIN_B = 1;
+
+    /**
+     * 閉塞信号機では次の線路1本だけを予約し、その線路を出ると解放されることを確認
+     */
+    @Test
+    void block_shouldReserveNextTrackOnly() {
+        BlockReservations reservations = reservations(SignalType.BLOCK, 0, new int[] {1});
+
+        assertThat(reservations.requestEntry(TRAIN_A, 0, 1)).isTrue();
+        assertThat(reservations.requestEntry(TRAIN_A, 0, 1)).isTrue();
+        assertThat(reservations.requestEntry(TRAIN_B, 0, 1)).isFalse();
+
+        reservations.onEnter(TRAIN_A, 0, 1);
+        reservations.onEnter(TRAIN_A, 1, 2);
+
+        assertThat(reservations.getOccupancy().isFree(1)).isTrue();
+        assertThat(reservations.requestEntry(TRAIN_B, 0, 1)).isTrue();
+    }
+
+    /**
+     * 進路信号機では区間全体を予約し、通過した線路から順に解放されることを確認
+     */
+    @Test
+    void path_shouldReleaseSectionTrackByTrack() {
+        BlockReservations reservations = reservations(SignalType.PATH, 0, new int[] {1, 2, 3});
+
+        assertThat(reservations.requestEntry(TRAIN_A, 0, 1)).isTrue();
+        assertThat(reservations.getOccupancy().holder(3)).isEqualTo(TRAIN_A);
+
+        reservations.onEnter(TRAIN_A, 0, 1);
+        reservations.onEnter(TRAIN_A, 1, 2);
+
+        assertThat(reservations.getOccupancy().isFree(1)).isTrue();
+        assertThat(reservations.getOccupancy().holder(2)).isEqualTo(TRAIN_A);
+        assertThat(reservations.getOccupancy().holder(3)).isEqualTo(TRAIN_A);
+
+        reservations.onEnter(TRAIN_A, 2, 3);
+        reservations.onEnter(TRAIN_A, 3, 4);
+
+        assertThat(reservations.sectionSignal(TRAIN_A)).isEqualTo(SignalLayout.NO_SIGNAL);
+        assertThat(reservations.getOccupancy().isFree(3)).isTrue();
+    }
+
+    /**
+     * 絶対信号機では電車が区間を出るまで区間全体を保持することを確認
+     */
+    @Test
+    void absolute_shouldHoldSectionUntilCleared() {
+        BlockReservations reservations = reservations(SignalType.ABSOLUTE, 0, new int[] {1, 2, 3});
+
+        assertThat(reservations.requestEntry(TRAIN_A, 0, 1)).isTrue();
+        reservations.onEnter(TRAIN_A, 0, 1);
+        reservations.onEnter(TRAIN_A, 1, 2);
+        reservations.onEnter(TRAIN_A, 2, 3);
+
+        assertThat(reservations.getOccupancy().holder(1)).isEqualTo(TRAIN_A);
+        assertThat(reservations.getOccupancy().isFree(0)).isTrue();
+
+        reservations.onEnter(TRAIN_A, 3, 4);
+
+        assertThat(reservations.getOccupancy().isFree(1)).isTrue();
+        assertThat(reservations.getOccupancy().isFree(2)).isTrue();
+        assertThat(reservations.getOccupancy().isFree(3)).isTrue();
+    }
+
+    /**
+     * 区間の一部が予約済みの場合は何も予約せずに拒否することを確認
+     */
+    @Test
+    void path_shouldRollBackWhenSectionIsPartiallyHeld() {
+        BlockReservations reservations = reservations(SignalType.PATH, 0, new int[] {1, 2, 3});
+        assertThat(reservations.requestEntry(TRAIN_B, 2, 3)).isTrue();
+
+        assertThat(reservations.requestEntry(TRAIN_A, 0, 1)).isFalse();
+
+        assertThat(reservations.getOccupancy().isFree(1)).isTrue();
+        assertThat(reservations.getOccupancy().isFree(2)).isTrue();
+        assertThat(reservations.getOccupancy().holder(3)).isEqualTo(TRAIN_B);
+        assertThat(reservations.sectionSignal(TRAIN_A)).isEqualTo(SignalLayout.NO_SIGNAL);
+    }
+
+    /**
+     * 撤去・譲歩では対象の電車が予約している線路だけが解放され、複製後も同じように解放できることを確認
+     */
+    @Test
+    void releaseTrain_shouldReleaseOnlyHeldTracks() {
+        BlockReservations reservations = reservations(SignalType.PATH, 0, new int[] {1, 2, 3});
+        assertThat(reservations.requestEntry(TRAIN_A, 0, 1)).isTrue();
+        reservations.onEnter(TRAIN_A, 0, 1);
+
+        BlockReservations copy = reservations.copy();
+        assertThat(reservations.yieldReservations(TRAIN_A, 1, 1)).isEqualTo(2);
+        assertThat(reservations.getOccupancy().holder(1)).isEqualTo(TRAIN_A);
+        assertThat(reservations.getOccupancy().isFree(2)).isTrue();
+        assertThat(reservations.getOccupancy().isFree(3)).isTrue();
+        assertThat(reservations.yieldReservations(TRAIN_B, 0, 1)).isZero();
+
+        copy.releaseTrain(TRAIN_A);
+        assertThat(copy.getOccupancy().isFree(1)).isTrue();
+        assertThat(copy.getOccupancy().isFree(3)).isTrue();
+        assertThat(copy.sectionSignal(TRAIN_A)).isEqualTo(SignalLayout.NO_SIGNAL);
+        assertThat(reservations.getOccupancy().holder(1)).isEqualTo(TRAIN_A);
+    }
+
+    /**
+     * 占有表から直接解放された線路が残っていても撤去が終わり、後から他の電車が取った予約は解放しないことを確認
+     */
+    @Test
+    void releaseTrain_shouldFinishWhenTrackWasReleasedElsewhere() {
+        BlockReservations reservations = reservations(SignalType.PATH, 0, new int[] {1, 2, 3});
+        assertThat(reservations.requestEntry(TRAIN_A, 0, 1)).isTrue();
+        assertThat(reservations.getOccupancy().release(3, TRAIN_A)).isTrue();
+        assertThat(reservations.getOccupancy().tryAcquire(3, TRAIN_B)).isTrue();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> reservations.releaseTrain(TRAIN_A));
+
+        assertThat(reservations.getOccupancy().isFree(1)).isTrue();
+        assertThat(reservations.getOccupancy().isFree(2)).isTrue();
+        assertThat(reservations.getOccupancy().holder(3)).isEqualTo(TRAIN_B);
+        assertThat(reservations.yieldReservations(TRAIN_A, 0, 1)).isZero();
+    }
+
+    /**
+     * 入換信号機は予約せず、他の電車が予約している線路への進入だけを止めることを確認
+     */
+    @Test
+    void shunting_shouldOnlyCheckOccupancy() {
+        BlockReservations reservations = reservations(SignalType.SHUNTING, 0, new int[] {1});
+
+        assertThat(reservations.requestEntry(TRAIN_A, 0, 1)).isTrue();
+        assertThat(reservations.getOccupancy().isFree(1)).isTrue();
+
+        assertThat(reservations.occupy(TRAIN_B, 1)).isTrue();
+        assertThat(reservations.requestEntry(TRAIN_A, 0, 1)).isFalse();
+    }
+
+    /**
+     * 後続の電車が信号機の手前で停止し、先行の電車が区間を出ると走行を再開することを確認
+     */
+    @Test
+    void tick_shouldHoldFollowingTrainAtSignal() {
+        SimulationProperties properties = new SimulationProperties();
+        properties.setEnabled(false);
+        SimulationWorld world = new SimulationWorld();
+        SimulationEngine engine = new SimulationEngine(properties, world,
+                List.of(new TrainMovementSystem(world, properties)), new TickMetrics());
+        // track-0 (50) -> track-1 (50) -> track-2 (1000) -> 行き止まり
+        TrackNetwork network = TrackNetwork.of(
+                new String[] {"track-0", "track-1", "track-2"},
+                new double[] {50.0, 50.0, 1000.0},
+                new double[] {10.0, 10.0, 10.0},
+                new int[] {1, 2, TrackNetwork.NO_TRACK});
+        world.replaceNetwork(network, SignalLayout.of(3,
+                new SignalType[] {SignalType.BLOCK, SignalType.BLOCK},
+                new int[] {0, 1},
+                new int[][] {{1}, {2}}));
+        engine.submit(w -> {
+            w.placeTrain("leader", "track-1", 0.0);
+            w.placeTrain("follower", "track-0", 0.0);
+        });
+        engine.tick();
+        engine.submit(w -> w.changeState("follower", TrainOperationState.MOVING));
+
+        runTicks(engine, 900);
+
+        TrainStateStore trains = world.getTrains();
+        int follower = trains.indexOf("follower");
+        assertThat(trains.trackIndex(follower)).isEqualTo(0);
+        assertThat(trains.position(follower)).isLessThanOrEqualTo(50.0);
+        assertThat(trains.speed(follower)).isEqualTo(0.0);
+        assertThat(trains.state(follower)).isEqualTo(TrainOperationState.MOVING);
+
+        engine.submit(w -> w.changeState("leader", TrainOperationState.MOVING));
+        runTicks(engine, 900);
+
+        assertThat(trains.trackIndex(trains.indexOf("leader"))).isEqualTo(2);
+        assertThat(trains.trackIndex(follower)).isEqualTo(1);
+    }
+
+    /**
+     * 区間の予約・解放と信号待ちの変化がイベントとして発行され、拒否された区間予約は発行されないことを確認
+     */
+    @Test
+    void path_shouldPublishReservationAndWaitingEvents() {
+        DomainEventBus bus = new DomainEventBus(new EventBusProperties());
+        EventPartition events = bus.createPartition("test");
+        List<String> published = new ArrayList<>();
+        bus.subscribe(batch -> {
+            for (int i = 0; i < batch.size(); i++) {
+                published.add(batch.get(i).getType() + ":" + batch.get(i).getSubject() + ":" + batch.get(i).getTarget());
+            }
+        }, EventType.BLOCK_RESERVED, EventType.BLOCK_RELEASED, EventType.TRAIN_BLOCKED, EventType.TRAIN_UNBLOCKED);
+        SignalLayout layout = SignalLayout.of(5, new SignalType[] {SignalType.PATH}, new int[] {0},
+                new int[][] {{1, 2}});
+        BlockReservations reservations = new BlockReservations(layout, 5, events);
+
+        reservations.requestEntry(TRAIN_A, 0, 1);
+        reservations.requestEntry(TRAIN_B, 0, 1);
+        reservations.requestEntry(TRAIN_B, 0, 1);
+        reservations.onEnter(TRAIN_A, 0, 1);
+        reservations.onEnter(TRAIN_A, 1, 2);
+        reservations.onEnter(TRAIN_A, 2, 3);
+        reservations.requestEntry(TRAIN_B, 0, 1);
+        bus.dispatch();
+
+        assertThat(published).containsExactly(
+                "BLOCK_RESERVED:0:1", "BLOCK_RESERVED:0:2",
+                "TRAIN_BLOCKED:1:0",
+                "BLOCK_RELEASED:0:1", "BLOCK_RELEASED:0:2",
+                "BLOCK_RESERVED:1:1", "BLOCK_RESERVED:1:2", "TRAIN_UNBLOCKED:1:-1");
+    }
+
+    private static BlockReservations reservations(SignalType type, int signalTrack, int[] protectedTracks) {
+        SignalLayout layout = SignalLayout.of(5, new SignalType[] {type}, new int[] {signalTrack},
+                new int[][] {protectedTracks});
+        return new BlockReservations(layout, 5);
+    }
+
+    private static void runTicks(SimulationEngine engine, int count) {
+        for (int i = 0; i < count; i++) {
+            engine.tick();
+        }
+    }
+}
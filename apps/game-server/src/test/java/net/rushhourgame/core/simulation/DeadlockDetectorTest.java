@@ -0,0 +1,119 @@
+package net.rushhourgame.core.simulation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.rushhourgame.models.common.SignalType;
+import net.rushhourgame.models.common.TrainOperationState;
+import net.rushhourgame.models.common.TrainType;
+
+/**
+ * DeadlockDetector・WaitForGraphの単体テストクラス
+ * 検出処理は呼び出しスレッドで同期的に実行する
+ */
+class DeadlockDetectorTest {
+
+    private SimulationWorld world;
+    private DeadlockMetrics metrics;
+    private DeadlockDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        SimulationProperties properties = new SimulationProperties();
+        properties.setDeadlockCheckIntervalTicks(1);
+        world = new SimulationWorld();
+        metrics = new DeadlockMetrics();
+        detector = new DeadlockDetector(world, properties, metrics, Runnable::run);
+
+        // track-0 -> track-1 -> track-2 -> track-1 の環状線で、各線路の終端に閉塞信号機がある
+        world.replaceNetwork(TrackNetwork.of(
+                new String[] {"track-0", "track-1", "track-2"},
+                new double[] {100.0, 100.0, 100.0},
+                new double[] {10.0, 10.0, 10.0},
+                new int[] {1, 2, 1}),
+            SignalLayout.of(3,
+                new SignalType[] {SignalType.BLOCK, SignalType.BLOCK, SignalType.BLOCK},
+                new int[] {0, 1, 2},
+                new int[][] {{1}, {2}, {1}}));
+    }
+
+    /**
+     * 循環に含まれる電車だけが検出され、循環に向かう待ちの列は含まれないことを確認
+     */
+    @Test
+    void findCycles_shouldReturnOnlyCycleMembers() {
+        WaitForGraph graph = WaitForGraph.of(
+                new int[] {0, 1, 2, 3, 4},
+                new int[] {1, 2, 0, 0, 5},
+                new TrainType[] {TrainType.LOCAL, TrainType.RAPID, TrainType.EXPRESS, TrainType.LOCAL,
+                    TrainType.LOCAL});
+
+        List<int[]> cycles = graph.findCycles();
+
+        assertThat(cycles).hasSize(1);
+        assertThat(List.of(cycles.get(0)[0], cycles.get(0)[1], cycles.get(0)[2]))
+                .containsExactlyInAnyOrder(0, 1, 2);
+        assertThat(graph.chooseVictim(cycles.get(0))).isEqualTo(0);
+    }
+
+    /**
+     * 優先度の低い電車が先の予約を手放し、優先度の高い電車が進めるようになることを確認
+     */
+    @Test
+    void update_shouldMakeLowerPriorityTrainYield() {
+        int local = world.placeTrain("local", "track-0", 50.0, TrainType.LOCAL);
+        BlockReservations reservations = world.getReservations();
+        // 普通電車が先の閉塞 track-2 を予約したまま track-1 を待つ
+        assertThat(reservations.requestEntry(local, 1, 2)).isTrue();
+        int express = world.placeTrain("express", "track-1", 50.0, TrainType.LIMITED_EXPRESS);
+        assertThat(reservations.requestEntry(local, 0, 1)).isFalse();
+        assertThat(reservations.requestEntry(express, 1, 2)).isFalse();
+
+        detector.update(0L, 1.0 / 30);
+        detector.update(1L, 1.0 / 30);
+
+        assertThat(metrics.getCyclesDetected()).isEqualTo(1);
+        assertThat(metrics.getCyclesResolved()).isEqualTo(1);
+        assertThat(reservations.requestEntry(express, 1, 2)).isTrue();
+        assertThat(reservations.requestEntry(local, 0, 1)).isFalse();
+        assertThat(reservations.blockerOf(local)).isEqualTo(TrainStateStore.NO_TRAIN);
+    }
+
+    /**
+     * 単線区間で向かい合った2本の電車のように在線中の線路だけで循環している場合は、
+     * 優先度の低い電車を運行から外して残りの電車を進めることを確認
+     */
+    @Test
+    void update_shouldWithdrawVictimWhenOnlyCurrentBlocksFormCycle() {
+        // track-1 と track-2 を互いに相手の在線する閉塞へ進もうとする電車が塞ぐ
+        int first = world.placeTrain("first", "track-1", 50.0, TrainType.EXPRESS);
+        int second = world.placeTrain("second", "track-2", 50.0, TrainType.LOCAL);
+        BlockReservations reservations = world.getReservations();
+        assertThat(reservations.requestEntry(first, 1, 2)).isFalse();
+        assertThat(reservations.requestEntry(second, 2, 1)).isFalse();
+
+        for (long tick = 0; tick < 10; tick++) {
+            detector.update(tick, 1.0 / 30);
+        }
+
+        assertThat(metrics.getCyclesDetected()).isEqualTo(1);
+        assertThat(metrics.getCyclesResolved()).isEqualTo(1);
+        assertThat(metrics.getCyclesUnresolved()).isZero();
+        assertThat(metrics.getTrainsWithdrawn()).isEqualTo(1);
+        assertThat(world.getTrains().indexOf("second")).isEqualTo(TrainStateStore.NO_TRAIN);
+        assertThat(reservations.getOccupancy().isFree(2)).isTrue();
+
+        // 残った電車は空いた閉塞へ進める
+        TrainMovementSystem movement = new TrainMovementSystem(world, new SimulationProperties());
+        world.changeState("first", TrainOperationState.MOVING);
+        for (long tick = 0; tick < 300 && world.getTrains().trackIndex(first) == 1; tick++) {
+            movement.update(tick, 1.0 / 30);
+        }
+        assertThat(world.getTrains().trackIndex(first)).isEqualTo(2);
+        assertThat(reservations.getOccupancy().holder(2)).isEqualTo(first);
+    }
+}
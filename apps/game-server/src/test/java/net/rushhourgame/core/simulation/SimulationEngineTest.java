@@ -0,0 +1,145 @@
+package net.rushhourgame.core.simulation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.rushhourgame.models.common.TrainOperationState;
+
+/**
+ * SimulationEngineの単体テストクラス
+ * ティックループを起動せず、tick()を直接呼び出して状態遷移を検証
+ */
+class SimulationEngineTest {
+
+    private SimulationProperties properties;
+    private SimulationWorld world;
+    private TickMetrics metrics;
+    private SimulationEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SimulationProperties();
+        properties.setEnabled(false);
+        world = new SimulationWorld();
+        metrics = new TickMetrics();
+        engine = new SimulationEngine(properties, world,
+                List.of(new TrainMovementSystem(world, properties)), metrics);
+
+        // track-1 (100) -> track-2 (50) -> 行き止まり
+        world.replaceNetwork(TrackNetwork.of(
+                new String[] {"track-1", "track-2"},
+                new double[] {100.0, 50.0},
+                new double[] {10.0, 10.0},
+                new int[] {1, TrackNetwork.NO_TRACK}));
+    }
+
+    /**
+     * 発車した電車が加速しながら線路上を進むことを確認
+     */
+    @Test
+    void tick_shouldAdvanceMovingTrain() {
+        engine.submit(w -> {
+            w.placeTrain("train-1", "track-1", 0.0);
+            w.changeState("train-1", TrainOperationState.MOVING);
+        });
+
+        runTicks(30);
+
+        TrainStateStore trains = world.getTrains();
+        int index = trains.indexOf("train-1");
+        assertThat(trains.speed(index)).isGreaterThan(0.0);
+        assertThat(trains.position(index)).isGreaterThan(0.0);
+        assertThat(engine.getCurrentTick()).isEqualTo(30);
+    }
+
+    /**
+     * 電車が次の線路へ乗り継ぎ、行き止まりで停車することを確認
+     */
+    @Test
+    void tick_shouldFollowNextTrackAndStopAtDeadEnd() {
+        engine.submit(w -> {
+            w.placeTrain("train-1", "track-1", 90.0);
+            w.changeState("train-1", TrainOperationState.MOVING);
+        });
+
+        runTicks(30 * 60);
+
+        TrainStateStore trains = world.getTrains();
+        int index = trains.indexOf("train-1");
+        assertThat(world.getNetwork().trackId(trains.trackIndex(index))).isEqualTo("track-2");
+        assertThat(trains.position(index)).isEqualTo(50.0);
+        assertThat(trains.speed(index)).isZero();
+        assertThat(trains.state(index)).isEqualTo(TrainOperationState.STOPPED);
+    }
+
+    /**
+     * 停車中の電車は移動しないことを確認
+     */
+    @Test
+    void tick_shouldNotMoveStoppedTrain() {
+        engine.submit(w -> w.placeTrain("train-1", "track-1", 10.0));
+
+        runTicks(10);
+
+        TrainStateStore trains = world.getTrains();
+        assertThat(trains.position(trains.indexOf("train-1"))).isEqualTo(10.0);
+    }
+
+    /**
+     * 不正なコマンドがループを止めないことを確認
+     */
+    @Test
+    void tick_shouldIgnoreRejectedCommand() {
+        engine.submit(w -> w.placeTrain("train-1", "unknown-track", 0.0));
+
+        runTicks(1);
+
+        assertThat(world.getTrains().size()).isZero();
+        assertThat(engine.getCurrentTick()).isEqualTo(1);
+    }
+
+    /**
+     * 撤去された線路上の電車が取り除かれることを確認
+     */
+    @Test
+    void replaceNetwork_shouldRemoveTrainsOnRemovedTracks() {
+        engine.submit(w -> {
+            w.placeTrain("train-1", "track-1", 10.0);
+            w.placeTrain("train-2", "track-2", 10.0);
+        });
+        runTicks(1);
+
+        world.replaceNetwork(TrackNetwork.of(
+                new String[] {"track-2"}, new double[] {50.0}, new double[] {10.0},
+                new int[] {TrackNetwork.NO_TRACK}));
+
+        TrainStateStore trains = world.getTrains();
+        assertThat(trains.size()).isEqualTo(1);
+        assertThat(trains.indexOf("train-1")).isEqualTo(TrainStateStore.NO_TRAIN);
+        assertThat(trains.trackIndex(trains.indexOf("train-2"))).isZero();
+    }
+
+    /**
+     * ティック処理時間とオーバーランが計測されることを確認
+     */
+    @Test
+    void tick_shouldRecordMetrics() {
+        properties.setTickBudgetMillis(0.0);
+
+        runTicks(5);
+
+        assertThat(metrics.getTicks()).isEqualTo(5);
+        assertThat(metrics.getOverruns()).isEqualTo(5);
+        assertThat(metrics.getMaxTickNanos()).isGreaterThanOrEqualTo(metrics.getLastTickNanos());
+    }
+
+    private void runTicks(int count) {
+        for (int i = 0; i < count; i++) {
+            engine.tick();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package net.rushhourgame.core.simulation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.rushhourgame.core.database.entities.Point3DEmbeddable;
+import net.rushhourgame.core.database.entities.TrackEntity;
+
+/**
+ * TrackCurve・TrackCurveCodec・TrackCurveCacheの単体テストクラス
+ */
+class TrackCurveTest {
+
+    /**
+     * sequenceOrder の順に点を結び、弧長から座標が求まることを確認
+     */
+    @Test
+    void fromPoints_shouldInterpolateByArcLength() {
+        // (0,0) -> (30,0) -> (30,40) の L 字（順不同・重複点あり）
+        TrackCurve curve = TrackCurve.fromPoints(List.of(
+                point(2, 30.0, 40.0, 1L),
+                point(0, 0.0, 0.0, 1L),
+                point(1, 30.0, 0.0, 1L),
+                point(3, 30.0, 40.0, 1L)));
+
+        assertThat(curve.length()).isCloseTo(70.0, within(1e-9));
+        assertThat(curve.vertexCount()).isEqualTo(3);
+        assertThat(curve.x(15.0)).isCloseTo(15.0, within(1e-9));
+        assertThat(curve.y(15.0)).isCloseTo(0.0, within(1e-9));
+        assertThat(curve.x(50.0)).isCloseTo(30.0, within(1e-9));
+        assertThat(curve.y(50.0)).isCloseTo(20.0, within(1e-9));
+        assertThat(curve.heading(50.0)).isCloseTo(Math.PI / 2, within(1e-9));
+    }
+
+    /**
+     * 範囲外の距離が両端に丸められ、点のない曲線は原点を返すことを確認
+     */
+    @Test
+    void lookup_shouldClampOutOfRangeDistances() {
+        TrackCurve curve = TrackCurve.of(new double[] {0.0, 10.0}, new double[] {5.0, 5.0}, new double[2]);
+
+        assertThat(curve.x(-3.0)).isCloseTo(0.0, within(1e-9));
+        assertThat(curve.x(25.0)).isCloseTo(10.0, within(1e-9));
+        assertThat(TrackCurve.empty().x(3.0)).isEqualTo(0.0);
+        assertThat(TrackCurve.fromPoints(List.of()).length()).isEqualTo(0.0);
+    }
+
+    /**
+     * 線路網が線路長に対する割合で位置を曲線上の座標に換算することを確認
+     */
+    @Test
+    void network_shouldScaleTrackPositionToArcLength() {
+        TrackEntity track = track("track-1", 200.0, 1L, List.of(
+                point(0, 0.0, 0.0, 1L),
+                point(1, 100.0, 0.0, 1L)));
+
+        TrackNetwork network = TrackNetwork.fromEntities(List.of(track));
+
+        assertThat(network.x(0, 100.0)).isCloseTo(50.0, within(1e-9));
+        assertThat(network.curve(0).length()).isCloseTo(100.0, within(1e-9));
+    }
+
+    /**
+     * バージョンが同じ線路の曲線は再利用され、点が更新されると作り直されることを確認
+     */
+    @Test
+    void cache_shouldRebuildOnlyWhenVersionChanges() {
+        TrackCurveCache cache = new TrackCurveCache();
+        List<Point3DEmbeddable> points = new ArrayList<>(List.of(
+                point(0, 0.0, 0.0, 1L),
+                point(1, 100.0, 0.0, 1L)));
+        TrackEntity track = track("track-1", 100.0, 3L, points);
+
+        TrackCurve first = cache.curveOf(track);
+        TrackCurve second = cache.curveOf(track);
+        points.get(1).setX(50.0);
+        points.get(1).setVersion(2L);
+        TrackCurve third = cache.curveOf(track);
+
+        assertThat(second).isSameAs(first);
+        assertThat(third).isNotSameAs(first);
+        assertThat(third.length()).isCloseTo(50.0, within(1e-9));
+        assertThat(cache.getBuildCount()).isEqualTo(2);
+
+        cache.retainAll(List.of("other"));
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    /**
+     * 詰めた曲線から同じ曲線が復元され、不正なバイト列は拒否されることを確認
+     */
+    @Test
+    void codec_shouldRoundTripPoints() {
+        byte[] data = TrackCurveCodec.encode(List.of(
+                point(1, 30.0, 0.0, 1L),
+                point(0, 0.0, 0.0, 1L),
+                point(2, 30.0, 40.0, 1L)));
+
+        TrackCurve curve = TrackCurveCodec.decode(data);
+
+        assertThat(TrackCurveCodec.pointCount(data)).isEqualTo(3);
+        assertThat(data.length).isEqualTo(5 + 3 * 24);
+        assertThat(curve.length()).isCloseTo(70.0, within(1e-9));
+        assertThat(curve.y(50.0)).isCloseTo(20.0, within(1e-9));
+        assertThatThrownBy(() -> TrackCurveCodec.decode(new byte[] {1, 0}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TrackCurveCodec.decode(Arrays.copyOf(data, data.length - 8)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * 詰めた曲線を持つ線路は点の行より詰めた曲線を優先し、線路のバージョンで作り直されることを確認
+     */
+    @Test
+    void cache_shouldPreferPackedCurveData() {
+        TrackCurveCache cache = new TrackCurveCache();
+        TrackEntity track = track("track-1", 100.0, 1L, List.of(
+                point(0, 0.0, 0.0, 1L),
+                point(1, 10.0, 0.0, 1L)));
+        track.setCurveData(TrackCurveCodec.encode(
+                new double[] {0.0, 100.0}, new double[] {0.0, 0.0}, new double[] {0.0, 0.0}));
+
+        TrackCurve first = cache.curveOf(track);
+        TrackCurve second = cache.curveOf(track);
+        track.setCurveData(TrackCurveCodec.encode(
+                new double[] {0.0, 80.0}, new double[] {0.0, 0.0}, new double[] {0.0, 0.0}));
+        track.setVersion(2L);
+        TrackCurve third = cache.curveOf(track);
+
+        assertThat(first.length()).isCloseTo(100.0, within(1e-9));
+        assertThat(second).isSameAs(first);
+        assertThat(third.length()).isCloseTo(80.0, within(1e-9));
+        assertThat(TrackNetwork.fromEntities(List.of(track)).curve(0).length()).isCloseTo(80.0, within(1e-9));
+    }
+
+    private static TrackEntity track(String id, double length, Long version, List<Point3DEmbeddable> curve) {
+        TrackEntity track = new TrackEntity();
+        track.setId(id);
+        track.setLength(length);
+        track.setMaxSpeed(10.0);
+        track.setVersion(version);
+        track.setCurve(curve);
+        return track;
+    }
+
+    private static Point3DEmbeddable point(int order, double x, double y, Long version) {
+        Point3DEmbeddable point = new Point3DEmbeddable();
+        point.setSequenceOrder(order);
+        point.setX(x);
+        point.setY(y);
+        point.setZ(0.0);
+        point.setVersion(version);
+        return point;
+    }
+}
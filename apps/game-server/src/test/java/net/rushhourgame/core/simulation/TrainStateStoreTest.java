@@ -0,0 +1,106 @@
+package net.rushhourgame.core.simulation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import net.rushhourgame.models.common.TrainOperationState;
+
+/**
+ * TrainStateStoreの単体テストクラス
+ */
+class TrainStateStoreTest {
+
+    /**
+     * 追加した電車がIDと添字の両方で参照できることを確認
+     */
+    @Test
+    void add_shouldRegisterTrainWithIdIndexMapping() {
+        TrainStateStore store = new TrainStateStore(4);
+
+        int index = store.add("train-1", 3, 12.5);
+
+        assertThat(store.indexOf("train-1")).isEqualTo(index);
+        assertThat(store.idAt(index)).isEqualTo("train-1");
+        assertThat(store.trackIndex(index)).isEqualTo(3);
+        assertThat(store.position(index)).isEqualTo(12.5);
+        assertThat(store.state(index)).isEqualTo(TrainOperationState.STOPPED);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    /**
+     * 重複したIDの追加が拒否されることを確認
+     */
+    @Test
+    void add_shouldRejectDuplicateId() {
+        TrainStateStore store = new TrainStateStore(4);
+        store.add("train-1", 0, 0.0);
+
+        assertThrows(IllegalArgumentException.class, () -> store.add("train-1", 0, 0.0));
+    }
+
+    /**
+     * 容量を超えて追加しても既存の状態が保持されることを確認
+     */
+    @Test
+    void add_shouldGrowBeyondInitialCapacity() {
+        TrainStateStore store = new TrainStateStore(2);
+        for (int i = 0; i < 100; i++) {
+            store.add("train-" + i, i, i * 1.5);
+        }
+
+        assertThat(store.size()).isEqualTo(100);
+        int index = store.indexOf("train-42");
+        assertThat(store.trackIndex(index)).isEqualTo(42);
+        assertThat(store.position(index)).isEqualTo(63.0);
+        assertThat(store.isAlive(store.highWaterMark() - 1)).isTrue();
+    }
+
+    /**
+     * 削除した添字が空き扱いになり、他の電車の添字は変わらないことを確認
+     */
+    @Test
+    void remove_shouldFreeIndexWithoutMovingOthers() {
+        TrainStateStore store = new TrainStateStore(4);
+        int first = store.add("train-1", 0, 0.0);
+        int second = store.add("train-2", 0, 0.0);
+
+        assertThat(store.remove("train-1")).isTrue();
+        assertThat(store.remove("train-1")).isFalse();
+
+        assertThat(store.isAlive(first)).isFalse();
+        assertThat(store.indexOf("train-2")).isEqualTo(second);
+        assertThat(store.indexOf("train-1")).isEqualTo(TrainStateStore.NO_TRAIN);
+    }
+
+    /**
+     * 空いた添字が次の追加で再利用されることを確認
+     */
+    @Test
+    void add_shouldReuseFreedIndex() {
+        TrainStateStore store = new TrainStateStore(4);
+        int first = store.add("train-1", 0, 0.0);
+        store.add("train-2", 0, 0.0);
+        store.remove("train-1");
+
+        int reused = store.add("train-3", 1, 5.0);
+
+        assertThat(reused).isEqualTo(first);
+        assertThat(store.highWaterMark()).isEqualTo(2);
+        assertThat(store.speed(reused)).isZero();
+    }
+
+    /**
+     * 運行状態のbyte変換が往復で一致し、移動可否が判定できることを確認
+     */
+    @Test
+    void encode_shouldRoundTripOperationStates() {
+        for (TrainOperationState state : TrainOperationState.values()) {
+            byte encoded = TrainStateStore.encode(state);
+            assertThat(TrainStateStore.decode(encoded)).isEqualTo(state);
+            assertThat(TrainStateStore.canMove(encoded)).isEqualTo(state.canMove());
+        }
+        assertThat(TrainStateStore.canMove(TrainStateStore.STATE_FREE)).isFalse();
+    }
+}
@@ -0,0 +1,86 @@
+package net.rushhourgame.core.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import net.rushhourgame.core.replay.ReplayMode;
+import net.rushhourgame.core.replay.ReplayProperties;
+import net.rushhourgame.core.simulation.SimulationEngine;
+import net.rushhourgame.core.simulation.SimulationProperties;
+import net.rushhourgame.core.simulation.SimulationWorld;
+import net.rushhourgame.core.simulation.TickMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * SnapshotRestorerの単体テストクラス
+ */
+class SnapshotRestorerTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * リプレイでは起動時に復元せず、指定したティックのスナップショットだけを復元することを確認
+     */
+    @Test
+    void restore_shouldUseOnlySnapshotAtRequestedTickWhenReplaying() throws IOException {
+        SnapshotDirectory snapshots = new SnapshotDirectory(directory, 3);
+        SimulationWorld world = new SimulationWorld();
+        for (long tick = 10; tick <= 30; tick += 10) {
+            world.getResidents().create();
+            snapshots.write(tick, WorldSnapshotCodec.encode(WorldSnapshot.capture(tick, world)));
+        }
+        SimulationEngine engine = engine(new SimulationWorld());
+        SnapshotRestorer restorer = restorer(engine, ReplayMode.REPLAY);
+
+        restorer.start();
+        assertThat(restorer.isRestored()).isFalse();
+        assertThat(engine.getCurrentTick()).isZero();
+
+        assertThatThrownBy(() -> restorer.restore(15))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("tick 15");
+        assertThat(restorer.isRestored()).isFalse();
+
+        restorer.restore(20);
+        assertThat(restorer.getRestoredTick()).isEqualTo(20);
+        assertThat(engine.getCurrentTick()).isEqualTo(21);
+        assertThat(engine.getWorld().getResidents().size()).isEqualTo(2);
+    }
+
+    /**
+     * リプレイ以外では起動時に最新のスナップショットから復元することを確認
+     */
+    @Test
+    void start_shouldRestoreLatestSnapshot() throws IOException {
+        SnapshotDirectory snapshots = new SnapshotDirectory(directory, 3);
+        snapshots.write(10, WorldSnapshotCodec.encode(WorldSnapshot.capture(10, new SimulationWorld())));
+        snapshots.write(20, WorldSnapshotCodec.encode(WorldSnapshot.capture(20, new SimulationWorld())));
+        SimulationEngine engine = engine(new SimulationWorld());
+        SnapshotRestorer restorer = restorer(engine, ReplayMode.OFF);
+
+        restorer.start();
+
+        assertThat(restorer.getRestoredTick()).isEqualTo(20);
+        assertThat(engine.getCurrentTick()).isEqualTo(21);
+    }
+
+    private SnapshotRestorer restorer(SimulationEngine engine, ReplayMode mode) {
+        SnapshotProperties properties = new SnapshotProperties();
+        properties.setDirectory(directory);
+        ReplayProperties replayProperties = new ReplayProperties();
+        replayProperties.setMode(mode);
+        return new SnapshotRestorer(properties, replayProperties, engine);
+    }
+
+    private static SimulationEngine engine(SimulationWorld world) {
+        SimulationProperties properties = new SimulationProperties();
+        properties.setEnabled(false);
+        return new SimulationEngine(properties, world, List.of(), new TickMetrics());
+    }
+}
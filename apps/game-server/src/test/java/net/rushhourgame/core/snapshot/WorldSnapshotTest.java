@@ -0,0 +1,220 @@
+package net.rushhourgame.core.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import net.rushhourgame.core.replay.ReplayProperties;
+import net.rushhourgame.core.replay.WorldChecksum;
+import net.rushhourgame.core.resident.ResidentStore;
+import net.rushhourgame.core.simulation.SignalLayout;
+import net.rushhourgame.core.simulation.SimulationEngine;
+import net.rushhourgame.core.simulation.SimulationProperties;
+import net.rushhourgame.core.simulation.SimulationWorld;
+import net.rushhourgame.core.simulation.TickMetrics;
+import net.rushhourgame.core.simulation.TrackCurve;
+import net.rushhourgame.core.simulation.TrackNetwork;
+import net.rushhourgame.core.simulation.TrainMovementSystem;
+import net.rushhourgame.core.stationflow.StationFlowSystem;
+import net.rushhourgame.core.stationflow.StationLayout;
+import net.rushhourgame.core.timetable.TimetableIndex;
+import net.rushhourgame.core.timetable.TimetableTrip;
+import net.rushhourgame.models.common.SignalType;
+import net.rushhourgame.models.common.TrainOperationState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * WorldSnapshotの書き出しと復元の単体テストクラス
+ */
+class WorldSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * 複製した時点のワールドがファイル経由で復元され、復元後も元のワールドと同じように進むことを確認
+     */
+    @Test
+    void restore_shouldResumeFromCapturedTick() throws IOException {
+        SimulationWorld original = new SimulationWorld();
+        SimulationEngine engine = engine(original);
+        populate(original, engine);
+        runTicks(engine, 300);
+
+        original.replaceTimetable(timetable());
+        long tick = engine.getCurrentTick() - 1;
+        WorldSnapshot snapshot = WorldSnapshot.capture(tick, original);
+        long capturedChecksum = WorldChecksum.of(original);
+        // 複製後にティックが進んでも書き出す内容は変わらない
+        runTicks(engine, 200);
+        SnapshotDirectory snapshots = new SnapshotDirectory(directory, 3);
+        snapshots.write(tick, WorldSnapshotCodec.encode(snapshot));
+
+        SimulationWorld restored = new SimulationWorld();
+        Path file = snapshots.newestFirst(-1).get(0);
+        long restoredTick = WorldSnapshotCodec.restore(SnapshotDirectory.map(file), restored);
+
+        assertThat(restoredTick).isEqualTo(tick);
+        assertThat(WorldChecksum.of(restored)).isEqualTo(capturedChecksum);
+        assertThat(restored.getNetwork().curve(2).length()).isEqualTo(original.getNetwork().curve(2).length());
+        assertThat(restored.getReservations().getLayout().signalAt(1)).isEqualTo(1);
+        TimetableIndex timetable = restored.getTimetable();
+        assertThat(timetable.tripCapacity()).isEqualTo(2);
+        assertThat(timetable.trip(0)).isNull();
+        assertThat(timetable.tripSlot("schedule-b")).isEqualTo(1);
+        assertThat(timetable.nextDeparture(timetable.stationIndex("station-1"), 0))
+            .isEqualTo(timetable().nextDeparture(timetable().stationIndex("station-1"), 0));
+
+        SimulationEngine resumed = engine(restored);
+        resumed.setCurrentTick(restoredTick + 1);
+        runTicks(resumed, 200);
+        assertThat(resumed.getCurrentTick()).isEqualTo(engine.getCurrentTick());
+        assertThat(WorldChecksum.of(restored)).isEqualTo(WorldChecksum.of(original));
+    }
+
+    /**
+     * 住民の変更を毎ティック写し続けた複製から、書き出したティックのワールドがそのまま復元されることを確認
+     */
+    @Test
+    void onTickCompleted_shouldWriteWorldFromSyncedResidents() throws InterruptedException, IOException {
+        SnapshotProperties properties = new SnapshotProperties();
+        properties.setDirectory(directory);
+        properties.setIntervalTicks(10);
+        properties.setSyncResidentsPerTick(1);
+        WorldSnapshotter snapshotter = new WorldSnapshotter(properties, new ReplayProperties());
+        SimulationWorld world = new SimulationWorld();
+        ResidentStore residents = world.getResidents();
+        for (int i = 0; i < 1000; i++) {
+            residents.setSatisfaction(residents.create(), 0.5f);
+        }
+        long checksum = 0;
+        for (int tick = 1; tick <= 10; tick++) {
+            residents.setSatisfaction(tick * 97, 0.1f * tick);
+            residents.remove(tick * 31);
+            snapshotter.onTickCompleted(tick, world);
+            if (tick == 10) {
+                checksum = WorldChecksum.of(world);
+            }
+        }
+        assertThat(snapshotter.awaitWritten(10_000)).isTrue();
+        assertThat(snapshotter.getLastWrittenTick()).isEqualTo(10);
+        // 書き出し後の変更は書き出した内容に含まれない
+        residents.setSatisfaction(500, 1.0f);
+
+        SimulationWorld restored = new SimulationWorld();
+        Path file = new SnapshotDirectory(directory, 3).newestFirst(-1).get(0);
+        assertThat(WorldSnapshotCodec.restore(SnapshotDirectory.map(file), restored)).isEqualTo(10);
+        assertThat(WorldChecksum.of(restored)).isEqualTo(checksum);
+        snapshotter.shutdown();
+    }
+
+    /**
+     * CRCが合わないスナップショットはワールドを書き換えずに拒否されることを確認
+     */
+    @Test
+    void restore_shouldRejectCorruptSnapshot() throws IOException {
+        SimulationWorld original = new SimulationWorld();
+        SimulationEngine engine = engine(original);
+        populate(original, engine);
+        runTicks(engine, 10);
+        SnapshotDirectory snapshots = new SnapshotDirectory(directory, 3);
+        snapshots.write(9, WorldSnapshotCodec.encode(WorldSnapshot.capture(9, original)));
+        Path file = snapshots.newestFirst(-1).get(0);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+
+        SimulationWorld target = new SimulationWorld();
+        TrackNetwork network = target.getNetwork();
+
+        assertThatThrownBy(() -> WorldSnapshotCodec.restore(SnapshotDirectory.map(file), target))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("checksum");
+        assertThatThrownBy(() -> WorldSnapshotCodec.restore(ByteBuffer.wrap(bytes, 0, 20), target))
+            .isInstanceOf(IOException.class);
+        assertThat(target.getNetwork()).isSameAs(network);
+        assertThat(target.getTrains().size()).isZero();
+    }
+
+    /**
+     * 保持数を超えた古いスナップショットが削除され、ティックの上限を指定して選べることを確認
+     */
+    @Test
+    void write_shouldRetainNewestSnapshots() throws IOException {
+        SimulationWorld world = new SimulationWorld();
+        SnapshotDirectory snapshots = new SnapshotDirectory(directory, 3);
+        for (long tick = 10; tick <= 40; tick += 10) {
+            snapshots.write(tick, WorldSnapshotCodec.encode(WorldSnapshot.capture(tick, world)));
+        }
+
+        assertThat(snapshots.newestFirst(-1).stream().map(SnapshotDirectory::tickOf).toList())
+            .containsExactly(40L, 30L, 20L);
+        assertThat(snapshots.newestFirst(35).stream().map(SnapshotDirectory::tickOf).toList())
+            .containsExactly(30L, 20L);
+        assertThat(SnapshotDirectory.tickOf(directory.resolve("world-0000000000000040.snap.tmp"))).isEqualTo(-1L);
+    }
+
+    private static SimulationEngine engine(SimulationWorld world) {
+        SimulationProperties properties = new SimulationProperties();
+        properties.setEnabled(false);
+        return new SimulationEngine(properties, world,
+                List.of(new TrainMovementSystem(world, properties), new StationFlowSystem(world)), new TickMetrics());
+    }
+
+    private static void populate(SimulationWorld world, SimulationEngine engine) {
+        // track-0 (50) -> track-1 (50) -> track-2 (曲線, 1000) -> 行き止まり
+        TrackCurve curve = TrackCurve.of(new double[] {0.0, 600.0, 600.0}, new double[] {0.0, 0.0, 400.0},
+                new double[] {0.0, 0.0, 0.0});
+        TrackNetwork network = TrackNetwork.of(
+                new String[] {"track-0", "track-1", "track-2"},
+                new double[] {50.0, 50.0, 1000.0},
+                new double[] {10.0, 10.0, 10.0},
+                new int[] {1, 2, TrackNetwork.NO_TRACK},
+                new TrackCurve[] {TrackCurve.empty(), TrackCurve.empty(), curve});
+        world.replaceNetwork(network, SignalLayout.of(3,
+                new SignalType[] {SignalType.BLOCK, SignalType.BLOCK},
+                new int[] {0, 1},
+                new int[][] {{1}, {2}}));
+        world.getStationFlows().replaceLayout(StationLayout.of(new String[] {"station-1"},
+                new double[] {2.0}, new double[] {1.5}, new double[] {30.0}, new int[] {500}));
+        ResidentStore residents = world.getResidents();
+        for (int i = 0; i < 4; i++) {
+            int resident = residents.create();
+            residents.setSatisfaction(resident, 0.25f * i);
+        }
+        residents.remove(1);
+        engine.submit(w -> {
+            w.placeTrain("leader", "track-1", 0.0);
+            w.placeTrain("follower", "track-0", 0.0);
+            w.placeTrain("removed", "track-2", 500.0);
+            w.getStationFlows().arrive(0, 120);
+        });
+        engine.tick();
+        engine.submit(w -> {
+            w.removeTrain("removed");
+            w.changeState("leader", TrainOperationState.MOVING);
+            w.changeState("follower", TrainOperationState.MOVING);
+        });
+    }
+
+    private static TimetableIndex timetable() {
+        return TimetableIndex.build(List.of(
+                new TimetableTrip("schedule-a", "route-1", null, new String[] {"station-1", "station-2"},
+                        new int[] {3600, 3900}, new int[] {3660, 3960}),
+                new TimetableTrip("schedule-b", "route-1", "train-1", new String[] {"station-1", "station-2"},
+                        new int[] {7200, 7500}, new int[] {7260, 7560})))
+            .update(List.of(), List.of("schedule-a"));
+    }
+
+    private static void runTicks(SimulationEngine engine, int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            engine.tick();
+        }
+    }
+}
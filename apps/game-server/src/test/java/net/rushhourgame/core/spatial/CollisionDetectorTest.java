@@ -0,0 +1,153 @@
+package net.rushhourgame.core.spatial;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import net.rushhourgame.core.simulation.SimulationWorld;
+import net.rushhourgame.core.simulation.TrackNetwork;
+import net.rushhourgame.core.simulation.TrainStateStore;
+import net.rushhourgame.models.common.TrainOperationState;
+
+/**
+ * CollisionDetector・TrainCollisionSystemの単体テストクラス
+ */
+class CollisionDetectorTest {
+
+    private static final double LENGTH = 20.0;
+    private static final double WIDTH = 3.0;
+
+    /**
+     * 線分間の距離が平行・交差・端点同士の場合に正しく求まることを確認
+     */
+    @Test
+    void segmentDistanceSquared_shouldHandleParallelCrossingAndEndpoints() {
+        assertThat(CollisionDetector.segmentDistanceSquared(0, 0, 10, 0, 0, 3, 10, 3)).isCloseTo(9.0, within(1e-9));
+        assertThat(CollisionDetector.segmentDistanceSquared(0, 0, 10, 10, 0, 10, 10, 0)).isCloseTo(0.0, within(1e-9));
+        assertThat(CollisionDetector.segmentDistanceSquared(0, 0, 1, 0, 4, 4, 5, 5)).isCloseTo(25.0, within(1e-9));
+    }
+
+    /**
+     * ランダムに配置した電車について、検出結果が全組の総当たりと一致することを確認
+     */
+    @Test
+    void detect_shouldMatchBruteForce() {
+        Random random = new Random(5);
+        TrackNetwork network = randomNetwork(random, 300, 2000.0);
+        TrainStateStore trains = new TrainStateStore();
+        for (int i = 0; i < 3000; i++) {
+            int track = random.nextInt(network.size());
+            trains.add("train-" + i, track, random.nextDouble() * network.length(track));
+        }
+        SpatialGrid grid = headGrid(network, trains);
+        CollisionDetector detector = new CollisionDetector(LENGTH, WIDTH);
+
+        List<Long> found = new ArrayList<>();
+        int count = detector.detect(network, trains, grid, (a, b) -> found.add(pair(a, b)));
+
+        List<Long> expected = bruteForce(network, trains);
+        assertThat(count).isEqualTo(expected.size());
+        assertThat(found).containsExactlyInAnyOrder(expected.toArray(Long[]::new));
+        assertThat(detector.lastCandidateCount()).isLessThan(3000 * 2999 / 2 / 100);
+    }
+
+    /**
+     * 重なった電車だけが緊急停止し、離れた電車は走行を続けることを確認
+     */
+    @Test
+    void system_shouldStopCollidingTrains() {
+        SimulationWorld world = new SimulationWorld();
+        world.replaceNetwork(TrackNetwork.of(
+                new String[] {"track-1"},
+                new double[] {1000.0},
+                new double[] {10.0},
+                new int[] {TrackNetwork.NO_TRACK},
+                new double[] {0.0, 0.0, 1000.0, 0.0}));
+        world.placeTrain("front", "track-1", 110.0);
+        world.placeTrain("behind", "track-1", 95.0);
+        world.placeTrain("far", "track-1", 500.0);
+        for (String id : List.of("front", "behind", "far")) {
+            world.changeState(id, TrainOperationState.MOVING);
+        }
+        SpatialProperties properties = new SpatialProperties();
+        TrainSpatialIndex index = new TrainSpatialIndex(world, properties);
+        CollisionMetrics metrics = new CollisionMetrics();
+        TrainCollisionSystem system = new TrainCollisionSystem(world, index, properties, metrics);
+
+        index.update(0L, 1.0 / 30);
+        system.update(0L, 1.0 / 30);
+        system.update(1L, 1.0 / 30);
+
+        TrainStateStore trains = world.getTrains();
+        assertThat(trains.state(trains.indexOf("front"))).isEqualTo(TrainOperationState.EMERGENCY);
+        assertThat(trains.state(trains.indexOf("behind"))).isEqualTo(TrainOperationState.EMERGENCY);
+        assertThat(trains.state(trains.indexOf("far"))).isEqualTo(TrainOperationState.MOVING);
+        assertThat(metrics.getCollisions()).isEqualTo(1);
+    }
+
+    private static TrackNetwork randomNetwork(Random random, int count, double extent) {
+        String[] ids = new String[count];
+        double[] lengths = new double[count];
+        double[] speeds = new double[count];
+        int[] next = new int[count];
+        double[] endpoints = new double[count * 4];
+        for (int i = 0; i < count; i++) {
+            double x = random.nextDouble() * extent;
+            double y = random.nextDouble() * extent;
+            double angle = random.nextDouble() * Math.PI * 2.0;
+            double length = 50.0 + random.nextDouble() * 300.0;
+            ids[i] = "track-" + i;
+            lengths[i] = length;
+            speeds[i] = 10.0;
+            next[i] = TrackNetwork.NO_TRACK;
+            endpoints[i * 4] = x;
+            endpoints[i * 4 + 1] = y;
+            endpoints[i * 4 + 2] = x + Math.cos(angle) * length;
+            endpoints[i * 4 + 3] = y + Math.sin(angle) * length;
+        }
+        return TrackNetwork.of(ids, lengths, speeds, next, endpoints);
+    }
+
+    private static SpatialGrid headGrid(TrackNetwork network, TrainStateStore trains) {
+        SpatialGrid grid = new SpatialGrid(200.0);
+        for (int i = 0; i < trains.highWaterMark(); i++) {
+            grid.put(i, network.x(trains.trackIndex(i), trains.position(i)),
+                    network.y(trains.trackIndex(i), trains.position(i)));
+        }
+        return grid;
+    }
+
+    private static List<Long> bruteForce(TrackNetwork network, TrainStateStore trains) {
+        int n = trains.highWaterMark();
+        double[] segments = new double[n * 4];
+        for (int i = 0; i < n; i++) {
+            int track = trains.trackIndex(i);
+            double tail = Math.max(0.0, trains.position(i) - LENGTH);
+            segments[i * 4] = network.x(track, trains.position(i));
+            segments[i * 4 + 1] = network.y(track, trains.position(i));
+            segments[i * 4 + 2] = network.x(track, tail);
+            segments[i * 4 + 3] = network.y(track, tail);
+        }
+        List<Long> pairs = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double distance = CollisionDetector.segmentDistanceSquared(
+                        segments[i * 4], segments[i * 4 + 1], segments[i * 4 + 2], segments[i * 4 + 3],
+                        segments[j * 4], segments[j * 4 + 1], segments[j * 4 + 2], segments[j * 4 + 3]);
+                if (distance <= WIDTH * WIDTH) {
+                    pairs.add(pair(i, j));
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private static long pair(int a, int b) {
+        return ((long) a << 32) | b;
+    }
+}
@@ -0,0 +1,154 @@
+package net.rushhourgame.core.spatial;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * SpatialGrid・PointIndexの単体テストクラス
+ */
+class SpatialGridTest {
+
+    /**
+     * 矩形範囲・円範囲の検索が境界を含めて正しく絞り込まれることを確認
+     */
+    @Test
+    void query_shouldReturnPointsInsideRangeAndRadius() {
+        SpatialGrid grid = new SpatialGrid(10.0);
+        grid.put(0, 5.0, 5.0);
+        grid.put(1, 15.0, 5.0);
+        grid.put(2, -25.0, -25.0);
+        grid.put(3, 10.0, 10.0);
+
+        List<Integer> inRange = new ArrayList<>();
+        grid.queryRange(0.0, 0.0, 10.0, 10.0, inRange::add);
+        List<Integer> inRadius = new ArrayList<>();
+        grid.queryRadius(0.0, 0.0, 36.0, inRadius::add);
+
+        assertThat(inRange).containsExactlyInAnyOrder(0, 3);
+        assertThat(inRadius).containsExactlyInAnyOrder(0, 1, 2, 3);
+    }
+
+    /**
+     * 点の移動・削除が検索結果に反映されることを確認
+     */
+    @Test
+    void put_shouldMoveAndRemovePoints() {
+        SpatialGrid grid = new SpatialGrid(10.0);
+        grid.put(0, 5.0, 5.0);
+        grid.put(1, 6.0, 6.0);
+
+        grid.put(0, 105.0, 105.0);
+        grid.remove(1);
+
+        List<Integer> nearOrigin = new ArrayList<>();
+        grid.queryRange(0.0, 0.0, 10.0, 10.0, nearOrigin::add);
+        List<Integer> farAway = new ArrayList<>();
+        grid.queryRange(100.0, 100.0, 110.0, 110.0, farAway::add);
+
+        assertThat(nearOrigin).isEmpty();
+        assertThat(farAway).containsExactly(0);
+        assertThat(grid.size()).isEqualTo(1);
+        assertThat(grid.contains(1)).isFalse();
+    }
+
+    /**
+     * ランダムな点群でk近傍検索が全探索と一致することを確認
+     */
+    @Test
+    void nearest_shouldMatchBruteForce() {
+        Random random = new Random(3);
+        SpatialGrid grid = new SpatialGrid(25.0);
+        int n = 2000;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = random.nextGaussian() * 300.0;
+            ys[i] = random.nextGaussian() * 300.0;
+            grid.put(i, xs[i], ys[i]);
+        }
+        for (int q = 0; q < 100; q++) {
+            double x = random.nextDouble() * 2000.0 - 1000.0;
+            double y = random.nextDouble() * 2000.0 - 1000.0;
+            int k = 1 + random.nextInt(10);
+            int[] actual = new int[k];
+
+            int found = grid.nearest(x, y, k, actual);
+
+            int[] expected = IntStream.range(0, n).boxed()
+                .sorted(Comparator.comparingDouble(i -> distanceSquared(xs[i], ys[i], x, y)))
+                .limit(k).mapToInt(Integer::intValue).toArray();
+            assertThat(found).isEqualTo(k);
+            assertThat(Arrays.stream(actual).mapToObj(i -> distanceSquared(xs[i], ys[i], x, y)).toList())
+                .containsExactly(Arrays.stream(expected).mapToObj(i -> distanceSquared(xs[i], ys[i], x, y)).toArray(Double[]::new));
+        }
+    }
+
+    /**
+     * 使用中の範囲から遠く離れた点や、まばらな点群での問い合わせでもk近傍検索が全探索と一致することを確認
+     * （以前は問い合わせ点のセルから1周ずつ走査したため、遠い問い合わせで周の数だけハッシュを引いていた）
+     */
+    @Test
+    void nearest_shouldHandleQueriesFarOutsideOccupiedCells() {
+        Random random = new Random(7);
+        SpatialGrid grid = new SpatialGrid(10.0);
+        int n = 200;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            // 遠く離れた2つの群に分ける
+            double offset = i % 2 == 0 ? 0.0 : 1_000_000.0;
+            xs[i] = offset + random.nextDouble() * 100.0;
+            ys[i] = offset + random.nextDouble() * 100.0;
+            grid.put(i, xs[i], ys[i]);
+        }
+        double[][] queries = {{-1.0e9, -1.0e9}, {1.0e9, 50.0}, {500_000.0, 500_000.0}, {50.0, 50.0}};
+        for (double[] query : queries) {
+            int k = 5;
+            int[] actual = new int[k];
+
+            int found = grid.nearest(query[0], query[1], k, actual);
+
+            int[] expected = IntStream.range(0, n).boxed()
+                .sorted(Comparator.comparingDouble(i -> distanceSquared(xs[i], ys[i], query[0], query[1])))
+                .limit(k).mapToInt(Integer::intValue).toArray();
+            assertThat(found).isEqualTo(k);
+            assertThat(Arrays.stream(actual).mapToObj(i -> distanceSquared(xs[i], ys[i], query[0], query[1])).toList())
+                .containsExactly(Arrays.stream(expected)
+                    .mapToObj(i -> distanceSquared(xs[i], ys[i], query[0], query[1])).toArray(Double[]::new));
+        }
+    }
+
+    /**
+     * 文字列IDの索引で追加・削除・近傍検索ができ、削除したハンドルが再利用されることを確認
+     */
+    @Test
+    void pointIndex_shouldFindByIdAndReuseHandles() {
+        PointIndex index = new PointIndex(100.0);
+        index.put("station-a", 0.0, 0.0);
+        index.put("station-b", 50.0, 0.0);
+        index.put("station-c", 500.0, 0.0);
+
+        index.remove("station-b");
+        index.put("station-d", 20.0, 0.0);
+
+        assertThat(index.findNearest(0.0, 0.0, 2)).containsExactly("station-a", "station-d");
+        assertThat(index.findWithinRadius(0.0, 0.0, 100.0)).containsExactlyInAnyOrder("station-a", "station-d");
+        assertThat(index.findInRange(400.0, -10.0, 600.0, 10.0)).containsExactly("station-c");
+        assertThat(index.contains("station-b")).isFalse();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    private static double distanceSquared(double ax, double ay, double bx, double by) {
+        double dx = ax - bx;
+        double dy = ay - by;
+        return dx * dx + dy * dy;
+    }
+}
@@ -0,0 +1,180 @@
+package net.rushhourgame.core.stationflow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.rushhourgame.core.database.entities.CorridorEntity;
+import net.rushhourgame.core.database.entities.GateEntity;
+import net.rushhourgame.core.database.entities.PlatformEntity;
+import net.rushhourgame.core.database.entities.StationEntity;
+import net.rushhourgame.core.snapshot.SnapshotInput;
+import net.rushhourgame.core.snapshot.SnapshotOutput;
+
+/**
+ * StationFlowStore・StationLayoutの単体テストクラス
+ */
+class StationFlowStoreTest {
+
+    private static final double TICK = 0.1;
+
+    /**
+     * 改札・通路・プラットフォームのエンティティから処理能力が求まることを確認
+     */
+    @Test
+    void fromEntities_shouldDeriveServiceRates() {
+        StationEntity station = new StationEntity();
+        station.setId("station-1");
+        station.setTotalCapacity(5_000);
+        station.setGates(List.of(gate(4, 2.0), gate(2, 1.0)));
+        station.setCorridors(List.of(corridor(30.0, 2.0), corridor(60.0, 4.0)));
+        station.setPlatforms(List.of(platform(300), platform(200)));
+        StationEntity open = new StationEntity();
+        open.setId("station-2");
+        open.setTotalCapacity(800);
+
+        StationLayout layout = StationLayout.fromEntities(List.of(station, open), 1.5, 1.0);
+
+        int i = layout.indexOf("station-1");
+        assertThat(layout.gateRate(i)).isEqualTo(4.0);
+        assertThat(layout.corridorRate(i)).isEqualTo(6.0);
+        // 幅で重み付けした平均の長さ 50 ÷ 1.5
+        assertThat(layout.corridorSeconds(i)).isCloseTo(50.0 / 1.5, within(1e-9));
+        assertThat(layout.platformCapacity(i)).isEqualTo(500);
+        int j = layout.indexOf("station-2");
+        assertThat(layout.gateRate(j)).isEqualTo(Double.POSITIVE_INFINITY);
+        assertThat(layout.corridorSeconds(j)).isZero();
+        assertThat(layout.platformCapacity(j)).isEqualTo(800);
+        assertThat(layout.indexOf("unknown")).isEqualTo(StationLayout.NO_STATION);
+    }
+
+    /**
+     * 改札の処理能力を超えて到着した旅客は改札待ちに残り、通過した旅客が所要時間の後にプラットフォームへ着くことを確認
+     */
+    @Test
+    void step_shouldLimitThroughputByGateRate() {
+        StationFlowStore store = new StationFlowStore();
+        store.replaceLayout(StationLayout.of(new String[] {"s"}, new double[] {2.0}, new double[] {100.0},
+                new double[] {0.0}, new int[] {10_000}));
+
+        store.arrive(0, 1_000);
+        steps(store, 100);
+
+        // 10秒で20人（最後のティックに改札を通った旅客は次のティックでプラットフォームに着く）
+        assertThat(store.entryQueue(0)).isCloseTo(980.0, within(1e-6));
+        assertThat(store.entryCorridor(0) + store.waiting(0)).isCloseTo(20.0, within(1e-6));
+        assertThat(store.passengers(0)).isCloseTo(1_000.0, within(1e-6));
+        assertThat(store.board(0, 15)).isEqualTo(15);
+        assertThat(store.board(0, 15)).isEqualTo(4);
+    }
+
+    /**
+     * プラットフォームが満員の間は通路・改札に旅客が滞留し、乗車で空くと流れ始めることを確認
+     */
+    @Test
+    void step_shouldBackUpWhenPlatformIsFull() {
+        StationFlowStore store = new StationFlowStore();
+        store.replaceLayout(StationLayout.of(new String[] {"s"}, new double[] {50.0}, new double[] {20.0},
+                new double[] {5.0}, new int[] {100}));
+
+        store.arrive(0, 500);
+        steps(store, 600);
+
+        assertThat(store.waiting(0)).isCloseTo(100.0, within(1e-6));
+        assertThat(store.entryCorridor(0) + store.entryQueue(0)).isCloseTo(400.0, within(1e-6));
+        assertThat(store.board(0, 60)).isEqualTo(60);
+        steps(store, 600);
+        assertThat(store.waiting(0)).isCloseTo(100.0, within(1e-6));
+        assertThat(store.passengers(0)).isCloseTo(440.0, within(1e-6));
+    }
+
+    /**
+     * 降車客が通路と改札を通って駅を出ること、通路の処理能力が両方向で按分されることを確認
+     */
+    @Test
+    void step_shouldMoveAlightingPassengersOut() {
+        StationFlowStore store = new StationFlowStore();
+        store.replaceLayout(StationLayout.of(new String[] {"s"}, new double[] {1_000.0}, new double[] {10.0},
+                new double[] {0.0}, new int[] {10_000}));
+
+        store.arrive(0, 1_000);
+        store.alight(0, 1_000);
+        store.step(1.0);
+
+        // 通路の10人/秒を入場と出場で半分ずつ
+        assertThat(store.entryCorridor(0) + store.waiting(0)).isCloseTo(5.0, within(1e-6));
+        assertThat(store.exitCorridor(0) + store.exitGateQueue(0)).isCloseTo(5.0, within(1e-6));
+        steps(store, 3_000);
+        assertThat(store.exitQueue(0) + store.exitCorridor(0) + store.exitGateQueue(0)).isCloseTo(0.0, within(1e-6));
+        assertThat(store.passengers(0)).isCloseTo(1_000.0, within(1e-6));
+    }
+
+    /**
+     * 配置を差し替えると同じ駅IDの旅客が引き継がれ、撤去された駅の旅客は取り除かれることを確認
+     */
+    @Test
+    void replaceLayout_shouldCarryPassengersByStationId() {
+        StationFlowStore store = new StationFlowStore();
+        store.replaceLayout(StationLayout.of(new String[] {"a", "b"}, new double[] {1.0, 1.0},
+                new double[] {1.0, 1.0}, new double[] {1.0, 1.0}, new int[] {10, 10}));
+        store.arrive(0, 7);
+        store.arrive(1, 3);
+
+        store.replaceLayout(StationLayout.of(new String[] {"c", "b"}, new double[] {1.0, 1.0},
+                new double[] {1.0, 1.0}, new double[] {1.0, 1.0}, new int[] {10, 10}));
+
+        assertThat(store.passengers(0)).isZero();
+        assertThat(store.passengers(1)).isEqualTo(3.0);
+    }
+
+    /**
+     * 満員として発行済みの駅が書き出しと読み込み、配置の差し替えで引き継がれることを確認
+     */
+    @Test
+    void readFrom_shouldRestoreOvercrowdedStations() {
+        StationFlowStore store = new StationFlowStore();
+        store.replaceLayout(StationLayout.of(new String[] {"a", "b"}, new double[] {1.0, 1.0},
+                new double[] {1.0, 1.0}, new double[] {1.0, 1.0}, new int[] {10, 10}));
+        store.setOvercrowded(1, true);
+        SnapshotOutput out = new SnapshotOutput(256);
+        store.writeTo(out);
+
+        StationFlowStore restored = new StationFlowStore();
+        restored.readFrom(new SnapshotInput(out.toBuffer()));
+        assertThat(restored.isOvercrowded(0)).isFalse();
+        assertThat(restored.isOvercrowded(1)).isTrue();
+
+        restored.replaceLayout(StationLayout.of(new String[] {"b"}, new double[] {1.0},
+                new double[] {1.0}, new double[] {1.0}, new int[] {10}));
+        assertThat(restored.isOvercrowded(0)).isTrue();
+    }
+
+    private static void steps(StationFlowStore store, int count) {
+        for (int i = 0; i < count; i++) {
+            store.step(TICK);
+        }
+    }
+
+    private static GateEntity gate(int capacity, double processingTime) {
+        GateEntity gate = new GateEntity();
+        gate.setCapacity(capacity);
+        gate.setProcessingTime(processingTime);
+        return gate;
+    }
+
+    private static CorridorEntity corridor(double length, double width) {
+        CorridorEntity corridor = new CorridorEntity();
+        corridor.setLength(length);
+        corridor.setWidth(width);
+        return corridor;
+    }
+
+    private static PlatformEntity platform(int capacity) {
+        PlatformEntity platform = new PlatformEntity();
+        platform.setCapacity(capacity);
+        return platform;
+    }
+}
@@ -0,0 +1,226 @@
+package net.rushhourgame.core.timetable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * RaptorSearcher・TransitNetworkの単体テストクラス
+ */
+class RaptorSearcherTest {
+
+    /**
+     * 直通の運行がある場合、出発時刻以降の最初の運行で着く経路が求まることを確認
+     */
+    @Test
+    void search_shouldFindDirectTrip() {
+        TimetableIndex index = TimetableIndex.build(List.of(
+                trip("s1", "A", 600, "B", 900, "C", 1200),
+                trip("s2", "A", 1600, "B", 1900, "C", 2200)));
+        RaptorSearcher searcher = new RaptorSearcher(TransitNetwork.build(index), 4, 60);
+
+        JourneyResult result = searcher.search(index.stationIndex("A"), index.stationIndex("C"), 700);
+
+        assertThat(result.journeys()).hasSize(1);
+        Journey journey = result.earliestArrival();
+        assertThat(journey.arrivalTime()).isEqualTo(2200);
+        assertThat(journey.transfers()).isZero();
+        assertThat(journey.legs()).hasSize(1);
+        assertThat(index.trip(journey.legs().get(0).tripSlot()).scheduleId()).isEqualTo("s2");
+        assertThat(journey.legs().get(0).departureTime()).isEqualTo(1600);
+    }
+
+    /**
+     * 乗り換えたほうが早く着く場合、直通と乗換ありの両方がパレート最適解として返ることを確認
+     */
+    @Test
+    void search_shouldReturnParetoOptimalJourneys() {
+        TimetableIndex index = TimetableIndex.build(List.of(
+                trip("slow", "A", 600, "B", 1000, "C", 3000),
+                trip("fast", "B", 1100, "C", 1500)));
+        RaptorSearcher searcher = new RaptorSearcher(TransitNetwork.build(index), 4, 60);
+        int a = index.stationIndex("A");
+        int b = index.stationIndex("B");
+        int c = index.stationIndex("C");
+
+        JourneyResult result = searcher.search(a, c, 0);
+
+        assertThat(result.journeys()).hasSize(2);
+        assertThat(result.fewestTransfers().transfers()).isZero();
+        assertThat(result.fewestTransfers().arrivalTime()).isEqualTo(3000);
+        Journey fastest = result.earliestArrival();
+        assertThat(fastest.transfers()).isEqualTo(1);
+        assertThat(fastest.arrivalTime()).isEqualTo(1500);
+        assertThat(fastest.legs()).extracting(Journey.Leg::fromStation).containsExactly(a, b);
+        assertThat(fastest.legs()).extracting(Journey.Leg::toStation).containsExactly(b, c);
+    }
+
+    /**
+     * 乗換時間が足りない運行には乗り換えず、乗換回数の上限を超える経路は返さないことを確認
+     */
+    @Test
+    void search_shouldRespectTransferTimeAndLimit() {
+        TimetableIndex index = TimetableIndex.build(List.of(
+                trip("s1", "A", 600, "B", 1000),
+                trip("s2", "B", 1030, "C", 1200),
+                trip("s3", "B", 1100, "C", 1300)));
+        TransitNetwork network = TransitNetwork.build(index);
+        int a = index.stationIndex("A");
+        int c = index.stationIndex("C");
+
+        Journey journey = new RaptorSearcher(network, 4, 60).search(a, c, 0).earliestArrival();
+        assertThat(journey.arrivalTime()).isEqualTo(1300);
+        assertThat(new RaptorSearcher(network, 4, 0).search(a, c, 0).earliestArrival().arrivalTime()).isEqualTo(1200);
+        assertThat(new RaptorSearcher(network, 0, 60).search(a, c, 0).isFound()).isFalse();
+        assertThat(new RaptorSearcher(network, 4, 60).search(c, a, 0).isFound()).isFalse();
+    }
+
+    /**
+     * 追い越しのある運行は別の系統に分けられることを確認
+     */
+    @Test
+    void build_shouldSplitOvertakingTrips() {
+        TimetableIndex index = TimetableIndex.build(List.of(
+                trip("local", "A", 600, "B", 900, "C", 1500),
+                trip("express", "A", 700, "B", 800, "C", 1000),
+                trip("next", "A", 1000, "B", 1300, "C", 1600)));
+        TransitNetwork network = TransitNetwork.build(index);
+
+        assertThat(network.routeCount()).isEqualTo(2);
+        RaptorSearcher searcher = new RaptorSearcher(network, 4, 60);
+        assertThat(searcher.search(index.stationIndex("A"), index.stationIndex("C"), 0)
+                .earliestArrival().arrivalTime()).isEqualTo(1000);
+    }
+
+    /**
+     * ランダムな時刻表で、乗換回数ごとの最早到着時刻が総当たりと一致することを確認
+     */
+    @Test
+    void search_shouldMatchBruteForceOnRandomTimetables() {
+        Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            List<TimetableTrip> trips = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                trips.add(randomTrip("s" + i, random));
+            }
+            TimetableIndex index = TimetableIndex.build(trips);
+            int maxTransfers = 3;
+            int transferSeconds = 120;
+            RaptorSearcher searcher = new RaptorSearcher(TransitNetwork.build(index), maxTransfers, transferSeconds);
+
+            for (int query = 0; query < 30; query++) {
+                int origin = random.nextInt(index.stationCount());
+                int destination = random.nextInt(index.stationCount());
+                if (origin == destination) {
+                    continue;
+                }
+                int departure = random.nextInt(40_000);
+                int[] expected = bruteForce(index, origin, destination, departure, maxTransfers, transferSeconds);
+                JourneyResult result = searcher.search(origin, destination, departure);
+
+                int best = Integer.MAX_VALUE;
+                for (int value : expected) {
+                    best = Math.min(best, value);
+                }
+                if (best == Integer.MAX_VALUE) {
+                    assertThat(result.isFound()).isFalse();
+                    continue;
+                }
+                assertThat(result.earliestArrival().arrivalTime()).isEqualTo(best);
+                for (Journey journey : result.journeys()) {
+                    // 同じ乗換回数以内での最早到着と一致し、経路の各区間が時刻順につながる
+                    int withinTransfers = Integer.MAX_VALUE;
+                    for (int k = 0; k <= journey.transfers(); k++) {
+                        withinTransfers = Math.min(withinTransfers, expected[k]);
+                    }
+                    assertThat(journey.arrivalTime()).isEqualTo(withinTransfers);
+                    int time = departure;
+                    int station = origin;
+                    for (int leg = 0; leg < journey.legs().size(); leg++) {
+                        Journey.Leg l = journey.legs().get(leg);
+                        assertThat(l.fromStation()).isEqualTo(station);
+                        assertThat(l.departureTime()).isGreaterThanOrEqualTo(leg == 0 ? time : time + transferSeconds);
+                        time = l.arrivalTime();
+                        station = l.toStation();
+                    }
+                    assertThat(station).isEqualTo(destination);
+                    assertThat(time).isEqualTo(journey.arrivalTime());
+                }
+            }
+        }
+    }
+
+    /**
+     * 乗車回数 k + 1 でちょうど着ける最早到着時刻を乗換回数 k ごとに求める
+     */
+    private static int[] bruteForce(TimetableIndex index, int origin, int destination, int departure,
+                                    int maxTransfers, int transferSeconds) {
+        int n = index.stationCount();
+        int[] previous = new int[n];
+        Arrays.fill(previous, Integer.MAX_VALUE);
+        previous[origin] = departure;
+        int[] result = new int[maxTransfers + 1];
+        for (int k = 0; k <= maxTransfers; k++) {
+            int[] current = new int[n];
+            Arrays.fill(current, Integer.MAX_VALUE);
+            for (int slot = 0; slot < index.tripCapacity(); slot++) {
+                TimetableTrip trip = index.trip(slot);
+                boolean boarded = false;
+                for (int stop = 0; stop < trip.stopCount(); stop++) {
+                    int station = index.tripStation(slot, stop);
+                    if (boarded) {
+                        current[station] = Math.min(current[station], trip.arrival(stop));
+                    }
+                    int ready = previous[station];
+                    if (ready != Integer.MAX_VALUE && k > 0 && station != origin) {
+                        ready += transferSeconds;
+                    }
+                    if (ready != Integer.MAX_VALUE && trip.departure(stop) >= ready) {
+                        boarded = true;
+                    }
+                }
+            }
+            result[k] = current[destination];
+            for (int s = 0; s < n; s++) {
+                current[s] = Math.min(current[s], previous[s]);
+            }
+            previous = current;
+        }
+        return result;
+    }
+
+    private static TimetableTrip randomTrip(String id, Random random) {
+        int stops = 2 + random.nextInt(4);
+        String[] stations = new String[stops];
+        int[] arrivals = new int[stops];
+        int[] departures = new int[stops];
+        int time = random.nextInt(40_000);
+        for (int i = 0; i < stops; i++) {
+            stations[i] = "st" + random.nextInt(8);
+            arrivals[i] = time;
+            time += random.nextInt(120);
+            departures[i] = time;
+            time += 60 + random.nextInt(1200);
+        }
+        return new TimetableTrip(id, "route", "train-" + id, stations, arrivals, departures);
+    }
+
+    /**
+     * 駅IDと時刻を交互に並べた運行（到着時刻は出発時刻と同じ）
+     */
+    private static TimetableTrip trip(String id, Object... stops) {
+        int n = stops.length / 2;
+        String[] stations = new String[n];
+        int[] times = new int[n];
+        for (int i = 0; i < n; i++) {
+            stations[i] = (String) stops[i * 2];
+            times[i] = (Integer) stops[i * 2 + 1];
+        }
+        return new TimetableTrip(id, "route", "train-" + id, stations, times, times);
+    }
+}
@@ -0,0 +1,141 @@
+package net.rushhourgame.core.timetable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * TimetableIndex・DepartureBoardの単体テストクラス
+ */
+class TimetableIndexTest {
+
+    /**
+     * 駅ごとの発車案内が出発時刻の順に並び、指定時刻以降の最初の出発が求まることを確認
+     */
+    @Test
+    void nextDeparture_shouldFindFirstDepartureAtOrAfterTime() {
+        TimetableIndex index = TimetableIndex.build(List.of(
+                trip("s1", "A", 600, "B", 900, "C", 1200),
+                trip("s2", "A", 300, "C", 1000),
+                trip("s3", "B", 950, "A", 1500)));
+
+        int a = index.stationIndex("A");
+        DepartureBoard board = index.board(a);
+
+        assertThat(board.size()).isEqualTo(2);
+        assertThat(board.departure(0)).isEqualTo(300);
+        assertThat(board.departure(1)).isEqualTo(600);
+        assertThat(index.trip(board.trip(index.nextDeparture(a, 301))).scheduleId()).isEqualTo("s1");
+        assertThat(index.nextDeparture(a, 601)).isEqualTo(-1);
+        // 終点からは出発しない
+        assertThat(index.board(index.stationIndex("C")).size()).isZero();
+        int b = index.stationIndex("B");
+        int position = index.nextDeparture(b, 0);
+        assertThat(index.trip(index.board(b).trip(position)).scheduleId()).isEqualTo("s1");
+        assertThat(index.board(b).stop(position)).isEqualTo(1);
+        assertThat(index.stationIndex("Z")).isEqualTo(TimetableIndex.NO_STATION);
+    }
+
+    /**
+     * 運行の置換・削除で影響する駅だけが作り直され、他の駅の発車案内は共有されることを確認
+     */
+    @Test
+    void update_shouldRebuildOnlyAffectedStations() {
+        TimetableIndex index = TimetableIndex.build(List.of(
+                trip("s1", "A", 600, "B", 900),
+                trip("s2", "C", 300, "D", 400)));
+        int a = index.stationIndex("A");
+        int c = index.stationIndex("C");
+
+        TimetableIndex updated = index.update(List.of(trip("s1", "A", 700, "E", 800)), List.of());
+        TimetableIndex removed = updated.update(List.of(), List.of("s2", "unknown"));
+
+        assertThat(updated.board(c)).isSameAs(index.board(c));
+        assertThat(updated.board(a).departure(0)).isEqualTo(700);
+        assertThat(updated.tripSlot("s1")).isEqualTo(index.tripSlot("s1"));
+        assertThat(index.board(a).departure(0)).isEqualTo(600);
+        assertThat(removed.board(c).size()).isZero();
+        assertThat(removed.tripSlot("s2")).isEqualTo(TimetableIndex.NO_TRIP);
+        assertThat(removed.tripCount()).isEqualTo(1);
+        assertThat(removed.board(a).size()).isEqualTo(1);
+    }
+
+    /**
+     * ランダムな追加・置換・削除の後も、次の出発が全運行の総当たりと一致することを確認
+     */
+    @Test
+    void update_shouldMatchBruteForceAfterRandomChanges() {
+        Random random = new Random(7);
+        Map<String, TimetableTrip> live = new HashMap<>();
+        TimetableIndex index = TimetableIndex.empty();
+        for (int round = 0; round < 30; round++) {
+            List<TimetableTrip> changed = new ArrayList<>();
+            List<String> removed = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                String id = "s" + random.nextInt(60);
+                if (random.nextInt(4) == 0) {
+                    removed.add(id);
+                    live.remove(id);
+                    changed.removeIf(trip -> trip.scheduleId().equals(id));
+                } else {
+                    TimetableTrip trip = randomTrip(id, random);
+                    changed.add(trip);
+                    live.put(id, trip);
+                    removed.removeIf(id::equals);
+                }
+            }
+            index = index.update(changed, removed);
+
+            for (int query = 0; query < 20; query++) {
+                String stationId = "st" + random.nextInt(10);
+                int second = random.nextInt(86_400);
+                int expected = Integer.MAX_VALUE;
+                for (TimetableTrip trip : live.values()) {
+                    for (int stop = 0; stop < trip.stopCount() - 1; stop++) {
+                        if (trip.stationId(stop).equals(stationId) && trip.departure(stop) >= second) {
+                            expected = Math.min(expected, trip.departure(stop));
+                        }
+                    }
+                }
+                int station = index.stationIndex(stationId);
+                int position = station == TimetableIndex.NO_STATION ? -1 : index.nextDeparture(station, second);
+                int actual = position < 0 ? Integer.MAX_VALUE : index.board(station).departure(position);
+                assertThat(actual).isEqualTo(expected);
+            }
+            assertThat(index.tripCount()).isEqualTo(live.size());
+        }
+    }
+
+    private static TimetableTrip randomTrip(String id, Random random) {
+        int stops = 2 + random.nextInt(4);
+        String[] stations = new String[stops];
+        int[] times = new int[stops];
+        int time = random.nextInt(80_000);
+        for (int i = 0; i < stops; i++) {
+            stations[i] = "st" + random.nextInt(10);
+            times[i] = time;
+            time += 60 + random.nextInt(600);
+        }
+        return new TimetableTrip(id, "route", "train-" + id, stations, times, times);
+    }
+
+    /**
+     * 駅IDと出発時刻を交互に並べた運行（到着時刻は出発時刻と同じ）
+     */
+    private static TimetableTrip trip(String id, Object... stops) {
+        int n = stops.length / 2;
+        String[] stations = new String[n];
+        int[] times = new int[n];
+        for (int i = 0; i < n; i++) {
+            stations[i] = (String) stops[i * 2];
+            times[i] = (Integer) stops[i * 2 + 1];
+        }
+        return new TimetableTrip(id, "route", "train-" + id, stations, times, times);
+    }
+}
@@ -1,3 +1,28 @@
 package net.rushhourgame.models.event;
 
-public class Event {}
+import lombok.Data;
+
+/**
+ * ドメインイベントを表すクラス。
+ * イベントバスのリングバッファに事前に確保され、発行のたびに上書きして再利用される。
+ * 購読者は受け取ったインスタンスを保持せず、必要な値はその場で読み出すこと。
+ */
+@Data
+public class Event {
+    private EventType type; // イベント種別
+    private long tick; // 発生したティック番号
+    private int subject; // 対象の添字（種別ごとの意味は EventType を参照）
+    private int target; // 相手の添字（使わない種別では -1）
+    private double value; // 種別ごとの数値
+
+    /**
+     * すべての値を上書きする
+     */
+    public void set(EventType type, long tick, int subject, int target, double value) {
+        this.type = type;
+        this.tick = tick;
+        this.subject = subject;
+        this.target = target;
+        this.value = value;
+    }
+}
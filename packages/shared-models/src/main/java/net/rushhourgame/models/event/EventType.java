@@ -0,0 +1,64 @@
+package net.rushhourgame.models.event;
+
+/**
+ * シミュレーション内のドメインイベントの種別を表すEnum
+ * 対象（subject）・相手（target）はシミュレーション内の添字、値（value）は種別ごとの数値を表す。
+ */
+public enum EventType {
+    /**
+     * 電車が次の線路に進入した - subject: 電車, target: 進入した線路, value: 速度（m/s）
+     */
+    TRAIN_ENTERED_TRACK("線路進入"),
+
+    /**
+     * 電車が終端に到着して停車した - subject: 電車, target: 線路
+     */
+    TRAIN_ARRIVED("到着"),
+
+    /**
+     * 進入を拒否され信号待ちになった（妨げている電車が変わった場合も含む） - subject: 電車, target: 妨げている電車
+     */
+    TRAIN_BLOCKED("信号待ち"),
+
+    /**
+     * 信号待ちが解消した - subject: 電車
+     */
+    TRAIN_UNBLOCKED("信号待ち解消"),
+
+    /**
+     * 閉塞区間の線路を予約した - subject: 電車, target: 線路
+     */
+    BLOCK_RESERVED("閉塞予約"),
+
+    /**
+     * 閉塞区間の線路の予約を解放した - subject: 電車, target: 線路
+     */
+    BLOCK_RELEASED("閉塞解放"),
+
+    /**
+     * 駅のプラットフォームが満員になった - subject: 駅, value: プラットフォームの人数
+     */
+    STATION_OVERCROWDED("駅混雑"),
+
+    /**
+     * 駅の満員が解消した - subject: 駅, value: プラットフォームの人数
+     */
+    STATION_RELIEVED("駅混雑解消");
+
+    private final String displayName;
+
+    EventType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * 種別の集合を表すビットマスクでのビット
+     */
+    public long mask() {
+        return 1L << ordinal();
+    }
+}